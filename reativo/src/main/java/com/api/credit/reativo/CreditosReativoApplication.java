@@ -0,0 +1,13 @@
+package com.api.credit.reativo;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication(scanBasePackages = {"com.api.credit.reativo", "com.api.credit.exception"})
+public class CreditosReativoApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(CreditosReativoApplication.class, args);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.api.credit.reativo.config;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.ConsultaEventoSerializer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaReativoConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    // Envios aguardando confirmação do broker antes de o sender segurar novos
+    @Value("${app.kafka.consultas.max-em-voo:1024}")
+    private int maxEmVoo;
+
+    /**
+     * Os eventos de consulta saem sempre no formato binário de
+     * {@link ConsultaEventoSerializer}, que o consumidor da API MVC já
+     * reconhece pelo byte mágico em qualquer {@code app.kafka.consultas.formato}.
+     * O produtor só é criado no primeiro envio.
+     */
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, ConsultaEvento> consultaEventoSender() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "snappy");
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+
+        SenderOptions<String, ConsultaEvento> opcoes = SenderOptions.<String, ConsultaEvento>create(configProps)
+                .withKeySerializer(new StringSerializer())
+                .withValueSerializer(new ConsultaEventoSerializer())
+                .maxInFlight(maxEmVoo);
+        return KafkaSender.create(opcoes);
+    }
+}
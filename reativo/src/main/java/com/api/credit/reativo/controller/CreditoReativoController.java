@@ -0,0 +1,43 @@
+package com.api.credit.reativo.controller;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.reativo.service.CreditoReativoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Mesmas rotas de consulta do {@code CreditoController}, com o mesmo JSON de
+ * resposta e de erro ({@code GlobalExceptionHandler}).
+ */
+@RestController
+@RequestMapping("/api/creditos")
+@CrossOrigin(origins = "*")
+public class CreditoReativoController {
+
+    static final String USUARIO_ANONIMO = "anonimo";
+
+    @Autowired
+    private CreditoReativoService creditoService;
+
+    @GetMapping("/{numeroNfse}")
+    public Mono<ResponseEntity<List<CreditoDTO>>> buscarPorNfse(
+            @PathVariable String numeroNfse,
+            @RequestHeader(value = "${app.auditoria.cabecalho-usuario:X-Usuario}", required = false) String usuario) {
+        return creditoService.buscarNumeroNfse(numeroNfse, usuario(usuario)).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/credito/{numeroCredito}")
+    public Mono<ResponseEntity<CreditoDTO>> buscarPorCredito(
+            @PathVariable String numeroCredito,
+            @RequestHeader(value = "${app.auditoria.cabecalho-usuario:X-Usuario}", required = false) String usuario) {
+        return creditoService.buscarPorCredito(numeroCredito, usuario(usuario)).map(ResponseEntity::ok);
+    }
+
+    private static String usuario(String cabecalho) {
+        return cabecalho == null || cabecalho.isBlank() ? USUARIO_ANONIMO : cabecalho.trim();
+    }
+}
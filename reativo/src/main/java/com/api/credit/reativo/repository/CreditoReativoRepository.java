@@ -0,0 +1,55 @@
+package com.api.credit.reativo.repository;
+
+import com.api.credit.dto.CreditoDTO;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Equivalente R2DBC das projeções de {@code CreditoRepository}: monta o
+ * {@link CreditoDTO} direto da linha, sem entidade intermediária.
+ */
+@Repository
+public class CreditoReativoRepository {
+
+    private static final String SQL_PROJECAO_DTO = "SELECT numero_credito, numero_nfse, data_constituicao, "
+            + "valor_issqn, tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, "
+            + "base_calculo FROM credito ";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    public Flux<CreditoDTO> buscarDTOsPorNumeroNfse(String numeroNfse) {
+        return databaseClient.sql(SQL_PROJECAO_DTO + "WHERE numero_nfse = :numeroNfse")
+                .bind("numeroNfse", numeroNfse)
+                .map((row, metadata) -> paraDTO(row))
+                .all();
+    }
+
+    public Mono<CreditoDTO> buscarDTOPorNumeroCredito(String numeroCredito) {
+        return databaseClient.sql(SQL_PROJECAO_DTO + "WHERE numero_credito = :numeroCredito")
+                .bind("numeroCredito", numeroCredito)
+                .map((row, metadata) -> paraDTO(row))
+                .one();
+    }
+
+    private static CreditoDTO paraDTO(Row row) {
+        return new CreditoDTO(
+                row.get("numero_credito", String.class),
+                row.get("numero_nfse", String.class),
+                row.get("data_constituicao", LocalDate.class),
+                row.get("valor_issqn", BigDecimal.class),
+                row.get("tipo_credito", String.class),
+                Boolean.TRUE.equals(row.get("simples_nacional", Boolean.class)) ? "Sim" : "Não",
+                row.get("aliquota", BigDecimal.class),
+                row.get("valor_faturado", BigDecimal.class),
+                row.get("valor_deducao", BigDecimal.class),
+                row.get("base_calculo", BigDecimal.class));
+    }
+}
@@ -0,0 +1,37 @@
+package com.api.credit.reativo.service;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+@Service
+public class ConsultaEventoReativoPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultaEventoReativoPublisher.class);
+
+    @Autowired
+    private KafkaSender<String, ConsultaEvento> kafkaSender;
+
+    @Value("${app.kafka.topics.creditos-consultas:creditos-consultas}")
+    private String topicoConsultas;
+
+    /**
+     * Envia o evento de consulta sem que a resposta espere a confirmação do
+     * broker, como o envio assíncrono da API MVC; falhas são apenas
+     * registradas. O parâmetro consultado é a chave da mensagem.
+     */
+    public void publicar(TipoConsulta tipoConsulta, String parametro, String usuario) {
+        ConsultaEvento evento = ConsultaEvento.individual(tipoConsulta, parametro, usuario);
+        kafkaSender.send(Mono.just(SenderRecord.create(new ProducerRecord<>(topicoConsultas, parametro, evento), parametro)))
+                .subscribe(resultado -> { },
+                        erro -> log.warn("Falha ao publicar consulta {} de {}: {}", tipoConsulta, parametro, erro.getMessage()));
+    }
+}
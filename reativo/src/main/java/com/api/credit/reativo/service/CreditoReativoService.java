@@ -0,0 +1,35 @@
+package com.api.credit.reativo.service;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.exception.NotFoundException;
+import com.api.credit.reativo.repository.CreditoReativoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class CreditoReativoService {
+
+    @Autowired
+    private CreditoReativoRepository creditoRepository;
+
+    @Autowired
+    private ConsultaEventoReativoPublisher eventoPublisher;
+
+    public Mono<List<CreditoDTO>> buscarNumeroNfse(String numeroNfse, String usuario) {
+        return creditoRepository.buscarDTOsPorNumeroNfse(numeroNfse)
+                .collectList()
+                .filter(creditos -> !creditos.isEmpty())
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Nenhum crédito encontrado para a NFS-e: " + numeroNfse)))
+                .doOnNext(creditos -> eventoPublisher.publicar(TipoConsulta.CONSULTA_POR_NFSE, numeroNfse, usuario));
+    }
+
+    public Mono<CreditoDTO> buscarPorCredito(String numeroCredito, String usuario) {
+        return creditoRepository.buscarDTOPorNumeroCredito(numeroCredito)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Crédito não encontrado: " + numeroCredito)))
+                .doOnNext(credito -> eventoPublisher.publicar(TipoConsulta.CONSULTA_POR_CREDITO, numeroCredito, usuario));
+    }
+}
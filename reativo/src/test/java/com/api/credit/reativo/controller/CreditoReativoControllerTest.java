@@ -0,0 +1,79 @@
+package com.api.credit.reativo.controller;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.exception.NotFoundException;
+import com.api.credit.reativo.service.CreditoReativoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(CreditoReativoController.class)
+class CreditoReativoControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private CreditoReativoService creditoService;
+
+    @Test
+    void buscarPorNfse_DeveRetornarMesmoJsonDaApiMvc() {
+        when(creditoService.buscarNumeroNfse("7891011", "anonimo")).thenReturn(Mono.just(List.of(credito())));
+
+        webTestClient.get().uri("/api/creditos/7891011")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].numeroCredito").isEqualTo("123456")
+                .jsonPath("$[0].numeroNfse").isEqualTo("7891011")
+                .jsonPath("$[0].dataConstituicao").isEqualTo("2024-02-25")
+                .jsonPath("$[0].valorIssqn").isEqualTo(1500.75)
+                .jsonPath("$[0].simplesNacional").isEqualTo("Sim");
+    }
+
+    @Test
+    void buscarPorCredito_DeveRepassarUsuarioDoCabecalho() {
+        when(creditoService.buscarPorCredito("123456", "maria")).thenReturn(Mono.just(credito()));
+
+        webTestClient.get().uri("/api/creditos/credito/123456")
+                .header("X-Usuario", " maria ")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.numeroCredito").isEqualTo("123456")
+                .jsonPath("$.tipoCredito").isEqualTo("ISSQN");
+
+        verify(creditoService).buscarPorCredito("123456", "maria");
+    }
+
+    @Test
+    void buscarPorCredito_DeveRetornar404ComCorpoDeErro_QuandoNaoEncontrado() {
+        when(creditoService.buscarPorCredito("999999", "anonimo"))
+                .thenReturn(Mono.error(new NotFoundException("Crédito não encontrado: 999999")));
+
+        webTestClient.get().uri("/api/creditos/credito/999999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.error").isEqualTo("Não encontrado")
+                .jsonPath("$.message").isEqualTo("Crédito não encontrado: 999999");
+    }
+
+    private static CreditoDTO credito() {
+        return new CreditoDTO("123456", "7891011", LocalDate.of(2024, 2, 25), new BigDecimal("1500.75"),
+                "ISSQN", "Sim", new BigDecimal("5.00"), new BigDecimal("30000.00"),
+                new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.api.credit.reativo.repository;
+
+import com.api.credit.dto.CreditoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataR2dbcTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///creditos;MODE=PostgreSQL")
+@Import(CreditoReativoRepository.class)
+class CreditoReativoRepositoryTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private CreditoReativoRepository creditoRepository;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DROP TABLE IF EXISTS credito").then()
+                .then(databaseClient.sql("CREATE TABLE credito (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                        + "numero_credito VARCHAR(50) NOT NULL, numero_nfse VARCHAR(50) NOT NULL, "
+                        + "data_constituicao DATE NOT NULL, valor_issqn DECIMAL(15,2) NOT NULL, "
+                        + "tipo_credito VARCHAR(50) NOT NULL, simples_nacional BOOLEAN NOT NULL, "
+                        + "aliquota DECIMAL(5,2) NOT NULL, valor_faturado DECIMAL(15,2) NOT NULL, "
+                        + "valor_deducao DECIMAL(15,2) NOT NULL, base_calculo DECIMAL(15,2) NOT NULL)").then())
+                .then(databaseClient.sql("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, "
+                        + "valor_issqn, tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, "
+                        + "base_calculo) VALUES "
+                        + "('123456', '7891011', DATE '2024-02-25', 1500.75, 'ISSQN', TRUE, 5.00, 30000.00, 5000.00, 25000.00), "
+                        + "('789012', '7891011', DATE '2024-02-26', 1200.50, 'ISSQN', FALSE, 4.50, 25000.00, 4000.00, 21000.00)")
+                        .then())
+                .block();
+    }
+
+    @Test
+    void buscarDTOsPorNumeroNfse_DeveMapearTodasAsColunas() {
+        StepVerifier.create(creditoRepository.buscarDTOsPorNumeroNfse("7891011").collectList())
+                .assertNext(creditos -> {
+                    assertEquals(2, creditos.size());
+                    CreditoDTO credito = creditos.stream()
+                            .filter(c -> c.getNumeroCredito().equals("123456")).findFirst().orElseThrow();
+                    assertEquals(new CreditoDTO("123456", "7891011", LocalDate.of(2024, 2, 25),
+                            new BigDecimal("1500.75"), "ISSQN", "Sim", new BigDecimal("5.00"),
+                            new BigDecimal("30000.00"), new BigDecimal("5000.00"), new BigDecimal("25000.00")), credito);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void buscarDTOPorNumeroCredito_DeveConverterSimplesNacional() {
+        StepVerifier.create(creditoRepository.buscarDTOPorNumeroCredito("789012"))
+                .assertNext(credito -> assertEquals("Não", credito.getSimplesNacional()))
+                .verifyComplete();
+    }
+
+    @Test
+    void buscarDTOPorNumeroCredito_DeveCompletarVazio_QuandoNaoExistir() {
+        StepVerifier.create(creditoRepository.buscarDTOPorNumeroCredito("999999"))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,82 @@
+package com.api.credit.reativo.service;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.exception.NotFoundException;
+import com.api.credit.reativo.repository.CreditoReativoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoReativoServiceTest {
+
+    @Mock
+    private CreditoReativoRepository creditoRepository;
+
+    @Mock
+    private ConsultaEventoReativoPublisher eventoPublisher;
+
+    @InjectMocks
+    private CreditoReativoService creditoService;
+
+    @Test
+    void buscarNumeroNfse_DevePublicarConsulta_QuandoEncontrarCreditos() {
+        CreditoDTO credito = new CreditoDTO();
+        when(creditoRepository.buscarDTOsPorNumeroNfse("7891011")).thenReturn(Flux.just(credito));
+
+        StepVerifier.create(creditoService.buscarNumeroNfse("7891011", "maria"))
+                .expectNext(List.of(credito))
+                .verifyComplete();
+
+        verify(eventoPublisher).publicar(TipoConsulta.CONSULTA_POR_NFSE, "7891011", "maria");
+    }
+
+    @Test
+    void buscarNumeroNfse_DeveLancarNotFound_QuandoNaoHouverCreditos() {
+        when(creditoRepository.buscarDTOsPorNumeroNfse("0000")).thenReturn(Flux.empty());
+
+        StepVerifier.create(creditoService.buscarNumeroNfse("0000", "maria"))
+                .expectErrorMatches(erro -> erro instanceof NotFoundException
+                        && erro.getMessage().equals("Nenhum crédito encontrado para a NFS-e: 0000"))
+                .verify();
+
+        verify(eventoPublisher, never()).publicar(any(), anyString(), anyString());
+    }
+
+    @Test
+    void buscarPorCredito_DeveLancarNotFound_QuandoNaoEncontrado() {
+        when(creditoRepository.buscarDTOPorNumeroCredito("999999")).thenReturn(Mono.empty());
+
+        StepVerifier.create(creditoService.buscarPorCredito("999999", "maria"))
+                .expectError(NotFoundException.class)
+                .verify();
+
+        verify(eventoPublisher, never()).publicar(any(), anyString(), anyString());
+    }
+
+    @Test
+    void buscarPorCredito_DevePublicarConsulta_QuandoEncontrado() {
+        CreditoDTO credito = new CreditoDTO();
+        when(creditoRepository.buscarDTOPorNumeroCredito("123456")).thenReturn(Mono.just(credito));
+
+        StepVerifier.create(creditoService.buscarPorCredito("123456", "maria"))
+                .expectNext(credito)
+                .verifyComplete();
+
+        verify(eventoPublisher).publicar(TipoConsulta.CONSULTA_POR_CREDITO, "123456", "maria");
+    }
+}
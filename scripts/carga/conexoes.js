@@ -0,0 +1,46 @@
+// Teste de carga por conexões simultâneas (k6 - https://k6.io): compara a API
+// MVC (8080) e a variante reativa (8081) com o mesmo número de clientes
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e CONEXOES=1000 scripts/carga/conexoes.js
+//   k6 run -e BASE_URL=http://localhost:8081 -e CONEXOES=1000 scripts/carga/conexoes.js
+//
+// Cada VU mantém uma conexão keep-alive e repete consultas sem pausa: com mais
+// conexões que threads de atendimento, a diferença aparece na latência e nos
+// erros (timeouts, conexões recusadas), não só na vazão. Ainda sem resultados
+// medidos: a comparação não foi executada contra a pilha completa.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const NFSES = (__ENV.NFSES || '7891011,7891012,7891013').split(',');
+const CREDITOS = (__ENV.CREDITOS || '123456,789012,654321').split(',');
+const CONEXOES = Number(__ENV.CONEXOES || 1000);
+
+export const options = {
+    scenarios: {
+        conexoes: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: __ENV.SUBIDA || '30s', target: CONEXOES },
+                { duration: __ENV.DURACAO || '2m', target: CONEXOES },
+                { duration: '10s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export default function () {
+    const parametros = { timeout: __ENV.TIMEOUT || '10s' };
+    const resposta = Math.random() < 0.7
+        ? http.get(`${BASE_URL}/api/creditos/${NFSES[Math.floor(Math.random() * NFSES.length)]}`,
+            Object.assign({ tags: { endpoint: 'nfse' } }, parametros))
+        : http.get(`${BASE_URL}/api/creditos/credito/${CREDITOS[Math.floor(Math.random() * CREDITOS.length)]}`,
+            Object.assign({ tags: { endpoint: 'credito' } }, parametros));
+    check(resposta, { 'status 200': (r) => r.status === 200 });
+}
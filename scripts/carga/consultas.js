@@ -0,0 +1,38 @@
+// Teste de carga das consultas de crédito (k6 - https://k6.io)
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e TAXA=2000 scripts/carga/consultas.js
+//
+// Taxa de chegada constante: a vazão oferecida é a mesma nos dois modos e o
+// que muda é quantas requisições são atendidas e com que latência.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const NFSES = (__ENV.NFSES || '7891011,7891012,7891013').split(',');
+const CREDITOS = (__ENV.CREDITOS || '123456,789012,654321').split(',');
+
+export const options = {
+    scenarios: {
+        consultas: {
+            executor: 'constant-arrival-rate',
+            rate: Number(__ENV.TAXA || 1000),
+            timeUnit: '1s',
+            duration: __ENV.DURACAO || '2m',
+            preAllocatedVUs: Number(__ENV.VUS || 500),
+            maxVUs: Number(__ENV.MAX_VUS || 2000),
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export default function () {
+    const resposta = Math.random() < 0.7
+        ? http.get(`${BASE_URL}/api/creditos/${NFSES[Math.floor(Math.random() * NFSES.length)]}`,
+            { tags: { endpoint: 'nfse' } })
+        : http.get(`${BASE_URL}/api/creditos/credito/${CREDITOS[Math.floor(Math.random() * CREDITOS.length)]}`,
+            { tags: { endpoint: 'credito' } });
+    check(resposta, { 'status 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,80 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.ConsultaEventoDeserializer;
+import com.api.credit.evento.ConsultaEventoSerializer;
+import com.api.credit.evento.TipoConsulta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificação do evento de consulta no formato JSON atual versus o formato
+ * binário ({@code app.kafka.consultas.formato=binario}). O tamanho de cada
+ * formato é impresso no setup; alocação por operação vem do {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultaEventoSerializacaoBenchmark {
+
+    private static final String TOPICO = "creditos-consultas";
+
+    private JsonSerializer<Object> jsonSerializer;
+    private JsonDeserializer<Map> jsonDeserializer;
+    private ConsultaEventoSerializer binarioSerializer;
+    private ConsultaEventoDeserializer binarioDeserializer;
+
+    private ConsultaEvento evento;
+    private byte[] json;
+    private byte[] binario;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer = new JsonSerializer<>().noTypeInfo();
+        jsonDeserializer = new JsonDeserializer<>(Map.class, false);
+        jsonDeserializer.addTrustedPackages("*");
+        binarioSerializer = new ConsultaEventoSerializer();
+        binarioDeserializer = new ConsultaEventoDeserializer();
+
+        evento = ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_NFSE, "7891011", "sistema");
+        json = jsonSerializer.serialize(TOPICO, evento);
+        binario = binarioSerializer.serialize(TOPICO, evento);
+        System.out.printf("%nbytes por evento: json=%d binario=%d%n", json.length, binario.length);
+    }
+
+    @Benchmark
+    public byte[] serializarJson() {
+        return jsonSerializer.serialize(TOPICO, evento);
+    }
+
+    @Benchmark
+    public byte[] serializarBinario() {
+        return binarioSerializer.serialize(TOPICO, evento);
+    }
+
+    @Benchmark
+    public Object desserializarJson() {
+        return jsonDeserializer.deserialize(TOPICO, json);
+    }
+
+    @Benchmark
+    public Object desserializarBinario() {
+        return binarioDeserializer.deserialize(TOPICO, binario);
+    }
+}
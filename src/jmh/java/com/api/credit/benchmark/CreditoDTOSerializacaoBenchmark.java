@@ -0,0 +1,49 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.dto.CreditoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+/**
+ * Renderização JSON da resposta com a mesma configuração de ObjectMapper do
+ * Spring MVC (JavaTimeModule para o {@code @JsonFormat} de LocalDate).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoDTOSerializacaoBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int tamanho;
+
+    private ObjectWriter writer;
+    private List<CreditoDTO> creditos;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        creditos = CreditosSinteticos.dtos(tamanho, "NF001");
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws JsonProcessingException {
+        return writer.writeValueAsBytes(creditos);
+    }
+}
@@ -0,0 +1,43 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.entity.Credito;
+import com.api.credit.mapper.CreditoMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoMapperBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int tamanho;
+
+    private CreditoMapper creditoMapper;
+    private List<Credito> creditos;
+
+    @Setup
+    public void setUp() {
+        creditoMapper = Mappers.getMapper(CreditoMapper.class);
+        creditos = CreditosSinteticos.entidades(tamanho, "NF001");
+    }
+
+    @Benchmark
+    public List<CreditoDTO> toDTOList() {
+        return creditoMapper.toDTOList(creditos);
+    }
+}
@@ -0,0 +1,122 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.config.CacheConfig;
+import com.api.credit.dto.ConsultaLoteRequestDTO;
+import com.api.credit.dto.ConsultaLoteResponseDTO;
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.entity.Credito;
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.mapper.CreditoMapper;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.api.credit.repository.CreditoRepository;
+import com.api.credit.service.CreditoService;
+import com.api.credit.service.KafkaEventPublisherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Caminhos do CreditoService sem banco nem Kafka: consulta por NFS-e servida
+ * pelo cache e consulta em lote com cache desligado (mapeamento + agrupamento
+ * de todas as chaves a cada operação).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditoServiceBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int tamanho;
+
+    private CreditoService servicoComCache;
+    private CreditoService servicoSemCache;
+    private ConsultaLoteRequestDTO requisicaoLote;
+
+    @Setup
+    public void setUp() {
+        // stubOnly: o mock não acumula o histórico de invocações durante a medição
+        CreditoRepository repository = Mockito.mock(CreditoRepository.class, withSettings().stubOnly());
+        // Publisher sem efeito: um mock do Mockito custaria mais que a própria consulta em cache
+        KafkaEventPublisherService publisher = new KafkaEventPublisherService() {
+            @Override
+            public void publishConsultaEvent(TipoConsulta tipoConsulta, String parametro) {
+            }
+
+            @Override
+            public void publishConsultaLoteEvent(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+            }
+        };
+        CreditoMapper mapper = Mappers.getMapper(CreditoMapper.class);
+
+        List<CreditoDTO> dtos = CreditosSinteticos.dtos(tamanho, "NF001");
+        List<Credito> entidades = CreditosSinteticos.entidades(tamanho, "NF001");
+        when(repository.buscarDTOsPorNumeroNfse("NF001")).thenReturn(dtos);
+        when(repository.findByNumeroCreditoIn(anyCollection())).thenReturn(entidades);
+
+        servicoComCache = criar(repository, mapper, publisher,
+                new CreditoCache(new CaffeineCacheManager(CacheConfig.CACHE_POR_CREDITO, CacheConfig.CACHE_POR_NFSE,
+                        CacheConfig.CACHE_AUSENTES_POR_CREDITO, CacheConfig.CACHE_AUSENTES_POR_NFSE,
+                        CacheConfig.CACHE_RESPOSTAS_POR_CREDITO, CacheConfig.CACHE_RESPOSTAS_POR_NFSE), null,
+                        new SimpleMeterRegistry()));
+        servicoComCache.buscarNumeroNfse("NF001");
+
+        servicoSemCache = criar(repository, mapper, publisher, new CreditoCache(new NoOpCacheManager(), null, new SimpleMeterRegistry()));
+
+        List<String> numerosCredito = new ArrayList<>(tamanho);
+        for (Credito credito : entidades) {
+            numerosCredito.add(credito.getNumeroCredito());
+        }
+        requisicaoLote = new ConsultaLoteRequestDTO(List.of(), numerosCredito);
+    }
+
+    @Benchmark
+    public List<CreditoDTO> buscarNumeroNfseEmCache() {
+        return servicoComCache.buscarNumeroNfse("NF001");
+    }
+
+    @Benchmark
+    public ConsultaLoteResponseDTO buscarEmLote() {
+        return servicoSemCache.buscarEmLote(requisicaoLote);
+    }
+
+    private static CreditoService criar(CreditoRepository repository, CreditoMapper mapper,
+                                        KafkaEventPublisherService publisher, CreditoCache cache) {
+        CreditoService service = new CreditoService();
+        ReflectionTestUtils.setField(service, "creditoRepository", repository);
+        ReflectionTestUtils.setField(service, "creditoMapper", mapper);
+        ReflectionTestUtils.setField(service, "kafkaEventPS", publisher);
+        ReflectionTestUtils.setField(service, "creditoCache", cache);
+        // Desabilitado: nunca montado, toda chave pode existir
+        ReflectionTestUtils.setField(service, "filtroCreditos",
+                new FiltroCreditos(null, null, new SimpleMeterRegistry(), false, 1, 0.01, 1));
+        ReflectionTestUtils.setField(service, "creditosEmMemoria",
+                new CreditosEmMemoria(null, null, new SimpleMeterRegistry(), false, 1, "", 0, 24));
+        ReflectionTestUtils.setField(service, "maxItensLote", Integer.MAX_VALUE);
+        return service;
+    }
+}
@@ -0,0 +1,147 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.memoria.CreditosEmMemoria;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas no modo em memória comparadas a um {@code HashMap} de
+ * {@link CreditoDTO} (o que um cache local guarda). Com {@code -prof gc} o
+ * {@code gc.alloc.rate.norm} mostra o que cada consulta materializa. Com
+ * {@code origem=snapshot} as consultas leem o arquivo mapeado por
+ * {@code SnapshotCreditos}; o tempo de cada carga é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditosEmMemoriaBenchmark {
+
+    private static final int CREDITOS_POR_NFSE = 4;
+
+    @Param({"100000", "1000000"})
+    private int linhas;
+
+    // heap: carga completa do banco; snapshot: arquivo gravado por uma carga anterior, mapeado fora do heap
+    @Param({"heap", "snapshot"})
+    private String origem;
+
+    private CreditosEmMemoria memoria;
+    private Map<String, CreditoDTO> mapaPorCredito;
+    private String[] numerosCredito;
+    private String[] numerosNfse;
+    private int proxima;
+    private Path diretorio;
+
+    @Setup
+    public void preparar() throws IOException {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE credito (id BIGINT PRIMARY KEY, numero_credito VARCHAR(50), "
+                + "numero_nfse VARCHAR(50), data_constituicao DATE, valor_issqn DECIMAL(15,2), "
+                + "tipo_credito VARCHAR(50), simples_nacional BOOLEAN, aliquota DECIMAL(5,2), "
+                + "valor_faturado DECIMAL(15,2), valor_deducao DECIMAL(15,2), base_calculo DECIMAL(15,2))");
+
+        mapaPorCredito = new HashMap<>();
+        numerosCredito = new String[linhas];
+        numerosNfse = new String[linhas / CREDITOS_POR_NFSE];
+        List<CreditoDTO> creditos = CreditosSinteticos.dtos(CREDITOS_POR_NFSE, "");
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < linhas; i++) {
+            CreditoDTO modelo = creditos.get(i % CREDITOS_POR_NFSE);
+            CreditoDTO credito = new CreditoDTO(CreditosSinteticos.numeroCredito(i), "NF" + (i / CREDITOS_POR_NFSE),
+                    modelo.getDataConstituicao(), modelo.getValorIssqn(), modelo.getTipoCredito(),
+                    modelo.getSimplesNacional(), modelo.getAliquota(), modelo.getValorFaturado(),
+                    modelo.getValorDeducao(), modelo.getBaseCalculo());
+            lote.add(new Object[] {i + 1, credito.getNumeroCredito(), credito.getNumeroNfse(),
+                    credito.getDataConstituicao(), credito.getValorIssqn(), credito.getTipoCredito(),
+                    "Sim".equals(credito.getSimplesNacional()), credito.getAliquota(), credito.getValorFaturado(),
+                    credito.getValorDeducao(), credito.getBaseCalculo()});
+            if (lote.size() == 10_000 || i == linhas - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO credito VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", lote);
+                lote.clear();
+            }
+            mapaPorCredito.put(credito.getNumeroCredito(), credito);
+            numerosCredito[i] = credito.getNumeroCredito();
+            numerosNfse[i / CREDITOS_POR_NFSE] = credito.getNumeroNfse();
+        }
+
+        diretorio = Files.createTempDirectory("creditos-snapshot");
+        String arquivo = "snapshot".equals(origem) ? diretorio.resolve("creditos.snap").toString() : "";
+        if (!arquivo.isEmpty()) {
+            // Primeira subida: carga completa e gravação do arquivo
+            carregar(jdbcTemplate, dataSource, arquivo);
+        }
+        memoria = carregar(jdbcTemplate, dataSource, arquivo);
+    }
+
+    @TearDown
+    public void limpar() throws IOException {
+        try (var arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(arquivo);
+            }
+        }
+    }
+
+    @Benchmark
+    public CreditoDTO memoriaPorCredito() {
+        return memoria.consulta().buscarPorCredito(numerosCredito[proxima()]);
+    }
+
+    @Benchmark
+    public List<CreditoDTO> memoriaPorNfse() {
+        return memoria.consulta().buscarPorNfse(numerosNfse[proxima() % numerosNfse.length]);
+    }
+
+    @Benchmark
+    public CreditoDTO mapaPorCredito() {
+        return mapaPorCredito.get(numerosCredito[proxima()]);
+    }
+
+    private CreditosEmMemoria carregar(JdbcTemplate jdbcTemplate, DriverManagerDataSource dataSource,
+                                       String arquivo) {
+        CreditosEmMemoria carregada = new CreditosEmMemoria(jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), true, 1000, arquivo,
+                Long.MAX_VALUE, Long.MAX_VALUE / 3_600_000);
+        long inicio = System.nanoTime();
+        carregada.run(null);
+        System.out.printf("%nCarga (%s, %d linhas): %d ms%n", origem, linhas, (System.nanoTime() - inicio) / 1_000_000);
+        return carregada;
+    }
+
+    // Chaves em sequência embaralhada para não favorecer o cache da CPU
+    private int proxima() {
+        proxima = (proxima + 7_919) % linhas;
+        return proxima;
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.entity.Credito;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Massa de dados sintética e determinística para os benchmarks.
+ */
+final class CreditosSinteticos {
+
+    private static final LocalDate DATA_BASE = LocalDate.of(2024, 1, 1);
+
+    private CreditosSinteticos() {
+    }
+
+    static List<Credito> entidades(int quantidade, String numeroNfse) {
+        List<Credito> creditos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Credito credito = new Credito();
+            credito.setId((long) i);
+            credito.setNumeroCredito(numeroCredito(i));
+            credito.setNumeroNfse(numeroNfse);
+            credito.setDataConstituicao(DATA_BASE.plusDays(i % 365));
+            credito.setValorIssqn(BigDecimal.valueOf(150_075 + i, 2));
+            credito.setTipoCredito(i % 3 == 0 ? "Outros" : "ISSQN");
+            credito.setSimplesNacional(i % 2 == 0);
+            credito.setAliquota(BigDecimal.valueOf(500, 2));
+            credito.setValorFaturado(BigDecimal.valueOf(3_000_000 + i, 2));
+            credito.setValorDeducao(BigDecimal.valueOf(500_000, 2));
+            credito.setBaseCalculo(BigDecimal.valueOf(2_500_000 + i, 2));
+            creditos.add(credito);
+        }
+        return creditos;
+    }
+
+    static List<CreditoDTO> dtos(int quantidade, String numeroNfse) {
+        List<CreditoDTO> creditos = new ArrayList<>(quantidade);
+        for (Credito credito : entidades(quantidade, numeroNfse)) {
+            creditos.add(new CreditoDTO(credito.getNumeroCredito(), credito.getNumeroNfse(),
+                    credito.getDataConstituicao(), credito.getValorIssqn(), credito.getTipoCredito(),
+                    credito.isSimplesNacional() ? "Sim" : "Não", credito.getAliquota(),
+                    credito.getValorFaturado(), credito.getValorDeducao(), credito.getBaseCalculo()));
+        }
+        return creditos;
+    }
+
+    static String numeroCredito(int i) {
+        return "CR" + (100_000 + i);
+    }
+}
@@ -0,0 +1,104 @@
+package com.api.credit.benchmark;
+
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.service.ConsultaEventDispatcher;
+import com.api.credit.service.KafkaEventPublisherService;
+import com.api.credit.service.PoliticaTransbordo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custo, na thread da requisição, de montar e enfileirar os eventos de consulta.
+ * O dispatcher drena a fila para um KafkaTemplate que não envia nada: o evento
+ * é entregue ao Blackhole para isolar o custo do I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KafkaEventPublisherBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int tamanho;
+
+    private ConsultaEventDispatcher dispatcher;
+    private KafkaEventPublisherService publisher;
+    private List<String> numerosCredito;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        dispatcher = new ConsultaEventDispatcher(new TemplateSemEnvio(), new SimpleMeterRegistry(),
+                10_000, 500, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO, 50, 10, 0.8);
+        dispatcher.start();
+        publisher = new KafkaEventPublisherService();
+        ReflectionTestUtils.setField(publisher, "dispatcher", dispatcher);
+
+        numerosCredito = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            numerosCredito.add(CreditosSinteticos.numeroCredito(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dispatcher.stop();
+    }
+
+    @Benchmark
+    public void publishConsultaEvent() {
+        publisher.publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, "NF001");
+    }
+
+    @Benchmark
+    public void publishConsultaLoteEvent() {
+        publisher.publishConsultaLoteEvent(List.of(), numerosCredito);
+    }
+
+    private static final SettableListenableFuture<SendResult<String, Object>> ENVIADO =
+            new SettableListenableFuture<>();
+
+    static {
+        ENVIADO.set(null);
+    }
+
+    private class TemplateSemEnvio extends KafkaTemplate<String, Object> {
+
+        TemplateSemEnvio() {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+        }
+
+        @Override
+        public ListenableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+            blackhole.consume(data);
+            return ENVIADO;
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
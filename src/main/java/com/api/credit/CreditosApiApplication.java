@@ -2,14 +2,20 @@ package com.api.credit;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableJpaRepositories(basePackages = "com.api.credit.repository")
+@EnableScheduling
 public class CreditosApiApplication {
 
+    // Passos da subida guardados para o RelatorioInicializacao e o /actuator/startup
+    private static final int PASSOS_INICIALIZACAO = 10_000;
+
     public static void main(String[] args) {
-        SpringApplication.run(CreditosApiApplication.class, args);
+        SpringApplication aplicacao = new SpringApplication(CreditosApiApplication.class);
+        aplicacao.setApplicationStartup(new BufferingApplicationStartup(PASSOS_INICIALIZACAO));
+        aplicacao.run(args);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.api.credit.auditoria;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra cada requisição da API no {@link ColetorAuditoria}, sem nenhuma
+ * chamada ao Kafka na thread da requisição.
+ * <p>
+ * O usuário vem do principal autenticado pelo container. A API não autentica,
+ * então o cabeçalho {@code app.auditoria.cabecalho-usuario} só é aceito como
+ * usuário com {@code app.auditoria.cabecalho-confiavel=true}, quando um gateway
+ * remove o valor enviado pelo cliente e define o seu; sem isso qualquer
+ * cliente poderia se passar por outro, e o usuário fica {@code anonimo}. O
+ * valor recebido é sempre guardado à parte, em {@code usuarioDeclarado}.
+ * Em requisições assíncronas (exportação) o {@code preHandle} roda de novo no
+ * despacho final; os atributos já definidos são mantidos e o registro é feito
+ * uma única vez, ao término.
+ */
+@Component
+@ConditionalOnProperty(name = "app.auditoria.habilitado", havingValue = "true", matchIfMissing = true)
+public class AuditoriaInterceptor implements HandlerInterceptor {
+
+    static final String USUARIO_ANONIMO = "anonimo";
+    static final String CABECALHO_ID_REQUISICAO = "X-Request-Id";
+    private static final int TAMANHO_MAXIMO_CAMPO = 200;
+
+    private static final String ATRIBUTO_INICIO = AuditoriaInterceptor.class.getName() + ".inicio";
+    private static final String ATRIBUTO_TIMESTAMP = AuditoriaInterceptor.class.getName() + ".timestamp";
+    private static final String ATRIBUTO_ID = AuditoriaInterceptor.class.getName() + ".id";
+
+    @Autowired
+    private ColetorAuditoria coletorAuditoria;
+
+    @Value("${app.auditoria.cabecalho-usuario:X-Usuario}")
+    private String cabecalhoUsuario;
+
+    @Value("${app.auditoria.cabecalho-confiavel:false}")
+    private boolean cabecalhoConfiavel;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ATRIBUTO_INICIO) == null) {
+            request.setAttribute(ATRIBUTO_INICIO, System.nanoTime());
+            request.setAttribute(ATRIBUTO_TIMESTAMP, LocalDateTime.now().toString());
+            String id = request.getHeader(CABECALHO_ID_REQUISICAO);
+            request.setAttribute(ATRIBUTO_ID, id == null || id.isBlank() ? UUID.randomUUID().toString() : limitar(id));
+            request.setAttribute(ContextoAuditoria.ATRIBUTO_USUARIO, usuario(request));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long inicio = (Long) request.getAttribute(ATRIBUTO_INICIO);
+        if (inicio == null) {
+            return;
+        }
+        List<RegistroAuditoria.ConsultaAuditada> consultas = ContextoAuditoria.consultas(request);
+        coletorAuditoria.registrar(new RegistroAuditoria(
+                (String) request.getAttribute(ATRIBUTO_ID),
+                (String) request.getAttribute(ATRIBUTO_TIMESTAMP),
+                (String) request.getAttribute(ContextoAuditoria.ATRIBUTO_USUARIO),
+                usuarioDeclarado(request),
+                request.getMethod(),
+                request.getRequestURI(),
+                limitar(request.getQueryString()),
+                response.getStatus(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio),
+                ip(request),
+                limitar(request.getHeader("User-Agent")),
+                List.copyOf(consultas)));
+    }
+
+    private String usuario(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null) {
+            return limitar(principal.getName());
+        }
+        String declarado = cabecalhoConfiavel ? usuarioDeclarado(request) : null;
+        return declarado == null ? USUARIO_ANONIMO : declarado;
+    }
+
+    private String usuarioDeclarado(HttpServletRequest request) {
+        String usuario = request.getHeader(cabecalhoUsuario);
+        return usuario == null || usuario.isBlank() ? null : limitar(usuario.trim());
+    }
+
+    // Primeiro endereço de X-Forwarded-For: o cliente original atrás do proxy
+    private static String ip(HttpServletRequest request) {
+        String encaminhado = request.getHeader("X-Forwarded-For");
+        if (encaminhado != null && !encaminhado.isBlank()) {
+            int virgula = encaminhado.indexOf(',');
+            return limitar((virgula < 0 ? encaminhado : encaminhado.substring(0, virgula)).trim());
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static String limitar(String valor) {
+        return valor == null || valor.length() <= TAMANHO_MAXIMO_CAMPO ? valor : valor.substring(0, TAMANHO_MAXIMO_CAMPO);
+    }
+}
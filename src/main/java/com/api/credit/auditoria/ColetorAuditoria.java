@@ -0,0 +1,305 @@
+package com.api.credit.auditoria;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Agrupa os registros de auditoria e publica cada grupo como uma única
+ * mensagem em {@code creditos-auditoria}.
+ * <p>
+ * Um lote é fechado ao atingir {@code tamanho-lote} registros, {@code bytes-lote}
+ * bytes de JSON (passando do limite em no máximo um registro) ou
+ * {@code intervalo-ms} depois do primeiro registro. O limite em bytes fica
+ * abaixo do {@code max.request.size} do produtor da auditoria.
+ * <p>
+ * Ao contrário dos eventos de consulta, nada é descartado por falha do broker:
+ * o lote fechado é reenviado, com o mesmo id, até ser confirmado, enquanto os
+ * novos registros aguardam na fila. A fila só descarta (com log de erro) se
+ * ficar cheia por mais de {@code espera-registro-ms}. A exceção são as recusas
+ * que uma nova tentativa não resolve (lote grande demais ou que não serializa):
+ * o lote é dividido ao meio, com ids derivados do original, até isolar o
+ * registro recusado, que vai inteiro para o log de erro e para
+ * {@code creditos.auditoria.registros{resultado=rejeitado}}.
+ * <p>
+ * Para o encerramento o componente para depois do servidor web (fase menor),
+ * então as últimas requisições já estão na fila; ela é esvaziada e confirmada
+ * antes do produtor ser fechado, em até {@code encerramento-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.auditoria.habilitado", havingValue = "true", matchIfMissing = true)
+public class ColetorAuditoria implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ColetorAuditoria.class);
+
+    // Abaixo das fases do servidor web (Integer.MAX_VALUE e MAX_VALUE - 1)
+    static final int FASE = SmartLifecycle.DEFAULT_PHASE - 1024;
+    private static final long ESPERA_INICIAL_MS = 100;
+    private static final long ESPERA_MAXIMA_MS = 5000;
+    // Mesma configuração do JsonSerializer do produtor, só para medir os registros
+    private static final ObjectWriter JSON = JacksonUtils.enhancedObjectMapper().writer();
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BlockingQueue<RegistroAuditoria> fila;
+    private final String topico;
+    private final String instancia;
+    private final int tamanhoLote;
+    private final long bytesLote;
+    private final long intervaloMs;
+    private final long esperaEnvioMs;
+    private final long esperaRegistroMs;
+    private final long encerramentoMs;
+
+    private final Counter aceitos;
+    private final Counter descartados;
+    private final Counter rejeitados;
+    private final Counter lotesEnviados;
+    private final Counter registrosEnviados;
+    private final Counter falhas;
+
+    private volatile boolean executando;
+    private volatile long prazoEncerramento;
+    private Thread remetente;
+
+    public ColetorAuditoria(@Qualifier("auditoriaKafkaTemplate") KafkaTemplate<String, Object> kafkaTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.kafka.topics.creditos-auditoria:creditos-auditoria}") String topico,
+                            @Value("${HOSTNAME:${spring.application.name:creditos-api}}") String instancia,
+                            @Value("${app.auditoria.capacidade:50000}") int capacidade,
+                            @Value("${app.auditoria.tamanho-lote:500}") int tamanhoLote,
+                            @Value("${app.auditoria.bytes-lote:524288}") long bytesLote,
+                            @Value("${app.auditoria.intervalo-ms:1000}") long intervaloMs,
+                            @Value("${app.auditoria.espera-envio-ms:10000}") long esperaEnvioMs,
+                            @Value("${app.auditoria.espera-registro-ms:100}") long esperaRegistroMs,
+                            @Value("${app.auditoria.encerramento-ms:30000}") long encerramentoMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.topico = topico;
+        this.instancia = instancia;
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.bytesLote = Math.max(1, bytesLote);
+        this.intervaloMs = intervaloMs;
+        this.esperaEnvioMs = esperaEnvioMs;
+        this.esperaRegistroMs = esperaRegistroMs;
+        this.encerramentoMs = encerramentoMs;
+
+        this.aceitos = Counter.builder("creditos.auditoria.registros")
+                .tag("resultado", "aceito").register(meterRegistry);
+        this.descartados = Counter.builder("creditos.auditoria.registros")
+                .tag("resultado", "descartado").register(meterRegistry);
+        this.rejeitados = Counter.builder("creditos.auditoria.registros")
+                .tag("resultado", "rejeitado").register(meterRegistry);
+        this.lotesEnviados = Counter.builder("creditos.auditoria.lotes.enviados").register(meterRegistry);
+        this.registrosEnviados = Counter.builder("creditos.auditoria.registros.enviados").register(meterRegistry);
+        this.falhas = Counter.builder("creditos.auditoria.falhas")
+                .description("Tentativas de envio de lote de auditoria que falharam")
+                .register(meterRegistry);
+        Gauge.builder("creditos.auditoria.fila", fila, BlockingQueue::size)
+                .description("Registros de auditoria aguardando envio")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enfileira o registro; espera no máximo {@code espera-registro-ms} por
+     * espaço na fila.
+     *
+     * @return {@code false} se o registro foi descartado
+     */
+    public boolean registrar(RegistroAuditoria registro) {
+        try {
+            if (fila.offer(registro, esperaRegistroMs, TimeUnit.MILLISECONDS)) {
+                aceitos.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        descartados.increment();
+        log.error("Fila de auditoria cheia; registro descartado: {} {} {} usuario={}", registro.idRequisicao(),
+                registro.metodo(), registro.caminho(), registro.usuario());
+        return false;
+    }
+
+    int tamanhoFila() {
+        return fila.size();
+    }
+
+    private void drenar() {
+        List<RegistroAuditoria> lote = new ArrayList<>(tamanhoLote);
+        long bytesNoLote = 0;
+        // Lote fechado à frente; as metades de um lote recusado entram no início
+        Deque<LoteAuditoria> fechados = new ArrayDeque<>();
+        long prazoLote = 0;
+        long espera = ESPERA_INICIAL_MS;
+        while (executando || !fechados.isEmpty() || !lote.isEmpty() || !fila.isEmpty()) {
+            try {
+                if (!fechados.isEmpty()) {
+                    LoteAuditoria fechado = fechados.peekFirst();
+                    Envio envio = publicar(fechado);
+                    if (envio == Envio.CONFIRMADO) {
+                        fechados.removeFirst();
+                        espera = ESPERA_INICIAL_MS;
+                    } else if (envio == Envio.RECUSADO) {
+                        fechados.removeFirst();
+                        dividir(fechado).forEach(fechados::addFirst);
+                    } else if (!executando && System.currentTimeMillis() >= prazoEncerramento) {
+                        fechados.forEach(pendente -> lote.addAll(pendente.registros()));
+                        break;
+                    } else {
+                        Thread.sleep(espera);
+                        espera = Math.min(espera * 2, ESPERA_MAXIMA_MS);
+                    }
+                    continue;
+                }
+
+                long agora = System.currentTimeMillis();
+                long restante = lote.isEmpty() ? 100 : Math.min(100, Math.max(0, prazoLote - agora));
+                RegistroAuditoria registro = fila.poll(restante, TimeUnit.MILLISECONDS);
+                while (registro != null) {
+                    if (lote.isEmpty()) {
+                        prazoLote = System.currentTimeMillis() + intervaloMs;
+                    }
+                    lote.add(registro);
+                    bytesNoLote += tamanhoJson(registro);
+                    registro = lote.size() < tamanhoLote && bytesNoLote < bytesLote ? fila.poll() : null;
+                }
+                if (!lote.isEmpty() && (lote.size() >= tamanhoLote || bytesNoLote >= bytesLote || !executando
+                        || System.currentTimeMillis() >= prazoLote)) {
+                    fechados.addLast(new LoteAuditoria(UUID.randomUUID().toString(), instancia,
+                            LocalDateTime.now().toString(), lote.size(), List.copyOf(lote)));
+                    lote.clear();
+                    bytesNoLote = 0;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fechados.forEach(pendente -> lote.addAll(pendente.registros()));
+                break;
+            }
+        }
+        int perdidos = lote.size() + fila.size();
+        if (perdidos > 0) {
+            log.error("{} registros de auditoria não enviados no encerramento", perdidos);
+        }
+    }
+
+    // Metades na ordem inversa de envio (entram no início da fila de fechados); um registro só é rejeitado
+    private List<LoteAuditoria> dividir(LoteAuditoria recusado) {
+        List<RegistroAuditoria> registros = recusado.registros();
+        if (registros.size() == 1) {
+            RegistroAuditoria registro = registros.get(0);
+            rejeitados.increment();
+            log.error("Registro de auditoria recusado pelo produtor, não será reenviado: {}", registro);
+            return List.of();
+        }
+        int meio = registros.size() / 2;
+        return List.of(
+                new LoteAuditoria(recusado.id() + "-2", instancia, recusado.criadoEm(), registros.size() - meio,
+                        List.copyOf(registros.subList(meio, registros.size()))),
+                new LoteAuditoria(recusado.id() + "-1", instancia, recusado.criadoEm(), meio,
+                        List.copyOf(registros.subList(0, meio))));
+    }
+
+    private Envio publicar(LoteAuditoria lote) throws InterruptedException {
+        try {
+            kafkaTemplate.send(topico, instancia, lote).get(esperaEnvioMs, TimeUnit.MILLISECONDS);
+            lotesEnviados.increment();
+            registrosEnviados.increment(lote.quantidade());
+            return Envio.CONFIRMADO;
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            falhas.increment();
+            Throwable causa = e instanceof ExecutionException ? e.getCause() : e;
+            if (recusaDefinitiva(causa)) {
+                log.warn("Lote de auditoria {} ({} registros) recusado pelo produtor; dividindo: {}",
+                        lote.id(), lote.quantidade(), causa.getMessage());
+                return Envio.RECUSADO;
+            }
+            log.warn("Falha ao enviar lote de auditoria {} ({} registros); nova tentativa: {}",
+                    lote.id(), lote.quantidade(), causa.getMessage());
+            return Envio.FALHOU;
+        }
+    }
+
+    // Reenviar o mesmo lote falharia de novo: grande demais ou com registro que não serializa
+    static boolean recusaDefinitiva(Throwable erro) {
+        for (Throwable causa = erro; causa != null; causa = causa.getCause()) {
+            if (causa instanceof RecordTooLargeException || causa instanceof SerializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long tamanhoJson(RegistroAuditoria registro) {
+        try {
+            return JSON.writeValueAsBytes(registro).length;
+        } catch (JsonProcessingException e) {
+            // O produtor recusa o lote e a divisão isola o registro
+            return 0;
+        }
+    }
+
+    private enum Envio { CONFIRMADO, FALHOU, RECUSADO }
+
+    @Override
+    public synchronized void start() {
+        if (executando) {
+            return;
+        }
+        executando = true;
+        remetente = new Thread(this::drenar, "auditoria-publicador");
+        remetente.setDaemon(true);
+        remetente.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!executando) {
+            return;
+        }
+        prazoEncerramento = System.currentTimeMillis() + encerramentoMs;
+        executando = false;
+        try {
+            remetente.join(encerramentoMs + esperaEnvioMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (remetente.isAlive()) {
+            remetente.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+}
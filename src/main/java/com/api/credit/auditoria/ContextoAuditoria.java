@@ -0,0 +1,57 @@
+package com.api.credit.auditoria;
+
+import com.api.credit.auditoria.RegistroAuditoria.ConsultaAuditada;
+import com.api.credit.evento.ConsultaEvento;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dados de auditoria da requisição corrente, guardados como atributos da
+ * requisição pelo {@link AuditoriaInterceptor}. Fora de uma requisição HTTP
+ * (aquecimento, tarefas agendadas) o usuário é {@value #USUARIO_SISTEMA}.
+ */
+public final class ContextoAuditoria {
+
+    public static final String USUARIO_SISTEMA = "sistema";
+
+    static final String ATRIBUTO_USUARIO = ContextoAuditoria.class.getName() + ".usuario";
+    static final String ATRIBUTO_CONSULTAS = ContextoAuditoria.class.getName() + ".consultas";
+
+    private ContextoAuditoria() {
+    }
+
+    public static String usuario() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        Object usuario = atributos == null ? null : atributos.getAttribute(ATRIBUTO_USUARIO, RequestAttributes.SCOPE_REQUEST);
+        return usuario == null ? USUARIO_SISTEMA : (String) usuario;
+    }
+
+    /**
+     * Anexa a consulta ao registro de auditoria da requisição corrente; sem
+     * requisição, não faz nada.
+     */
+    @SuppressWarnings("unchecked")
+    public static void registrarConsulta(ConsultaEvento evento) {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos == null) {
+            return;
+        }
+        List<ConsultaAuditada> consultas =
+                (List<ConsultaAuditada>) atributos.getAttribute(ATRIBUTO_CONSULTAS, RequestAttributes.SCOPE_REQUEST);
+        if (consultas == null) {
+            consultas = new ArrayList<>(1);
+            atributos.setAttribute(ATRIBUTO_CONSULTAS, consultas, RequestAttributes.SCOPE_REQUEST);
+        }
+        consultas.add(ConsultaAuditada.de(evento));
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<ConsultaAuditada> consultas(HttpServletRequest request) {
+        List<ConsultaAuditada> consultas = (List<ConsultaAuditada>) request.getAttribute(ATRIBUTO_CONSULTAS);
+        return consultas == null ? List.of() : consultas;
+    }
+}
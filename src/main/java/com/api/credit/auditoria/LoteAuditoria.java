@@ -0,0 +1,16 @@
+package com.api.credit.auditoria;
+
+import java.util.List;
+
+/**
+ * Mensagem de {@code creditos-auditoria}: vários registros agrupados em um só
+ * registro Kafka. O {@code id} é mantido nas retentativas, permitindo ao
+ * consumidor descartar lotes repetidos.
+ */
+public record LoteAuditoria(
+        String id,
+        String instancia,
+        String criadoEm,
+        int quantidade,
+        List<RegistroAuditoria> registros) {
+}
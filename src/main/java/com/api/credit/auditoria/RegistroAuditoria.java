@@ -0,0 +1,44 @@
+package com.api.credit.auditoria;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+
+import java.util.List;
+
+/**
+ * Uma requisição auditada: quem chamou, o que pediu e o que foi consultado.
+ *
+ * @param usuario          principal autenticado, o cabeçalho de usuário quando
+ *                         confiável ({@code app.auditoria.cabecalho-confiavel})
+ *                         ou {@code anonimo}
+ * @param usuarioDeclarado valor do cabeçalho de usuário como recebido, sem
+ *                         verificação; nulo quando ausente
+ * @param consultas consultas de crédito feitas durante a requisição, com os
+ *                  números pesquisados (vazia em requisições que não consultam)
+ */
+public record RegistroAuditoria(
+        String idRequisicao,
+        String timestamp,
+        String usuario,
+        String usuarioDeclarado,
+        String metodo,
+        String caminho,
+        String parametros,
+        int status,
+        long duracaoMs,
+        String ip,
+        String userAgent,
+        List<ConsultaAuditada> consultas) {
+
+    public record ConsultaAuditada(
+            TipoConsulta tipo,
+            String parametro,
+            List<String> numerosNfse,
+            List<String> numerosCredito) {
+
+        static ConsultaAuditada de(ConsultaEvento evento) {
+            return new ConsultaAuditada(evento.tipoConsulta(), evento.parametro(),
+                    evento.numerosNfse(), evento.numerosCredito());
+        }
+    }
+}
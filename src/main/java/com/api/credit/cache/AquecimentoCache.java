@@ -0,0 +1,251 @@
+package com.api.credit.cache;
+
+import com.api.credit.estatistica.ContadorMaisFrequentes;
+import com.api.credit.estatistica.ContadorMaisFrequentes.ItemFrequente;
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.service.CreditoService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Aquece o cache de consultas na subida: relê a janela recente de
+ * {@code creditos-consultas}, escolhe as chaves mais consultadas e carrega os
+ * créditos correspondentes em lotes {@code IN (...)}.
+ * <p>
+ * Roda como {@link ApplicationRunner}, ou seja, antes de a aplicação publicar
+ * o estado de prontidão {@code ACCEPTING_TRAFFIC}: o readiness probe só fica UP
+ * depois do aquecimento. Tudo respeita {@code orcamento-segundos}; a leitura do
+ * tópico usa no máximo dois terços do orçamento para sempre sobrar tempo para a
+ * carga. Falhas são registradas e não impedem a subida.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.aquecimento.habilitado", havingValue = "true")
+public class AquecimentoCache implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AquecimentoCache.class);
+
+    static final int TAMANHO_LOTE_CARGA = 100;
+    private static final Duration TEMPO_POLL_MAXIMO = Duration.ofMillis(500);
+
+    private final ConsumerFactory<String, Object> consumerFactory;
+    private final CreditoService creditoService;
+    private final String topico;
+    private final Duration janela;
+    private final Duration orcamento;
+    private final int maxChaves;
+
+    private final AtomicReference<Double> progresso = new AtomicReference<>(0.0);
+    private final Counter eventosLidos;
+    private final Counter chavesCarregadas;
+    private final Counter chavesAusentes;
+    private final Counter orcamentoEsgotado;
+    private final Timer duracaoLeitura;
+    private final Timer duracaoCarga;
+
+    public AquecimentoCache(ConsumerFactory<String, Object> consumerFactory,
+                            CreditoService creditoService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.kafka.topics.creditos-consultas:creditos-consultas}") String topico,
+                            @Value("${app.cache.aquecimento.janela-horas:24}") long janelaHoras,
+                            @Value("${app.cache.aquecimento.orcamento-segundos:30}") long orcamentoSegundos,
+                            @Value("${app.cache.aquecimento.max-chaves:1000}") int maxChaves) {
+        this.consumerFactory = consumerFactory;
+        this.creditoService = creditoService;
+        this.topico = topico;
+        this.janela = Duration.ofHours(janelaHoras);
+        this.orcamento = Duration.ofSeconds(orcamentoSegundos);
+        this.maxChaves = maxChaves;
+
+        Gauge.builder("creditos.cache.aquecimento.progresso", progresso, AtomicReference::get)
+                .description("Fração dos offsets da janela já lidos (1 ao final do aquecimento)")
+                .register(meterRegistry);
+        this.eventosLidos = Counter.builder("creditos.cache.aquecimento.eventos")
+                .description("Eventos de consulta relidos no aquecimento")
+                .register(meterRegistry);
+        this.chavesCarregadas = Counter.builder("creditos.cache.aquecimento.chaves")
+                .tag("resultado", "carregada")
+                .register(meterRegistry);
+        this.chavesAusentes = Counter.builder("creditos.cache.aquecimento.chaves")
+                .tag("resultado", "ausente")
+                .register(meterRegistry);
+        this.orcamentoEsgotado = Counter.builder("creditos.cache.aquecimento.orcamento.esgotado")
+                .description("Aquecimentos interrompidos pelo orçamento de tempo")
+                .register(meterRegistry);
+        this.duracaoLeitura = Timer.builder("creditos.cache.aquecimento.duracao")
+                .tag("fase", "leitura")
+                .register(meterRegistry);
+        this.duracaoCarga = Timer.builder("creditos.cache.aquecimento.duracao")
+                .tag("fase", "carga")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        long prazo = inicio + orcamento.toNanos();
+        long prazoLeitura = inicio + orcamento.toNanos() * 2 / 3;
+
+        List<ItemChave> chaves;
+        Properties propriedades = new Properties();
+        propriedades.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        try (Consumer<String, Object> consumer =
+                     consumerFactory.createConsumer(null, "aquecimento-cache", null, propriedades)) {
+            chaves = duracaoLeitura.record(() -> lerChavesMaisConsultadas(consumer, prazoLeitura));
+        } catch (RuntimeException e) {
+            log.warn("Aquecimento do cache ignorado: falha ao ler {}: {}", topico, e.getMessage());
+            progresso.set(1.0);
+            return;
+        }
+
+        int carregadas = duracaoCarga.record(() -> carregar(chaves, prazo));
+        progresso.set(1.0);
+        log.info("Aquecimento do cache concluído em {} ms: {} chaves consultadas, {} carregadas",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), chaves.size(), carregadas);
+    }
+
+    /**
+     * Relê o tópico desde {@code agora - janela} até os offsets finais do
+     * momento da subida e devolve as chaves mais consultadas, da mais para a
+     * menos frequente.
+     */
+    List<ItemChave> lerChavesMaisConsultadas(Consumer<String, Object> consumer, long prazoNanos) {
+        // Capacidade folgada para que as maxChaves do topo tenham erro pequeno
+        ContadorMaisFrequentes nfse = new ContadorMaisFrequentes(maxChaves * 4);
+        ContadorMaisFrequentes credito = new ContadorMaisFrequentes(maxChaves * 4);
+
+        List<TopicPartition> particoes = new ArrayList<>();
+        for (PartitionInfo particao : consumer.partitionsFor(topico, restante(prazoNanos))) {
+            particoes.add(new TopicPartition(topico, particao.partition()));
+        }
+        consumer.assign(particoes);
+
+        Map<TopicPartition, Long> finais = consumer.endOffsets(particoes, restante(prazoNanos));
+        Map<TopicPartition, Long> buscaPorTempo = new HashMap<>();
+        long desde = System.currentTimeMillis() - janela.toMillis();
+        particoes.forEach(particao -> buscaPorTempo.put(particao, desde));
+        Map<TopicPartition, OffsetAndTimestamp> iniciais = consumer.offsetsForTimes(buscaPorTempo, restante(prazoNanos));
+
+        Map<TopicPartition, Long> pendentes = new HashMap<>();
+        long totalOffsets = 0;
+        for (TopicPartition particao : particoes) {
+            OffsetAndTimestamp inicial = iniciais.get(particao);
+            long fim = finais.getOrDefault(particao, 0L);
+            long comeco = inicial == null ? fim : inicial.offset();
+            consumer.seek(particao, comeco);
+            if (comeco < fim) {
+                pendentes.put(particao, fim);
+                totalOffsets += fim - comeco;
+            }
+        }
+
+        long lidos = 0;
+        while (!pendentes.isEmpty()) {
+            if (System.nanoTime() >= prazoNanos) {
+                orcamentoEsgotado.increment();
+                log.warn("Orçamento do aquecimento esgotado com {} de {} offsets lidos", lidos, totalOffsets);
+                break;
+            }
+            Duration espera = restante(prazoNanos);
+            for (ConsumerRecord<String, Object> registro :
+                    consumer.poll(espera.compareTo(TEMPO_POLL_MAXIMO) < 0 ? espera : TEMPO_POLL_MAXIMO)) {
+                TopicPartition particao = new TopicPartition(registro.topic(), registro.partition());
+                Long fim = pendentes.get(particao);
+                if (fim == null || registro.offset() >= fim) {
+                    continue;
+                }
+                lidos++;
+                eventosLidos.increment();
+                registrar(ConsultaEvento.de(registro.value()), nfse, credito);
+            }
+            // Pela posição, e não pelo último registro, para tolerar offsets sem registro
+            pendentes.entrySet().removeIf(pendente -> consumer.position(pendente.getKey()) >= pendente.getValue());
+            progresso.set(totalOffsets == 0 ? 1.0 : (double) lidos / totalOffsets);
+        }
+
+        List<ItemChave> chaves = new ArrayList<>();
+        nfse.topo(maxChaves).forEach(item -> chaves.add(new ItemChave(true, item)));
+        credito.topo(maxChaves).forEach(item -> chaves.add(new ItemChave(false, item)));
+        chaves.sort(Comparator.comparingLong((ItemChave chave) -> chave.item().contagem()).reversed());
+        return chaves.size() > maxChaves ? new ArrayList<>(chaves.subList(0, maxChaves)) : chaves;
+    }
+
+    private static void registrar(ConsultaEvento evento, ContadorMaisFrequentes nfse, ContadorMaisFrequentes credito) {
+        if (evento == null) {
+            return;
+        }
+        switch (evento.tipoConsulta()) {
+            case CONSULTA_POR_NFSE:
+                if (evento.parametro() != null) {
+                    nfse.registrar(evento.parametro());
+                }
+                break;
+            case CONSULTA_POR_CREDITO:
+                if (evento.parametro() != null) {
+                    credito.registrar(evento.parametro());
+                }
+                break;
+            case CONSULTA_LOTE:
+                evento.numerosNfse().forEach(nfse::registrar);
+                evento.numerosCredito().forEach(credito::registrar);
+                break;
+        }
+    }
+
+    /**
+     * Carrega as chaves em lotes, das mais para as menos consultadas, até o prazo.
+     */
+    int carregar(List<ItemChave> chaves, long prazoNanos) {
+        int carregadas = 0;
+        for (int inicio = 0; inicio < chaves.size(); inicio += TAMANHO_LOTE_CARGA) {
+            if (System.nanoTime() >= prazoNanos) {
+                orcamentoEsgotado.increment();
+                log.warn("Orçamento do aquecimento esgotado com {} de {} chaves carregadas", inicio, chaves.size());
+                break;
+            }
+            List<String> numerosNfse = new ArrayList<>();
+            List<String> numerosCredito = new ArrayList<>();
+            List<ItemChave> lote = chaves.subList(inicio, Math.min(inicio + TAMANHO_LOTE_CARGA, chaves.size()));
+            for (ItemChave chave : lote) {
+                (chave.nfse() ? numerosNfse : numerosCredito).add(chave.item().chave());
+            }
+            int encontradas = creditoService.carregarNoCache(numerosNfse, numerosCredito);
+            carregadas += encontradas;
+            chavesCarregadas.increment(encontradas);
+            chavesAusentes.increment(lote.size() - encontradas);
+        }
+        return carregadas;
+    }
+
+    private static Duration restante(long prazoNanos) {
+        return Duration.ofNanos(Math.max(0, prazoNanos - System.nanoTime()));
+    }
+
+    record ItemChave(boolean nfse, ItemFrequente item) {
+    }
+}
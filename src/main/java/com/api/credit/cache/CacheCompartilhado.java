@@ -0,0 +1,209 @@
+package com.api.credit.cache;
+
+import com.api.credit.dto.CreditoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Nível compartilhado (Redis) do cache de consultas, entre o cache local de
+ * cada instância e o banco. Guarda o JSON dos créditos encontrados por
+ * {@code app.cache.compartilhado.ttl}.
+ * <p>
+ * Cada invalidação de uma NFS-e incrementa a sua versão. A lista lida do banco
+ * só é gravada se a versão ainda for a lida antes da consulta: uma carga em
+ * andamento durante a importação não devolve ao Redis, pelo TTL inteiro, a
+ * lista anterior à gravação.
+ * <p>
+ * Falhas do Redis não interrompem a consulta: leituras viram falta e escritas
+ * são descartadas, ambas contadas em {@code creditos.cache.compartilhado.falhas}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.compartilhado.habilitado", havingValue = "true")
+public class CacheCompartilhado {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheCompartilhado.class);
+
+    public static final String CANAL_INVALIDACAO = "creditos:cache:invalidacao";
+
+    static final String PREFIXO_CREDITO = "creditos:credito:";
+    static final String PREFIXO_NFSE = "creditos:nfse:";
+    static final String PREFIXO_VERSAO_NFSE = "creditos:nfse:versao:";
+
+    // Versão ausente vem como false e é comparada como ""
+    private static final RedisScript<Long> GRAVAR_SE_MESMA_VERSAO = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '') ~= ARGV[1] then return 0 end "
+                    + "redis.call('SET', KEYS[2], ARGV[2], 'EX', ARGV[3]) return 1", Long.class);
+
+    // KEYS aos pares (versão, lista) por NFS-e; ARGV: validade da versão, canal e mensagem
+    private static final RedisScript<Long> INVALIDAR = new DefaultRedisScript<>(
+            "for i = 1, #KEYS, 2 do "
+                    + "redis.call('INCR', KEYS[i]) redis.call('EXPIRE', KEYS[i], ARGV[1]) redis.call('DEL', KEYS[i + 1]) "
+                    + "end return redis.call('PUBLISH', ARGV[2], ARGV[3])", Long.class);
+
+    // Números de NFS-e e de crédito nunca contêm quebra de linha; uma linha vazia separa as duas listas
+    private static final String SEPARADOR = "\n";
+    private static final String SEPARADOR_LISTAS = "\n\n";
+
+    private final StringRedisTemplate redis;
+    private final ObjectReader leitorCredito;
+    private final ObjectReader leitorCreditos;
+    private final ObjectWriter escritor;
+    private final Duration ttl;
+    private final Counter falhas;
+
+    public CacheCompartilhado(StringRedisTemplate redis,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.cache.compartilhado.ttl:600}") long ttlSegundos) {
+        this.redis = redis;
+        this.leitorCredito = objectMapper.readerFor(CreditoDTO.class);
+        this.leitorCreditos = objectMapper.readerFor(
+                objectMapper.getTypeFactory().constructCollectionType(List.class, CreditoDTO.class));
+        this.escritor = objectMapper.writer();
+        this.ttl = Duration.ofSeconds(ttlSegundos);
+        this.falhas = Counter.builder("creditos.cache.compartilhado.falhas")
+                .description("Operações no cache compartilhado que falharam e seguiram sem ele")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna o crédito em cache ou {@code null} quando ausente.
+     */
+    public CreditoDTO obterPorCredito(String numeroCredito) {
+        return ler(PREFIXO_CREDITO + numeroCredito, leitorCredito);
+    }
+
+    public void armazenarPorCredito(String numeroCredito, CreditoDTO credito) {
+        gravar(PREFIXO_CREDITO + numeroCredito, credito);
+    }
+
+    /**
+     * Retorna os créditos da NFS-e em cache ou {@code null} quando ausentes.
+     */
+    public List<CreditoDTO> obterPorNfse(String numeroNfse) {
+        return ler(PREFIXO_NFSE + numeroNfse, leitorCreditos);
+    }
+
+    /**
+     * Versão atual da NFS-e, a ser lida antes de consultar o banco e passada
+     * para {@link #armazenarPorNfse}; {@code null} se o Redis falhar.
+     */
+    public String versaoNfse(String numeroNfse) {
+        try {
+            String versao = redis.opsForValue().get(PREFIXO_VERSAO_NFSE + numeroNfse);
+            return versao == null ? "" : versao;
+        } catch (RuntimeException e) {
+            falhas.increment();
+            log.debug("Falha ao ler a versão da NFS-e {} no cache compartilhado: {}", numeroNfse, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Grava a lista somente se a NFS-e não foi invalidada desde que
+     * {@code versao} foi lida; com {@code versao} nula não grava.
+     */
+    public void armazenarPorNfse(String numeroNfse, List<CreditoDTO> creditos, String versao) {
+        if (versao == null) {
+            return;
+        }
+        try {
+            redis.execute(GRAVAR_SE_MESMA_VERSAO,
+                    List.of(PREFIXO_VERSAO_NFSE + numeroNfse, PREFIXO_NFSE + numeroNfse),
+                    versao, escritor.writeValueAsString(creditos), String.valueOf(ttl.toSeconds()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            falhas.increment();
+            log.debug("Falha ao gravar a NFS-e {} no cache compartilhado: {}", numeroNfse, e.getMessage());
+        }
+    }
+
+    /**
+     * Invalida de uma vez as chaves de um lote gravado: incrementa a versão de
+     * cada NFS-e, remove a sua lista e avisa as instâncias (inclusive esta) com
+     * uma única mensagem listando as NFS-e e os créditos, tudo em um só script.
+     */
+    public void invalidar(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        Set<String> nfses = new LinkedHashSet<>(numerosNfse);
+        Set<String> creditos = new LinkedHashSet<>(numerosCredito);
+        if (nfses.isEmpty() && creditos.isEmpty()) {
+            return;
+        }
+        List<String> chaves = new ArrayList<>(nfses.size() * 2);
+        for (String numeroNfse : nfses) {
+            chaves.add(PREFIXO_VERSAO_NFSE + numeroNfse);
+            chaves.add(PREFIXO_NFSE + numeroNfse);
+        }
+        try {
+            // A versão sobe antes da remoção: uma carga que leu a anterior não grava mais.
+            // Dura mais que qualquer carga em andamento; depois disso recomeça do zero
+            redis.execute(INVALIDAR, chaves, String.valueOf(ttl.multipliedBy(2).toSeconds()), CANAL_INVALIDACAO,
+                    String.join(SEPARADOR, nfses) + SEPARADOR_LISTAS + String.join(SEPARADOR, creditos));
+        } catch (RuntimeException e) {
+            falhas.increment();
+            // Sem o aviso as outras instâncias só se atualizam pelo creditos-eventos ou pelo TTL
+            log.warn("Falha ao invalidar {} NFS-e no cache compartilhado: {}", nfses.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Lê uma mensagem de {@link #CANAL_INVALIDACAO}, ou {@code null} quando
+     * fora do formato.
+     */
+    public static Invalidacao lerInvalidacao(String mensagem) {
+        int separador = mensagem.indexOf(SEPARADOR_LISTAS);
+        if (separador < 0) {
+            return null;
+        }
+        return new Invalidacao(linhas(mensagem.substring(0, separador)),
+                linhas(mensagem.substring(separador + SEPARADOR_LISTAS.length())));
+    }
+
+    private static List<String> linhas(String texto) {
+        return texto.isEmpty() ? List.of() : List.of(texto.split(SEPARADOR));
+    }
+
+    /**
+     * NFS-e e créditos de um lote gravado, a descartar do cache local.
+     */
+    public record Invalidacao(List<String> numerosNfse, List<String> numerosCredito) {
+    }
+
+    private <T> T ler(String chave, ObjectReader leitor) {
+        try {
+            String json = redis.opsForValue().get(chave);
+            return json == null ? null : leitor.readValue(json);
+        } catch (JsonProcessingException | RuntimeException e) {
+            falhas.increment();
+            log.debug("Falha ao ler {} do cache compartilhado: {}", chave, e.getMessage());
+            return null;
+        }
+    }
+
+    private void gravar(String chave, Object valor) {
+        try {
+            redis.opsForValue().set(chave, escritor.writeValueAsString(valor), ttl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            falhas.increment();
+            log.debug("Falha ao gravar {} no cache compartilhado: {}", chave, e.getMessage());
+        }
+    }
+}
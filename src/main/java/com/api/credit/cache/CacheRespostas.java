@@ -0,0 +1,102 @@
+package com.api.credit.cache;
+
+import com.api.credit.config.CacheConfig;
+import com.api.credit.dto.CreditoDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respostas das consultas por NFS-e e por crédito já codificadas (JSON e
+ * gzip), para que um acerto não passe de novo pelo Jackson nem pela
+ * compressão do servidor. As entradas saem junto com as do
+ * {@link CreditoCache} quando um crédito da NFS-e é gravado.
+ */
+@Component
+public class CacheRespostas {
+
+    // Bytes do hash SHA-256 usados no ETag (22 caracteres em base64)
+    private static final int BYTES_ETAG = 16;
+
+    private final Cache porNfse;
+    private final Cache porCredito;
+    private final ObjectWriter escritor;
+    private final int minimoGzip;
+
+    public CacheRespostas(CacheManager cacheManager,
+                          ObjectMapper objectMapper,
+                          @Value("${app.cache.respostas.gzip-minimo-bytes:2048}") int minimoGzip) {
+        this.porNfse = cacheManager.getCache(CacheConfig.CACHE_RESPOSTAS_POR_NFSE);
+        this.porCredito = cacheManager.getCache(CacheConfig.CACHE_RESPOSTAS_POR_CREDITO);
+        this.escritor = objectMapper.writer();
+        this.minimoGzip = minimoGzip;
+    }
+
+    public RespostaCodificada obterPorNfse(String numeroNfse) {
+        return porNfse.get(numeroNfse, RespostaCodificada.class);
+    }
+
+    public RespostaCodificada obterPorCredito(String numeroCredito) {
+        return porCredito.get(numeroCredito, RespostaCodificada.class);
+    }
+
+    public RespostaCodificada armazenarPorNfse(String numeroNfse, List<CreditoDTO> creditos) {
+        RespostaCodificada resposta = codificar(creditos);
+        porNfse.put(numeroNfse, resposta);
+        return resposta;
+    }
+
+    public RespostaCodificada armazenarPorCredito(String numeroCredito, CreditoDTO credito) {
+        RespostaCodificada resposta = codificar(credito);
+        porCredito.put(numeroCredito, resposta);
+        return resposta;
+    }
+
+    RespostaCodificada codificar(Object corpo) {
+        byte[] json;
+        try {
+            json = escritor.writeValueAsBytes(corpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta", e);
+        }
+        return new RespostaCodificada(json, comprimir(json), etag(json));
+    }
+
+    // Mesmo critério do server.compression: abaixo do mínimo o gzip não compensa
+    private byte[] comprimir(byte[] json) {
+        if (json.length < minimoGzip) {
+            return null;
+        }
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] comprimido = saida.toByteArray();
+        return comprimido.length < json.length ? comprimido : null;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, BYTES_ETAG)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.api.credit.cache;
+
+import io.micrometer.core.instrument.Counter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Carregamentos em andamento por chave: enquanto a primeira thread carrega uma
+ * chave, as demais que pedem a mesma chave esperam e recebem o mesmo
+ * resultado (ou a mesma exceção) em vez de repetir a carga.
+ */
+final class ConsultasEmVoo<V> {
+
+    private final ConcurrentHashMap<String, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final Counter coalescidas;
+
+    ConsultasEmVoo(Counter coalescidas) {
+        this.coalescidas = coalescidas;
+    }
+
+    V carregar(String chave, Supplier<V> carregador) {
+        CompletableFuture<V> novo = new CompletableFuture<>();
+        CompletableFuture<V> existente = emAndamento.putIfAbsent(chave, novo);
+        if (existente != null) {
+            coalescidas.increment();
+            return aguardar(existente);
+        }
+
+        try {
+            V valor = carregador.get();
+            novo.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            novo.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, novo);
+        }
+    }
+
+    int emAndamento() {
+        return emAndamento.size();
+    }
+
+    private static <V> V aguardar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
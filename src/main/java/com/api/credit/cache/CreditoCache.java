@@ -0,0 +1,308 @@
+package com.api.credit.cache;
+
+import com.api.credit.config.CacheConfig;
+import com.api.credit.dto.CreditoDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through das consultas de crédito, em dois níveis: o cache local
+ * da instância (Caffeine) e, com {@code app.cache.compartilhado.habilitado},
+ * o {@link CacheCompartilhado} entre as instâncias, antes do banco.
+ * <p>
+ * Resultados encontrados ficam pelo TTL de {@code app.cache.creditos}; chaves
+ * sem resultado ficam em um cache negativo local separado, com TTL curto
+ * ({@code app.cache.ausentes}), e são removidas dele assim que um crédito com
+ * a chave é gravado. Faltas simultâneas na mesma chave fazem uma única
+ * consulta ao nível compartilhado e ao banco.
+ * <p>
+ * Cada descarte local incrementa um contador da faixa da chave antes de
+ * remover as entradas. Uma carga lê o contador ao começar e, se ele mudou até
+ * a gravação no cache local, desfaz a gravação: a lista (ou a ausência) lida
+ * antes de um crédito novo não volta ao cache local pelo TTL inteiro depois
+ * do descarte.
+ * Chaves diferentes na mesma faixa só perdem uma gravação.
+ * <p>
+ * Os métodos {@code obter*}/{@code armazenar*}, usados pela consulta em lote e
+ * pelo aquecimento, acessam somente o nível local.
+ */
+@Component
+public class CreditoCache {
+
+    static final String METRICA_CONSULTAS = "creditos.cache.consultas";
+    static final String METRICA_TAXA_ACERTO = "creditos.cache.taxa.acerto";
+    static final String METRICA_COALESCIDAS = "creditos.cache.coalescidas";
+    static final String METRICA_CARGAS_EM_ANDAMENTO = "creditos.cache.cargas.em.andamento";
+    private static final int FAIXAS_DESCARTE = 1024;
+
+    private final Cache porCredito;
+    private final Cache porNfse;
+    private final Cache ausentesPorCredito;
+    private final Cache ausentesPorNfse;
+    private final Cache respostasPorCredito;
+    private final Cache respostasPorNfse;
+    private final CacheCompartilhado compartilhado;
+
+    private final ConsultasEmVoo<Optional<CreditoDTO>> carregandoPorCredito;
+    private final ConsultasEmVoo<List<CreditoDTO>> carregandoPorNfse;
+    private final AtomicLongArray descartesPorCredito = new AtomicLongArray(FAIXAS_DESCARTE);
+    private final AtomicLongArray descartesPorNfse = new AtomicLongArray(FAIXAS_DESCARTE);
+
+    private final Nivel local;
+    private final Nivel nivelCompartilhado;
+    private final Nivel banco;
+
+    // compartilhado é nulo sem app.cache.compartilhado.habilitado
+    public CreditoCache(CacheManager cacheManager, @Nullable CacheCompartilhado compartilhado,
+                        MeterRegistry meterRegistry) {
+        this.porCredito = cacheManager.getCache(CacheConfig.CACHE_POR_CREDITO);
+        this.porNfse = cacheManager.getCache(CacheConfig.CACHE_POR_NFSE);
+        this.ausentesPorCredito = cacheManager.getCache(CacheConfig.CACHE_AUSENTES_POR_CREDITO);
+        this.ausentesPorNfse = cacheManager.getCache(CacheConfig.CACHE_AUSENTES_POR_NFSE);
+        this.respostasPorCredito = cacheManager.getCache(CacheConfig.CACHE_RESPOSTAS_POR_CREDITO);
+        this.respostasPorNfse = cacheManager.getCache(CacheConfig.CACHE_RESPOSTAS_POR_NFSE);
+        this.compartilhado = compartilhado;
+
+        this.carregandoPorCredito = new ConsultasEmVoo<>(coalescidas("credito", meterRegistry));
+        this.carregandoPorNfse = new ConsultasEmVoo<>(coalescidas("nfse", meterRegistry));
+        Gauge.builder(METRICA_CARGAS_EM_ANDAMENTO, this,
+                        cache -> cache.carregandoPorCredito.emAndamento() + cache.carregandoPorNfse.emAndamento())
+                .description("Chaves sendo carregadas do nível compartilhado ou do banco neste momento")
+                .register(meterRegistry);
+
+        this.local = new Nivel("local", meterRegistry);
+        this.nivelCompartilhado = new Nivel("compartilhado", meterRegistry);
+        this.banco = new Nivel("banco", meterRegistry);
+    }
+
+    public Optional<CreditoDTO> buscarPorCredito(String numeroCredito, Supplier<Optional<CreditoDTO>> carregador) {
+        CreditoDTO emCache = obterPorCredito(numeroCredito);
+        if (emCache != null || ausentePorCredito(numeroCredito)) {
+            local.acerto();
+            return Optional.ofNullable(emCache);
+        }
+        local.falta();
+
+        return carregandoPorCredito.carregar(numeroCredito, () -> {
+            long descartes = descartesPorCredito.get(faixa(numeroCredito));
+            // Outra thread pode ter terminado a carga entre a leitura acima e a entrada aqui
+            CreditoDTO carregadoAgora = obterPorCredito(numeroCredito);
+            if (carregadoAgora != null) {
+                return Optional.of(carregadoAgora);
+            }
+            if (compartilhado != null) {
+                CreditoDTO emComum = compartilhado.obterPorCredito(numeroCredito);
+                if (emComum != null) {
+                    nivelCompartilhado.acerto();
+                    armazenarPorCredito(numeroCredito, emComum);
+                    return Optional.of(emComum);
+                }
+                nivelCompartilhado.falta();
+            }
+
+            Optional<CreditoDTO> carregado = carregador.get();
+            if (carregado.isPresent()) {
+                banco.acerto();
+                armazenarPorCredito(numeroCredito, carregado.get());
+                if (compartilhado != null) {
+                    compartilhado.armazenarPorCredito(numeroCredito, carregado.get());
+                }
+            } else {
+                banco.falta();
+                marcarAusentePorCredito(numeroCredito);
+                desfazerSeDescartado(descartesPorCredito, numeroCredito, descartes, ausentesPorCredito);
+            }
+            return carregado;
+        });
+    }
+
+    public List<CreditoDTO> buscarPorNfse(String numeroNfse, Supplier<List<CreditoDTO>> carregador) {
+        List<CreditoDTO> emCache = obterPorNfse(numeroNfse);
+        if (emCache != null || ausentePorNfse(numeroNfse)) {
+            local.acerto();
+            return emCache != null ? emCache : List.of();
+        }
+        local.falta();
+
+        return carregandoPorNfse.carregar(numeroNfse, () -> {
+            long descartes = descartesPorNfse.get(faixa(numeroNfse));
+            List<CreditoDTO> carregadosAgora = obterPorNfse(numeroNfse);
+            if (carregadosAgora != null) {
+                return carregadosAgora;
+            }
+            if (compartilhado != null) {
+                List<CreditoDTO> emComum = compartilhado.obterPorNfse(numeroNfse);
+                if (emComum != null) {
+                    nivelCompartilhado.acerto();
+                    List<CreditoDTO> imutaveis = armazenarPorNfse(numeroNfse, emComum);
+                    desfazerSeDescartado(descartesPorNfse, numeroNfse, descartes, porNfse);
+                    return imutaveis;
+                }
+                nivelCompartilhado.falta();
+            }
+
+            // Lida antes do banco: se a NFS-e for invalidada durante a consulta, a lista não vai ao Redis
+            String versao = compartilhado != null ? compartilhado.versaoNfse(numeroNfse) : null;
+            List<CreditoDTO> carregados = carregador.get();
+            if (carregados.isEmpty()) {
+                banco.falta();
+                marcarAusentePorNfse(numeroNfse);
+                desfazerSeDescartado(descartesPorNfse, numeroNfse, descartes, ausentesPorNfse);
+                return carregados;
+            }
+            banco.acerto();
+            List<CreditoDTO> imutaveis = armazenarPorNfse(numeroNfse, carregados);
+            desfazerSeDescartado(descartesPorNfse, numeroNfse, descartes, porNfse);
+            if (compartilhado != null) {
+                compartilhado.armazenarPorNfse(numeroNfse, imutaveis, versao);
+            }
+            return imutaveis;
+        });
+    }
+
+    /**
+     * Retorna o crédito em cache ou {@code null} quando ausente.
+     */
+    public CreditoDTO obterPorCredito(String numeroCredito) {
+        return porCredito.get(numeroCredito, CreditoDTO.class);
+    }
+
+    public void armazenarPorCredito(String numeroCredito, CreditoDTO credito) {
+        porCredito.put(numeroCredito, credito);
+    }
+
+    /**
+     * Retorna os créditos da NFS-e em cache ou {@code null} quando ausentes.
+     */
+    @SuppressWarnings("unchecked")
+    public List<CreditoDTO> obterPorNfse(String numeroNfse) {
+        return porNfse.get(numeroNfse, List.class);
+    }
+
+    public List<CreditoDTO> armazenarPorNfse(String numeroNfse, List<CreditoDTO> creditos) {
+        List<CreditoDTO> imutaveis = List.copyOf(creditos);
+        porNfse.put(numeroNfse, imutaveis);
+        return imutaveis;
+    }
+
+    public boolean ausentePorCredito(String numeroCredito) {
+        return ausentesPorCredito.get(numeroCredito) != null;
+    }
+
+    public void marcarAusentePorCredito(String numeroCredito) {
+        ausentesPorCredito.put(numeroCredito, Boolean.TRUE);
+    }
+
+    public boolean ausentePorNfse(String numeroNfse) {
+        return ausentesPorNfse.get(numeroNfse) != null;
+    }
+
+    public void marcarAusentePorNfse(String numeroNfse) {
+        ausentesPorNfse.put(numeroNfse, Boolean.TRUE);
+    }
+
+    /**
+     * Atualiza o cache com os créditos recém-gravados nesta instância: as
+     * listas das NFS-e ficam desatualizadas e nenhuma das chaves continua
+     * ausente. Com o nível compartilhado, as listas também saem dele e as
+     * demais instâncias são avisadas, uma vez por chamada.
+     */
+    public void registrarGravados(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        descartarLocal(numerosNfse, numerosCredito);
+        if (compartilhado != null) {
+            compartilhado.invalidar(numerosNfse, numerosCredito);
+        }
+    }
+
+    /**
+     * Descarta somente do nível local as entradas afetadas por um crédito
+     * gravado em outra instância, incluindo as respostas já codificadas do
+     * {@link CacheRespostas}.
+     */
+    public void descartarLocal(String numeroNfse, String numeroCredito) {
+        descartarNfseLocal(numeroNfse);
+        descartarCreditoLocal(numeroCredito);
+    }
+
+    /**
+     * Igual a {@link #descartarLocal(String, String)}, para um lote de créditos.
+     */
+    public void descartarLocal(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        numerosNfse.forEach(this::descartarNfseLocal);
+        numerosCredito.forEach(this::descartarCreditoLocal);
+    }
+
+    // O contador sobe antes da remoção: a carga que gravar depois vê a mudança e desfaz
+    private void descartarNfseLocal(String numeroNfse) {
+        descartesPorNfse.incrementAndGet(faixa(numeroNfse));
+        porNfse.evict(numeroNfse);
+        respostasPorNfse.evict(numeroNfse);
+        ausentesPorNfse.evict(numeroNfse);
+    }
+
+    private void descartarCreditoLocal(String numeroCredito) {
+        descartesPorCredito.incrementAndGet(faixa(numeroCredito));
+        respostasPorCredito.evict(numeroCredito);
+        ausentesPorCredito.evict(numeroCredito);
+    }
+
+    // Conferido depois de gravar: um descarte entre a conferência e a gravação já removeria a entrada
+    private static void desfazerSeDescartado(AtomicLongArray descartes, String chave, long lidos, Cache cache) {
+        if (descartes.get(faixa(chave)) != lidos) {
+            cache.evict(chave);
+        }
+    }
+
+    private static int faixa(String chave) {
+        return chave.hashCode() & (FAIXAS_DESCARTE - 1);
+    }
+
+    private static Counter coalescidas(String tipo, MeterRegistry meterRegistry) {
+        return Counter.builder(METRICA_COALESCIDAS)
+                .description("Consultas que aguardaram a carga já em andamento da mesma chave em vez de repeti-la")
+                .tag("tipo", tipo).register(meterRegistry);
+    }
+
+    // Acertos e faltas de um nível, com a taxa de acerto acumulada desde a subida
+    private static final class Nivel {
+
+        private final Counter acertos;
+        private final Counter faltas;
+
+        Nivel(String nome, MeterRegistry meterRegistry) {
+            this.acertos = Counter.builder(METRICA_CONSULTAS)
+                    .description("Consultas individuais respondidas (acerto) ou repassadas (falta) por nível")
+                    .tags("nivel", nome, "resultado", "acerto").register(meterRegistry);
+            this.faltas = Counter.builder(METRICA_CONSULTAS)
+                    .description("Consultas individuais respondidas (acerto) ou repassadas (falta) por nível")
+                    .tags("nivel", nome, "resultado", "falta").register(meterRegistry);
+            Gauge.builder(METRICA_TAXA_ACERTO, this, Nivel::taxaAcerto)
+                    .description("Fração das consultas que chegaram ao nível e foram respondidas por ele")
+                    .tag("nivel", nome).register(meterRegistry);
+        }
+
+        void acerto() {
+            acertos.increment();
+        }
+
+        void falta() {
+            faltas.increment();
+        }
+
+        private double taxaAcerto() {
+            double total = acertos.count() + faltas.count();
+            return total == 0 ? 0.0 : acertos.count() / total;
+        }
+    }
+}
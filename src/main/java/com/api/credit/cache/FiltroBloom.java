@@ -0,0 +1,107 @@
+package com.api.credit.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de textos, seguro para inclusões concorrentes. Responde
+ * "com certeza ausente" ou "talvez presente"; nunca dá falso negativo para um
+ * valor incluído.
+ * <p>
+ * Usa hash duplo ({@code h1 + i*h2}) sobre um hash de 64 bits dos bytes UTF-8,
+ * e os bits ficam em um {@link AtomicLongArray} para que
+ * {@link #adicionar(String)} possa ser chamado enquanto outras threads
+ * consultam.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long quantidadeBits;
+    private final int quantidadeHashes;
+
+    /**
+     * @param capacidade         quantidade de valores esperada
+     * @param taxaFalsoPositivo  taxa desejada com {@code capacidade} valores
+     */
+    public FiltroBloom(long capacidade, double taxaFalsoPositivo) {
+        long n = Math.max(1, capacidade);
+        long m = (long) Math.ceil(-n * Math.log(taxaFalsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palavras = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(palavras);
+        this.quantidadeBits = palavras * 64L;
+        this.quantidadeHashes = (int) Math.max(1, Math.min(16, Math.round((double) quantidadeBits / n * Math.log(2))));
+    }
+
+    public void adicionar(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= quantidadeHashes; i++) {
+            long bit = indice(h1 + i * h2);
+            int palavra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long atual;
+            do {
+                atual = bits.get(palavra);
+                if ((atual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palavra, atual, atual | mascara));
+        }
+    }
+
+    public boolean podeConter(String valor) {
+        long hash = hash(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= quantidadeHashes; i++) {
+            long bit = indice(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Taxa de falso positivo estimada pela fração de bits ligados; percorre o
+     * filtro inteiro, então serve para métricas e não para o caminho da consulta.
+     */
+    public double taxaFalsoPositivoEstimada() {
+        long ligados = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            ligados += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) ligados / quantidadeBits, quantidadeHashes);
+    }
+
+    long quantidadeBits() {
+        return quantidadeBits;
+    }
+
+    int quantidadeHashes() {
+        return quantidadeHashes;
+    }
+
+    private long indice(int combinado) {
+        // Sem sinal: o resto fica em [0, quantidadeBits)
+        return (combinado & 0xffffffffL) % quantidadeBits;
+    }
+
+    // FNV-1a de 64 bits seguido do finalizador do MurmurHash3, que espalha
+    // bem os números sequenciais típicos de NFS-e e crédito
+    private static long hash(String valor) {
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,193 @@
+package com.api.credit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Filtros de Bloom com todos os {@code numero_nfse} e {@code numero_credito}
+ * da tabela {@code credito}, para responder 404 a chaves inexistentes sem ir
+ * ao banco.
+ * <p>
+ * Os filtros são montados na subida (antes do readiness) e remontados a cada
+ * {@code reconstrucao-ms}, o que também descarta créditos removidos. Entre
+ * uma montagem e outra, cada crédito gravado é incluído por
+ * {@link #adicionar(String, String)}: pela importação nesta instância e pelo
+ * {@code CreditoEventosListener} para as demais. Inclusões feitas durante uma
+ * remontagem vão para os dois filtros, então nenhuma se perde na troca.
+ * Enquanto não houver filtro montado (ou com {@code habilitado=false}), toda
+ * chave é tratada como possivelmente existente.
+ */
+@Component
+public class FiltroCreditos implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroCreditos.class);
+
+    private static final String SQL_QUANTIDADE = "SELECT count(*) FROM credito";
+    private static final String SQL_CHAVES = "SELECT numero_nfse, numero_credito FROM credito";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final long capacidadeMinima;
+    private final double taxaFalsoPositivo;
+    private final int fetchSize;
+
+    private volatile Filtros atual;
+    private volatile Filtros emConstrucao;
+
+    private final AtomicLong elementos = new AtomicLong();
+    private final Counter descartadasNfse;
+    private final Counter descartadasCredito;
+    private final Timer duracaoReconstrucao;
+
+    public FiltroCreditos(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.filtro-bloom.habilitado:true}") boolean habilitado,
+                          @Value("${app.filtro-bloom.capacidade:2000000}") long capacidadeMinima,
+                          @Value("${app.filtro-bloom.taxa-falso-positivo:0.01}") double taxaFalsoPositivo,
+                          @Value("${app.exportacao.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.capacidadeMinima = capacidadeMinima;
+        this.taxaFalsoPositivo = taxaFalsoPositivo;
+        this.fetchSize = fetchSize;
+
+        this.descartadasNfse = Counter.builder("creditos.filtro.descartadas")
+                .description("Consultas respondidas como inexistentes pelo filtro, sem ir ao banco")
+                .tag("tipo", "nfse").register(meterRegistry);
+        this.descartadasCredito = Counter.builder("creditos.filtro.descartadas")
+                .description("Consultas respondidas como inexistentes pelo filtro, sem ir ao banco")
+                .tag("tipo", "credito").register(meterRegistry);
+        this.duracaoReconstrucao = Timer.builder("creditos.filtro.reconstrucao").register(meterRegistry);
+        Gauge.builder("creditos.filtro.elementos", elementos, AtomicLong::get)
+                .description("Créditos incluídos no filtro desde a última montagem")
+                .register(meterRegistry);
+        Gauge.builder("creditos.filtro.falso.positivo", this, FiltroCreditos::taxaFalsoPositivoEstimada)
+                .description("Taxa de falso positivo estimada do filtro por NFS-e")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        reconstruirComSeguranca();
+    }
+
+    @Scheduled(initialDelayString = "${app.filtro-bloom.reconstrucao-ms:3600000}",
+            fixedDelayString = "${app.filtro-bloom.reconstrucao-ms:3600000}")
+    public void reconstruirPeriodicamente() {
+        reconstruirComSeguranca();
+    }
+
+    /**
+     * {@code false} somente quando a NFS-e com certeza não existe.
+     */
+    public boolean podeExistirNfse(String numeroNfse) {
+        Filtros filtros = atual;
+        if (filtros == null || filtros.nfse().podeConter(numeroNfse)) {
+            return true;
+        }
+        descartadasNfse.increment();
+        return false;
+    }
+
+    /**
+     * {@code false} somente quando o crédito com certeza não existe.
+     */
+    public boolean podeExistirCredito(String numeroCredito) {
+        Filtros filtros = atual;
+        if (filtros == null || filtros.credito().podeConter(numeroCredito)) {
+            return true;
+        }
+        descartadasCredito.increment();
+        return false;
+    }
+
+    /**
+     * Inclui um crédito gravado. Deve ser chamado depois do commit, para que
+     * uma remontagem iniciada antes dele o receba aqui e uma iniciada depois o
+     * leia do banco.
+     */
+    public void adicionar(String numeroNfse, String numeroCredito) {
+        // Nesta ordem: a remontagem publica atual antes de limpar emConstrucao, então
+        // quem não vê o filtro em construção já vê o novo em atual
+        Filtros novos = emConstrucao;
+        Filtros filtros = atual;
+        if (filtros != null) {
+            filtros.adicionar(numeroNfse, numeroCredito);
+            elementos.incrementAndGet();
+        }
+        if (novos != null && novos != filtros) {
+            novos.adicionar(numeroNfse, numeroCredito);
+        }
+    }
+
+    synchronized void reconstruir() {
+        if (!habilitado) {
+            return;
+        }
+        duracaoReconstrucao.record(() -> {
+            Long quantidade = jdbcTemplate.queryForObject(SQL_QUANTIDADE, Long.class);
+            // Folga para crescer até a próxima remontagem sem degradar a taxa
+            long capacidade = Math.max(capacidadeMinima, 2 * (quantidade == null ? 0 : quantidade));
+            Filtros novos = new Filtros(new FiltroBloom(capacidade, taxaFalsoPositivo),
+                    new FiltroBloom(capacidade, taxaFalsoPositivo));
+            emConstrucao = novos;
+            try {
+                long[] lidos = {0};
+                // Somente leitura: fora de auto-commit o PostgreSQL usa cursor com fetch size
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(conexao -> {
+                    var comando = conexao.prepareStatement(SQL_CHAVES);
+                    comando.setFetchSize(fetchSize);
+                    return comando;
+                }, rs -> {
+                    novos.adicionar(rs.getString(1), rs.getString(2));
+                    lidos[0]++;
+                }));
+                atual = novos;
+                elementos.set(lidos[0]);
+                log.info("Filtro de créditos montado com {} créditos (capacidade {})", lidos[0], capacidade);
+            } finally {
+                emConstrucao = null;
+            }
+        });
+    }
+
+    private void reconstruirComSeguranca() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            // Sem filtro novo as consultas continuam indo ao banco
+            log.warn("Falha ao montar o filtro de créditos; mantendo o anterior: {}", e.getMessage());
+        }
+    }
+
+    private double taxaFalsoPositivoEstimada() {
+        Filtros filtros = atual;
+        return filtros == null ? 0.0 : filtros.nfse().taxaFalsoPositivoEstimada();
+    }
+
+    private record Filtros(FiltroBloom nfse, FiltroBloom credito) {
+
+        void adicionar(String numeroNfse, String numeroCredito) {
+            nfse.adicionar(numeroNfse);
+            credito.adicionar(numeroCredito);
+        }
+    }
+}
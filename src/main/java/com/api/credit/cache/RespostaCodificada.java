@@ -0,0 +1,41 @@
+package com.api.credit.cache;
+
+import java.util.List;
+
+/**
+ * Corpo JSON de uma consulta já serializado, opcionalmente também em gzip,
+ * com o ETag forte calculado sobre o JSON. A versão gzip tem ETag próprio
+ * ({@code "<hash>-gzip"}), pois é outra representação do mesmo conteúdo.
+ */
+public record RespostaCodificada(byte[] json, byte[] gzip, String etag) {
+
+    private static final String SUFIXO_GZIP = "-gzip\"";
+
+    public boolean temGzip() {
+        return gzip != null;
+    }
+
+    public String etag(boolean comGzip) {
+        return comGzip && temGzip() ? etag.substring(0, etag.length() - 1) + SUFIXO_GZIP : etag;
+    }
+
+    /**
+     * Comparação fraca do {@code If-None-Match} (RFC 9110): qualquer ETag da
+     * lista, com ou sem {@code W/}, que corresponda a uma das codificações
+     * deste conteúdo, ou {@code *}.
+     */
+    public boolean naoModificada(List<String> ifNoneMatch) {
+        for (String valor : ifNoneMatch) {
+            String candidato = valor.startsWith("W/") ? valor.substring(2) : valor;
+            if ("*".equals(candidato) || etag.equals(candidato) || (temGzip() && etag(true).equals(candidato))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Bytes ocupados no cache, usados como peso no limite de memória. */
+    public int tamanho() {
+        return json.length + (temGzip() ? gzip.length : 0) + etag.length();
+    }
+}
@@ -0,0 +1,21 @@
+package com.api.credit.config;
+
+import com.api.credit.auditoria.AuditoriaInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "app.auditoria.habilitado", havingValue = "true", matchIfMissing = true)
+public class AuditoriaConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AuditoriaInterceptor auditoriaInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(auditoriaInterceptor).addPathPatterns("/api/**");
+    }
+}
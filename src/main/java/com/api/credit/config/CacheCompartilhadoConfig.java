@@ -0,0 +1,25 @@
+package com.api.credit.config;
+
+import com.api.credit.cache.CacheCompartilhado;
+import com.api.credit.listener.InvalidacaoCacheListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+@ConditionalOnProperty(name = "app.cache.compartilhado.habilitado", havingValue = "true")
+public class CacheCompartilhadoConfig {
+
+    // Uma conexão de assinatura por instância para os avisos de invalidação
+    @Bean
+    public RedisMessageListenerContainer invalidacaoCacheContainer(RedisConnectionFactory connectionFactory,
+                                                                   InvalidacaoCacheListener listener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(listener, new ChannelTopic(CacheCompartilhado.CANAL_INVALIDACAO));
+        return container;
+    }
+}
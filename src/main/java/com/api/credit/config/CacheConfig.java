@@ -0,0 +1,74 @@
+package com.api.credit.config;
+
+import com.api.credit.cache.RespostaCodificada;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    public static final String CACHE_POR_CREDITO = "creditos-por-credito";
+    public static final String CACHE_POR_NFSE = "creditos-por-nfse";
+    public static final String CACHE_AUSENTES_POR_CREDITO = "creditos-ausentes-por-credito";
+    public static final String CACHE_AUSENTES_POR_NFSE = "creditos-ausentes-por-nfse";
+    public static final String CACHE_RESPOSTAS_POR_CREDITO = "creditos-respostas-por-credito";
+    public static final String CACHE_RESPOSTAS_POR_NFSE = "creditos-respostas-por-nfse";
+
+    @Value("${app.cache.creditos.ttl}")
+    private long ttlSegundos;
+
+    @Value("${app.cache.creditos.max-entries}")
+    private long maxEntradas;
+
+    @Value("${app.cache.ausentes.ttl:30}")
+    private long ttlAusentesSegundos;
+
+    @Value("${app.cache.ausentes.max-entries:10000}")
+    private long maxEntradasAusentes;
+
+    @Value("${app.cache.respostas.max-mb:64}")
+    private long maxMbRespostas;
+
+    // Caches registrados na criação para que o actuator publique
+    // cache.gets (hit/miss) e cache.evictions no /actuator/prometheus
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CACHE_POR_CREDITO, CACHE_POR_NFSE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maxEntradas)
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        // Chaves sem crédito: TTL curto, pois um crédito importado em outra
+        // instância só chega aqui pelo creditos-eventos
+        cacheManager.registerCustomCache(CACHE_AUSENTES_POR_CREDITO, cacheAusentes());
+        cacheManager.registerCustomCache(CACHE_AUSENTES_POR_NFSE, cacheAusentes());
+        cacheManager.registerCustomCache(CACHE_RESPOSTAS_POR_CREDITO, cacheRespostas());
+        cacheManager.registerCustomCache(CACHE_RESPOSTAS_POR_NFSE, cacheRespostas());
+        return cacheManager;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> cacheAusentes() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntradasAusentes)
+                .expireAfterWrite(Duration.ofSeconds(ttlAusentesSegundos))
+                .recordStats()
+                .build();
+    }
+
+    // Respostas já codificadas: limitadas pelos bytes guardados, não pelo número de chaves
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> cacheRespostas() {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxMbRespostas * 1024 * 1024)
+                .weigher((chave, resposta) -> ((RespostaCodificada) resposta).tamanho())
+                .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+                .recordStats()
+                .build();
+    }
+}
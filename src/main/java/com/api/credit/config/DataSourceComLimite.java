@@ -0,0 +1,116 @@
+package com.api.credit.config;
+
+import com.api.credit.metrica.EtapaConsulta;
+import com.api.credit.metrica.MedicaoConsulta;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita quantas conexões podem estar emprestadas ao mesmo tempo com um
+ * {@link Semaphore} justo. Com threads virtuais o número de requisições
+ * simultâneas deixa de ser limitado pelo pool do Tomcat; sem esta fila, o
+ * excesso esperaria dentro do Hikari e falharia após {@code connection-timeout}.
+ * Aqui a espera é barata (a thread virtual é desmontada enquanto aguarda) e
+ * tem prazo próprio.
+ * <p>
+ * A permissão é devolvida no primeiro {@code close()} da conexão; os
+ * seguintes são ignorados.
+ */
+public class DataSourceComLimite extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final long esperaMaximaMs;
+
+    public DataSourceComLimite(DataSource alvo, int permissoes, long esperaMaximaMs) {
+        super(alvo);
+        this.permissoes = new Semaphore(permissoes, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        return emprestar(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        return emprestar(() -> super.getConnection(username, password));
+    }
+
+    public int getPermissoesDisponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    public int getThreadsAguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        // Conta como espera por conexão em qualquer ordem dos wrappers
+        int anterior = MedicaoConsulta.entrar(EtapaConsulta.CONEXAO);
+        try {
+            if (!permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Nenhuma conexão liberada em " + esperaMaximaMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando conexão", e);
+        } finally {
+            MedicaoConsulta.sair(anterior);
+        }
+    }
+
+    private Connection emprestar(Abertura abertura) throws SQLException {
+        Connection conexao;
+        try {
+            conexao = abertura.abrir();
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+        AtomicBoolean devolvida = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    switch (metodo.getName()) {
+                        case "equals":
+                            return proxy == argumentos[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if ("close".equals(metodo.getName())) {
+                        if (devolvida.compareAndSet(false, true)) {
+                            try {
+                                conexao.close();
+                            } finally {
+                                permissoes.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexao, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface Abertura {
+        Connection abrir() throws SQLException;
+    }
+}
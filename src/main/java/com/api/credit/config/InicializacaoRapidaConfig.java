@@ -0,0 +1,165 @@
+package com.api.credit.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Perfil {@code fast-start}: tira da subida o que não é necessário para
+ * atender e executa numa thread própria, depois do
+ * {@link ApplicationReadyEvent}:
+ * <ul>
+ *   <li>a criação dos tópicos pelo {@link KafkaAdmin}
+ *   ({@code app.kafka.criar-topicos-na-subida=false});</li>
+ *   <li>a validação do schema pelo Hibernate ({@code ddl-auto: none}), feita
+ *   depois com o mesmo {@link SchemaValidator} do {@code validate};</li>
+ *   <li>o modelo OpenAPI e os demais beans do springdoc, criados só no
+ *   primeiro acesso a {@code /api-docs} ou ao Swagger UI.</li>
+ * </ul>
+ * As consultas não dependem de nenhum deles; uma falha numa tarefa adiada vai
+ * para o log e para {@code creditos.inicializacao.adiada.falhas}.
+ */
+@Configuration
+@Profile("fast-start")
+public class InicializacaoRapidaConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(InicializacaoRapidaConfig.class);
+
+    // static: precisa alterar as definições antes de qualquer bean ser criado
+    @Bean
+    public static BeanFactoryPostProcessor openApiSobDemanda() {
+        return beanFactory -> {
+            int adiados = 0;
+            for (String nome : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicao = beanFactory.getBeanDefinition(nome);
+                if (doSpringdoc(beanFactory, definicao)) {
+                    definicao.setLazyInit(true);
+                    adiados++;
+                }
+            }
+            log.debug("{} beans do springdoc criados sob demanda", adiados);
+        };
+    }
+
+    // Beans declarados pelo springdoc ou pelo SwaggerConfig (o customOpenAPI)
+    static boolean doSpringdoc(ConfigurableListableBeanFactory beanFactory, BeanDefinition definicao) {
+        String classe = definicao.getBeanClassName();
+        if (classe == null && definicao.getFactoryBeanName() != null
+                && beanFactory.containsBeanDefinition(definicao.getFactoryBeanName())) {
+            classe = beanFactory.getBeanDefinition(definicao.getFactoryBeanName()).getBeanClassName();
+        }
+        return classe != null && (classe.startsWith("org.springdoc.") || classe.equals(SwaggerConfig.class.getName()));
+    }
+
+    @Bean
+    public MetadadosHibernate metadadosHibernate() {
+        return new MetadadosHibernate();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer capturaMetadadosHibernate(MetadadosHibernate metadadosHibernate) {
+        return propriedades -> propriedades.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(metadadosHibernate));
+    }
+
+    @Bean
+    public TarefasAdiadas tarefasAdiadas(KafkaAdmin kafkaAdmin, MetadadosHibernate metadadosHibernate,
+                                         MeterRegistry meterRegistry) {
+        return new TarefasAdiadas(kafkaAdmin::initialize, metadadosHibernate, meterRegistry);
+    }
+
+    /** Guarda o modelo montado pelo Hibernate para validar o schema depois da subida. */
+    static class MetadadosHibernate implements Integrator {
+
+        private volatile Metadata metadata;
+        private volatile SessionFactoryServiceRegistry servicos;
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry servicos) {
+            this.metadata = metadata;
+            this.servicos = servicos;
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry servicos) {
+            this.metadata = null;
+            this.servicos = null;
+        }
+
+        void validar() {
+            Metadata atual = metadata;
+            if (atual == null) {
+                throw new IllegalStateException("Modelo do Hibernate não disponível");
+            }
+            new SchemaValidator().validate(atual, servicos);
+        }
+    }
+
+    static class TarefasAdiadas {
+
+        // KafkaAdmin#initialize: false se o broker não respondeu
+        private final BooleanSupplier criarTopicos;
+        private final MetadadosHibernate metadadosHibernate;
+        private final MeterRegistry meterRegistry;
+
+        TarefasAdiadas(BooleanSupplier criarTopicos, MetadadosHibernate metadadosHibernate,
+                       MeterRegistry meterRegistry) {
+            this.criarTopicos = criarTopicos;
+            this.metadadosHibernate = metadadosHibernate;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void iniciar() {
+            Thread thread = new Thread(this::executar, "inicializacao-adiada");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void executar() {
+            executar("topicos", () -> {
+                if (!criarTopicos.getAsBoolean()) {
+                    throw new IllegalStateException("broker indisponível");
+                }
+            });
+            executar("schema", metadadosHibernate::validar);
+        }
+
+        private void executar(String tarefa, Runnable acao) {
+            long inicio = System.nanoTime();
+            try {
+                acao.run();
+                log.info("Tarefa adiada '{}' concluída em {} ms", tarefa, (System.nanoTime() - inicio) / 1_000_000);
+            } catch (RuntimeException e) {
+                Counter.builder("creditos.inicializacao.adiada.falhas")
+                        .description("Tarefas tiradas da subida pelo perfil fast-start que falharam")
+                        .tag("tarefa", tarefa)
+                        .register(meterRegistry)
+                        .increment();
+                log.error("Falha na tarefa adiada '{}': {}", tarefa, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package com.api.credit.config;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.ConsultaEventoDeserializer;
+import com.api.credit.evento.ConsultaEventoSerializer;
+
 import org.apache.kafka.clients.admin.AdminClientConfig;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
@@ -22,6 +29,7 @@ import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
@@ -35,9 +43,37 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    // json (padrão) ou binario - formato dos eventos de creditos-consultas
+    @Value("${app.kafka.consultas.formato:json}")
+    private String formatoConsultas;
+
+    // false no perfil fast-start: os tópicos são criados depois da subida (InicializacaoRapidaConfig)
+    @Value("${app.kafka.criar-topicos-na-subida:true}")
+    private boolean criarTopicosNaSubida;
+
+    // Explícito porque o produtor compara com o registro não comprimido; bytes-lote fica abaixo dele
+    @Value("${app.auditoria.max-request-size:1048576}")
+    private int tamanhoMaximoAuditoria;
+
 
     @Bean
+    @Primary
     public ProducerFactory<String, Object> producerFactory() {
+        Map<String, Object> configProps = configuracaoProdutor();
+
+        if (isFormatoBinario()) {
+            // ConsultaEvento em binário compacto; demais tipos continuam em JSON
+            Map<Class<?>, Serializer> delegados = new LinkedHashMap<>();
+            delegados.put(ConsultaEvento.class, new ConsultaEventoSerializer());
+            delegados.put(Object.class, new JsonSerializer<>());
+            return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                    new DelegatingByTypeSerializer(delegados, true));
+        }
+
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    private Map<String, Object> configuracaoProdutor() {
         Map<String, Object> configProps = new HashMap<>();
 
         // Configurações básicas
@@ -57,15 +93,34 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
         configProps.put(ProducerConfig.RETRY_BACKOFF_MS_CONFIG, 1000);
+        return configProps;
+    }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+    private boolean isFormatoBinario() {
+        return "binario".equalsIgnoreCase(formatoConsultas);
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // Produtor próprio da auditoria: cada mensagem já é um lote de registros,
+    // comprimido em gzip como o tópico (o broker não precisa recomprimir)
+    @Bean
+    public ProducerFactory<String, Object> auditoriaProducerFactory() {
+        Map<String, Object> configProps = configuracaoProdutor();
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip");
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, tamanhoMaximoAuditoria);
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> auditoriaKafkaTemplate() {
+        return new KafkaTemplate<>(auditoriaProducerFactory());
+    }
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -74,7 +129,9 @@ public class KafkaConfig {
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        // O deserializer binário reconhece o byte mágico e delega o restante ao JSON
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+                isFormatoBinario() ? ConsultaEventoDeserializer.class : JsonDeserializer.class);
 
         // Configurações do JsonDeserializer
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.credit.dto,com.credit.entity,java.util,java.lang");
@@ -110,6 +167,24 @@ public class KafkaConfig {
         return factory;
     }
 
+    // Listener em lote das estatísticas: um commit de offset por poll
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> consultasBatchListenerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setPollTimeout(3000);
+
+        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+
+        return factory;
+    }
+
     // ===============================
     // CONFIGURAÇÕES DE ADMIN (TÓPICOS)
     // ===============================
@@ -118,7 +193,9 @@ public class KafkaConfig {
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
         configs.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        return new KafkaAdmin(configs);
+        KafkaAdmin admin = new KafkaAdmin(configs);
+        admin.setAutoCreate(criarTopicosNaSubida);
+        return admin;
     }
 
     // Criação automática dos tópicos
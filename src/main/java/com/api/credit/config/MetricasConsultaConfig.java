@@ -0,0 +1,40 @@
+package com.api.credit.config;
+
+import com.api.credit.metrica.DataSourceMedido;
+import com.api.credit.metrica.MedicaoConsultaInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "app.metricas.consulta.habilitado", havingValue = "true", matchIfMissing = true)
+public class MetricasConsultaConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private MedicaoConsultaInterceptor medicaoConsultaInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(medicaoConsultaInterceptor).addPathPatterns("/api/creditos/**");
+    }
+
+    // static: o post-processor precisa existir antes do DataSource ser criado
+    @Bean
+    public static BeanPostProcessor medicaoConexoesBanco() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof DataSourceMedido)) {
+                    return new DataSourceMedido((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.api.credit.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Modo opcional em que as requisições HTTP (inclusive o processamento
+ * assíncrono das exportações) rodam em threads virtuais, com o pool de
+ * conexões protegido por {@link DataSourceComLimite}.
+ * <p>
+ * Threads virtuais exigem Java 21 em tempo de execução. O executor é obtido
+ * por reflexão para que o build continue compatível com Java 17; em uma JVM
+ * anterior o modo é ignorado com um aviso, e o {@link DataSourceComLimite}
+ * também não é instalado.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.threads-virtuais.habilitado", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadsVirtuaisConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService executorThreadsVirtuais() {
+        ExecutorService executor = novoExecutorVirtual("http-virtual-");
+        if (executor == null) {
+            log.warn("Threads virtuais indisponíveis no Java {}; mantendo o pool de threads do Tomcat",
+                    Runtime.version().feature());
+            // Não é usado: os customizadores abaixo só instalam o executor no Java 21+
+            return Executors.newSingleThreadExecutor();
+        }
+        log.info("Requisições HTTP atendidas em threads virtuais");
+        return executor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> executorVirtualTomcat(ExecutorService executorThreadsVirtuais) {
+        return protocolHandler -> {
+            if (suportaThreadsVirtuais()) {
+                protocolHandler.setExecutor(executorThreadsVirtuais);
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer executorVirtualAssincrono(ExecutorService executorThreadsVirtuais) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                if (suportaThreadsVirtuais()) {
+                    configurer.setTaskExecutor(new TaskExecutorAdapter(executorThreadsVirtuais));
+                }
+            }
+        };
+    }
+
+    // static: o post-processor precisa existir antes do DataSource ser criado
+    @Bean
+    @Conditional(ThreadsVirtuaisDisponiveis.class)
+    public static BeanPostProcessor limiteConexoesBanco(Environment environment) {
+        int permissoes = environment.getProperty("app.threads-virtuais.conexoes-simultaneas", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long esperaMaximaMs = environment.getProperty("app.threads-virtuais.espera-conexao-ms", Long.class, 30000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof DataSourceComLimite)) {
+                    return new DataSourceComLimite((DataSource) bean, permissoes, esperaMaximaMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @Conditional(ThreadsVirtuaisDisponiveis.class)
+    public MeterBinder metricasLimiteConexoes(DataSource dataSource) {
+        return registry -> {
+            DataSourceComLimite limitado = limiteDe(dataSource);
+            if (limitado != null) {
+                Gauge.builder("creditos.banco.permissoes.disponiveis", limitado, DataSourceComLimite::getPermissoesDisponiveis)
+                        .description("Conexões que ainda podem ser emprestadas")
+                        .register(registry);
+                Gauge.builder("creditos.banco.permissoes.aguardando", limitado, DataSourceComLimite::getThreadsAguardando)
+                        .description("Threads aguardando uma conexão")
+                        .register(registry);
+            }
+        };
+    }
+
+    // O DataSourceComLimite pode estar por baixo de outro wrapper (DataSourceMedido)
+    private static DataSourceComLimite limiteDe(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(DataSourceComLimite.class) ? dataSource.unwrap(DataSourceComLimite.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    static boolean suportaThreadsVirtuais() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /** Mesma condição em que os customizadores instalam o executor virtual. */
+    static class ThreadsVirtuaisDisponiveis implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            return suportaThreadsVirtuais();
+        }
+    }
+
+    /**
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefixo, 0).factory())}
+     * via reflexão; {@code null} antes do Java 21.
+     */
+    static ExecutorService novoExecutorVirtual(String prefixo) {
+        if (!suportaThreadsVirtuais()) {
+            return null;
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> tipoBuilder = Class.forName("java.lang.Thread$Builder");
+            builder = tipoBuilder.getMethod("name", String.class, long.class).invoke(builder, prefixo, 0L);
+            ThreadFactory fabrica = (ThreadFactory) tipoBuilder.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, fabrica);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Falha ao criar executor de threads virtuais", e);
+        }
+    }
+}
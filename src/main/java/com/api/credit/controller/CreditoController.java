@@ -1,29 +1,128 @@
 package com.api.credit.controller;
 
-import com.api.credit.dto.CreditoDTO;
+import com.api.credit.cache.RespostaCodificada;
+import com.api.credit.dto.ConsultaLoteRequestDTO;
+import com.api.credit.dto.ConsultaLoteResponseDTO;
+import com.api.credit.dto.FiltroCreditoDTO;
+import com.api.credit.dto.PaginaCreditosDTO;
+import com.api.credit.dto.ResultadoImportacaoDTO;
+import com.api.credit.exception.RequisicaoInvalidaException;
+import com.api.credit.metrica.MedirEtapas;
+import com.api.credit.service.CreditoExportService;
+import com.api.credit.service.CreditoImportacaoService;
 import com.api.credit.service.CreditoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/creditos")
 @CrossOrigin(origins = "*")
 public class CreditoController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
     @Autowired
     private CreditoService creditoService;
 
+    @Autowired
+    private CreditoExportService creditoExportService;
+
+    @Autowired
+    private CreditoImportacaoService creditoImportacaoService;
+
+    @GetMapping
+    public ResponseEntity<PaginaCreditosDTO> listar(FiltroCreditoDTO filtro,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer tamanho) {
+        return ResponseEntity.ok(creditoService.listar(filtro, cursor, tamanho));
+    }
+
+    @MedirEtapas("nfse")
     @GetMapping("/{numeroNfse}")
-    public ResponseEntity<List<CreditoDTO>> buscarPorNfse(@PathVariable String numeroNfse) {
-        List<CreditoDTO> creditos = creditoService.buscarNumeroNfse(numeroNfse);
-        return ResponseEntity.ok(creditos);
+    public ResponseEntity<byte[]> buscarPorNfse(@PathVariable String numeroNfse,
+                                                @RequestHeader HttpHeaders cabecalhos) {
+        return responder(creditoService.buscarRespostaPorNfse(numeroNfse), cabecalhos);
     }
 
+    @MedirEtapas("credito")
     @GetMapping("/credito/{numeroCredito}")
-    public ResponseEntity<CreditoDTO> buscarPorCredito(@PathVariable String numeroCredito) {
-        CreditoDTO credito = creditoService.buscarPorCredito(numeroCredito);
-        return ResponseEntity.ok(credito);
+    public ResponseEntity<byte[]> buscarPorCredito(@PathVariable String numeroCredito,
+                                                   @RequestHeader HttpHeaders cabecalhos) {
+        return responder(creditoService.buscarRespostaPorCredito(numeroCredito), cabecalhos);
+    }
+
+    @MedirEtapas("lote")
+    @PostMapping("/lote")
+    public ResponseEntity<ConsultaLoteResponseDTO> buscarEmLote(@RequestBody ConsultaLoteRequestDTO requisicao) {
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(requisicao);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(defaultValue = "ndjson") String formato) {
+        switch (formato.toLowerCase()) {
+            case "ndjson":
+                return ResponseEntity.ok()
+                        .contentType(APPLICATION_NDJSON)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=creditos.ndjson")
+                        .body(creditoExportService::exportarNdjson);
+            case "csv":
+                return ResponseEntity.ok()
+                        .contentType(TEXT_CSV)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=creditos.csv")
+                        .body(creditoExportService::exportarCsv);
+            default:
+                throw new RequisicaoInvalidaException("Formato de exportação não suportado: " + formato);
+        }
+    }
+
+    @PostMapping(value = "/importacao", consumes = "application/x-ndjson")
+    public ResponseEntity<ResultadoImportacaoDTO> importarNdjson(InputStream corpo) {
+        return ResponseEntity.ok(creditoImportacaoService.importarNdjson(corpo));
+    }
+
+    @PostMapping(value = "/importacao", consumes = "text/csv")
+    public ResponseEntity<ResultadoImportacaoDTO> importarCsv(InputStream corpo) {
+        return ResponseEntity.ok(creditoImportacaoService.importarCsv(corpo));
+    }
+
+    // Bytes já codificados vão direto para a resposta; com Content-Encoding
+    // definido, o server.compression não comprime de novo
+    private static ResponseEntity<byte[]> responder(RespostaCodificada resposta, HttpHeaders cabecalhos) {
+        boolean gzip = resposta.temGzip() && aceitaGzip(cabecalhos);
+        String etag = resposta.etag(gzip);
+        if (resposta.naoModificada(cabecalhos.getIfNoneMatch())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder resposta200 = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return resposta200.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(resposta.gzip());
+        }
+        return resposta200.body(resposta.json());
+    }
+
+    private static boolean aceitaGzip(HttpHeaders cabecalhos) {
+        for (String valor : cabecalhos.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String codificacao : valor.split(",")) {
+                String[] partes = codificacao.trim().split(";");
+                if ("gzip".equalsIgnoreCase(partes[0].trim())) {
+                    return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0*)?");
+                }
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
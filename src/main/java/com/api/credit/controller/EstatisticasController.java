@@ -0,0 +1,40 @@
+package com.api.credit.controller;
+
+import com.api.credit.dto.EstatisticasConsultaDTO;
+import com.api.credit.dto.ResumoCreditosDTO;
+import com.api.credit.service.EstatisticasConsultaService;
+import com.api.credit.service.ResumoCreditosService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/estatisticas")
+@CrossOrigin(origins = "*")
+public class EstatisticasController {
+
+    private static final int LIMITE_MAXIMO = 100;
+
+    @Autowired
+    private EstatisticasConsultaService estatisticasConsultaService;
+
+    @Autowired
+    private ResumoCreditosService resumoCreditosService;
+
+    @GetMapping("/consultas")
+    public ResponseEntity<EstatisticasConsultaDTO> consultas(@RequestParam(defaultValue = "10") int limite) {
+        int limiteEfetivo = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        return ResponseEntity.ok(estatisticasConsultaService.resumo(limiteEfetivo));
+    }
+
+    @GetMapping("/creditos")
+    public ResponseEntity<List<ResumoCreditosDTO>> creditos(
+            @RequestParam(defaultValue = "mes,tipoCredito,simplesNacional") List<String> agrupamento,
+            @RequestParam(required = false) String mesInicio,
+            @RequestParam(required = false) String mesFim,
+            @RequestParam(required = false) String tipoCredito) {
+        return ResponseEntity.ok(resumoCreditosService.resumir(agrupamento, mesInicio, mesFim, tipoCredito));
+    }
+}
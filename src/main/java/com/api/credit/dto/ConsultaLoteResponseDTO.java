@@ -0,0 +1,18 @@
+package com.api.credit.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConsultaLoteResponseDTO {
+
+    private Map<String, ResultadoConsultaDTO> porNfse = new LinkedHashMap<>();
+    private Map<String, ResultadoConsultaDTO> porCredito = new LinkedHashMap<>();
+
+}
@@ -0,0 +1,71 @@
+package com.api.credit.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha da importação, no mesmo formato da exportação. As restrições
+ * espelham as colunas da tabela {@code credito}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CreditoImportacaoDTO {
+
+    @NotBlank
+    @Size(max = 50)
+    private String numeroCredito;
+
+    @NotBlank
+    @Size(max = 50)
+    private String numeroNfse;
+
+    @NotNull
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate dataConstituicao;
+
+    @NotNull
+    @Digits(integer = 13, fraction = 2)
+    private BigDecimal valorIssqn;
+
+    @NotBlank
+    @Size(max = 50)
+    private String tipoCredito;
+
+    // "Sim"/"Não" como na exportação, ou true/false
+    @NotNull
+    @Pattern(regexp = "(?i)sim|não|nao|true|false")
+    private String simplesNacional;
+
+    @NotNull
+    @Digits(integer = 3, fraction = 2)
+    private BigDecimal aliquota;
+
+    @NotNull
+    @Digits(integer = 13, fraction = 2)
+    private BigDecimal valorFaturado;
+
+    @NotNull
+    @Digits(integer = 13, fraction = 2)
+    private BigDecimal valorDeducao;
+
+    @NotNull
+    @Digits(integer = 13, fraction = 2)
+    private BigDecimal baseCalculo;
+
+    public boolean isSimplesNacionalVerdadeiro() {
+        return "sim".equalsIgnoreCase(simplesNacional) || "true".equalsIgnoreCase(simplesNacional);
+    }
+
+}
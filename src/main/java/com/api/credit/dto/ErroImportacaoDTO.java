@@ -0,0 +1,15 @@
+package com.api.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ErroImportacaoDTO {
+
+    private long linha;
+    private String mensagem;
+
+}
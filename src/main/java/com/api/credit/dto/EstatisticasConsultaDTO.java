@@ -0,0 +1,20 @@
+package com.api.credit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstatisticasConsultaDTO {
+
+    private long totalEventos;
+    private List<ConsultasPorMinutoDTO> porMinuto = new ArrayList<>();
+    private List<ItemFrequenteDTO> nfseMaisConsultadas = new ArrayList<>();
+    private List<ItemFrequenteDTO> creditosMaisConsultados = new ArrayList<>();
+
+}
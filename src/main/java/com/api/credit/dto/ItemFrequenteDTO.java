@@ -0,0 +1,17 @@
+package com.api.credit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemFrequenteDTO {
+
+    private String numero;
+    private long consultas;
+    // A contagem real está entre consultas - erroMaximo e consultas
+    private long erroMaximo;
+
+}
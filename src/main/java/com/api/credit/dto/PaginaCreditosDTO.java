@@ -0,0 +1,20 @@
+package com.api.credit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaCreditosDTO {
+
+    private List<CreditoDTO> itens = new ArrayList<>();
+    private int tamanho;
+    // Cursor da próxima página; null na última
+    private String proximo;
+
+}
@@ -0,0 +1,21 @@
+package com.api.credit.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoConsultaDTO {
+
+    private boolean encontrado;
+    private List<CreditoDTO> creditos;
+
+    public static ResultadoConsultaDTO de(List<CreditoDTO> creditos) {
+        return new ResultadoConsultaDTO(!creditos.isEmpty(), creditos);
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.api.credit.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoImportacaoDTO {
+
+    private String importacao;
+    private long linhas;
+    private long inseridas;
+    // Número do crédito já existente (ou repetido no arquivo)
+    private long duplicadas;
+    private long rejeitadas;
+    private int lotes;
+    // Limitado a app.importacao.max-erros; rejeitadas traz o total
+    private List<ErroImportacaoDTO> erros = new ArrayList<>();
+
+}
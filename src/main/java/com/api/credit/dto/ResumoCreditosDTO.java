@@ -0,0 +1,33 @@
+package com.api.credit.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totais de um grupo do relatório; as dimensões fora do agrupamento ficam
+ * de fora do JSON.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResumoCreditosDTO {
+
+    @JsonFormat(pattern = "yyyy-MM")
+    private YearMonth mes;
+
+    private String tipoCredito;
+    private String simplesNacional;
+    private long quantidade;
+    private BigDecimal valorIssqn;
+    private BigDecimal valorFaturado;
+    private BigDecimal valorDeducao;
+    private BigDecimal baseCalculo;
+
+}
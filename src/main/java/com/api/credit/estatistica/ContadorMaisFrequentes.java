@@ -0,0 +1,101 @@
+package com.api.credit.estatistica;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Top-K aproximado pelo algoritmo Space-Saving (Metwally et al.): mantém no
+ * máximo {@code capacidade} contadores; quando chega uma chave nova e não há
+ * espaço, ela herda o contador da chave menos frequente (+1), guardando o valor
+ * herdado como erro máximo. Toda chave com frequência real acima de
+ * {@code total / capacidade} está garantidamente na estrutura.
+ * <p>
+ * Não é thread-safe; o chamador sincroniza.
+ */
+public class ContadorMaisFrequentes {
+
+    private static final Comparator<Entrada> POR_CONTAGEM = Comparator
+            .comparingLong((Entrada e) -> e.contagem)
+            .thenComparingLong(e -> e.sequencia);
+
+    private final int capacidade;
+    private final Map<String, Entrada> porChave;
+    private final TreeSet<Entrada> ordenadas = new TreeSet<>(POR_CONTAGEM);
+    private long sequencia;
+    private long total;
+
+    public ContadorMaisFrequentes(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("capacidade deve ser positiva");
+        }
+        this.capacidade = capacidade;
+        this.porChave = new HashMap<>(capacidade * 2);
+    }
+
+    public void registrar(String chave) {
+        total++;
+        Entrada entrada = porChave.get(chave);
+        if (entrada != null) {
+            ordenadas.remove(entrada);
+            entrada.contagem++;
+            ordenadas.add(entrada);
+            return;
+        }
+        if (porChave.size() < capacidade) {
+            entrada = new Entrada(chave, 1, 0, sequencia++);
+        } else {
+            Entrada menor = ordenadas.pollFirst();
+            porChave.remove(menor.chave);
+            entrada = new Entrada(chave, menor.contagem + 1, menor.contagem, sequencia++);
+        }
+        porChave.put(chave, entrada);
+        ordenadas.add(entrada);
+    }
+
+    /**
+     * As {@code limite} chaves mais frequentes, da maior para a menor contagem.
+     */
+    public List<ItemFrequente> topo(int limite) {
+        List<ItemFrequente> itens = new ArrayList<>(Math.min(limite, porChave.size()));
+        Iterator<Entrada> iterator = ordenadas.descendingIterator();
+        while (iterator.hasNext() && itens.size() < limite) {
+            Entrada entrada = iterator.next();
+            itens.add(new ItemFrequente(entrada.chave, entrada.contagem, entrada.erro));
+        }
+        return itens;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    private static final class Entrada {
+        private final String chave;
+        private long contagem;
+        private final long erro;
+        private final long sequencia;
+
+        private Entrada(String chave, long contagem, long erro, long sequencia) {
+            this.chave = chave;
+            this.contagem = contagem;
+            this.erro = erro;
+            this.sequencia = sequencia;
+        }
+    }
+
+    /**
+     * Chave e contagem estimada; a contagem real está em
+     * {@code [contagem - erroMaximo, contagem]}.
+     */
+    public record ItemFrequente(String chave, long contagem, long erroMaximo) {
+    }
+}
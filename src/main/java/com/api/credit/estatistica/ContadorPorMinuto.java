@@ -0,0 +1,81 @@
+package com.api.credit.estatistica;
+
+import com.api.credit.evento.TipoConsulta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contagem de consultas por minuto e por {@link TipoConsulta} em um anel de
+ * {@code janelaMinutos} posições. O minuto vem do timestamp do evento, então
+ * reprocessar o tópico produz a mesma série; eventos mais antigos que a janela
+ * são ignorados.
+ * <p>
+ * Não é thread-safe; o chamador sincroniza.
+ */
+public class ContadorPorMinuto {
+
+    private static final int TIPOS = TipoConsulta.values().length;
+
+    private final int janelaMinutos;
+    private final long[] minutos;
+    private final long[][] contagens;
+    private long minutoMaisRecente = Long.MIN_VALUE;
+
+    public ContadorPorMinuto(int janelaMinutos) {
+        if (janelaMinutos <= 0) {
+            throw new IllegalArgumentException("janelaMinutos deve ser positiva");
+        }
+        this.janelaMinutos = janelaMinutos;
+        this.minutos = new long[janelaMinutos];
+        this.contagens = new long[janelaMinutos][TIPOS];
+        Arrays.fill(minutos, Long.MIN_VALUE);
+    }
+
+    public void registrar(long timestampMillis, TipoConsulta tipo) {
+        long minuto = TimeUnit.MILLISECONDS.toMinutes(timestampMillis);
+        if (minuto > minutoMaisRecente) {
+            minutoMaisRecente = minuto;
+        } else if (minuto <= minutoMaisRecente - janelaMinutos) {
+            return;
+        }
+        int posicao = (int) Math.floorMod(minuto, (long) janelaMinutos);
+        if (minutos[posicao] != minuto) {
+            minutos[posicao] = minuto;
+            Arrays.fill(contagens[posicao], 0);
+        }
+        contagens[posicao][tipo.ordinal()]++;
+    }
+
+    /**
+     * Minutos da janela terminada em {@code agoraMillis} que tiveram consultas,
+     * do mais antigo para o mais recente.
+     */
+    public List<Minuto> serie(long agoraMillis) {
+        long ultimo = TimeUnit.MILLISECONDS.toMinutes(agoraMillis);
+        List<Minuto> serie = new ArrayList<>();
+        for (long minuto = ultimo - janelaMinutos + 1; minuto <= ultimo; minuto++) {
+            int posicao = (int) Math.floorMod(minuto, (long) janelaMinutos);
+            if (minutos[posicao] == minuto) {
+                serie.add(new Minuto(TimeUnit.MINUTES.toMillis(minuto), contagens[posicao].clone()));
+            }
+        }
+        return serie;
+    }
+
+    /**
+     * Contagens de um minuto indexadas por {@link TipoConsulta#ordinal()}.
+     */
+    public record Minuto(long inicioMillis, long[] porTipo) {
+
+        public long total() {
+            long total = 0;
+            for (long contagem : porTipo) {
+                total += contagem;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.api.credit.evento;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evento de consulta publicado em {@code creditos-consultas}.
+ * <p>
+ * Em JSON mantém o contrato anterior (timestamp ISO e apenas os campos
+ * preenchidos); em binário usa o layout de {@link ConsultaEventoSerializer}.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ConsultaEvento(
+        TipoConsulta tipoConsulta,
+        String parametro,
+        @JsonIgnore long timestampMillis,
+        String usuario,
+        List<String> numerosNfse,
+        List<String> numerosCredito) {
+
+    public ConsultaEvento {
+        numerosNfse = numerosNfse == null ? List.of() : numerosNfse;
+        numerosCredito = numerosCredito == null ? List.of() : numerosCredito;
+    }
+
+    public static ConsultaEvento individual(TipoConsulta tipoConsulta, String parametro, String usuario) {
+        return new ConsultaEvento(tipoConsulta, parametro, System.currentTimeMillis(), usuario, List.of(), List.of());
+    }
+
+    public static ConsultaEvento lote(Collection<String> numerosNfse, Collection<String> numerosCredito,
+                                      String usuario) {
+        return new ConsultaEvento(TipoConsulta.CONSULTA_LOTE, null, System.currentTimeMillis(), usuario,
+                List.copyOf(numerosNfse), List.copyOf(numerosCredito));
+    }
+
+    /**
+     * Converte o valor lido do tópico: {@link ConsultaEvento} (formato binário)
+     * ou {@code Map} (JSON). Retorna {@code null} quando não for reconhecido.
+     */
+    public static ConsultaEvento de(Object valor) {
+        if (valor instanceof ConsultaEvento) {
+            return (ConsultaEvento) valor;
+        }
+        if (valor instanceof Map) {
+            try {
+                return deMapa((Map<?, ?>) valor);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reconstrói o evento a partir do JSON lido como {@code Map} pelo
+     * {@code JsonDeserializer}. Retorna {@code null} para tipos desconhecidos.
+     */
+    public static ConsultaEvento deMapa(Map<?, ?> mapa) {
+        TipoConsulta tipo;
+        try {
+            tipo = TipoConsulta.valueOf(String.valueOf(mapa.get("tipoConsulta")));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        Object timestamp = mapa.get("timestamp");
+        long timestampMillis = timestamp == null ? System.currentTimeMillis()
+                : LocalDateTime.parse(timestamp.toString()).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new ConsultaEvento(tipo, (String) mapa.get("parametro"), timestampMillis,
+                (String) mapa.get("usuario"), textos(mapa.get("numerosNfse")), textos(mapa.get("numerosCredito")));
+    }
+
+    private static List<String> textos(Object valor) {
+        if (!(valor instanceof Collection)) {
+            return List.of();
+        }
+        List<String> textos = new ArrayList<>();
+        for (Object item : (Collection<?>) valor) {
+            textos.add(String.valueOf(item));
+        }
+        return textos;
+    }
+
+    @JsonProperty("timestamp")
+    public String timestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault()).toString();
+    }
+
+    @JsonProperty("quantidade")
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public int quantidade() {
+        return numerosNfse.size() + numerosCredito.size();
+    }
+}
@@ -0,0 +1,117 @@
+package com.api.credit.evento;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lê eventos no layout de {@link ConsultaEventoSerializer}. Mensagens que não
+ * começam com o byte mágico são repassadas ao {@link JsonDeserializer}, de
+ * modo que o consumidor aceita os dois formatos durante uma migração.
+ */
+public class ConsultaEventoDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == ConsultaEventoSerializer.MAGIC) {
+            return ler(data);
+        }
+        return headers == null ? json.deserialize(topic, data) : json.deserialize(topic, headers, data);
+    }
+
+    static ConsultaEvento ler(byte[] data) {
+        Leitor leitor = new Leitor(data);
+        leitor.pos = 1;
+        byte versao = data[leitor.pos++];
+        if (versao != ConsultaEventoSerializer.VERSAO) {
+            throw new SerializationException("Versão de evento de consulta não suportada: " + versao);
+        }
+        try {
+            TipoConsulta tipo = TipoConsulta.values()[data[leitor.pos++]];
+            long timestamp = 0;
+            for (int i = 0; i < 8; i++) {
+                timestamp = (timestamp << 8) | (data[leitor.pos++] & 0xFF);
+            }
+            String parametro = leitor.texto();
+            String usuario = leitor.texto();
+            List<String> numerosNfse = leitor.lista();
+            List<String> numerosCredito = leitor.lista();
+            return new ConsultaEvento(tipo, parametro, timestamp, usuario, numerosNfse, numerosCredito);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Evento de consulta binário truncado", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static final class Leitor {
+
+        private final byte[] data;
+        private int pos;
+
+        private Leitor(byte[] data) {
+            this.data = data;
+        }
+
+        int varint() {
+            int valor = 0;
+            for (int deslocamento = 0; deslocamento < 32; deslocamento += 7) {
+                byte b = data[pos++];
+                valor |= (b & 0x7F) << deslocamento;
+                if ((b & 0x80) == 0) {
+                    return valor;
+                }
+            }
+            throw new SerializationException("Varint inválido no evento de consulta");
+        }
+
+        String texto() {
+            int tamanho = varint() - 1;
+            if (tamanho < 0) {
+                return null;
+            }
+            if (pos + tamanho > data.length) {
+                throw new ArrayIndexOutOfBoundsException(pos + tamanho);
+            }
+            String texto = new String(data, pos, tamanho, StandardCharsets.UTF_8);
+            pos += tamanho;
+            return texto;
+        }
+
+        List<String> lista() {
+            int quantidade = varint();
+            if (quantidade == 0) {
+                return List.of();
+            }
+            List<String> textos = new ArrayList<>(Math.min(quantidade, data.length));
+            for (int i = 0; i < quantidade; i++) {
+                textos.add(texto());
+            }
+            return List.copyOf(textos);
+        }
+    }
+}
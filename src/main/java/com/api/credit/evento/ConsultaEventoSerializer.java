@@ -0,0 +1,126 @@
+package com.api.credit.evento;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Serialização binária compacta de {@link ConsultaEvento}. Layout:
+ * <pre>
+ * byte    MAGIC (0xC1)   - nunca é o primeiro byte de um JSON
+ * byte    VERSAO
+ * byte    tipoConsulta   - ordinal de {@link TipoConsulta}
+ * int64   timestamp      - epoch millis, big-endian
+ * texto   parametro
+ * texto   usuario
+ * varint  n, n x texto   - numerosNfse
+ * varint  n, n x texto   - numerosCredito
+ * </pre>
+ * {@code texto} é um varint com (bytes UTF-8 + 1), 0 para nulo, seguido dos bytes.
+ */
+public class ConsultaEventoSerializer implements Serializer<ConsultaEvento> {
+
+    static final byte MAGIC = (byte) 0xC1;
+    static final byte VERSAO = 1;
+
+    @Override
+    public byte[] serialize(String topic, ConsultaEvento evento) {
+        if (evento == null) {
+            return null;
+        }
+
+        byte[] buffer = new byte[tamanhoMaximo(evento)];
+        int pos = 0;
+        buffer[pos++] = MAGIC;
+        buffer[pos++] = VERSAO;
+        buffer[pos++] = (byte) evento.tipoConsulta().ordinal();
+        long timestamp = evento.timestampMillis();
+        for (int deslocamento = 56; deslocamento >= 0; deslocamento -= 8) {
+            buffer[pos++] = (byte) (timestamp >>> deslocamento);
+        }
+        pos = escreverTexto(buffer, pos, evento.parametro());
+        pos = escreverTexto(buffer, pos, evento.usuario());
+        pos = escreverLista(buffer, pos, evento.numerosNfse());
+        pos = escreverLista(buffer, pos, evento.numerosCredito());
+
+        return pos == buffer.length ? buffer : Arrays.copyOf(buffer, pos);
+    }
+
+    // Limite superior: 3 bytes UTF-8 por char e 5 bytes por varint
+    private static int tamanhoMaximo(ConsultaEvento evento) {
+        int tamanho = 3 + 8 + tamanhoMaximo(evento.parametro()) + tamanhoMaximo(evento.usuario()) + 10;
+        for (String numero : evento.numerosNfse()) {
+            tamanho += tamanhoMaximo(numero);
+        }
+        for (String numero : evento.numerosCredito()) {
+            tamanho += tamanhoMaximo(numero);
+        }
+        return tamanho;
+    }
+
+    private static int tamanhoMaximo(String texto) {
+        return texto == null ? 1 : 5 + texto.length() * 3;
+    }
+
+    private static int escreverLista(byte[] buffer, int pos, List<String> textos) {
+        pos = escreverVarint(buffer, pos, textos.size());
+        for (String texto : textos) {
+            pos = escreverTexto(buffer, pos, texto);
+        }
+        return pos;
+    }
+
+    private static int escreverTexto(byte[] buffer, int pos, String texto) {
+        if (texto == null) {
+            buffer[pos] = 0;
+            return pos + 1;
+        }
+
+        // Reserva 5 bytes para o varint do tamanho e compacta depois de escrever o texto
+        int inicio = pos + 5;
+        int fim = escreverUtf8(buffer, inicio, texto);
+        int tamanho = fim - inicio;
+        int posTexto = escreverVarint(buffer, pos, tamanho + 1);
+        if (posTexto != inicio) {
+            System.arraycopy(buffer, inicio, buffer, posTexto, tamanho);
+        }
+        return posTexto + tamanho;
+    }
+
+    private static int escreverUtf8(byte[] buffer, int pos, String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < texto.length()
+                    && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, texto.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                throw new SerializationException("Texto com surrogate inválido no evento de consulta");
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    static int escreverVarint(byte[] buffer, int pos, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            buffer[pos++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        buffer[pos++] = (byte) valor;
+        return pos;
+    }
+}
@@ -0,0 +1,24 @@
+package com.api.credit.evento;
+
+import com.api.credit.dto.CreditoDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alteração em um crédito, publicada em {@code creditos-eventos} pelo outbox
+ * com a NFS-e como chave.
+ *
+ * @param id identificador do crédito na tabela {@code credito}
+ */
+public record CreditoEvento(
+        String tipoEvento,
+        Long id,
+        CreditoDTO credito,
+        String timestamp) {
+
+    public static final String TIPO_CRIADO = "CREDITO_CRIADO";
+
+    public static CreditoEvento criado(Long id, CreditoDTO credito) {
+        return new CreditoEvento(TIPO_CRIADO, id, credito, LocalDateTime.now().toString());
+    }
+}
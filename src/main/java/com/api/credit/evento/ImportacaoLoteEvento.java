@@ -0,0 +1,29 @@
+package com.api.credit.evento;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumo de um lote da importação publicado em {@code creditos-eventos}.
+ *
+ * @param importacao identificador comum a todos os lotes de uma mesma importação
+ * @param lote       número sequencial do lote, a partir de 1
+ * @param linhas     linhas lidas no lote, inclusive as rejeitadas
+ */
+public record ImportacaoLoteEvento(
+        String tipoEvento,
+        String importacao,
+        int lote,
+        int linhas,
+        int inseridas,
+        int duplicadas,
+        int rejeitadas,
+        String timestamp) {
+
+    public static final String TIPO = "IMPORTACAO_LOTE";
+
+    public static ImportacaoLoteEvento de(String importacao, int lote, int linhas, int inseridas,
+                                          int duplicadas, int rejeitadas) {
+        return new ImportacaoLoteEvento(TIPO, importacao, lote, linhas, inseridas, duplicadas, rejeitadas,
+                LocalDateTime.now().toString());
+    }
+}
@@ -0,0 +1,12 @@
+package com.api.credit.evento;
+
+/**
+ * Tipos de consulta publicados em {@code creditos-consultas}. No formato
+ * binário o tipo viaja como o ordinal: novos valores devem ser acrescentados
+ * sempre ao final.
+ */
+public enum TipoConsulta {
+    CONSULTA_POR_NFSE,
+    CONSULTA_POR_CREDITO,
+    CONSULTA_LOTE
+}
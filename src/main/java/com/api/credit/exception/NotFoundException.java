@@ -1,7 +1,12 @@
 package com.api.credit.exception;
 
+/**
+ * Consulta sem resultado. É um desfecho esperado (boa parte do tráfego são
+ * números digitados errado), não uma falha: a exceção não captura stack trace,
+ * que custaria mais que o resto do caminho até a resposta 404.
+ */
 public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package com.api.credit.exception;
+
+public class RequisicaoInvalidaException extends RuntimeException {
+    public RequisicaoInvalidaException(String message) {
+        super(message);
+    }
+}
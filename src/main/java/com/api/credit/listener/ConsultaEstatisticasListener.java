@@ -0,0 +1,47 @@
+package com.api.credit.listener;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.service.EstatisticasConsultaService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consome {@code creditos-consultas} em lotes e alimenta as estatísticas de
+ * consulta. O offset é confirmado uma vez por lote, depois da agregação.
+ */
+@Component
+public class ConsultaEstatisticasListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultaEstatisticasListener.class);
+
+    @Autowired
+    private EstatisticasConsultaService estatisticasConsultaService;
+
+    @KafkaListener(
+            id = "estatisticas-consultas",
+            topics = "${app.kafka.topics.creditos-consultas:creditos-consultas}",
+            groupId = "${app.estatisticas.group-id:creditos-api-estatisticas}",
+            containerFactory = "consultasBatchListenerFactory",
+            autoStartup = "${app.estatisticas.habilitado:true}")
+    public void consumir(List<ConsumerRecord<String, Object>> registros, Acknowledgment ack) {
+        List<ConsultaEvento> eventos = new ArrayList<>(registros.size());
+        for (ConsumerRecord<String, Object> registro : registros) {
+            ConsultaEvento evento = ConsultaEvento.de(registro.value());
+            if (evento != null) {
+                eventos.add(evento);
+            } else {
+                log.warn("Evento de consulta ignorado em {}-{}@{}", registro.topic(), registro.partition(), registro.offset());
+            }
+        }
+        estatisticasConsultaService.registrar(eventos);
+        ack.acknowledge();
+    }
+}
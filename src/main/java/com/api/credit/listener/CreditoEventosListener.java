@@ -0,0 +1,80 @@
+package com.api.credit.listener;
+
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.evento.CreditoEvento;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantém o filtro de créditos, o cache e, quando ligados, os créditos em
+ * memória desta instância em dia com os créditos gravados pelas outras, a partir dos {@code CREDITO_CRIADO} de
+ * {@code creditos-eventos}.
+ * <p>
+ * Cada instância precisa ver o tópico inteiro, então o grupo é próprio da
+ * instância e estável entre reinícios ({@code HOSTNAME}, o nome do pod), em vez
+ * de um grupo novo a cada subida. Ao receber as partições o consumo volta {@code releitura-minutos}
+ * no tempo, cobrindo créditos gravados entre a leitura do banco na montagem do
+ * filtro e o início do consumo; reaplicar um evento não tem efeito.
+ */
+@Component
+public class CreditoEventosListener extends AbstractConsumerSeekAware {
+
+    @Autowired
+    private FiltroCreditos filtroCreditos;
+
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Autowired
+    private CreditosEmMemoria creditosEmMemoria;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.filtro-bloom.releitura-minutos:10}")
+    private long releituraMinutos;
+
+    @KafkaListener(
+            id = "filtro-creditos",
+            topics = "${app.kafka.topics.creditos-eventos:creditos-eventos}",
+            groupId = "${app.filtro-bloom.group-id:creditos-api-filtro-${HOSTNAME:${spring.application.name:creditos-api}}}",
+            containerFactory = "consultasBatchListenerFactory",
+            autoStartup = "#{'${app.filtro-bloom.habilitado:true}' == 'true' or '${app.memoria.habilitado:false}' == 'true'}")
+    public void consumir(List<ConsumerRecord<String, Object>> registros, Acknowledgment ack) {
+        for (ConsumerRecord<String, Object> registro : registros) {
+            if (registro.value() instanceof Map<?, ?> evento
+                    && CreditoEvento.TIPO_CRIADO.equals(evento.get("tipoEvento"))
+                    && evento.get("credito") instanceof Map<?, ?> credito
+                    && credito.get("numeroNfse") instanceof String numeroNfse
+                    && credito.get("numeroCredito") instanceof String numeroCredito) {
+                filtroCreditos.adicionar(numeroNfse, numeroCredito);
+                creditoCache.descartarLocal(numeroNfse, numeroCredito);
+                if (creditosEmMemoria.habilitado()) {
+                    creditosEmMemoria.adicionar(objectMapper.convertValue(credito, CreditoDTO.class));
+                }
+            }
+        }
+        ack.acknowledge();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        callback.seekToTimestamp(assignments.keySet(),
+                System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(releituraMinutos));
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.credit.listener;
+
+import com.api.credit.cache.CacheCompartilhado;
+import com.api.credit.cache.CreditoCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Recebe de {@link CacheCompartilhado#CANAL_INVALIDACAO} os créditos gravados
+ * em qualquer instância e descarta as chaves afetadas do cache local.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.compartilhado.habilitado", havingValue = "true")
+public class InvalidacaoCacheListener implements MessageListener {
+
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CacheCompartilhado.Invalidacao invalidacao =
+                CacheCompartilhado.lerInvalidacao(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (invalidacao != null) {
+            creditoCache.descartarLocal(invalidacao.numerosNfse(), invalidacao.numerosCredito());
+        }
+    }
+}
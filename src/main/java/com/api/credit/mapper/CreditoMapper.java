@@ -2,6 +2,7 @@ package com.api.credit.mapper;
 
 
 import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.CreditoImportacaoDTO;
 import com.api.credit.entity.Credito;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -17,6 +18,9 @@ public interface CreditoMapper {
 
     List<CreditoDTO> toDTOList(List<Credito> creditos);
 
+    @Mapping(target = "simplesNacional", source = "simplesNacionalVerdadeiro", qualifiedByName = "booleanToString")
+    CreditoDTO importacaoToDTO(CreditoImportacaoDTO importacao);
+
     @Named("booleanToString")
     default String booleanToString(boolean value) {
         return value ? "Sim" : "Não";
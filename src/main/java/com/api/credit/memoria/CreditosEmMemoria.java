@@ -0,0 +1,380 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modo de atendimento totalmente em memória: a tabela {@code credito} inteira
+ * é carregada na subida (antes do readiness) em {@link TabelaCreditos}, e as
+ * consultas por NFS-e e por crédito deixam de ir ao cache e ao banco.
+ * <p>
+ * Como no {@code FiltroCreditos}, cada crédito gravado depois da carga é
+ * incluído por {@link #adicionar(CreditoDTO)}: pela importação nesta instância
+ * e pelo {@code CreditoEventosListener} para as demais. A inclusão é
+ * idempotente pelo número do crédito, então a releitura de eventos na
+ * atribuição de partições não duplica linhas. Créditos removidos do banco só
+ * saem na próxima carga completa.
+ * <p>
+ * Com {@code app.memoria.snapshot.arquivo} configurado, a carga completa é
+ * gravada nesse arquivo ({@link SnapshotCreditos}) e as subidas seguintes o
+ * mapeiam em vez de ler a tabela: do banco vêm só os créditos com {@code id}
+ * acima do maior do snapshot (menos {@link #MARGEM_IDS}, para transações que
+ * ainda não tinham feito commit na gravação), que ficam no heap. Depois da
+ * subida o arquivo é regravado numa thread à parte com esses créditos, para
+ * que o delta não cresça a cada reinício; a regravação mantém o instante da
+ * carga completa original. Um arquivo inválido, de outro formato, com mais de
+ * {@code max-delta} créditos novos ou cuja carga completa passou de
+ * {@code idade-maxima-horas} é substituído por uma carga completa, que é
+ * quando os créditos removidos do banco deixam a memória.
+ * <p>
+ * Desligado por padrão ({@code app.memoria.habilitado}); enquanto a carga não
+ * terminar, ou se ela ou uma inclusão falhar, {@link #consulta()} devolve
+ * {@code null} e as consultas seguem o caminho normal. A {@link Consulta}
+ * obtida antes de uma falha continua respondendo com o que já tinha.
+ */
+@Component
+public class CreditosEmMemoria implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CreditosEmMemoria.class);
+
+    // Ids alocados antes do maior do snapshot, mas com commit depois da sua leitura
+    static final long MARGEM_IDS = 10_000;
+
+    private static final String SQL_QUANTIDADE = "SELECT count(*) FROM credito";
+    private static final String SQL_CREDITOS = "SELECT numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+            + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo, id FROM credito";
+    private static final String SQL_QUANTIDADE_DELTA = SQL_QUANTIDADE + " WHERE id > ?";
+    private static final String SQL_CREDITOS_DELTA = SQL_CREDITOS + " WHERE id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int fetchSize;
+    private final Path arquivoSnapshot;
+    private final long maxDelta;
+    private final Duration idadeMaxima;
+
+    // Criado no início da carga, para receber também o que for gravado durante ela;
+    // só atende consultas depois de Dados#pronto. Volta a null em qualquer falha.
+    private volatile Dados dados;
+
+    private final Timer duracaoCarga;
+
+    public CreditosEmMemoria(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.memoria.habilitado:false}") boolean habilitado,
+                             @Value("${app.exportacao.fetch-size:1000}") int fetchSize,
+                             @Value("${app.memoria.snapshot.arquivo:}") String arquivoSnapshot,
+                             @Value("${app.memoria.snapshot.max-delta:500000}") long maxDelta,
+                             @Value("${app.memoria.snapshot.idade-maxima-horas:24}") long idadeMaximaHoras) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+        this.fetchSize = fetchSize;
+        this.arquivoSnapshot = arquivoSnapshot == null || arquivoSnapshot.isBlank() ? null : Path.of(arquivoSnapshot);
+        this.maxDelta = maxDelta;
+        this.idadeMaxima = Duration.ofHours(idadeMaximaHoras);
+
+        this.duracaoCarga = Timer.builder("creditos.memoria.carga").register(meterRegistry);
+        Gauge.builder("creditos.memoria.linhas", this, CreditosEmMemoria::linhas)
+                .description("Créditos carregados no armazenamento em memória")
+                .register(meterRegistry);
+        Gauge.builder("creditos.memoria.bytes", this, CreditosEmMemoria::bytesOcupados)
+                .description("Bytes de heap ocupados pelos registros e índices em memória")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("creditos.memoria.mapeados.bytes", this, CreditosEmMemoria::bytesMapeados)
+                .description("Bytes do snapshot mapeados fora do heap")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            carregar();
+        } catch (RuntimeException e) {
+            // Sem a carga completa as consultas continuam indo ao cache e ao banco
+            dados = null;
+            log.warn("Falha ao carregar os créditos em memória; atendendo pelo banco: {}", e.getMessage());
+            return;
+        }
+        Dados carregados = dados;
+        if (carregados != null && carregados.snapshot() != null && carregados.recentes().tamanho() > 0) {
+            // Fora da subida: copia o snapshot inteiro para o heap enquanto grava
+            Thread thread = new Thread(this::regravarSnapshot, "snapshot-creditos");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    public boolean pronto() {
+        return consulta() != null;
+    }
+
+    /**
+     * Carga concluída para atender a requisição, ou {@code null} se não houver;
+     * deve ser obtida uma vez e usada em todas as buscas da requisição.
+     */
+    public Consulta consulta() {
+        Dados atual = dados;
+        return atual != null && atual.pronto ? atual : null;
+    }
+
+    /**
+     * Inclui um crédito gravado. Deve ser chamado depois do commit, para que
+     * uma carga iniciada antes dele o receba aqui e uma iniciada depois o leia
+     * do banco.
+     */
+    public void adicionar(CreditoDTO credito) {
+        Dados atual = dados;
+        if (atual == null) {
+            return;
+        }
+        try {
+            atual.incluir(credito);
+        } catch (RuntimeException e) {
+            // Sem este crédito a memória ficaria desatualizada: volta a atender pelo banco
+            dados = null;
+            log.warn("Falha ao incluir o crédito {} em memória; atendendo pelo banco: {}",
+                    credito.getNumeroCredito(), e.getMessage());
+        }
+    }
+
+    void carregar() {
+        if (!habilitado) {
+            return;
+        }
+        duracaoCarga.record(() -> {
+            SnapshotCreditos snapshot = abrirSnapshot();
+            if (snapshot != null) {
+                carregarDelta(snapshot);
+            } else {
+                carregarTudo();
+            }
+        });
+    }
+
+    private void carregarTudo() {
+        long inicio = System.currentTimeMillis();
+        Long quantidade = jdbcTemplate.queryForObject(SQL_QUANTIDADE, Long.class);
+        Dados novos = new Dados(null, novaTabela(quantidade));
+        dados = novos;
+        novos.idMaximo = lerCreditos(novos, SQL_CREDITOS, null);
+        novos.pronto = true;
+        TabelaCreditos tabela = novos.recentes();
+        log.info("Créditos em memória: {} linhas, {} bytes ({} bytes por linha)", tabela.tamanho(),
+                tabela.bytesOcupados(), tabela.tamanho() == 0 ? 0 : tabela.bytesOcupados() / tabela.tamanho());
+        gravarSnapshot(tabela, novos.idMaximo, inicio);
+    }
+
+    private void carregarDelta(SnapshotCreditos snapshot) {
+        long aPartirDe = Math.max(0, snapshot.idMaximo() - MARGEM_IDS);
+        Long quantidade = jdbcTemplate.queryForObject(SQL_QUANTIDADE_DELTA, Long.class, aPartirDe);
+        Dados novos = new Dados(snapshot, novaTabela(quantidade));
+        dados = novos;
+        novos.idMaximo = Math.max(snapshot.idMaximo(), lerCreditos(novos, SQL_CREDITOS_DELTA, aPartirDe));
+        novos.pronto = true;
+        log.info("Créditos em memória a partir do snapshot {}: {} linhas mapeadas ({} bytes), {} lidas do banco",
+                snapshot.arquivo(), snapshot.linhas(), snapshot.bytesMapeados(), novos.recentes().tamanho());
+    }
+
+    // Snapshot utilizável, ou null para fazer a carga completa (e regravá-lo)
+    private SnapshotCreditos abrirSnapshot() {
+        if (arquivoSnapshot == null || !Files.exists(arquivoSnapshot)) {
+            return null;
+        }
+        SnapshotCreditos snapshot;
+        try {
+            snapshot = SnapshotCreditos.abrir(arquivoSnapshot);
+        } catch (IOException e) {
+            log.warn("Snapshot de créditos {} inválido; fazendo a carga completa: {}", arquivoSnapshot,
+                    e.getMessage());
+            return null;
+        }
+        Duration idade = Duration.ofMillis(System.currentTimeMillis() - snapshot.cargaCompletaEm());
+        if (idade.compareTo(idadeMaxima) >= 0) {
+            log.info("Snapshot de créditos {} com carga completa de {} h atrás (máximo {} h); fazendo a carga completa",
+                    arquivoSnapshot, idade.toHours(), idadeMaxima.toHours());
+            return null;
+        }
+        Long novos = jdbcTemplate.queryForObject(SQL_QUANTIDADE_DELTA, Long.class, snapshot.idMaximo());
+        if (novos != null && novos > maxDelta) {
+            log.info("Snapshot de créditos {} com {} créditos novos (máximo {}); fazendo a carga completa",
+                    arquivoSnapshot, novos, maxDelta);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Regrava o snapshot com o que foi lido ou incluído depois dele, mantendo
+     * o instante da carga completa. As seções mapeadas são copiadas para o
+     * arquivo novo sem passar pelo heap ({@link SnapshotCreditos#regravar}).
+     * Créditos incluídos durante a cópia ficam para a próxima subida, que os
+     * relê pelo {@code id} ou pela margem.
+     */
+    void regravarSnapshot() {
+        Dados atual = dados;
+        if (arquivoSnapshot == null || atual == null || atual.snapshot() == null) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        TabelaCreditos.Conteudo recentes = atual.recentes().conteudo();
+        try {
+            SnapshotCreditos.regravar(arquivoSnapshot, atual.snapshot(), recentes, atual.idMaximo);
+            log.info("Snapshot de créditos regravado em {} ({} linhas mapeadas + {} novas, id máximo {}) em {} ms",
+                    arquivoSnapshot, atual.snapshot().linhas(), recentes.linhas(), atual.idMaximo,
+                    (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Falha ao regravar o snapshot de créditos {}: {}", arquivoSnapshot, e.getMessage());
+        }
+    }
+
+    // Falha na gravação não impede o atendimento: só a próxima subida fará a carga completa de novo
+    private void gravarSnapshot(TabelaCreditos tabela, long idMaximo, long cargaCompletaEm) {
+        if (arquivoSnapshot == null) {
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            SnapshotCreditos.gravar(arquivoSnapshot, tabela, idMaximo, cargaCompletaEm);
+            log.info("Snapshot de créditos gravado em {} ({} linhas, id máximo {}) em {} ms", arquivoSnapshot,
+                    tabela.tamanho(), idMaximo, (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Falha ao gravar o snapshot de créditos {}: {}", arquivoSnapshot, e.getMessage());
+        }
+    }
+
+    // Maior id lido
+    private long lerCreditos(Dados destino, String sql, Long aPartirDe) {
+        long[] idMaximo = {aPartirDe == null ? 0 : aPartirDe};
+        // Somente leitura: fora de auto-commit o PostgreSQL usa cursor com fetch size
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(conexao -> {
+            var comando = conexao.prepareStatement(sql);
+            comando.setFetchSize(fetchSize);
+            if (aPartirDe != null) {
+                comando.setLong(1, aPartirDe);
+            }
+            return comando;
+        }, rs -> {
+            destino.incluir(new CreditoDTO(rs.getString(1), rs.getString(2),
+                    rs.getObject(3, LocalDate.class), rs.getBigDecimal(4), rs.getString(5),
+                    rs.getBoolean(6) ? "Sim" : "Não", rs.getBigDecimal(7), rs.getBigDecimal(8),
+                    rs.getBigDecimal(9), rs.getBigDecimal(10)));
+            idMaximo[0] = Math.max(idMaximo[0], rs.getLong(11));
+        }));
+        return idMaximo[0];
+    }
+
+    private static TabelaCreditos novaTabela(Long quantidade) {
+        // Folga para as inclusões até o próximo reinício sem copiar os registros
+        long capacidade = quantidade == null ? 0 : quantidade + quantidade / 8;
+        return new TabelaCreditos(Math.toIntExact(Math.min(capacidade, Integer.MAX_VALUE - 8)));
+    }
+
+    private double linhas() {
+        Dados atual = dados;
+        if (atual == null) {
+            return 0;
+        }
+        return atual.recentes().tamanho() + (atual.snapshot() == null ? 0 : atual.snapshot().linhas());
+    }
+
+    private double bytesOcupados() {
+        Dados atual = dados;
+        return atual == null ? 0 : atual.recentes().bytesOcupados();
+    }
+
+    private double bytesMapeados() {
+        Dados atual = dados;
+        return atual == null || atual.snapshot() == null ? 0 : atual.snapshot().bytesMapeados();
+    }
+
+    /** Buscas sobre uma carga concluída. */
+    public interface Consulta {
+
+        /** Créditos da NFS-e, vazio se não houver. */
+        List<CreditoDTO> buscarPorNfse(String numeroNfse);
+
+        /** Crédito pelo número, ou {@code null}. */
+        CreditoDTO buscarPorCredito(String numeroCredito);
+    }
+
+    /** Snapshot mapeado (se houver) e o que foi lido ou gravado depois dele. */
+    private static final class Dados implements Consulta {
+
+        private final SnapshotCreditos snapshot;
+        private final TabelaCreditos recentes;
+        // Maior id lido do banco (do snapshot ou da leitura); publicado junto com pronto
+        private long idMaximo;
+        // Carga concluída; até lá as inclusões chegam, mas as consultas não
+        private volatile boolean pronto;
+
+        Dados(SnapshotCreditos snapshot, TabelaCreditos recentes) {
+            this.snapshot = snapshot;
+            this.recentes = recentes;
+        }
+
+        SnapshotCreditos snapshot() {
+            return snapshot;
+        }
+
+        TabelaCreditos recentes() {
+            return recentes;
+        }
+
+        void incluir(CreditoDTO credito) {
+            if (snapshot == null || !snapshot.contemCredito(credito.getNumeroCredito())) {
+                recentes.incluir(credito);
+            }
+        }
+
+        @Override
+        public List<CreditoDTO> buscarPorNfse(String numeroNfse) {
+            List<CreditoDTO> doRecentes = recentes.buscarPorNfse(numeroNfse);
+            if (snapshot == null) {
+                return doRecentes;
+            }
+            List<CreditoDTO> doSnapshot = snapshot.buscarPorNfse(numeroNfse);
+            if (doRecentes.isEmpty() || doSnapshot.isEmpty()) {
+                return doRecentes.isEmpty() ? doSnapshot : doRecentes;
+            }
+            List<CreditoDTO> creditos = new ArrayList<>(doSnapshot.size() + doRecentes.size());
+            creditos.addAll(doSnapshot);
+            creditos.addAll(doRecentes);
+            return creditos;
+        }
+
+        @Override
+        public CreditoDTO buscarPorCredito(String numeroCredito) {
+            CreditoDTO credito = snapshot == null ? null : snapshot.buscarPorCredito(numeroCredito);
+            return credito != null ? credito : recentes.buscarPorCredito(numeroCredito);
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Arquivo com o conteúdo de uma {@link TabelaCreditos} (registros, textos e
+ * os dois índices, no mesmo layout), mapeado com {@link FileChannel#map} para
+ * consultas direto no buffer, fora do heap. Somente leitura; o que foi gravado
+ * no banco depois do snapshot fica em uma {@code TabelaCreditos} à parte.
+ * <p>
+ * Formato (little-endian): cabeçalho de {@value #TAMANHO_CABECALHO} bytes com
+ * {@link #MAGICO}, {@link #FORMATO}, linhas, maior {@code id} lido do banco,
+ * instante da carga completa de que o conteúdo deriva, quantidade de tipos e tamanho de cada seção; depois o
+ * dicionário de tipos, os registros (alinhados em 8 bytes), o encadeamento por
+ * NFS-e, os textos e os dois índices (alinhados em 8 bytes). Um arquivo de
+ * outro formato ou com tamanho diferente do declarado é recusado. Cada seção é
+ * mapeada à parte, então nenhuma pode passar de 2 GB (cerca de 44 milhões de
+ * créditos).
+ */
+final class SnapshotCreditos {
+
+    static final long MAGICO = 0x50414E5344524343L; // "CCRDSNAP"
+    static final int FORMATO = 1;
+    static final int TAMANHO_CABECALHO = 64;
+
+    private final Path arquivo;
+    private final int linhas;
+    private final long idMaximo;
+    private final long cargaCompletaEm;
+    private final String[] tipos;
+    // Seções como foram mapeadas, copiadas sem conversão por regravar
+    private final ByteBuffer registrosMapeados;
+    private final ByteBuffer proximaMapeada;
+    private final LongBuffer registros;
+    private final IntBuffer proximaMesmaNfse;
+    private final ByteBuffer textos;
+    private final IntBuffer indiceCredito;
+    private final IntBuffer indiceNfse;
+    private final long bytesMapeados;
+
+    private SnapshotCreditos(Path arquivo, int linhas, long idMaximo, long cargaCompletaEm, String[] tipos,
+                             ByteBuffer registros, ByteBuffer proximaMesmaNfse, ByteBuffer textos,
+                             ByteBuffer indiceCredito, ByteBuffer indiceNfse, long bytesMapeados) {
+        this.arquivo = arquivo;
+        this.linhas = linhas;
+        this.idMaximo = idMaximo;
+        this.cargaCompletaEm = cargaCompletaEm;
+        this.tipos = tipos;
+        this.registrosMapeados = registros;
+        this.proximaMapeada = proximaMesmaNfse;
+        this.registros = registros.asLongBuffer();
+        this.proximaMesmaNfse = proximaMesmaNfse.asIntBuffer();
+        this.textos = textos;
+        this.indiceCredito = indiceCredito.asIntBuffer();
+        this.indiceNfse = indiceNfse.asIntBuffer();
+        this.bytesMapeados = bytesMapeados;
+    }
+
+    /**
+     * Grava o conteúdo atual da tabela em um arquivo temporário e o move para
+     * {@code arquivo} só depois do {@code force}, para que uma leitura nunca
+     * encontre um snapshot pela metade. {@code cargaCompletaEm} (epoch em ms)
+     * é mantido quando um snapshot é regravado com os créditos lidos depois dele.
+     */
+    static void gravar(Path arquivo, TabelaCreditos tabela, long idMaximo, long cargaCompletaEm)
+            throws IOException {
+        gravar(arquivo, tabela.conteudo(), idMaximo, cargaCompletaEm);
+    }
+
+    static void gravar(Path arquivo, TabelaCreditos.Conteudo conteudo, long idMaximo, long cargaCompletaEm)
+            throws IOException {
+        int linhas = conteudo.linhas();
+        byte[] dicionario = dicionario(conteudo.tipos());
+        long[] secoes = {
+                (long) linhas * TabelaCreditos.REGISTRO * Long.BYTES,
+                (long) linhas * Integer.BYTES,
+                conteudo.usoTextos(),
+                (long) conteudo.indiceCredito().length * Integer.BYTES,
+                (long) conteudo.indiceNfse().length * Integer.BYTES};
+        verificarSecoes(secoes);
+
+        Path temporario = temporario(arquivo);
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+            escreverCabecalho(canal, linhas, idMaximo, cargaCompletaEm, conteudo.tipos().length, dicionario, secoes);
+
+            ByteBuffer bloco = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            int valores = linhas * TabelaCreditos.REGISTRO;
+            for (int i = 0; i < valores; i++) {
+                bloco = descarregarSeCheio(canal, bloco, Long.BYTES).putLong(conteudo.registros()[i]);
+            }
+            bloco = escreverInts(canal, bloco, conteudo.proximaMesmaNfse(), linhas);
+            escrever(canal, bloco.flip());
+            escrever(canal, ByteBuffer.wrap(conteudo.textos(), 0, conteudo.usoTextos()));
+            alinhar(canal);
+            bloco.clear();
+            bloco = escreverInts(canal, bloco, conteudo.indiceCredito(), conteudo.indiceCredito().length);
+            bloco = escreverInts(canal, bloco, conteudo.indiceNfse(), conteudo.indiceNfse().length);
+            escrever(canal, bloco.flip());
+            canal.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Grava em {@code arquivo} o snapshot {@code base} seguido das linhas de
+     * {@code recentes}, mantendo o instante da carga completa da base, sem
+     * materializar nenhum crédito: as seções mapeadas da base são copiadas
+     * como estão, as linhas novas entram no fim com o tipo e a posição dos
+     * textos ajustados, e os dois índices são remontados direto no arquivo
+     * temporário mapeado. No heap ficam só os arrays de {@code recentes}, já
+     * existentes. Linhas de {@code recentes} incluídas depois do conteúdo
+     * ficam de fora, como em {@link #gravar}.
+     */
+    static void regravar(Path arquivo, SnapshotCreditos base, TabelaCreditos.Conteudo recentes, long idMaximo)
+            throws IOException {
+        int linhasBase = base.linhas;
+        int novas = recentes.linhas();
+        long linhas = (long) linhasBase + novas;
+
+        // Tipos da base mantêm o índice; os novos entram depois
+        String[] tipos = base.tipos.clone();
+        int quantidadeTipos = 0;
+        while (quantidadeTipos < tipos.length && tipos[quantidadeTipos] != null) {
+            quantidadeTipos++;
+        }
+        int[] tipoNaBase = new int[recentes.tipos().length];
+        for (int i = 0; i < tipoNaBase.length; i++) {
+            int tipo = Arrays.asList(tipos).subList(0, quantidadeTipos).indexOf(recentes.tipos()[i]);
+            if (tipo < 0) {
+                if (quantidadeTipos == TabelaCreditos.MAX_TIPOS) {
+                    throw new IOException("Mais de " + TabelaCreditos.MAX_TIPOS + " tipos de crédito distintos");
+                }
+                tipo = quantidadeTipos;
+                tipos[quantidadeTipos++] = recentes.tipos()[i];
+            }
+            tipoNaBase[i] = tipo;
+        }
+
+        // Primeira linha nova de cada NFS-e: continua o encadeamento da base ou entra no índice
+        int[] indiceRecentes = recentes.indiceNfse();
+        int[] ultimasDaBase = new int[indiceRecentes.length];
+        int[] continuacoes = new int[indiceRecentes.length];
+        int[] primeirasNovas = new int[indiceRecentes.length];
+        int quantidadeContinuacoes = 0;
+        int quantidadePrimeiras = 0;
+        ByteBuffer textosRecentes = ByteBuffer.wrap(recentes.textos());
+        for (int valor : indiceRecentes) {
+            int linha = valor - 1;
+            if (linha < 0 || linha >= novas) {
+                continue;
+            }
+            int texto = (int) recentes.registros()[linha * TabelaCreditos.REGISTRO + TabelaCreditos.TEXTOS];
+            int naBase = base.localizar(base.indiceNfse, lerTexto(textosRecentes, texto), false);
+            if (naBase < 0) {
+                primeirasNovas[quantidadePrimeiras++] = linhasBase + linha;
+                continue;
+            }
+            while (base.proximaMesmaNfse.get(naBase) != 0) {
+                naBase = base.proximaMesmaNfse.get(naBase) - 1;
+            }
+            ultimasDaBase[quantidadeContinuacoes] = naBase;
+            continuacoes[quantidadeContinuacoes++] = linhasBase + linha;
+        }
+        int nfseDistintas = quantidadePrimeiras;
+        for (int slot = 0; slot < base.indiceNfse.capacity(); slot++) {
+            int linha = base.indiceNfse.get(slot) - 1;
+            if (linha >= 0 && linha < linhasBase) {
+                nfseDistintas++;
+            }
+        }
+
+        int textosBase = base.textos.capacity();
+        byte[] dicionario = dicionario(Arrays.copyOf(tipos, quantidadeTipos));
+        long[] secoes = {
+                linhas * TabelaCreditos.REGISTRO * Long.BYTES,
+                linhas * Integer.BYTES,
+                (long) textosBase + recentes.usoTextos(),
+                (long) TabelaCreditos.tamanhoIndice((int) linhas) * Integer.BYTES,
+                (long) TabelaCreditos.tamanhoIndice(nfseDistintas) * Integer.BYTES};
+        verificarSecoes(secoes);
+
+        Path temporario = temporario(arquivo);
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            escreverCabecalho(canal, (int) linhas, idMaximo, base.cargaCompletaEm, quantidadeTipos, dicionario,
+                    secoes);
+
+            escrever(canal, base.registrosMapeados.duplicate());
+            ByteBuffer bloco = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            long[] registros = recentes.registros();
+            for (int linha = 0; linha < novas; linha++) {
+                int campos = linha * TabelaCreditos.REGISTRO;
+                for (int campo = 0; campo < TabelaCreditos.REGISTRO; campo++) {
+                    long valor = registros[campos + campo];
+                    if (campo == TabelaCreditos.ALIQUOTA_TIPO_DATA) {
+                        int tipoSimples = (int) (valor >>> 24) & 0xFF;
+                        int tipo = tipoNaBase[tipoSimples & ~TabelaCreditos.BIT_SIMPLES]
+                                | tipoSimples & TabelaCreditos.BIT_SIMPLES;
+                        valor = valor & ~(0xFFL << 24) | (long) tipo << 24;
+                    } else if (campo == TabelaCreditos.TEXTOS) {
+                        valor = ((valor >>> 32) + textosBase) << 32 | (((int) valor) + (long) textosBase);
+                    }
+                    bloco = descarregarSeCheio(canal, bloco, Long.BYTES).putLong(valor);
+                }
+            }
+            escrever(canal, bloco.flip());
+
+            long inicioProxima = canal.position();
+            escrever(canal, base.proximaMapeada.duplicate());
+            bloco.clear();
+            for (int linha = 0; linha < novas; linha++) {
+                int proxima = recentes.proximaMesmaNfse()[linha];
+                bloco = descarregarSeCheio(canal, bloco, Integer.BYTES)
+                        .putInt(proxima == 0 || proxima > novas ? 0 : proxima + linhasBase);
+            }
+            escrever(canal, bloco.flip());
+            escrever(canal, base.textos.duplicate());
+            escrever(canal, ByteBuffer.wrap(recentes.textos(), 0, recentes.usoTextos()));
+            alinhar(canal);
+            long inicioIndices = canal.position();
+            for (int i = 0; i < quantidadeContinuacoes; i++) {
+                ByteBuffer proxima = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(continuacoes[i] + 1).flip();
+                while (proxima.hasRemaining()) {
+                    canal.write(proxima, inicioProxima + (long) ultimasDaBase[i] * Integer.BYTES + proxima.position());
+                }
+            }
+
+            MappedByteBuffer mapeadoCredito = canal.map(FileChannel.MapMode.READ_WRITE, inicioIndices, secoes[3]);
+            IntBuffer indiceCredito = mapeadoCredito.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            for (int slot = 0; slot < base.indiceCredito.capacity(); slot++) {
+                int linha = base.indiceCredito.get(slot) - 1;
+                if (linha >= 0 && linha < linhasBase) {
+                    inserirNoIndice(indiceCredito, TabelaCreditos.hash(base.textos, base.texto(linha, true)), linha);
+                }
+            }
+            for (int linha = 0; linha < novas; linha++) {
+                int texto = (int) (registros[linha * TabelaCreditos.REGISTRO + TabelaCreditos.TEXTOS] >>> 32);
+                inserirNoIndice(indiceCredito, TabelaCreditos.hash(textosRecentes, texto), linhasBase + linha);
+            }
+
+            MappedByteBuffer mapeadoNfse = canal.map(FileChannel.MapMode.READ_WRITE, inicioIndices + secoes[3],
+                    secoes[4]);
+            IntBuffer indiceNfse = mapeadoNfse.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            for (int slot = 0; slot < base.indiceNfse.capacity(); slot++) {
+                int linha = base.indiceNfse.get(slot) - 1;
+                if (linha >= 0 && linha < linhasBase) {
+                    inserirNoIndice(indiceNfse, TabelaCreditos.hash(base.textos, base.texto(linha, false)), linha);
+                }
+            }
+            for (int i = 0; i < quantidadePrimeiras; i++) {
+                int linha = primeirasNovas[i] - linhasBase;
+                int texto = (int) registros[linha * TabelaCreditos.REGISTRO + TabelaCreditos.TEXTOS];
+                inserirNoIndice(indiceNfse, TabelaCreditos.hash(textosRecentes, texto), primeirasNovas[i]);
+            }
+
+            mapeadoCredito.force();
+            mapeadoNfse.force();
+            canal.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Mapeia um snapshot gravado por {@link #gravar}; falha se o arquivo não for válido. */
+    static SnapshotCreditos abrir(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO).order(ByteOrder.LITTLE_ENDIAN);
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // lê até completar o cabeçalho ou chegar ao fim
+            }
+            cabecalho.flip();
+            if (cabecalho.remaining() < TAMANHO_CABECALHO || cabecalho.getLong() != MAGICO) {
+                throw new IOException("Arquivo não é um snapshot de créditos: " + arquivo);
+            }
+            int formato = cabecalho.getInt();
+            if (formato != FORMATO) {
+                throw new IOException("Formato de snapshot " + formato + " não suportado (esperado " + FORMATO + ")");
+            }
+            int linhas = cabecalho.getInt();
+            long idMaximo = cabecalho.getLong();
+            long cargaCompletaEm = cabecalho.getLong();
+            int quantidadeTipos = cabecalho.getInt();
+            int tamanhoDicionario = cabecalho.getInt();
+            int[] secoes = new int[5];
+            for (int i = 0; i < secoes.length; i++) {
+                secoes[i] = cabecalho.getInt();
+            }
+
+            long posicao = TAMANHO_CABECALHO;
+            ByteBuffer dicionario = mapear(canal, posicao, tamanhoDicionario);
+            String[] tipos = lerDicionario(dicionario, quantidadeTipos);
+            posicao = alinhado(posicao + tamanhoDicionario);
+            ByteBuffer registros = mapear(canal, posicao, secoes[0]);
+            posicao += secoes[0];
+            ByteBuffer proxima = mapear(canal, posicao, secoes[1]);
+            posicao += secoes[1];
+            ByteBuffer textos = mapear(canal, posicao, secoes[2]);
+            posicao = alinhado(posicao + secoes[2]);
+            ByteBuffer indiceCredito = mapear(canal, posicao, secoes[3]);
+            posicao += secoes[3];
+            ByteBuffer indiceNfse = mapear(canal, posicao, secoes[4]);
+            posicao += secoes[4];
+            if (posicao != canal.size()
+                    || secoes[0] != (long) linhas * TabelaCreditos.REGISTRO * Long.BYTES
+                    || secoes[1] != (long) linhas * Integer.BYTES
+                    || Integer.bitCount(secoes[3]) != 1 || Integer.bitCount(secoes[4]) != 1) {
+                throw new IOException("Snapshot de créditos truncado ou inconsistente: " + arquivo);
+            }
+            return new SnapshotCreditos(arquivo, linhas, idMaximo, cargaCompletaEm, tipos, registros, proxima, textos,
+                    indiceCredito, indiceNfse, posicao);
+        }
+    }
+
+    Path arquivo() {
+        return arquivo;
+    }
+
+    int linhas() {
+        return linhas;
+    }
+
+    /** Maior {@code id} da tabela {@code credito} incluído no snapshot. */
+    long idMaximo() {
+        return idMaximo;
+    }
+
+    /** Instante (epoch em ms) da leitura completa da tabela que originou o snapshot. */
+    long cargaCompletaEm() {
+        return cargaCompletaEm;
+    }
+
+    long bytesMapeados() {
+        return bytesMapeados;
+    }
+
+    /** Crédito da linha, de 0 a {@link #linhas()} - 1. */
+    CreditoDTO credito(int linha) {
+        return materializar(linha, null, null);
+    }
+
+    boolean contemCredito(String numeroCredito) {
+        return localizar(indiceCredito, numeroCredito, true) >= 0;
+    }
+
+    CreditoDTO buscarPorCredito(String numeroCredito) {
+        int linha = localizar(indiceCredito, numeroCredito, true);
+        return linha < 0 ? null : materializar(linha, numeroCredito, null);
+    }
+
+    List<CreditoDTO> buscarPorNfse(String numeroNfse) {
+        int linha = localizar(indiceNfse, numeroNfse, false);
+        if (linha < 0) {
+            return List.of();
+        }
+        List<CreditoDTO> creditos = new ArrayList<>(4);
+        while (linha >= 0 && linha < linhas) {
+            creditos.add(materializar(linha, null, numeroNfse));
+            linha = proximaMesmaNfse.get(linha) - 1;
+        }
+        return creditos;
+    }
+
+    private CreditoDTO materializar(int linha, String numeroCredito, String numeroNfse) {
+        int base = linha * TabelaCreditos.REGISTRO;
+        return TabelaCreditos.criar(
+                numeroCredito != null ? numeroCredito : lerTexto(texto(linha, true)),
+                numeroNfse != null ? numeroNfse : lerTexto(texto(linha, false)),
+                registros.get(base + TabelaCreditos.VALOR_ISSQN),
+                registros.get(base + TabelaCreditos.VALOR_FATURADO),
+                registros.get(base + TabelaCreditos.VALOR_DEDUCAO),
+                registros.get(base + TabelaCreditos.BASE_CALCULO),
+                registros.get(base + TabelaCreditos.ALIQUOTA_TIPO_DATA),
+                tipos);
+    }
+
+    // Mesma sondagem da TabelaCreditos; linhas incluídas durante a gravação ficam de fora
+    private int localizar(IntBuffer indice, String chave, boolean credito) {
+        byte[] naoAscii = TabelaCreditos.naoAscii(chave);
+        int hash = naoAscii == null ? TabelaCreditos.hashAscii(chave) : TabelaCreditos.hash(naoAscii);
+        int mascara = indice.capacity() - 1;
+        for (int slot = hash & mascara; indice.get(slot) != 0; slot = (slot + 1) & mascara) {
+            int linha = indice.get(slot) - 1;
+            if (linha < linhas && iguais(texto(linha, credito), chave, naoAscii)) {
+                return linha;
+            }
+        }
+        return -1;
+    }
+
+    private int texto(int linha, boolean credito) {
+        long posicoes = registros.get(linha * TabelaCreditos.REGISTRO + TabelaCreditos.TEXTOS);
+        return credito ? (int) (posicoes >>> 32) : (int) posicoes;
+    }
+
+    private boolean iguais(int inicio, String chave, byte[] naoAscii) {
+        int tamanho = textos.get(inicio) & 0xFF;
+        if (naoAscii == null ? tamanho != chave.length() : tamanho != naoAscii.length) {
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            int esperado = naoAscii == null ? chave.charAt(i) : naoAscii[i];
+            if (textos.get(inicio + 1 + i) != (byte) esperado) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String lerTexto(int inicio) {
+        return lerTexto(textos, inicio);
+    }
+
+    private static String lerTexto(ByteBuffer textos, int inicio) {
+        byte[] bytes = new byte[textos.get(inicio) & 0xFF];
+        textos.get(inicio + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void inserirNoIndice(IntBuffer indice, int hash, int linha) {
+        int mascara = indice.capacity() - 1;
+        int slot = hash & mascara;
+        while (indice.get(slot) != 0) {
+            slot = (slot + 1) & mascara;
+        }
+        indice.put(slot, linha + 1);
+    }
+
+    private static void verificarSecoes(long[] secoes) throws IOException {
+        for (long secao : secoes) {
+            if (secao > Integer.MAX_VALUE) {
+                throw new IOException("Seção do snapshot acima de 2 GB: " + secao + " bytes");
+            }
+        }
+    }
+
+    private static Path temporario(Path arquivo) throws IOException {
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        Files.createDirectories(diretorio);
+        return Files.createTempFile(diretorio, arquivo.getFileName().toString(), ".tmp");
+    }
+
+    // O cabeçalho ocupa sempre TAMANHO_CABECALHO bytes; o que sobra fica zerado
+    private static void escreverCabecalho(FileChannel canal, int linhas, long idMaximo, long cargaCompletaEm,
+                                          int quantidadeTipos, byte[] dicionario, long[] secoes) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(MAGICO).putInt(FORMATO).putInt(linhas).putLong(idMaximo)
+                .putLong(cargaCompletaEm).putInt(quantidadeTipos).putInt(dicionario.length);
+        for (long secao : secoes) {
+            cabecalho.putInt((int) secao);
+        }
+        escrever(canal, cabecalho.rewind());
+        escrever(canal, ByteBuffer.wrap(dicionario));
+        alinhar(canal);
+    }
+
+    private static ByteBuffer mapear(FileChannel canal, long posicao, int tamanho) throws IOException {
+        if (tamanho < 0 || posicao + tamanho > canal.size()) {
+            throw new IOException("Snapshot de créditos truncado");
+        }
+        return canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanho).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] dicionario(String[] tipos) {
+        int tamanho = 0;
+        byte[][] codificados = new byte[tipos.length][];
+        for (int i = 0; i < tipos.length; i++) {
+            codificados[i] = tipos[i].getBytes(StandardCharsets.UTF_8);
+            tamanho += Short.BYTES + codificados[i].length;
+        }
+        ByteBuffer dicionario = ByteBuffer.allocate(tamanho).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] tipo : codificados) {
+            dicionario.putShort((short) tipo.length).put(tipo);
+        }
+        return dicionario.array();
+    }
+
+    private static String[] lerDicionario(ByteBuffer dicionario, int quantidade) throws IOException {
+        if (quantidade < 0 || quantidade > TabelaCreditos.MAX_TIPOS) {
+            throw new IOException("Snapshot de créditos com " + quantidade + " tipos");
+        }
+        String[] tipos = new String[TabelaCreditos.MAX_TIPOS];
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                byte[] tipo = new byte[dicionario.getShort() & 0xFFFF];
+                dicionario.get(tipo);
+                tipos[i] = new String(tipo, StandardCharsets.UTF_8);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Dicionário de tipos do snapshot de créditos truncado", e);
+        }
+        return tipos;
+    }
+
+    private static ByteBuffer escreverInts(FileChannel canal, ByteBuffer bloco, int[] valores, int quantidade)
+            throws IOException {
+        for (int i = 0; i < quantidade; i++) {
+            bloco = descarregarSeCheio(canal, bloco, Integer.BYTES).putInt(valores[i]);
+        }
+        return bloco;
+    }
+
+    private static ByteBuffer descarregarSeCheio(FileChannel canal, ByteBuffer bloco, int necessario)
+            throws IOException {
+        if (bloco.remaining() < necessario) {
+            escrever(canal, bloco.flip());
+            bloco.clear();
+        }
+        return bloco;
+    }
+
+    private static void escrever(FileChannel canal, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+    }
+
+    private static void alinhar(FileChannel canal) throws IOException {
+        long posicao = canal.position();
+        escrever(canal, ByteBuffer.allocate((int) (alinhado(posicao) - posicao)));
+    }
+
+    private static long alinhado(long posicao) {
+        return (posicao + 7) & ~7L;
+    }
+}
@@ -0,0 +1,442 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Créditos em arrays de tipos primitivos, sem um objeto por linha. Cada linha
+ * ocupa {@link #REGISTRO} {@code long}s consecutivos em {@code registros}:
+ * os quatro valores em centavos, a alíquota em centésimos junto com o tipo
+ * de crédito (índice de um dicionário), o Simples Nacional e a data em dias
+ * desde 1970, e as posições dos números de crédito e de NFS-e em
+ * {@code textos} (UTF-8 precedido do tamanho; o número da NFS-e é guardado
+ * uma vez por NFS-e). Uma consulta pontual lê todos os campos da linha, que
+ * assim ficam em uma ou duas linhas de cache em vez de uma por campo.
+ * <p>
+ * Dois índices de endereçamento aberto (sondagem linear) levam do número do
+ * crédito à linha e do número da NFS-e à primeira linha dela; as demais
+ * linhas da mesma NFS-e ficam encadeadas em {@code proximaMesmaNfse}.
+ * <p>
+ * Um escritor por vez ({@code synchronized}) e leituras sem trava: a linha só
+ * passa a ser visível quando {@link #tamanho} (volatile) a inclui, e todo
+ * crescimento cria uma nova {@link Versao} com arrays {@code final}, publicada
+ * antes de {@link #tamanho}. Linhas nunca são alteradas nem removidas.
+ */
+final class TabelaCreditos {
+
+    /** Tipos distintos suportados: o bit mais alto do byte é o Simples Nacional. */
+    static final int MAX_TIPOS = 127;
+
+    // Posição de cada campo no registro da linha
+    static final int VALOR_ISSQN = 0;
+    static final int VALOR_FATURADO = 1;
+    static final int VALOR_DEDUCAO = 2;
+    static final int BASE_CALCULO = 3;
+    // alíquota (32 bits) | tipo e Simples (8 bits) | data (24 bits)
+    static final int ALIQUOTA_TIPO_DATA = 4;
+    // posição do número do crédito (32 bits) | posição do número da NFS-e (32 bits)
+    static final int TEXTOS = 5;
+    static final int REGISTRO = 6;
+
+    static final int BIT_SIMPLES = 0x80;
+    private static final int MAX_BYTES_CHAVE = 255;
+    // Datas representáveis em 24 bits com sinal: cerca de 22 mil anos em torno de 1970
+    private static final int MAX_DIAS = (1 << 23) - 1;
+
+    private final String[] tipos = new String[MAX_TIPOS];
+    private int quantidadeTipos;
+    private int usoTextos;
+    private int nfseDistintas;
+
+    private volatile Versao versao;
+    private volatile int tamanho;
+
+    TabelaCreditos(int capacidadeInicial) {
+        int capacidade = Math.max(16, capacidadeInicial);
+        this.versao = new Versao(null, 0, capacidade, capacidade * 12, tamanhoIndice(capacidade),
+                tamanhoIndice(capacidade / 2));
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    /** Bytes ocupados pelos arrays, incluindo a folga ainda não usada. */
+    long bytesOcupados() {
+        return versao.bytesOcupados();
+    }
+
+    /**
+     * Inclui um crédito; devolve {@code false}, sem alterar nada, se o número
+     * do crédito já existir.
+     */
+    synchronized boolean incluir(CreditoDTO credito) {
+        byte[] numeroCredito = chave(credito.getNumeroCredito());
+        if (localizar(versao, versao.indiceCredito, numeroCredito, true) >= 0) {
+            return false;
+        }
+        byte[] numeroNfse = chave(credito.getNumeroNfse());
+        long aliquota = centavos(credito.getAliquota());
+        long dias = credito.getDataConstituicao().toEpochDay();
+        if (aliquota != (int) aliquota || Math.abs(dias) > MAX_DIAS) {
+            throw new IllegalArgumentException("Alíquota ou data fora do intervalo: " + credito.getNumeroCredito());
+        }
+        int tipoSimples = tipo(credito.getTipoCredito())
+                | ("Sim".equalsIgnoreCase(credito.getSimplesNacional()) ? BIT_SIMPLES : 0);
+
+        int linha = tamanho;
+        Versao v = garantirEspaco(linha + 1, 2 + numeroCredito.length + numeroNfse.length);
+        int primeira = localizar(v, v.indiceNfse, numeroNfse, false);
+        int textoCredito = gravarTexto(v, numeroCredito);
+        int textoNfse = primeira < 0 ? gravarTexto(v, numeroNfse) : textoNfse(v.registros, primeira);
+
+        int base = linha * REGISTRO;
+        v.registros[base + VALOR_ISSQN] = centavos(credito.getValorIssqn());
+        v.registros[base + VALOR_FATURADO] = centavos(credito.getValorFaturado());
+        v.registros[base + VALOR_DEDUCAO] = centavos(credito.getValorDeducao());
+        v.registros[base + BASE_CALCULO] = centavos(credito.getBaseCalculo());
+        v.registros[base + ALIQUOTA_TIPO_DATA] = aliquota << 32 | (long) tipoSimples << 24 | (dias & 0xFFFFFF);
+        v.registros[base + TEXTOS] = (long) textoCredito << 32 | (textoNfse & 0xFFFFFFFFL);
+        inserirNoIndice(v.indiceCredito, hash(numeroCredito), linha);
+
+        if (primeira < 0) {
+            inserirNoIndice(v.indiceNfse, hash(numeroNfse), linha);
+            nfseDistintas++;
+        } else {
+            int ultima = primeira;
+            while (v.proximaMesmaNfse[ultima] != 0) {
+                ultima = v.proximaMesmaNfse[ultima] - 1;
+            }
+            v.proximaMesmaNfse[ultima] = linha + 1;
+        }
+
+        tamanho = linha + 1;
+        return true;
+    }
+
+    /** Crédito da linha, de 0 a {@link #tamanho()} - 1. */
+    CreditoDTO credito(int linha) {
+        if (linha >= tamanho) {
+            throw new IndexOutOfBoundsException(linha);
+        }
+        return materializar(versao, linha, null, null);
+    }
+
+    CreditoDTO buscarPorCredito(String numeroCredito) {
+        int limite = tamanho;
+        Versao v = versao;
+        int linha = localizar(v, v.indiceCredito, numeroCredito, true, limite);
+        return linha < 0 ? null : materializar(v, linha, numeroCredito, null);
+    }
+
+    List<CreditoDTO> buscarPorNfse(String numeroNfse) {
+        int limite = tamanho;
+        Versao v = versao;
+        int linha = localizar(v, v.indiceNfse, numeroNfse, false, limite);
+        if (linha < 0) {
+            return List.of();
+        }
+        List<CreditoDTO> creditos = new ArrayList<>(4);
+        while (linha >= 0 && linha < limite) {
+            creditos.add(materializar(v, linha, null, numeroNfse));
+            linha = v.proximaMesmaNfse[linha] - 1;
+        }
+        return creditos;
+    }
+
+    private CreditoDTO materializar(Versao v, int linha, String numeroCredito, String numeroNfse) {
+        long[] registros = v.registros;
+        int base = linha * REGISTRO;
+        return criar(numeroCredito != null ? numeroCredito : lerTexto(v, textoCredito(registros, linha)),
+                numeroNfse != null ? numeroNfse : lerTexto(v, textoNfse(registros, linha)),
+                registros[base + VALOR_ISSQN], registros[base + VALOR_FATURADO], registros[base + VALOR_DEDUCAO],
+                registros[base + BASE_CALCULO], registros[base + ALIQUOTA_TIPO_DATA], tipos);
+    }
+
+    /** Monta o DTO a partir dos campos de um registro, aqui ou no snapshot. */
+    static CreditoDTO criar(String numeroCredito, String numeroNfse, long valorIssqn, long valorFaturado,
+                            long valorDeducao, long baseCalculo, long aliquotaTipoData, String[] tipos) {
+        int tipoSimples = (int) (aliquotaTipoData >>> 24) & 0xFF;
+        return new CreditoDTO(numeroCredito, numeroNfse,
+                LocalDate.ofEpochDay(aliquotaTipoData << 40 >> 40),
+                BigDecimal.valueOf(valorIssqn, 2),
+                tipos[tipoSimples & ~BIT_SIMPLES],
+                (tipoSimples & BIT_SIMPLES) != 0 ? "Sim" : "Não",
+                BigDecimal.valueOf(aliquotaTipoData >> 32, 2),
+                BigDecimal.valueOf(valorFaturado, 2),
+                BigDecimal.valueOf(valorDeducao, 2),
+                BigDecimal.valueOf(baseCalculo, 2));
+    }
+
+    /**
+     * Arrays e dicionário no estado atual, para gravar o snapshot sem parar as
+     * inclusões. O que for incluído depois só aparece em slots de índice e
+     * encadeamentos com linha {@code >= linhas}, que a leitura ignora.
+     */
+    synchronized Conteudo conteudo() {
+        Versao v = versao;
+        return new Conteudo(tamanho, v.registros, v.proximaMesmaNfse, v.textos, usoTextos, v.indiceCredito,
+                v.indiceNfse, Arrays.copyOf(tipos, quantidadeTipos));
+    }
+
+    record Conteudo(int linhas, long[] registros, int[] proximaMesmaNfse, byte[] textos, int usoTextos,
+                    int[] indiceCredito, int[] indiceNfse, String[] tipos) {
+    }
+
+    private Versao garantirEspaco(int linhas, int bytesTexto) {
+        Versao v = versao;
+        int capacidade = v.proximaMesmaNfse.length;
+        int capacidadeTextos = v.textos.length;
+        int indiceCredito = v.indiceCredito.length;
+        int indiceNfse = v.indiceNfse.length;
+        if (linhas > capacidade) {
+            capacidade = crescer(capacidade, linhas, (Integer.MAX_VALUE - 8) / REGISTRO);
+        }
+        if (usoTextos + bytesTexto > capacidadeTextos) {
+            capacidadeTextos = crescer(capacidadeTextos, usoTextos + bytesTexto, Integer.MAX_VALUE - 8);
+        }
+        // Carga máxima de 1/2 nos índices
+        if (linhas * 2 > indiceCredito) {
+            indiceCredito = tamanhoIndice(linhas);
+        }
+        if ((nfseDistintas + 1) * 2 > indiceNfse) {
+            indiceNfse = tamanhoIndice(nfseDistintas + 1);
+        }
+        if (capacidade != v.proximaMesmaNfse.length || capacidadeTextos != v.textos.length
+                || indiceCredito != v.indiceCredito.length || indiceNfse != v.indiceNfse.length) {
+            v = new Versao(v, tamanho, capacidade, capacidadeTextos, indiceCredito, indiceNfse);
+            versao = v;
+        }
+        return v;
+    }
+
+    private int tipo(String tipoCredito) {
+        for (int i = 0; i < quantidadeTipos; i++) {
+            if (tipos[i].equals(tipoCredito)) {
+                return i;
+            }
+        }
+        if (quantidadeTipos == MAX_TIPOS) {
+            throw new IllegalStateException("Mais de " + MAX_TIPOS + " tipos de crédito distintos");
+        }
+        tipos[quantidadeTipos] = tipoCredito;
+        return quantidadeTipos++;
+    }
+
+    private int gravarTexto(Versao v, byte[] texto) {
+        int inicio = usoTextos;
+        v.textos[inicio] = (byte) texto.length;
+        System.arraycopy(texto, 0, v.textos, inicio + 1, texto.length);
+        usoTextos += texto.length + 1;
+        return inicio;
+    }
+
+    private static int textoCredito(long[] registros, int linha) {
+        return (int) (registros[linha * REGISTRO + TEXTOS] >>> 32);
+    }
+
+    private static int textoNfse(long[] registros, int linha) {
+        return (int) registros[linha * REGISTRO + TEXTOS];
+    }
+
+    private static int texto(long[] registros, int linha, boolean credito) {
+        return credito ? textoCredito(registros, linha) : textoNfse(registros, linha);
+    }
+
+    private static String lerTexto(Versao v, int inicio) {
+        return new String(v.textos, inicio + 1, v.textos[inicio] & 0xFF, StandardCharsets.UTF_8);
+    }
+
+    private static int localizar(Versao v, int[] indice, byte[] chave, boolean credito) {
+        int mascara = indice.length - 1;
+        for (int slot = hash(chave) & mascara; indice[slot] != 0; slot = (slot + 1) & mascara) {
+            int linha = indice[slot] - 1;
+            if (iguais(v.textos, texto(v.registros, linha, credito), chave)) {
+                return linha;
+            }
+        }
+        return -1;
+    }
+
+    // Leitura sem trava: slots com linha ainda não publicada são ignorados
+    private static int localizar(Versao v, int[] indice, String chave, boolean credito, int limite) {
+        byte[] naoAscii = naoAscii(chave);
+        int hash = naoAscii == null ? hashAscii(chave) : hash(naoAscii);
+        int mascara = indice.length - 1;
+        for (int slot = hash & mascara; indice[slot] != 0; slot = (slot + 1) & mascara) {
+            int linha = indice[slot] - 1;
+            if (linha >= limite) {
+                continue;
+            }
+            int inicio = texto(v.registros, linha, credito);
+            if (naoAscii == null ? iguaisAscii(v.textos, inicio, chave) : iguais(v.textos, inicio, naoAscii)) {
+                return linha;
+            }
+        }
+        return -1;
+    }
+
+    private static void inserirNoIndice(int[] indice, int hash, int linha) {
+        int mascara = indice.length - 1;
+        int slot = hash & mascara;
+        while (indice[slot] != 0) {
+            slot = (slot + 1) & mascara;
+        }
+        indice[slot] = linha + 1;
+    }
+
+    private static boolean iguais(byte[] textos, int inicio, byte[] chave) {
+        int tamanho = textos[inicio] & 0xFF;
+        return tamanho == chave.length
+                && Arrays.equals(textos, inicio + 1, inicio + 1 + tamanho, chave, 0, tamanho);
+    }
+
+    private static boolean iguaisAscii(byte[] textos, int inicio, String chave) {
+        int tamanho = textos[inicio] & 0xFF;
+        if (tamanho != chave.length()) {
+            return false;
+        }
+        for (int i = 0; i < tamanho; i++) {
+            if (textos[inicio + 1 + i] != chave.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Chaves ASCII (o caso comum) são comparadas sem converter para UTF-8
+    static byte[] naoAscii(String chave) {
+        for (int i = 0; i < chave.length(); i++) {
+            if (chave.charAt(i) >= 0x80) {
+                return chave.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    static int hash(byte[] chave) {
+        int h = 0;
+        for (byte b : chave) {
+            h = 31 * h + (b & 0xFF);
+        }
+        return misturar(h);
+    }
+
+    // Mesmo resultado de hash(byte[]) para o texto gravado em inicio (tamanho e UTF-8)
+    static int hash(ByteBuffer textos, int inicio) {
+        int tamanho = textos.get(inicio) & 0xFF;
+        int h = 0;
+        for (int i = 1; i <= tamanho; i++) {
+            h = 31 * h + (textos.get(inicio + i) & 0xFF);
+        }
+        return misturar(h);
+    }
+
+    // Mesmo resultado de hash(byte[]) para uma chave só com caracteres ASCII
+    static int hashAscii(String chave) {
+        int h = 0;
+        for (int i = 0; i < chave.length(); i++) {
+            h = 31 * h + chave.charAt(i);
+        }
+        return misturar(h);
+    }
+
+    private static int misturar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+
+    private static byte[] chave(String valor) {
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_BYTES_CHAVE) {
+            throw new IllegalArgumentException("Chave com mais de " + MAX_BYTES_CHAVE + " bytes: " + valor);
+        }
+        return bytes;
+    }
+
+    // Mesmo arredondamento do NUMERIC(_, 2) do PostgreSQL
+    private static long centavos(BigDecimal valor) {
+        return valor.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int crescer(int atual, int minimo, int maximo) {
+        long proposto = Math.max((long) minimo, atual + (atual >> 1));
+        if (minimo > maximo) {
+            throw new IllegalStateException("Capacidade do armazenamento em memória esgotada");
+        }
+        return (int) Math.min(proposto, maximo);
+    }
+
+    static int tamanhoIndice(int chaves) {
+        return Integer.highestOneBit(Math.max(8, chaves) * 2 - 1) << 1;
+    }
+
+    /**
+     * Arrays de uma capacidade. Campos {@code final}: quem lê a versão pela
+     * referência volatile vê o conteúdo copiado no construtor.
+     */
+    private static final class Versao {
+
+        final long[] registros;
+        // Próxima linha da mesma NFS-e + 1; 0 encerra
+        final int[] proximaMesmaNfse;
+        final byte[] textos;
+        // Linha + 1; 0 é slot vazio
+        final int[] indiceCredito;
+        final int[] indiceNfse;
+
+        Versao(Versao anterior, int linhas, int capacidade, int capacidadeTextos, int tamanhoIndiceCredito,
+               int tamanhoIndiceNfse) {
+            if (anterior == null) {
+                registros = new long[capacidade * REGISTRO];
+                proximaMesmaNfse = new int[capacidade];
+                textos = new byte[capacidadeTextos];
+                indiceCredito = new int[tamanhoIndiceCredito];
+                indiceNfse = new int[tamanhoIndiceNfse];
+                return;
+            }
+            registros = Arrays.copyOf(anterior.registros, capacidade * REGISTRO);
+            proximaMesmaNfse = Arrays.copyOf(anterior.proximaMesmaNfse, capacidade);
+            textos = capacidadeTextos == anterior.textos.length ? anterior.textos
+                    : Arrays.copyOf(anterior.textos, capacidadeTextos);
+            indiceCredito = tamanhoIndiceCredito == anterior.indiceCredito.length
+                    ? anterior.indiceCredito.clone() : new int[tamanhoIndiceCredito];
+            indiceNfse = tamanhoIndiceNfse == anterior.indiceNfse.length
+                    ? anterior.indiceNfse.clone() : new int[tamanhoIndiceNfse];
+            if (tamanhoIndiceCredito != anterior.indiceCredito.length) {
+                for (int linha = 0; linha < linhas; linha++) {
+                    inserirNoIndice(indiceCredito, hashTexto(textoCredito(registros, linha)), linha);
+                }
+            }
+            if (tamanhoIndiceNfse != anterior.indiceNfse.length) {
+                // Só a primeira linha de cada NFS-e está no índice
+                for (int slot = 0; slot < anterior.indiceNfse.length; slot++) {
+                    int primeira = anterior.indiceNfse[slot] - 1;
+                    if (primeira >= 0) {
+                        inserirNoIndice(indiceNfse, hashTexto(textoNfse(registros, primeira)), primeira);
+                    }
+                }
+            }
+        }
+
+        private int hashTexto(int inicio) {
+            int tamanho = textos[inicio] & 0xFF;
+            return hash(Arrays.copyOfRange(textos, inicio + 1, inicio + 1 + tamanho));
+        }
+
+        long bytesOcupados() {
+            return 8L * registros.length
+                    + 4L * (proximaMesmaNfse.length + indiceCredito.length + indiceNfse.length)
+                    + textos.length;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.api.credit.metrica;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Conta o tempo de {@code getConnection()} como {@link EtapaConsulta#CONEXAO}
+ * na consulta em andamento.
+ */
+public class DataSourceMedido extends DelegatingDataSource {
+
+    public DataSourceMedido(DataSource alvo) {
+        super(alvo);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int anterior = MedicaoConsulta.entrar(EtapaConsulta.CONEXAO);
+        try {
+            return super.getConnection();
+        } finally {
+            MedicaoConsulta.sair(anterior);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int anterior = MedicaoConsulta.entrar(EtapaConsulta.CONEXAO);
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            MedicaoConsulta.sair(anterior);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.api.credit.metrica;
+
+/**
+ * Etapas em que o tempo de uma consulta é dividido; cada uma vira o valor da
+ * tag {@code etapa} de {@code creditos.consulta.etapa}.
+ */
+public enum EtapaConsulta {
+
+    /** Espera por uma conexão do pool (Hikari e, com threads virtuais, o semáforo). */
+    CONEXAO("conexao"),
+    /** SQL e leitura do resultado, já projetado em DTO nas consultas individuais. */
+    BANCO("banco"),
+    /** Leitura e escrita no cache local. */
+    CACHE("cache"),
+    /** Conversão de entidades em DTO pelo {@code CreditoMapper} (consulta em lote). */
+    MAPEAMENTO("mapeamento"),
+    /** Montagem e enfileiramento do evento de consulta; o envio ao Kafka é assíncrono. */
+    EVENTO("evento"),
+    /** Escrita do corpo da resposta pelo Jackson. */
+    SERIALIZACAO("serializacao"),
+    /** Todo o resto: filtros, interceptors, controller e validações. */
+    OUTROS("outros");
+
+    private final String tag;
+
+    EtapaConsulta(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
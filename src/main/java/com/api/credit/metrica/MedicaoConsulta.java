@@ -0,0 +1,114 @@
+package com.api.credit.metrica;
+
+import java.util.function.Supplier;
+
+/**
+ * Cronômetro por etapa da requisição corrente, mantido em um
+ * {@link ThreadLocal} entre o {@code preHandle} e o {@code afterCompletion} do
+ * {@link MedicaoConsultaInterceptor}.
+ * <p>
+ * O tempo é sempre atribuído à etapa mais interna em andamento: ao
+ * {@link #entrar(EtapaConsulta) entrar} em uma etapa o trecho decorrido é
+ * somado à anterior, e {@link #sair(int)} volta para ela. Assim as etapas não
+ * se sobrepõem (a espera por conexão dentro de uma consulta ao banco não é
+ * contada duas vezes) e somam exatamente a duração total. Fora de uma
+ * requisição medida os métodos não fazem nada.
+ */
+public final class MedicaoConsulta {
+
+    private static final ThreadLocal<MedicaoConsulta> ATUAL = new ThreadLocal<>();
+    private static final int NENHUMA = -1;
+
+    private final String endpoint;
+    private final long inicio;
+    private final long[] duracoes = new long[EtapaConsulta.values().length];
+    private int visitadas;
+    private int etapa = EtapaConsulta.OUTROS.ordinal();
+    private long desde;
+
+    private MedicaoConsulta(String endpoint, long inicio) {
+        this.endpoint = endpoint;
+        this.inicio = inicio;
+        this.desde = inicio;
+        this.visitadas = 1 << etapa;
+    }
+
+    /**
+     * Passa a contar o tempo em {@code etapa}.
+     *
+     * @return a etapa anterior, a ser passada para {@link #sair(int)}
+     */
+    public static int entrar(EtapaConsulta etapa) {
+        MedicaoConsulta medicao = ATUAL.get();
+        return medicao == null ? NENHUMA : medicao.trocar(etapa.ordinal());
+    }
+
+    public static void sair(int anterior) {
+        if (anterior != NENHUMA) {
+            MedicaoConsulta medicao = ATUAL.get();
+            if (medicao != null) {
+                medicao.trocar(anterior);
+            }
+        }
+    }
+
+    public static <T> T medir(EtapaConsulta etapa, Supplier<T> trecho) {
+        int anterior = entrar(etapa);
+        try {
+            return trecho.get();
+        } finally {
+            sair(anterior);
+        }
+    }
+
+    public static void medir(EtapaConsulta etapa, Runnable trecho) {
+        int anterior = entrar(etapa);
+        try {
+            trecho.run();
+        } finally {
+            sair(anterior);
+        }
+    }
+
+    static void iniciar(String endpoint) {
+        ATUAL.set(new MedicaoConsulta(endpoint, System.nanoTime()));
+    }
+
+    /**
+     * Encerra a medição da thread e a devolve, ou {@code null} se não havia.
+     */
+    static MedicaoConsulta finalizar() {
+        MedicaoConsulta medicao = ATUAL.get();
+        if (medicao != null) {
+            ATUAL.remove();
+            medicao.trocar(medicao.etapa);
+        }
+        return medicao;
+    }
+
+    private int trocar(int proxima) {
+        long agora = System.nanoTime();
+        duracoes[etapa] += agora - desde;
+        int anterior = etapa;
+        etapa = proxima;
+        visitadas |= 1 << proxima;
+        desde = agora;
+        return anterior;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    long duracaoTotal() {
+        return desde - inicio;
+    }
+
+    long duracao(EtapaConsulta etapa) {
+        return duracoes[etapa.ordinal()];
+    }
+
+    boolean visitou(EtapaConsulta etapa) {
+        return (visitadas & (1 << etapa.ordinal())) != 0;
+    }
+}
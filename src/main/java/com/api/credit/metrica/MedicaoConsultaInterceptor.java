@@ -0,0 +1,109 @@
+package com.api.credit.metrica;
+
+import com.api.credit.exception.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede os endpoints anotados com {@link MedirEtapas} e publica, ao término,
+ * {@code creditos.consulta.duracao} e um {@code creditos.consulta.etapa} por
+ * etapa percorrida, com as tags {@code endpoint} e {@code resultado}
+ * ({@code encontrado}, {@code nao_encontrado} para {@link NotFoundException}
+ * ou {@code erro}).
+ * <p>
+ * Os timers de cada endpoint são criados uma vez; por requisição o custo é um
+ * {@link ThreadLocal}, algumas leituras de {@code System.nanoTime()} e as
+ * gravações nos timers.
+ */
+@Component
+@ConditionalOnProperty(name = "app.metricas.consulta.habilitado", havingValue = "true", matchIfMissing = true)
+public class MedicaoConsultaInterceptor implements HandlerInterceptor {
+
+    static final String METRICA_DURACAO = "creditos.consulta.duracao";
+    static final String METRICA_ETAPA = "creditos.consulta.etapa";
+
+    private static final EtapaConsulta[] ETAPAS = EtapaConsulta.values();
+
+    private final MeterRegistry meterRegistry;
+    // endpoint -> [resultado][etapa], com a duração total na última posição
+    private final ConcurrentMap<String, Timer[][]> timers = new ConcurrentHashMap<>();
+
+    public MedicaoConsultaInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            MedirEtapas medir = ((HandlerMethod) handler).getMethodAnnotation(MedirEtapas.class);
+            if (medir != null) {
+                MedicaoConsulta.iniciar(medir.value());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MedicaoConsulta medicao = MedicaoConsulta.finalizar();
+        if (medicao == null) {
+            return;
+        }
+        // Exceções tratadas pelo GlobalExceptionHandler não chegam em ex
+        Object excecao = ex != null ? ex : request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        Resultado resultado = excecao instanceof NotFoundException ? Resultado.NAO_ENCONTRADO
+                : excecao != null || response.getStatus() >= 400 ? Resultado.ERRO : Resultado.ENCONTRADO;
+
+        Timer[] porEtapa = timers.computeIfAbsent(medicao.endpoint(), this::criarTimers)[resultado.ordinal()];
+        for (EtapaConsulta etapa : ETAPAS) {
+            if (medicao.visitou(etapa)) {
+                porEtapa[etapa.ordinal()].record(medicao.duracao(etapa), TimeUnit.NANOSECONDS);
+            }
+        }
+        porEtapa[ETAPAS.length].record(medicao.duracaoTotal(), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[][] criarTimers(String endpoint) {
+        Resultado[] resultados = Resultado.values();
+        Timer[][] criados = new Timer[resultados.length][ETAPAS.length + 1];
+        for (Resultado resultado : resultados) {
+            for (EtapaConsulta etapa : ETAPAS) {
+                criados[resultado.ordinal()][etapa.ordinal()] = Timer.builder(METRICA_ETAPA)
+                        .description("Tempo de cada etapa das consultas de crédito")
+                        .tag("endpoint", endpoint)
+                        .tag("etapa", etapa.tag())
+                        .tag("resultado", resultado.tag)
+                        .register(meterRegistry);
+            }
+            criados[resultado.ordinal()][ETAPAS.length] = Timer.builder(METRICA_DURACAO)
+                    .description("Tempo total das consultas de crédito")
+                    .tag("endpoint", endpoint)
+                    .tag("resultado", resultado.tag)
+                    .register(meterRegistry);
+        }
+        return criados;
+    }
+
+    private enum Resultado {
+        ENCONTRADO("encontrado"),
+        NAO_ENCONTRADO("nao_encontrado"),
+        ERRO("erro");
+
+        private final String tag;
+
+        Resultado(String tag) {
+            this.tag = tag;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.credit.metrica;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Chamado logo antes do conversor escrever o corpo: a partir daqui até o fim
+ * da requisição o tempo conta como {@link EtapaConsulta#SERIALIZACAO}.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "app.metricas.consulta.habilitado", havingValue = "true", matchIfMissing = true)
+public class MedicaoSerializacaoAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        MedicaoConsulta.entrar(EtapaConsulta.SERIALIZACAO);
+        return body;
+    }
+}
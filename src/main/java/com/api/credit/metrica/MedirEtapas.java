@@ -0,0 +1,17 @@
+package com.api.credit.metrica;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um endpoint cujo tempo é dividido por {@link EtapaConsulta}. O valor é
+ * a tag {@code endpoint} das métricas.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MedirEtapas {
+
+    String value();
+}
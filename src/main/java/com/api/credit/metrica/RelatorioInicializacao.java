@@ -0,0 +1,168 @@
+package com.api.credit.metrica;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relatório da subida a partir da linha do tempo do
+ * {@link BufferingApplicationStartup} instalado em {@code CreditosApiApplication}:
+ * duração de cada fase e os passos mais lentos (criação de cada bean, leitura
+ * das classes de configuração, criação do servidor web...), descontado o tempo
+ * dos passos internos, como as dependências criadas dentro de um bean. Vai
+ * para o log e para {@code creditos.inicializacao.fase} quando a aplicação
+ * fica pronta; a linha do tempo completa fica em {@code /actuator/startup}.
+ * <p>
+ * Com {@code app.inicializacao.encerrar-apos-subida=true} a aplicação encerra
+ * logo depois do relatório: é a subida de treino que gera o arquivo AppCDS no
+ * build da imagem ({@code devops/Dockerfile}).
+ */
+@Component
+public class RelatorioInicializacao implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatorioInicializacao.class);
+
+    static final String PASSO_AMBIENTE = "spring.boot.application.environment-prepared";
+    static final String PASSO_REFRESH = "spring.context.refresh";
+    static final String PASSO_BEAN = "spring.beans.instantiate";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.inicializacao.passos-no-relatorio:15}")
+    private int passosNoRelatorio;
+
+    @Value("${app.inicializacao.encerrar-apos-subida:false}")
+    private boolean encerrarAposSubida;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup) {
+            StartupTimeline linhaDoTempo = startup.getBufferedTimeline();
+            Instant inicioJvm = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+            Resumo resumo = resumir(inicioJvm, linhaDoTempo.getStartTime(), Instant.now(), passos(linhaDoTempo),
+                    passosNoRelatorio);
+            resumo.fases().forEach((fase, duracao) ->
+                    TimeGauge.builder("creditos.inicializacao.fase", duracao, TimeUnit.MILLISECONDS, Duration::toMillis)
+                            .description("Duração de cada fase da última subida")
+                            .tag("fase", fase)
+                            // O resumo não é guardado em outro lugar
+                            .strongReference(true)
+                            .register(meterRegistry));
+            log.info("Subida em {} ms\n{}", resumo.total().toMillis(), formatar(resumo));
+        }
+        if (encerrarAposSubida) {
+            log.info("Encerrando após a subida (app.inicializacao.encerrar-apos-subida)");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    /**
+     * Fases contíguas da subida: {@code jvm} até o {@code main}, {@code ambiente}
+     * até o {@code Environment} pronto, {@code contexto} até o início do
+     * refresh, {@code refresh} (criação dos beans) e {@code runners} até
+     * {@code pronta}. Fases cujos passos não foram gravados ficam de fora.
+     */
+    static Resumo resumir(Instant inicioJvm, Instant inicioLinhaDoTempo, Instant pronta, List<Passo> passos,
+                          int maisLentos) {
+        Map<String, Passo> porNome = new HashMap<>();
+        Map<Long, Duration> filhos = new HashMap<>();
+        for (Passo passo : passos) {
+            porNome.putIfAbsent(passo.nome(), passo);
+            if (passo.pai() != null) {
+                filhos.merge(passo.pai(), passo.duracao(), Duration::plus);
+            }
+        }
+
+        Map<String, Duration> fases = new LinkedHashMap<>();
+        Instant marca = inicioJvm;
+        marca = fase(fases, "jvm", marca, inicioLinhaDoTempo);
+        Passo ambiente = porNome.get(PASSO_AMBIENTE);
+        marca = fase(fases, "ambiente", marca, ambiente == null ? null : ambiente.fim());
+        Passo refresh = porNome.get(PASSO_REFRESH);
+        marca = fase(fases, "contexto", marca, refresh == null ? null : refresh.inicio());
+        marca = fase(fases, "refresh", marca, refresh == null ? null : refresh.fim());
+        // O passo do ApplicationReadyEvent só termina depois dos listeners
+        fase(fases, "runners", marca, refresh == null ? null : pronta);
+
+        List<Lento> lentos = new ArrayList<>(passos.size());
+        for (Passo passo : passos) {
+            Duration proprio = passo.duracao().minus(filhos.getOrDefault(passo.id(), Duration.ZERO));
+            String nome = PASSO_BEAN.equals(passo.nome()) && passo.bean() != null ? passo.bean() : passo.nome();
+            lentos.add(new Lento(nome, proprio, passo.duracao()));
+        }
+        lentos.sort(Comparator.comparing(Lento::proprio).reversed());
+        Duration total = fases.values().stream().reduce(Duration.ZERO, Duration::plus);
+        return new Resumo(total, fases, lentos.subList(0, Math.min(maisLentos, lentos.size())));
+    }
+
+    private static Instant fase(Map<String, Duration> fases, String nome, Instant inicio, Instant fim) {
+        if (fim == null || fim.isBefore(inicio)) {
+            return inicio;
+        }
+        fases.put(nome, Duration.between(inicio, fim));
+        return fim;
+    }
+
+    static String formatar(Resumo resumo) {
+        StringBuilder texto = new StringBuilder("Fases:");
+        resumo.fases().forEach((fase, duracao) ->
+                texto.append(String.format("%n  %-10s %7d ms", fase, duracao.toMillis())));
+        texto.append(String.format("%nPassos mais lentos (próprio / com os internos):"));
+        for (Lento lento : resumo.lentos()) {
+            texto.append(String.format("%n  %7d ms %7d ms  %s", lento.proprio().toMillis(),
+                    lento.total().toMillis(), lento.nome()));
+        }
+        return texto.toString();
+    }
+
+    private static List<Passo> passos(StartupTimeline linhaDoTempo) {
+        List<Passo> passos = new ArrayList<>(linhaDoTempo.getEvents().size());
+        for (StartupTimeline.TimelineEvent evento : linhaDoTempo.getEvents()) {
+            StartupStep passo = evento.getStartupStep();
+            String bean = null;
+            for (StartupStep.Tag tag : passo.getTags()) {
+                if ("beanName".equals(tag.getKey())) {
+                    bean = tag.getValue();
+                }
+            }
+            passos.add(new Passo(passo.getId(), passo.getParentId(), passo.getName(), bean,
+                    evento.getStartTime(), evento.getEndTime()));
+        }
+        return passos;
+    }
+
+    record Passo(long id, Long pai, String nome, String bean, Instant inicio, Instant fim) {
+
+        Duration duracao() {
+            return Duration.between(inicio, fim);
+        }
+    }
+
+    record Lento(String nome, Duration proprio, Duration total) {
+    }
+
+    record Resumo(Duration total, Map<String, Duration> fases, List<Lento> lentos) {
+    }
+}
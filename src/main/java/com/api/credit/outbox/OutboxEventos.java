@@ -0,0 +1,61 @@
+package com.api.credit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava eventos na tabela {@code outbox_evento}. Exige uma transação em
+ * andamento: o evento só existe se a alteração que o originou for confirmada,
+ * e nenhuma chamada ao Kafka acontece dentro da transação. A publicação fica
+ * a cargo do {@link RelayOutbox}.
+ */
+@Component
+public class OutboxEventos {
+
+    private static final String SQL_INSERCAO =
+            "INSERT INTO outbox_evento (topico, chave, tipo, payload, criado_em) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String topico, String chave, String tipo, Object evento) {
+        registrarTodos(List.of(new Evento(topico, chave, tipo, evento)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTodos(List<Evento> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        Timestamp agora = new Timestamp(System.currentTimeMillis());
+        List<Object[]> argumentos = new ArrayList<>(eventos.size());
+        for (Evento evento : eventos) {
+            argumentos.add(new Object[]{evento.topico(), evento.chave(), evento.tipo(), json(evento.conteudo()), agora});
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERCAO, argumentos);
+    }
+
+    private String json(Object conteudo) {
+        try {
+            return objectMapper.writeValueAsString(conteudo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Evento não serializável: " + conteudo.getClass().getName(), e);
+        }
+    }
+
+    public record Evento(String topico, String chave, String tipo, Object conteudo) {
+    }
+}
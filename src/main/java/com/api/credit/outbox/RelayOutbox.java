@@ -0,0 +1,194 @@
+package com.api.credit.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publica os eventos de {@code outbox_evento} no Kafka, em lotes e na ordem do
+ * id, e remove as linhas confirmadas pelo broker.
+ * <p>
+ * Cada lote roda em uma transação: as linhas são travadas com
+ * {@code FOR UPDATE NOWAIT}, enviadas pelo produtor idempotente, e só são
+ * apagadas depois que todos os envios forem confirmados. Se algum envio falhar
+ * a transação é desfeita e o lote é reenviado no ciclo seguinte (entrega
+ * at-least-once; o cabeçalho {@code id-evento} permite descartar repetições).
+ * Com várias instâncias, as que encontram o início da fila travado pulam o
+ * ciclo, o que mantém uma única publicadora por vez e a ordem dos eventos.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.habilitado", havingValue = "true", matchIfMissing = true)
+public class RelayOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(RelayOutbox.class);
+
+    private static final String SQL_PENDENTES =
+            "SELECT id, topico, chave, tipo, payload FROM outbox_evento ORDER BY id LIMIT ? FOR UPDATE NOWAIT";
+    private static final String SQL_REMOCAO = "DELETE FROM outbox_evento WHERE id = ?";
+    private static final String SQL_SITUACAO = "SELECT count(*), min(criado_em) FROM outbox_evento";
+
+    static final String CABECALHO_ID = "id-evento";
+    static final String CABECALHO_TIPO = "tipo-evento";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final int tamanhoLote;
+    private final long esperaEnvioMs;
+
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicReference<Double> atrasoSegundos = new AtomicReference<>(0.0);
+    private final Counter publicados;
+    private final Counter falhas;
+    private final Timer duracaoLote;
+
+    public RelayOutbox(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.outbox.tamanho-lote:500}") int tamanhoLote,
+                       @Value("${app.outbox.espera-envio-ms:10000}") long esperaEnvioMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.tamanhoLote = tamanhoLote;
+        this.esperaEnvioMs = esperaEnvioMs;
+
+        Gauge.builder("creditos.outbox.pendentes", pendentes, AtomicLong::get)
+                .description("Eventos gravados no outbox e ainda não publicados")
+                .register(meterRegistry);
+        Gauge.builder("creditos.outbox.atraso", atrasoSegundos, AtomicReference::get)
+                .description("Idade em segundos do evento pendente mais antigo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.publicados = Counter.builder("creditos.outbox.publicados")
+                .description("Eventos do outbox confirmados pelo Kafka")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("creditos.outbox.falhas")
+                .description("Lotes do outbox desfeitos por falha no envio")
+                .register(meterRegistry);
+        this.duracaoLote = Timer.builder("creditos.outbox.lote.duracao")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Esvazia o outbox: publica lotes enquanto vierem cheios.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:500}")
+    public void publicarPendentes() {
+        int publicadosLote;
+        do {
+            publicadosLote = publicarLote();
+        } while (publicadosLote == tamanhoLote);
+        atualizarSituacao();
+    }
+
+    /**
+     * Publica um lote e devolve quantos eventos foram confirmados; zero quando
+     * não havia eventos, quando outra instância está publicando ou em falha.
+     */
+    int publicarLote() {
+        try {
+            Integer quantidade = duracaoLote.record(() -> transactionTemplate.execute(status -> {
+                List<Pendente> lote = jdbcTemplate.query(SQL_PENDENTES, (rs, linha) -> new Pendente(
+                        rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)), tamanhoLote);
+                if (!lote.isEmpty()) {
+                    enviar(lote);
+                    List<Object[]> ids = new ArrayList<>(lote.size());
+                    lote.forEach(pendente -> ids.add(new Object[]{pendente.id()}));
+                    jdbcTemplate.batchUpdate(SQL_REMOCAO, ids);
+                }
+                return lote.size();
+            }));
+            int confirmados = quantidade == null ? 0 : quantidade;
+            publicados.increment(confirmados);
+            return confirmados;
+        } catch (PessimisticLockingFailureException e) {
+            log.debug("Outbox em publicação por outra instância");
+            return 0;
+        } catch (RuntimeException e) {
+            falhas.increment();
+            log.warn("Falha ao publicar lote do outbox; será reenviado: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    private void enviar(List<Pendente> lote) {
+        CompletableFuture<?>[] envios = new CompletableFuture<?>[lote.size()];
+        for (int i = 0; i < lote.size(); i++) {
+            Pendente pendente = lote.get(i);
+            ProducerRecord<String, Object> registro =
+                    new ProducerRecord<>(pendente.topico(), pendente.chave(), conteudo(pendente));
+            registro.headers().add(CABECALHO_ID, Long.toString(pendente.id()).getBytes(StandardCharsets.UTF_8));
+            registro.headers().add(CABECALHO_TIPO, pendente.tipo().getBytes(StandardCharsets.UTF_8));
+            envios[i] = kafkaTemplate.send(registro).completable();
+        }
+        try {
+            CompletableFuture.allOf(envios).get(esperaEnvioMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando confirmação do Kafka", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Kafka não confirmou o lote em " + esperaEnvioMs + " ms", e);
+        }
+    }
+
+    // O payload já é JSON; como árvore ele é escrito pelo JsonSerializer sem
+    // virar uma string entre aspas
+    private Object conteudo(Pendente pendente) {
+        try {
+            return objectMapper.readTree(pendente.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Payload inválido no evento " + pendente.id(), e);
+        }
+    }
+
+    // Fora da transação do lote, para que o atraso continue sendo medido
+    // justamente quando a publicação está falhando
+    void atualizarSituacao() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SQL_SITUACAO, rs -> {
+                pendentes.set(rs.getLong(1));
+                Timestamp maisAntigo = rs.getTimestamp(2);
+                atrasoSegundos.set(maisAntigo == null ? 0.0
+                        : Math.max(0, System.currentTimeMillis() - maisAntigo.getTime()) / 1000.0);
+            }));
+        } catch (RuntimeException e) {
+            log.debug("Não foi possível medir o atraso do outbox: {}", e.getMessage());
+        }
+    }
+
+    private record Pendente(long id, String topico, String chave, String tipo, String payload) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.api.credit.repository;
+
+import com.api.credit.dto.CreditoDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Linha da listagem paginada: o {@link CreditoDTO} e o {@code id}, que só é
+ * usado para montar o cursor da próxima página.
+ */
+public record CreditoPaginado(Long id, CreditoDTO credito) {
+
+    // Construtor usado pela expressão "select new" de CreditoRepositoryImpl
+    public CreditoPaginado(Long id, String numeroCredito, String numeroNfse, LocalDate dataConstituicao,
+                           BigDecimal valorIssqn, String tipoCredito, String simplesNacional, BigDecimal aliquota,
+                           BigDecimal valorFaturado, BigDecimal valorDeducao, BigDecimal baseCalculo) {
+        this(id, new CreditoDTO(numeroCredito, numeroNfse, dataConstituicao, valorIssqn, tipoCredito,
+                simplesNacional, aliquota, valorFaturado, valorDeducao, baseCalculo));
+    }
+
+    public CursorCredito cursor() {
+        return new CursorCredito(credito.getDataConstituicao(), id);
+    }
+}
@@ -1,17 +1,42 @@
 package com.api.credit.repository;
 
 
+import com.api.credit.dto.CreditoDTO;
 import com.api.credit.entity.Credito;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CreditoRepository extends JpaRepository<Credito, Long> {
+public interface CreditoRepository extends JpaRepository<Credito, Long>, CreditoRepositoryCustom {
+
+    // Constrói o CreditoDTO direto no SELECT: sem entidade gerenciada, sem
+    // snapshot de dirty checking e sem passagem pelo CreditoMapper
+    String ARGUMENTOS_DTO = "c.numeroCredito, c.numeroNfse, c.dataConstituicao, c.valorIssqn, c.tipoCredito, "
+            + "case when c.simplesNacional = true then 'Sim' else 'Não' end, "
+            + "c.aliquota, c.valorFaturado, c.valorDeducao, c.baseCalculo";
+
+    String PROJECAO_DTO = "select new com.api.credit.dto.CreditoDTO(" + ARGUMENTOS_DTO + ") from Credito c ";
 
     List<Credito> findByNumeroNfse(String numeroNfse);
 
     Optional<Credito> findByNumeroCredito(String numeroCredito);
+
+    List<Credito> findByNumeroNfseIn(Collection<String> numerosNfse);
+
+    List<Credito> findByNumeroCreditoIn(Collection<String> numerosCredito);
+
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_DTO + "where c.numeroNfse = :numeroNfse")
+    List<CreditoDTO> buscarDTOsPorNumeroNfse(@Param("numeroNfse") String numeroNfse);
+
+    @Transactional(readOnly = true)
+    @Query(PROJECAO_DTO + "where c.numeroCredito = :numeroCredito")
+    Optional<CreditoDTO> buscarDTOPorNumeroCredito(@Param("numeroCredito") String numeroCredito);
 }
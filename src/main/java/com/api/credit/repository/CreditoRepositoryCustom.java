@@ -0,0 +1,21 @@
+package com.api.credit.repository;
+
+import com.api.credit.dto.FiltroCreditoDTO;
+
+import java.util.List;
+
+/**
+ * Consultas do {@link CreditoRepository} montadas em código.
+ */
+public interface CreditoRepositoryCustom {
+
+    /**
+     * Até {@code limite} créditos que atendem ao filtro, ordenados por
+     * {@code (dataConstituicao, id)} e posteriores a {@code apos} (keyset):
+     * o custo não depende de quantas páginas já foram lidas.
+     *
+     * @param apos posição da última linha da página anterior, ou {@code null}
+     *             para a primeira página
+     */
+    List<CreditoPaginado> listarPagina(FiltroCreditoDTO filtro, CursorCredito apos, int limite);
+}
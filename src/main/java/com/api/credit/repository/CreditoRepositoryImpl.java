@@ -0,0 +1,56 @@
+package com.api.credit.repository;
+
+import com.api.credit.dto.FiltroCreditoDTO;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CreditoRepositoryImpl implements CreditoRepositoryCustom {
+
+    private static final String PROJECAO_PAGINADA = "select new " + CreditoPaginado.class.getName()
+            + "(c.id, " + CreditoRepository.ARGUMENTOS_DTO + ") from Credito c where 1 = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CreditoPaginado> listarPagina(FiltroCreditoDTO filtro, CursorCredito apos, int limite) {
+        StringBuilder jpql = new StringBuilder(PROJECAO_PAGINADA);
+        Map<String, Object> parametros = new LinkedHashMap<>();
+
+        if (filtro.getDataInicio() != null) {
+            jpql.append(" and c.dataConstituicao >= :dataInicio");
+            parametros.put("dataInicio", filtro.getDataInicio());
+        }
+        if (filtro.getDataFim() != null) {
+            jpql.append(" and c.dataConstituicao <= :dataFim");
+            parametros.put("dataFim", filtro.getDataFim());
+        }
+        if (filtro.getTipoCredito() != null) {
+            jpql.append(" and c.tipoCredito = :tipoCredito");
+            parametros.put("tipoCredito", filtro.getTipoCredito());
+        }
+        if (filtro.getSimplesNacional() != null) {
+            jpql.append(" and c.simplesNacional = :simplesNacional");
+            parametros.put("simplesNacional", filtro.getSimplesNacional());
+        }
+        if (apos != null) {
+            // Equivale a (data_constituicao, id) > (:data, :id), que o índice resolve com um seek
+            jpql.append(" and (c.dataConstituicao > :cursorData"
+                    + " or (c.dataConstituicao = :cursorData and c.id > :cursorId))");
+            parametros.put("cursorData", apos.dataConstituicao());
+            parametros.put("cursorId", apos.id());
+        }
+        jpql.append(" order by c.dataConstituicao, c.id");
+
+        TypedQuery<CreditoPaginado> query = entityManager.createQuery(jpql.toString(), CreditoPaginado.class);
+        parametros.forEach(query::setParameter);
+        return query.setMaxResults(limite).getResultList();
+    }
+}
@@ -0,0 +1,36 @@
+package com.api.credit.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Posição na listagem ordenada por {@code (dataConstituicao, id)}. Para o
+ * cliente é um token opaco em Base64 URL-safe.
+ */
+public record CursorCredito(LocalDate dataConstituicao, long id) {
+
+    private static final String SEPARADOR = "|";
+
+    public String codificar() {
+        String texto = dataConstituicao + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException quando o token não foi gerado por {@link #codificar()}
+     */
+    public static CursorCredito decodificar(String token) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(SEPARADOR);
+            if (separador < 0) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorCredito(LocalDate.parse(texto.substring(0, separador)),
+                    Long.parseLong(texto.substring(separador + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.api.credit.repository;
+
+import com.api.credit.dto.CreditoImportacaoDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Linha de {@code credito_resumo_mensal}: quantidade e somas exatas dos
+ * valores dos créditos de um mês, tipo e Simples Nacional.
+ */
+public record ResumoMensal(YearMonth mes, String tipoCredito, boolean simplesNacional, long quantidade,
+                           BigDecimal valorIssqn, BigDecimal valorFaturado, BigDecimal valorDeducao,
+                           BigDecimal baseCalculo) {
+
+    // Ordem da chave primária; as atualizações seguem essa ordem para não haver deadlock entre lotes
+    static final Comparator<ResumoMensal> ORDEM_CHAVE = Comparator.comparing(ResumoMensal::mes)
+            .thenComparing(ResumoMensal::tipoCredito)
+            .thenComparing(ResumoMensal::simplesNacional);
+
+    /**
+     * Incrementos de um lote de créditos gravados, um por mês, tipo e
+     * Simples Nacional, na ordem da chave.
+     */
+    public static Collection<ResumoMensal> agrupar(Collection<CreditoImportacaoDTO> creditos) {
+        Map<ResumoMensal, ResumoMensal> grupos = new TreeMap<>(ORDEM_CHAVE);
+        for (CreditoImportacaoDTO credito : creditos) {
+            ResumoMensal unitario = new ResumoMensal(YearMonth.from(credito.getDataConstituicao()),
+                    credito.getTipoCredito(), credito.isSimplesNacionalVerdadeiro(), 1, credito.getValorIssqn(),
+                    credito.getValorFaturado(), credito.getValorDeducao(), credito.getBaseCalculo());
+            grupos.merge(unitario, unitario, ResumoMensal::somar);
+        }
+        return grupos.values();
+    }
+
+    public ResumoMensal somar(ResumoMensal outro) {
+        return new ResumoMensal(mes, tipoCredito, simplesNacional, quantidade + outro.quantidade,
+                valorIssqn.add(outro.valorIssqn), valorFaturado.add(outro.valorFaturado),
+                valorDeducao.add(outro.valorDeducao), baseCalculo.add(outro.baseCalculo));
+    }
+
+    LocalDate primeiroDia() {
+        return mes.atDay(1);
+    }
+}
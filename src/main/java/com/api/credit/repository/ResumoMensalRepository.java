@@ -0,0 +1,87 @@
+package com.api.credit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Acesso a {@code credito_resumo_mensal}, mantida incrementalmente pela
+ * importação. A tabela tem uma linha por mês, tipo e Simples Nacional, então
+ * a leitura não depende do tamanho de {@code credito}.
+ */
+@Repository
+public class ResumoMensalRepository {
+
+    private static final String SQL_GARANTIR = "INSERT INTO credito_resumo_mensal (mes, tipo_credito, "
+            + "simples_nacional, quantidade, valor_issqn, valor_faturado, valor_deducao, base_calculo) "
+            + "VALUES (?, ?, ?, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING";
+    private static final String SQL_INCREMENTAR = "UPDATE credito_resumo_mensal SET quantidade = quantidade + ?, "
+            + "valor_issqn = valor_issqn + ?, valor_faturado = valor_faturado + ?, "
+            + "valor_deducao = valor_deducao + ?, base_calculo = base_calculo + ? "
+            + "WHERE mes = ? AND tipo_credito = ? AND simples_nacional = ?";
+    private static final String SQL_LISTAR = "SELECT mes, tipo_credito, simples_nacional, quantidade, valor_issqn, "
+            + "valor_faturado, valor_deducao, base_calculo FROM credito_resumo_mensal WHERE 1 = 1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Soma os incrementos às linhas existentes, criando as que faltam. Deve
+     * rodar na transação que grava os créditos: o {@code UPDATE ... + ?} trava
+     * a linha, então lotes concorrentes somam um depois do outro sem perder
+     * valores, e um rollback desfaz créditos e totais juntos.
+     */
+    public void incrementar(Collection<ResumoMensal> incrementos) {
+        if (incrementos.isEmpty()) {
+            return;
+        }
+        List<ResumoMensal> ordenados = new ArrayList<>(incrementos);
+        ordenados.sort(ResumoMensal.ORDEM_CHAVE);
+
+        List<Object[]> chaves = new ArrayList<>(ordenados.size());
+        List<Object[]> somas = new ArrayList<>(ordenados.size());
+        for (ResumoMensal incremento : ordenados) {
+            Date mes = Date.valueOf(incremento.primeiroDia());
+            chaves.add(new Object[] {mes, incremento.tipoCredito(), incremento.simplesNacional()});
+            somas.add(new Object[] {incremento.quantidade(), incremento.valorIssqn(), incremento.valorFaturado(),
+                    incremento.valorDeducao(), incremento.baseCalculo(),
+                    mes, incremento.tipoCredito(), incremento.simplesNacional()});
+        }
+        jdbcTemplate.batchUpdate(SQL_GARANTIR, chaves);
+        jdbcTemplate.batchUpdate(SQL_INCREMENTAR, somas);
+    }
+
+    public List<ResumoMensal> listar(YearMonth mesInicio, YearMonth mesFim, String tipoCredito) {
+        StringBuilder sql = new StringBuilder(SQL_LISTAR);
+        List<Object> argumentos = new ArrayList<>(3);
+        if (mesInicio != null) {
+            sql.append(" AND mes >= ?");
+            argumentos.add(Date.valueOf(mesInicio.atDay(1)));
+        }
+        if (mesFim != null) {
+            sql.append(" AND mes <= ?");
+            argumentos.add(Date.valueOf(mesFim.atDay(1)));
+        }
+        if (tipoCredito != null) {
+            sql.append(" AND tipo_credito = ?");
+            argumentos.add(tipoCredito);
+        }
+        sql.append(" ORDER BY mes, tipo_credito, simples_nacional");
+
+        return jdbcTemplate.query(sql.toString(), (rs, linha) -> new ResumoMensal(
+                YearMonth.from(rs.getDate("mes").toLocalDate()),
+                rs.getString("tipo_credito"),
+                rs.getBoolean("simples_nacional"),
+                rs.getLong("quantidade"),
+                rs.getBigDecimal("valor_issqn"),
+                rs.getBigDecimal("valor_faturado"),
+                rs.getBigDecimal("valor_deducao"),
+                rs.getBigDecimal("base_calculo")), argumentos.toArray());
+    }
+}
@@ -0,0 +1,100 @@
+package com.api.credit.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Confere na subida, com {@code EXPLAIN}, se as consultas por NFS-e e por
+ * número do crédito usam índice, e avisa no log quando caem em varredura
+ * sequencial (índice ausente ou inválido).
+ * <p>
+ * Em tabelas pequenas o PostgreSQL prefere a varredura sequencial mesmo com o
+ * índice; por isso o plano é gerado com {@code enable_seqscan = off}, que só
+ * deixa o planejador escolher a varredura quando não há índice utilizável.
+ * Em outros bancos a verificação é ignorada.
+ */
+@Component
+@ConditionalOnProperty(name = "app.banco.verificar-planos", havingValue = "true", matchIfMissing = true)
+public class VerificacaoPlanosConsulta implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificacaoPlanosConsulta.class);
+
+    private static final String COLUNAS_DTO = "numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+            + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo";
+
+    static final Map<String, String> CONSULTAS = new LinkedHashMap<>();
+
+    static {
+        CONSULTAS.put("nfse", "select " + COLUNAS_DTO + " from credito where numero_nfse = ?");
+        CONSULTAS.put("credito", "select " + COLUNAS_DTO + " from credito where numero_credito = ?");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, AtomicInteger> sequenciais = new LinkedHashMap<>();
+
+    public VerificacaoPlanosConsulta(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        for (String consulta : CONSULTAS.keySet()) {
+            AtomicInteger valor = new AtomicInteger();
+            sequenciais.put(consulta, valor);
+            Gauge.builder("creditos.banco.plano.sequencial", valor, AtomicInteger::get)
+                    .description("1 quando o EXPLAIN da consulta usa varredura sequencial")
+                    .tag("consulta", consulta)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            String banco = jdbcTemplate.execute((ConnectionCallback<String>) conexao ->
+                    conexao.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(banco)) {
+                log.debug("Verificação de planos ignorada para {}", banco);
+                return;
+            }
+            CONSULTAS.forEach(this::verificar);
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível verificar os planos de consulta: {}", e.getMessage());
+        }
+    }
+
+    private void verificar(String consulta, String sql) {
+        List<String> plano = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            return jdbcTemplate.queryForList("explain " + sql, String.class, "");
+        });
+        if (usaVarreduraSequencial(plano)) {
+            sequenciais.get(consulta).set(1);
+            log.warn("Consulta por {} sem índice utilizável (Seq Scan). Verifique as migrações em db/migration:\n{}",
+                    consulta, String.join("\n", plano));
+        } else {
+            sequenciais.get(consulta).set(0);
+            log.info("Plano da consulta por {}: {}", consulta, plano.isEmpty() ? "" : plano.get(0).trim());
+        }
+    }
+
+    static boolean usaVarreduraSequencial(List<String> plano) {
+        return plano.stream().anyMatch(linha -> linha.contains("Seq Scan"));
+    }
+}
@@ -0,0 +1,249 @@
+package com.api.credit.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Desacopla a thread da requisição do produtor Kafka: os eventos entram em uma
+ * fila limitada e uma thread dedicada os retira em blocos de até
+ * {@code tamanho-lote}, entregando cada registro ao produtor, que é quem os
+ * agrupa em lotes ({@code batch.size}/{@code linger.ms}). Quando o broker está
+ * lento quem espera é essa thread, não o Tomcat; o que não couber na fila é
+ * tratado pela {@link PoliticaTransbordo} configurada e contabilizado em métricas.
+ * <p>
+ * Para no encerramento depois do servidor web, que termina antes as
+ * requisições em andamento, para que os eventos delas ainda sejam enviados.
+ */
+@Component
+public class ConsultaEventDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultaEventDispatcher.class);
+
+    // Fases maiores param antes: esta para depois do graceful shutdown do servidor web
+    static final int FASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BlockingQueue<EventoPendente> fila;
+    private final int capacidade;
+    private final int tamanhoLote;
+    private final PoliticaTransbordo politica;
+    private final long bloqueioMaxMs;
+    private final int amostragemTaxa;
+    private final int amostragemLimiar;
+    private final AtomicLong amostragemContador = new AtomicLong();
+
+    private final Counter enfileirados;
+    private final Counter enviados;
+    private final Counter falhas;
+    private final Counter descartadosFilaCheia;
+    private final Counter descartadosMaisAntigo;
+    private final Counter descartadosAmostragem;
+
+    private volatile boolean executando;
+    private Thread remetente;
+
+    public ConsultaEventDispatcher(KafkaTemplate<String, Object> kafkaTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.kafka.publicacao.capacidade:10000}") int capacidade,
+                                   @Value("${app.kafka.publicacao.tamanho-lote:500}") int tamanhoLote,
+                                   @Value("${app.kafka.publicacao.politica:DESCARTAR_MAIS_ANTIGO}") PoliticaTransbordo politica,
+                                   @Value("${app.kafka.publicacao.bloqueio-max-ms:50}") long bloqueioMaxMs,
+                                   @Value("${app.kafka.publicacao.amostragem-taxa:10}") int amostragemTaxa,
+                                   @Value("${app.kafka.publicacao.amostragem-limiar:0.8}") double amostragemLimiar) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.capacidade = capacidade;
+        this.tamanhoLote = tamanhoLote;
+        this.politica = politica;
+        this.bloqueioMaxMs = bloqueioMaxMs;
+        this.amostragemTaxa = Math.max(1, amostragemTaxa);
+        this.amostragemLimiar = (int) (capacidade * amostragemLimiar);
+
+        String tagPolitica = politica.name();
+        this.enfileirados = Counter.builder("creditos.eventos.enfileirados")
+                .tag("politica", tagPolitica).register(meterRegistry);
+        this.enviados = Counter.builder("creditos.eventos.enviados").register(meterRegistry);
+        this.falhas = Counter.builder("creditos.eventos.falhas").register(meterRegistry);
+        this.descartadosFilaCheia = descartados(meterRegistry, tagPolitica, "fila-cheia");
+        this.descartadosMaisAntigo = descartados(meterRegistry, tagPolitica, "mais-antigo");
+        this.descartadosAmostragem = descartados(meterRegistry, tagPolitica, "amostragem");
+        Gauge.builder("creditos.eventos.fila", fila, BlockingQueue::size)
+                .description("Eventos aguardando envio ao Kafka")
+                .register(meterRegistry);
+        Gauge.builder("creditos.eventos.fila.capacidade", () -> capacidade).register(meterRegistry);
+    }
+
+    private static Counter descartados(MeterRegistry meterRegistry, String politica, String motivo) {
+        return Counter.builder("creditos.eventos.descartados")
+                .tag("politica", politica)
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enfileira o evento para envio assíncrono. Nunca bloqueia além de
+     * {@code bloqueio-max-ms}, e só com a política {@link PoliticaTransbordo#BLOQUEAR}.
+     *
+     * @return {@code true} se o evento foi aceito na fila
+     */
+    public boolean enfileirar(String topico, String chave, Object evento) {
+        EventoPendente pendente = new EventoPendente(topico, chave, evento);
+        boolean aceito;
+        switch (politica) {
+            case BLOQUEAR:
+                aceito = enfileirarBloqueando(pendente);
+                break;
+            case AMOSTRAR:
+                aceito = enfileirarAmostrando(pendente);
+                break;
+            default:
+                aceito = enfileirarDescartandoAntigo(pendente);
+        }
+        if (aceito) {
+            enfileirados.increment();
+        }
+        return aceito;
+    }
+
+    private boolean enfileirarBloqueando(EventoPendente pendente) {
+        try {
+            if (fila.offer(pendente, bloqueioMaxMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        descartadosFilaCheia.increment();
+        return false;
+    }
+
+    private boolean enfileirarDescartandoAntigo(EventoPendente pendente) {
+        while (!fila.offer(pendente)) {
+            if (fila.poll() != null) {
+                descartadosMaisAntigo.increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean enfileirarAmostrando(EventoPendente pendente) {
+        if (fila.size() >= amostragemLimiar && amostragemContador.incrementAndGet() % amostragemTaxa != 0) {
+            descartadosAmostragem.increment();
+            return false;
+        }
+        if (fila.offer(pendente)) {
+            return true;
+        }
+        descartadosFilaCheia.increment();
+        return false;
+    }
+
+    int tamanhoFila() {
+        return fila.size();
+    }
+
+    private void drenar() {
+        List<EventoPendente> lote = new ArrayList<>(tamanhoLote);
+        while (executando || !fila.isEmpty()) {
+            try {
+                EventoPendente primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                enviar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    // Um registro por vez: a falha de um (serialização, metadados do tópico) não descarta os demais
+    private void enviar(List<EventoPendente> lote) {
+        for (EventoPendente pendente : lote) {
+            try {
+                kafkaTemplate.send(pendente.topico, pendente.chave, pendente.evento).addCallback(
+                        resultado -> enviados.increment(),
+                        erro -> falhou(pendente, erro));
+            } catch (RuntimeException e) {
+                falhou(pendente, e);
+            }
+        }
+    }
+
+    private void falhou(EventoPendente pendente, Throwable erro) {
+        falhas.increment();
+        log.warn("Falha ao publicar evento no tópico {}: {}", pendente.topico, erro.getMessage());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executando) {
+            return;
+        }
+        executando = true;
+        remetente = new Thread(this::drenar, "kafka-eventos-consulta");
+        remetente.setDaemon(true);
+        remetente.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!executando) {
+            return;
+        }
+        // A thread esvazia a fila antes de terminar
+        executando = false;
+        try {
+            remetente.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        kafkaTemplate.flush();
+        if (!fila.isEmpty()) {
+            log.warn("{} eventos de consulta não enviados no encerramento", fila.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executando;
+    }
+
+    @Override
+    public int getPhase() {
+        return FASE;
+    }
+
+    private static final class EventoPendente {
+
+        private final String topico;
+        private final String chave;
+        private final Object evento;
+
+        private EventoPendente(String topico, String chave, Object evento) {
+            this.topico = topico;
+            this.chave = chave;
+            this.evento = evento;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.api.credit.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Exportação completa da tabela {@code credito} com memória constante: as linhas
+ * são lidas por cursor no servidor (fetch size) e escritas diretamente no
+ * {@link OutputStream}, sem entidades JPA nem DTOs intermediários.
+ */
+@Service
+public class CreditoExportService {
+
+    private static final String SQL_EXPORTACAO = "SELECT numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+            + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo "
+            + "FROM credito ORDER BY id";
+
+    private static final String CABECALHO_CSV = "numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,"
+            + "simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.exportacao.fetch-size:1000}")
+    private int fetchSize;
+
+    // readOnly mantém a conexão fora de auto-commit, condição para o driver
+    // PostgreSQL usar cursor em vez de carregar todo o resultado
+    @Transactional(readOnly = true)
+    public void exportarNdjson(OutputStream saida) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(saida)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // O separador padrão entre valores raiz é um espaço; aqui cada linha termina só com '\n'
+            json.setRootValueSeparator(null);
+            consultar(new LinhaHandler() {
+                @Override
+                void escrever(ResultSet rs) throws SQLException, IOException {
+                    json.writeStartObject();
+                    json.writeStringField("numeroCredito", rs.getString(1));
+                    json.writeStringField("numeroNfse", rs.getString(2));
+                    json.writeStringField("dataConstituicao", rs.getDate(3).toLocalDate().toString());
+                    json.writeNumberField("valorIssqn", rs.getBigDecimal(4));
+                    json.writeStringField("tipoCredito", rs.getString(5));
+                    json.writeStringField("simplesNacional", simplesNacional(rs.getBoolean(6)));
+                    json.writeNumberField("aliquota", rs.getBigDecimal(7));
+                    json.writeNumberField("valorFaturado", rs.getBigDecimal(8));
+                    json.writeNumberField("valorDeducao", rs.getBigDecimal(9));
+                    json.writeNumberField("baseCalculo", rs.getBigDecimal(10));
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+
+                @Override
+                void descarregar() throws IOException {
+                    json.flush();
+                }
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarCsv(OutputStream saida) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        csv.write(CABECALHO_CSV);
+        csv.write('\n');
+        consultar(new LinhaHandler() {
+            @Override
+            void escrever(ResultSet rs) throws SQLException, IOException {
+                csv.write(campoCsv(rs.getString(1)));
+                csv.write(',');
+                csv.write(campoCsv(rs.getString(2)));
+                csv.write(',');
+                csv.write(rs.getDate(3).toLocalDate().toString());
+                csv.write(',');
+                csv.write(numero(rs.getBigDecimal(4)));
+                csv.write(',');
+                csv.write(campoCsv(rs.getString(5)));
+                csv.write(',');
+                csv.write(simplesNacional(rs.getBoolean(6)));
+                csv.write(',');
+                csv.write(numero(rs.getBigDecimal(7)));
+                csv.write(',');
+                csv.write(numero(rs.getBigDecimal(8)));
+                csv.write(',');
+                csv.write(numero(rs.getBigDecimal(9)));
+                csv.write(',');
+                csv.write(numero(rs.getBigDecimal(10)));
+                csv.write('\n');
+            }
+
+            @Override
+            void descarregar() throws IOException {
+                csv.flush();
+            }
+        });
+        csv.flush();
+    }
+
+    private void consultar(LinhaHandler handler) {
+        jdbcTemplate.query(conexao -> {
+            PreparedStatement ps = conexao.prepareStatement(
+                    SQL_EXPORTACAO, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, handler);
+    }
+
+    private static String simplesNacional(boolean valor) {
+        return valor ? "Sim" : "Não";
+    }
+
+    private static String numero(BigDecimal valor) {
+        return valor.toPlainString();
+    }
+
+    static String campoCsv(String valor) {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+                && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Escreve cada linha e descarrega a saída a cada bloco de {@code fetchSize}
+     * linhas, para que o cliente receba os dados à medida que o cursor avança.
+     */
+    private abstract class LinhaHandler implements RowCallbackHandler {
+
+        private long linhas;
+
+        abstract void escrever(ResultSet rs) throws SQLException, IOException;
+
+        abstract void descarregar() throws IOException;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                escrever(rs);
+                if (++linhas % fetchSize == 0) {
+                    descarregar();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.api.credit.service;
+
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.dto.CreditoImportacaoDTO;
+import com.api.credit.dto.ErroImportacaoDTO;
+import com.api.credit.dto.ResultadoImportacaoDTO;
+import com.api.credit.evento.CreditoEvento;
+import com.api.credit.evento.ImportacaoLoteEvento;
+import com.api.credit.exception.RequisicaoInvalidaException;
+import com.api.credit.mapper.CreditoMapper;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.api.credit.outbox.OutboxEventos;
+import com.api.credit.repository.ResumoMensal;
+import com.api.credit.repository.ResumoMensalRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em massa de créditos a partir de NDJSON ou CSV, no mesmo formato
+ * da exportação.
+ * <p>
+ * O arquivo é lido linha a linha; cada linha é validada contra as restrições
+ * das colunas e as válidas são acumuladas em lotes. Cada lote vira um único
+ * {@code INSERT ... VALUES (...), (...)} com {@code ON CONFLICT DO NOTHING} em
+ * transação própria: com a chave {@code IDENTITY} o Hibernate desliga o batch de
+ * inserts, e o JDBC direto evita tanto isso quanto o custo das entidades.
+ * Números de crédito já existentes são contados como duplicados. Na mesma
+ * transação de cada lote são gravados no outbox um {@link CreditoEvento} por
+ * crédito inserido e um resumo do lote, publicados depois em
+ * {@code creditos-eventos}, e os créditos inseridos são somados em
+ * {@code credito_resumo_mensal}.
+ */
+@Service
+public class CreditoImportacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(CreditoImportacaoService.class);
+
+    private static final String[] COLUNAS = {"numeroCredito", "numeroNfse", "dataConstituicao", "valorIssqn",
+            "tipoCredito", "simplesNacional", "aliquota", "valorFaturado", "valorDeducao", "baseCalculo"};
+
+    private static final String SQL_INSERCAO = "INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, "
+            + "valor_issqn, tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) VALUES ";
+    private static final String PARAMETROS_LINHA = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Sem alvo explícito: além da PK, o único índice único é o de numero_credito (V2)
+    private static final String[] COLUNAS_GERADAS = {"id", "numero_credito"};
+    private static final String SQL_CONFLITO = " ON CONFLICT DO NOTHING";
+
+    private static final String TOPICO_EVENTOS = "creditos-eventos";
+
+    // O PostgreSQL aceita até 32767 parâmetros por comando (10 por linha)
+    static final int TAMANHO_LOTE_MAXIMO = 3000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private OutboxEventos outboxEventos;
+
+    @Autowired
+    private CreditoMapper creditoMapper;
+
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Autowired
+    private FiltroCreditos filtroCreditos;
+
+    @Autowired
+    private CreditosEmMemoria creditosEmMemoria;
+
+    @Autowired
+    private ResumoMensalRepository resumoMensalRepository;
+
+    @Value("${app.importacao.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${app.importacao.max-erros:100}")
+    private int maxErros;
+
+    public ResultadoImportacaoDTO importarNdjson(InputStream entrada) {
+        Importacao importacao = new Importacao();
+        try (BufferedReader leitor = leitor(entrada)) {
+            String linha;
+            long numero = 0;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                try {
+                    importacao.adicionar(numero, objectMapper.readValue(linha, CreditoImportacaoDTO.class));
+                } catch (JsonProcessingException e) {
+                    importacao.rejeitar(numero, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return importacao.concluir();
+    }
+
+    public ResultadoImportacaoDTO importarCsv(InputStream entrada) {
+        Importacao importacao = new Importacao();
+        try (BufferedReader leitor = leitor(entrada)) {
+            String cabecalho = leitor.readLine();
+            if (cabecalho == null) {
+                throw new RequisicaoInvalidaException("Arquivo CSV vazio");
+            }
+            int[] posicoes = posicoesColunas(dividirCsv(removerBom(cabecalho)));
+
+            String linha;
+            long numero = 1;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                try {
+                    importacao.adicionar(numero, lerCsv(dividirCsv(linha), posicoes));
+                } catch (IllegalArgumentException e) {
+                    importacao.rejeitar(numero, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return importacao.concluir();
+    }
+
+    private static BufferedReader leitor(InputStream entrada) {
+        return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+    }
+
+    private static String removerBom(String linha) {
+        return linha.startsWith("\uFEFF") ? linha.substring(1) : linha;
+    }
+
+    private static int[] posicoesColunas(List<String> cabecalho) {
+        int[] posicoes = new int[COLUNAS.length];
+        for (int i = 0; i < COLUNAS.length; i++) {
+            posicoes[i] = cabecalho.indexOf(COLUNAS[i]);
+            if (posicoes[i] < 0) {
+                throw new RequisicaoInvalidaException("Coluna ausente no cabeçalho CSV: " + COLUNAS[i]);
+            }
+        }
+        return posicoes;
+    }
+
+    private static CreditoImportacaoDTO lerCsv(List<String> campos, int[] posicoes) {
+        String[] valores = new String[COLUNAS.length];
+        for (int i = 0; i < COLUNAS.length; i++) {
+            if (posicoes[i] >= campos.size()) {
+                throw new IllegalArgumentException("Linha com " + campos.size() + " campos; esperado ao menos "
+                        + (posicoes[i] + 1));
+            }
+            valores[i] = campos.get(posicoes[i]);
+        }
+        return new CreditoImportacaoDTO(
+                valores[0],
+                valores[1],
+                data(COLUNAS[2], valores[2]),
+                decimal(COLUNAS[3], valores[3]),
+                valores[4],
+                valores[5],
+                decimal(COLUNAS[6], valores[6]),
+                decimal(COLUNAS[7], valores[7]),
+                decimal(COLUNAS[8], valores[8]),
+                decimal(COLUNAS[9], valores[9]));
+    }
+
+    private static LocalDate data(String coluna, String valor) {
+        if (valor.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(coluna + ": data inválida '" + valor + "' (esperado aaaa-mm-dd)");
+        }
+    }
+
+    private static BigDecimal decimal(String coluna, String valor) {
+        if (valor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(coluna + ": valor numérico inválido '" + valor + "'");
+        }
+    }
+
+    /**
+     * Divide uma linha CSV respeitando aspas duplas ({@code ""} dentro de aspas
+     * é uma aspa literal), o inverso de {@code campoCsv} na exportação.
+     */
+    static List<String> dividirCsv(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"') {
+                    if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreAspas = false;
+                    }
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    /**
+     * Estado de uma importação: lote corrente, contadores e erros.
+     */
+    private class Importacao {
+
+        private final String id = UUID.randomUUID().toString();
+        private final int limiteLote = Math.max(1, Math.min(tamanhoLote, TAMANHO_LOTE_MAXIMO));
+        private final ResultadoImportacaoDTO resultado = new ResultadoImportacaoDTO();
+        private final List<CreditoImportacaoDTO> lote = new ArrayList<>(limiteLote);
+        private int linhasLote;
+        private int rejeitadasLote;
+
+        Importacao() {
+            resultado.setImportacao(id);
+        }
+
+        void adicionar(long numero, CreditoImportacaoDTO credito) {
+            Set<ConstraintViolation<CreditoImportacaoDTO>> violacoes = validator.validate(credito);
+            if (!violacoes.isEmpty()) {
+                rejeitar(numero, violacoes.stream()
+                        .sorted(Comparator.comparing(violacao -> violacao.getPropertyPath().toString()))
+                        .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            contarLinha();
+            lote.add(credito);
+            if (lote.size() >= limiteLote) {
+                gravarLote();
+            }
+        }
+
+        void rejeitar(long numero, String mensagem) {
+            contarLinha();
+            rejeitadasLote++;
+            resultado.setRejeitadas(resultado.getRejeitadas() + 1);
+            if (resultado.getErros().size() < maxErros) {
+                resultado.getErros().add(new ErroImportacaoDTO(numero, mensagem));
+            }
+        }
+
+        private void contarLinha() {
+            linhasLote++;
+            resultado.setLinhas(resultado.getLinhas() + 1);
+        }
+
+        ResultadoImportacaoDTO concluir() {
+            if (linhasLote > 0) {
+                gravarLote();
+            }
+            log.info("Importação {} concluída: {} linhas, {} inseridas, {} duplicadas, {} rejeitadas em {} lotes",
+                    id, resultado.getLinhas(), resultado.getInseridas(), resultado.getDuplicadas(),
+                    resultado.getRejeitadas(), resultado.getLotes());
+            return resultado;
+        }
+
+        private void gravarLote() {
+            int numeroLote = resultado.getLotes() + 1;
+            // Créditos e eventos na mesma transação: o outbox só publica o que foi confirmado
+            List<Inserido> inseridos = transactionTemplate.execute(status -> {
+                List<Inserido> gravados = lote.isEmpty() ? List.of() : inserir(lote);
+                resumoMensalRepository.incrementar(ResumoMensal.agrupar(
+                        gravados.stream().map(Inserido::credito).toList()));
+                List<OutboxEventos.Evento> eventos = new ArrayList<>(gravados.size() + 1);
+                for (Inserido inserido : gravados) {
+                    eventos.add(new OutboxEventos.Evento(TOPICO_EVENTOS, inserido.credito().getNumeroNfse(),
+                            CreditoEvento.TIPO_CRIADO,
+                            CreditoEvento.criado(inserido.id(), creditoMapper.importacaoToDTO(inserido.credito()))));
+                }
+                eventos.add(new OutboxEventos.Evento(TOPICO_EVENTOS, id, ImportacaoLoteEvento.TIPO,
+                        ImportacaoLoteEvento.de(id, numeroLote, linhasLote, gravados.size(),
+                                lote.size() - gravados.size(), rejeitadasLote)));
+                outboxEventos.registrarTodos(eventos);
+                return gravados;
+            });
+            int inseridas = inseridos == null ? 0 : inseridos.size();
+
+            resultado.setLotes(numeroLote);
+            resultado.setInseridas(resultado.getInseridas() + inseridas);
+            resultado.setDuplicadas(resultado.getDuplicadas() + lote.size() - inseridas);
+            // Depois do commit: ver FiltroCreditos.adicionar
+            Set<String> nfsesGravadas = new LinkedHashSet<>();
+            List<String> creditosGravados = new ArrayList<>(inseridas);
+            for (int i = 0; i < inseridas; i++) {
+                CreditoImportacaoDTO credito = inseridos.get(i).credito();
+                nfsesGravadas.add(credito.getNumeroNfse());
+                creditosGravados.add(credito.getNumeroCredito());
+                filtroCreditos.adicionar(credito.getNumeroNfse(), credito.getNumeroCredito());
+                if (creditosEmMemoria.habilitado()) {
+                    creditosEmMemoria.adicionar(creditoMapper.importacaoToDTO(credito));
+                }
+            }
+            // Uma invalidação por lote: no Redis é um único script e uma única mensagem
+            if (inseridas > 0) {
+                creditoCache.registrarGravados(nfsesGravadas, creditosGravados);
+            }
+
+            lote.clear();
+            linhasLote = 0;
+            rejeitadasLote = 0;
+        }
+    }
+
+    /**
+     * Insere o lote e devolve somente as linhas gravadas, com o id gerado; as
+     * descartadas pelo {@code ON CONFLICT} não voltam nas chaves geradas.
+     */
+    private List<Inserido> inserir(List<CreditoImportacaoDTO> creditos) {
+        StringBuilder sql = new StringBuilder(SQL_INSERCAO.length() + creditos.size() * (PARAMETROS_LINHA.length() + 2));
+        sql.append(SQL_INSERCAO);
+        Object[] argumentos = new Object[creditos.size() * COLUNAS.length];
+        Map<String, CreditoImportacaoDTO> porNumero = new HashMap<>(creditos.size() * 2);
+        int i = 0;
+        for (CreditoImportacaoDTO credito : creditos) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(PARAMETROS_LINHA);
+            // Número repetido no mesmo lote: só a primeira ocorrência é gravada
+            porNumero.putIfAbsent(credito.getNumeroCredito(), credito);
+            argumentos[i++] = credito.getNumeroCredito();
+            argumentos[i++] = credito.getNumeroNfse();
+            argumentos[i++] = Date.valueOf(credito.getDataConstituicao());
+            argumentos[i++] = credito.getValorIssqn();
+            argumentos[i++] = credito.getTipoCredito();
+            argumentos[i++] = credito.isSimplesNacionalVerdadeiro();
+            argumentos[i++] = credito.getAliquota();
+            argumentos[i++] = credito.getValorFaturado();
+            argumentos[i++] = credito.getValorDeducao();
+            argumentos[i++] = credito.getBaseCalculo();
+        }
+        sql.append(SQL_CONFLITO);
+
+        KeyHolder chaves = new GeneratedKeyHolder();
+        jdbcTemplate.update(conexao -> {
+            PreparedStatement comando = conexao.prepareStatement(sql.toString(), COLUNAS_GERADAS);
+            new ArgumentPreparedStatementSetter(argumentos).setValues(comando);
+            return comando;
+        }, chaves);
+
+        List<Inserido> inseridos = new ArrayList<>(chaves.getKeyList().size());
+        for (Map<String, Object> chave : chaves.getKeyList()) {
+            inseridos.add(new Inserido(((Number) chave.get("id")).longValue(),
+                    porNumero.get((String) chave.get("numero_credito"))));
+        }
+        return inseridos;
+    }
+
+    private record Inserido(long id, CreditoImportacaoDTO credito) {
+    }
+}
@@ -1,13 +1,45 @@
 package com.api.credit.service;
 
+import com.api.credit.cache.CacheRespostas;
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.RespostaCodificada;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.dto.ConsultaLoteRequestDTO;
+import com.api.credit.dto.ConsultaLoteResponseDTO;
 import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.FiltroCreditoDTO;
+import com.api.credit.dto.PaginaCreditosDTO;
+import com.api.credit.dto.ResultadoConsultaDTO;
 import com.api.credit.entity.Credito;
+import com.api.credit.evento.TipoConsulta;
 import com.api.credit.exception.NotFoundException;
+import com.api.credit.exception.RequisicaoInvalidaException;
 import com.api.credit.mapper.CreditoMapper;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.api.credit.metrica.MedicaoConsulta;
+import com.api.credit.repository.CreditoPaginado;
 import com.api.credit.repository.CreditoRepository;
+import com.api.credit.repository.CursorCredito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.api.credit.metrica.EtapaConsulta.BANCO;
+import static com.api.credit.metrica.EtapaConsulta.CACHE;
+import static com.api.credit.metrica.EtapaConsulta.EVENTO;
+import static com.api.credit.metrica.EtapaConsulta.MAPEAMENTO;
+import static com.api.credit.metrica.EtapaConsulta.SERIALIZACAO;
+import static com.api.credit.metrica.MedicaoConsulta.medir;
 
 
 @Service
@@ -22,26 +54,291 @@ public class CreditoService {
     @Autowired
     private KafkaEventPublisherService kafkaEventPS;
 
+    @Autowired
+    private CreditoCache creditoCache;
+
+    @Autowired
+    private FiltroCreditos filtroCreditos;
+
+    @Autowired
+    private CacheRespostas cacheRespostas;
+
+    @Autowired
+    private CreditosEmMemoria creditosEmMemoria;
+
+    @Value("${app.consulta-lote.max-itens:500}")
+    private int maxItensLote;
+
+    @Value("${app.listagem.tamanho-padrao:20}")
+    private int tamanhoPadraoPagina;
+
+    @Value("${app.listagem.tamanho-maximo:100}")
+    private int tamanhoMaximoPagina;
+
     public List<CreditoDTO> buscarNumeroNfse(String numeroNfse) {
-        List<Credito> creditos = creditoRepository.findByNumeroNfse(numeroNfse);
+        // Em memória a tabela inteira está carregada: nem filtro, nem cache, nem banco
+        CreditosEmMemoria.Consulta emMemoria = creditosEmMemoria.consulta();
+        List<CreditoDTO> creditos = emMemoria != null
+                ? medir(CACHE, () -> emMemoria.buscarPorNfse(numeroNfse))
+                // Chave que com certeza não existe: 404 sem consultar cache nem banco
+                : medir(CACHE, () -> filtroCreditos.podeExistirNfse(numeroNfse)
+                        ? creditoCache.buscarPorNfse(numeroNfse,
+                                () -> medir(BANCO, () -> creditoRepository.buscarDTOsPorNumeroNfse(numeroNfse)))
+                        : List.of());
 
         if (creditos.isEmpty()) {
             throw new NotFoundException("Nenhum crédito encontrado para a NFS-e: " + numeroNfse);
         }
 
         // Publicar evento de consulta
-        kafkaEventPS.publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
+        medir(EVENTO, () -> kafkaEventPS.publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, numeroNfse));
 
-        return creditoMapper.toDTOList(creditos);
+        return creditos;
     }
 
     public CreditoDTO buscarPorCredito(String numeroCredito) {
-        Credito credito = creditoRepository.findByNumeroCredito(numeroCredito)
+        CreditosEmMemoria.Consulta emMemoria = creditosEmMemoria.consulta();
+        Optional<CreditoDTO> encontrado = emMemoria != null
+                ? medir(CACHE, () -> Optional.ofNullable(emMemoria.buscarPorCredito(numeroCredito)))
+                : medir(CACHE, () -> filtroCreditos.podeExistirCredito(numeroCredito)
+                        ? creditoCache.buscarPorCredito(numeroCredito,
+                                () -> medir(BANCO, () -> creditoRepository.buscarDTOPorNumeroCredito(numeroCredito)))
+                        : Optional.<CreditoDTO>empty());
+        CreditoDTO credito = encontrado
                 .orElseThrow(() -> new NotFoundException("Crédito não encontrado: " + numeroCredito));
 
         // Publicar evento de consulta
-        kafkaEventPS.publishConsultaEvent("CONSULTA_POR_CREDITO", numeroCredito);
+        medir(EVENTO, () -> kafkaEventPS.publishConsultaEvent(TipoConsulta.CONSULTA_POR_CREDITO, numeroCredito));
+
+        return credito;
+    }
+
+    /**
+     * Mesma consulta de {@link #buscarNumeroNfse}, com o corpo da resposta já
+     * codificado. Um acerto no {@link CacheRespostas} não consulta cache de
+     * créditos, banco nem Jackson, mas continua publicando o evento.
+     */
+    public RespostaCodificada buscarRespostaPorNfse(String numeroNfse) {
+        RespostaCodificada resposta = medir(CACHE, () -> cacheRespostas.obterPorNfse(numeroNfse));
+        if (resposta == null) {
+            List<CreditoDTO> creditos = buscarNumeroNfse(numeroNfse);
+            return medir(SERIALIZACAO, () -> cacheRespostas.armazenarPorNfse(numeroNfse, creditos));
+        }
+
+        medir(EVENTO, () -> kafkaEventPS.publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, numeroNfse));
+
+        return resposta;
+    }
+
+    public RespostaCodificada buscarRespostaPorCredito(String numeroCredito) {
+        RespostaCodificada resposta = medir(CACHE, () -> cacheRespostas.obterPorCredito(numeroCredito));
+        if (resposta == null) {
+            CreditoDTO credito = buscarPorCredito(numeroCredito);
+            return medir(SERIALIZACAO, () -> cacheRespostas.armazenarPorCredito(numeroCredito, credito));
+        }
+
+        medir(EVENTO, () -> kafkaEventPS.publishConsultaEvent(TipoConsulta.CONSULTA_POR_CREDITO, numeroCredito));
+
+        return resposta;
+    }
+
+    /**
+     * Resolve vários números de NFS-e e de crédito com uma única consulta
+     * {@code IN (...)} por tipo de chave. Chaves sem resultado são marcadas
+     * como não encontradas em vez de interromper o lote.
+     */
+    public ConsultaLoteResponseDTO buscarEmLote(ConsultaLoteRequestDTO requisicao) {
+        Set<String> numerosNfse = normalizar(requisicao.getNumerosNfse());
+        Set<String> numerosCredito = normalizar(requisicao.getNumerosCredito());
+
+        int total = numerosNfse.size() + numerosCredito.size();
+        if (total == 0) {
+            throw new RequisicaoInvalidaException("Informe ao menos um número de NFS-e ou de crédito");
+        }
+        if (total > maxItensLote) {
+            throw new RequisicaoInvalidaException(
+                    "A consulta em lote aceita no máximo " + maxItensLote + " identificadores");
+        }
+
+        ConsultaLoteResponseDTO resposta = new ConsultaLoteResponseDTO();
+        resposta.setPorNfse(resolverPorNfse(numerosNfse));
+        resposta.setPorCredito(resolverPorCredito(numerosCredito));
+
+        // Um único evento para o lote inteiro
+        medir(EVENTO, () -> kafkaEventPS.publishConsultaLoteEvent(numerosNfse, numerosCredito));
 
-        return creditoMapper.toDTO(credito);
+        return resposta;
+    }
+
+    /**
+     * Lista créditos filtrados com paginação por cursor. Toda página tem
+     * {@code tamanho} itens, exceto a última, que é a única sem
+     * {@code proximo}.
+     */
+    public PaginaCreditosDTO listar(FiltroCreditoDTO filtro, String cursor, Integer tamanho) {
+        int tamanhoPagina = tamanho == null ? tamanhoPadraoPagina : tamanho;
+        if (tamanhoPagina < 1 || tamanhoPagina > tamanhoMaximoPagina) {
+            throw new RequisicaoInvalidaException(
+                    "O tamanho da página deve estar entre 1 e " + tamanhoMaximoPagina);
+        }
+        if (filtro.getDataInicio() != null && filtro.getDataFim() != null
+                && filtro.getDataInicio().isAfter(filtro.getDataFim())) {
+            throw new RequisicaoInvalidaException("dataInicio não pode ser posterior a dataFim");
+        }
+        CursorCredito apos = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                apos = CursorCredito.decodificar(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new RequisicaoInvalidaException("Cursor inválido: " + cursor);
+            }
+        }
+
+        // Uma linha a mais indica se existe próxima página sem precisar de COUNT
+        List<CreditoPaginado> linhas = creditoRepository.listarPagina(filtro, apos, tamanhoPagina + 1);
+        boolean haMais = linhas.size() > tamanhoPagina;
+        List<CreditoPaginado> pagina = haMais ? linhas.subList(0, tamanhoPagina) : linhas;
+
+        PaginaCreditosDTO resposta = new PaginaCreditosDTO();
+        resposta.setItens(pagina.stream().map(CreditoPaginado::credito).collect(Collectors.toList()));
+        resposta.setTamanho(tamanhoPagina);
+        resposta.setProximo(haMais ? pagina.get(pagina.size() - 1).cursor().codificar() : null);
+        return resposta;
+    }
+
+    /**
+     * Carrega no cache os créditos das chaves informadas, sem publicar eventos
+     * de consulta. Usado no aquecimento do cache; retorna quantas chaves foram
+     * encontradas.
+     */
+    public int carregarNoCache(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        int encontradas = 0;
+        for (ResultadoConsultaDTO resultado : resolverPorNfse(normalizar(numerosNfse)).values()) {
+            encontradas += resultado.isEncontrado() ? 1 : 0;
+        }
+        for (ResultadoConsultaDTO resultado : resolverPorCredito(normalizar(numerosCredito)).values()) {
+            encontradas += resultado.isEncontrado() ? 1 : 0;
+        }
+        return encontradas;
+    }
+
+    private Map<String, ResultadoConsultaDTO> resolverPorNfse(Set<String> numerosNfse) {
+        CreditosEmMemoria.Consulta emMemoria = creditosEmMemoria.consulta();
+        if (emMemoria != null) {
+            return medir(CACHE, () -> {
+                Map<String, ResultadoConsultaDTO> resultado = new LinkedHashMap<>();
+                for (String numeroNfse : numerosNfse) {
+                    resultado.put(numeroNfse, ResultadoConsultaDTO.de(emMemoria.buscarPorNfse(numeroNfse)));
+                }
+                return resultado;
+            });
+        }
+        Map<String, List<CreditoDTO>> encontrados = new HashMap<>();
+        List<String> ausentes = new ArrayList<>();
+        int etapa = MedicaoConsulta.entrar(CACHE);
+        try {
+            for (String numeroNfse : numerosNfse) {
+                if (!filtroCreditos.podeExistirNfse(numeroNfse) || creditoCache.ausentePorNfse(numeroNfse)) {
+                    continue;
+                }
+                List<CreditoDTO> emCache = creditoCache.obterPorNfse(numeroNfse);
+                if (emCache != null) {
+                    encontrados.put(numeroNfse, emCache);
+                } else {
+                    ausentes.add(numeroNfse);
+                }
+            }
+        } finally {
+            MedicaoConsulta.sair(etapa);
+        }
+
+        if (!ausentes.isEmpty()) {
+            List<Credito> entidades = medir(BANCO, () -> creditoRepository.findByNumeroNfseIn(ausentes));
+            medir(MAPEAMENTO, () -> creditoMapper.toDTOList(entidades)).stream()
+                    .collect(Collectors.groupingBy(CreditoDTO::getNumeroNfse))
+                    .forEach((numeroNfse, creditos) -> encontrados.put(numeroNfse,
+                            medir(CACHE, () -> creditoCache.armazenarPorNfse(numeroNfse, creditos))));
+            for (String numeroNfse : ausentes) {
+                if (!encontrados.containsKey(numeroNfse)) {
+                    creditoCache.marcarAusentePorNfse(numeroNfse);
+                }
+            }
+        }
+
+        Map<String, ResultadoConsultaDTO> resultado = new LinkedHashMap<>();
+        for (String numeroNfse : numerosNfse) {
+            resultado.put(numeroNfse, ResultadoConsultaDTO.de(encontrados.getOrDefault(numeroNfse, List.of())));
+        }
+        return resultado;
+    }
+
+    private Map<String, ResultadoConsultaDTO> resolverPorCredito(Set<String> numerosCredito) {
+        CreditosEmMemoria.Consulta emMemoria = creditosEmMemoria.consulta();
+        if (emMemoria != null) {
+            return medir(CACHE, () -> {
+                Map<String, ResultadoConsultaDTO> resultado = new LinkedHashMap<>();
+                for (String numeroCredito : numerosCredito) {
+                    CreditoDTO credito = emMemoria.buscarPorCredito(numeroCredito);
+                    resultado.put(numeroCredito, ResultadoConsultaDTO.de(credito == null ? List.of() : List.of(credito)));
+                }
+                return resultado;
+            });
+        }
+        Map<String, CreditoDTO> encontrados = new HashMap<>();
+        List<String> ausentes = new ArrayList<>();
+        int etapa = MedicaoConsulta.entrar(CACHE);
+        try {
+            for (String numeroCredito : numerosCredito) {
+                if (!filtroCreditos.podeExistirCredito(numeroCredito) || creditoCache.ausentePorCredito(numeroCredito)) {
+                    continue;
+                }
+                CreditoDTO emCache = creditoCache.obterPorCredito(numeroCredito);
+                if (emCache != null) {
+                    encontrados.put(numeroCredito, emCache);
+                } else {
+                    ausentes.add(numeroCredito);
+                }
+            }
+        } finally {
+            MedicaoConsulta.sair(etapa);
+        }
+
+        if (!ausentes.isEmpty()) {
+            List<Credito> entidades = medir(BANCO, () -> creditoRepository.findByNumeroCreditoIn(ausentes));
+            List<CreditoDTO> creditos = medir(MAPEAMENTO, () -> creditoMapper.toDTOList(entidades));
+            etapa = MedicaoConsulta.entrar(CACHE);
+            try {
+                for (CreditoDTO credito : creditos) {
+                    creditoCache.armazenarPorCredito(credito.getNumeroCredito(), credito);
+                    encontrados.put(credito.getNumeroCredito(), credito);
+                }
+                for (String numeroCredito : ausentes) {
+                    if (!encontrados.containsKey(numeroCredito)) {
+                        creditoCache.marcarAusentePorCredito(numeroCredito);
+                    }
+                }
+            } finally {
+                MedicaoConsulta.sair(etapa);
+            }
+        }
+
+        Map<String, ResultadoConsultaDTO> resultado = new LinkedHashMap<>();
+        for (String numeroCredito : numerosCredito) {
+            CreditoDTO credito = encontrados.get(numeroCredito);
+            resultado.put(numeroCredito, ResultadoConsultaDTO.de(credito == null ? List.of() : List.of(credito)));
+        }
+        return resultado;
+    }
+
+    private static Set<String> normalizar(Collection<String> numeros) {
+        Set<String> normalizados = new LinkedHashSet<>();
+        if (numeros != null) {
+            for (String numero : numeros) {
+                if (numero != null && !numero.isBlank()) {
+                    normalizados.add(numero.trim());
+                }
+            }
+        }
+        return normalizados;
     }
-}
\ No newline at end of file
+}
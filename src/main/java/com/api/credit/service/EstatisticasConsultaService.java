@@ -0,0 +1,95 @@
+package com.api.credit.service;
+
+import com.api.credit.dto.ConsultasPorMinutoDTO;
+import com.api.credit.dto.EstatisticasConsultaDTO;
+import com.api.credit.dto.ItemFrequenteDTO;
+import com.api.credit.estatistica.ContadorMaisFrequentes;
+import com.api.credit.estatistica.ContadorPorMinuto;
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Agrega em memória os eventos de {@code creditos-consultas}: consultas por
+ * minuto e por tipo, e os números de NFS-e / crédito mais consultados
+ * (Space-Saving, memória limitada a {@code top-k.capacidade} contadores).
+ * <p>
+ * Cada instância agrega apenas as partições atribuídas ao seu consumidor.
+ */
+@Service
+public class EstatisticasConsultaService {
+
+    private final ContadorPorMinuto porMinuto;
+    private final ContadorMaisFrequentes nfseMaisConsultadas;
+    private final ContadorMaisFrequentes creditosMaisConsultados;
+    private long totalEventos;
+
+    public EstatisticasConsultaService(@Value("${app.estatisticas.janela-minutos:60}") int janelaMinutos,
+                                       @Value("${app.estatisticas.top-k.capacidade:1000}") int capacidadeTopK) {
+        this.porMinuto = new ContadorPorMinuto(janelaMinutos);
+        this.nfseMaisConsultadas = new ContadorMaisFrequentes(capacidadeTopK);
+        this.creditosMaisConsultados = new ContadorMaisFrequentes(capacidadeTopK);
+    }
+
+    /**
+     * Registra um lote vindo do listener; o lock é tomado uma vez por lote.
+     */
+    public synchronized void registrar(Collection<ConsultaEvento> eventos) {
+        for (ConsultaEvento evento : eventos) {
+            totalEventos++;
+            porMinuto.registrar(evento.timestampMillis(), evento.tipoConsulta());
+            switch (evento.tipoConsulta()) {
+                case CONSULTA_POR_NFSE:
+                    registrarNumero(nfseMaisConsultadas, evento.parametro());
+                    break;
+                case CONSULTA_POR_CREDITO:
+                    registrarNumero(creditosMaisConsultados, evento.parametro());
+                    break;
+                case CONSULTA_LOTE:
+                    evento.numerosNfse().forEach(numero -> registrarNumero(nfseMaisConsultadas, numero));
+                    evento.numerosCredito().forEach(numero -> registrarNumero(creditosMaisConsultados, numero));
+                    break;
+            }
+        }
+    }
+
+    private static void registrarNumero(ContadorMaisFrequentes contador, String numero) {
+        if (numero != null) {
+            contador.registrar(numero);
+        }
+    }
+
+    public EstatisticasConsultaDTO resumo(int limite) {
+        return resumo(limite, System.currentTimeMillis());
+    }
+
+    synchronized EstatisticasConsultaDTO resumo(int limite, long agoraMillis) {
+        List<ConsultasPorMinutoDTO> minutos = new ArrayList<>();
+        for (ContadorPorMinuto.Minuto minuto : porMinuto.serie(agoraMillis)) {
+            ConsultasPorMinutoDTO dto = new ConsultasPorMinutoDTO();
+            dto.setMinuto(LocalDateTime.ofInstant(Instant.ofEpochMilli(minuto.inicioMillis()), ZoneId.systemDefault()));
+            dto.setTotal(minuto.total());
+            for (TipoConsulta tipo : TipoConsulta.values()) {
+                dto.getPorTipo().put(tipo.name(), minuto.porTipo()[tipo.ordinal()]);
+            }
+            minutos.add(dto);
+        }
+        return new EstatisticasConsultaDTO(totalEventos, minutos,
+                itens(nfseMaisConsultadas, limite), itens(creditosMaisConsultados, limite));
+    }
+
+    private static List<ItemFrequenteDTO> itens(ContadorMaisFrequentes contador, int limite) {
+        return contador.topo(limite).stream()
+                .map(item -> new ItemFrequenteDTO(item.chave(), item.contagem(), item.erroMaximo()))
+                .collect(Collectors.toList());
+    }
+}
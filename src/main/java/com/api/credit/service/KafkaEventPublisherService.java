@@ -1,27 +1,36 @@
 package com.api.credit.service;
 
+import com.api.credit.auditoria.ContextoAuditoria;
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
 
 @Service
 public class KafkaEventPublisherService {
 
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private ConsultaEventDispatcher dispatcher;
 
     private static final String TOPIC_CONSULTAS = "creditos-consultas";
 
-    public void publishConsultaEvent(String tipoConsulta, String parametro) {
-        Map<String, Object> evento = new HashMap<>();
-        evento.put("tipoConsulta", tipoConsulta);
-        evento.put("parametro", parametro);
-        evento.put("timestamp", LocalDateTime.now().toString());
-        evento.put("usuario", "sistema");
+    /**
+     * Enfileira o evento de consulta; o envio ao Kafka acontece fora da thread
+     * da requisição. O parâmetro consultado é a chave da mensagem, mantendo as
+     * consultas de uma mesma NFS-e na mesma partição. O usuário é o da
+     * requisição corrente, e a consulta também entra no registro de auditoria.
+     */
+    public void publishConsultaEvent(TipoConsulta tipoConsulta, String parametro) {
+        publicar(parametro, ConsultaEvento.individual(tipoConsulta, parametro, ContextoAuditoria.usuario()));
+    }
+
+    public void publishConsultaLoteEvent(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+        publicar(null, ConsultaEvento.lote(numerosNfse, numerosCredito, ContextoAuditoria.usuario()));
+    }
 
-        kafkaTemplate.send(TOPIC_CONSULTAS, evento);
+    private void publicar(String chave, ConsultaEvento evento) {
+        ContextoAuditoria.registrarConsulta(evento);
+        dispatcher.enfileirar(TOPIC_CONSULTAS, chave, evento);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package com.api.credit.service;
+
+/**
+ * Comportamento do {@link ConsultaEventDispatcher} quando a fila de eventos
+ * não comporta um novo evento.
+ */
+public enum PoliticaTransbordo {
+
+    /** Aguarda espaço por até {@code bloqueio-max-ms}; depois descarta o evento novo. */
+    BLOQUEAR,
+
+    /** Descarta o evento mais antigo da fila para abrir espaço ao novo. */
+    DESCARTAR_MAIS_ANTIGO,
+
+    /** Acima do limiar de ocupação aceita apenas 1 a cada {@code amostragem-taxa} eventos. */
+    AMOSTRAR
+}
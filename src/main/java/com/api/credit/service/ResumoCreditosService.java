@@ -0,0 +1,132 @@
+package com.api.credit.service;
+
+import com.api.credit.dto.ResumoCreditosDTO;
+import com.api.credit.exception.RequisicaoInvalidaException;
+import com.api.credit.repository.ResumoMensal;
+import com.api.credit.repository.ResumoMensalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Relatórios de totais de créditos a partir de {@code credito_resumo_mensal}.
+ * Agrupamentos mais largos que mês + tipo + Simples Nacional são somados aqui
+ * sobre as linhas do resumo, em {@code BigDecimal}, sem tocar em
+ * {@code credito}.
+ */
+@Service
+public class ResumoCreditosService {
+
+    /** Dimensões aceitas em {@code agrupamento}, pelo nome do campo no JSON. */
+    enum Dimensao {
+        MES("mes"),
+        TIPO_CREDITO("tipoCredito"),
+        SIMPLES_NACIONAL("simplesNacional");
+
+        private final String nome;
+
+        Dimensao(String nome) {
+            this.nome = nome;
+        }
+
+        static Dimensao de(String nome) {
+            for (Dimensao dimensao : values()) {
+                if (dimensao.nome.equalsIgnoreCase(nome.trim())) {
+                    return dimensao;
+                }
+            }
+            throw new RequisicaoInvalidaException("Agrupamento não suportado: " + nome.trim()
+                    + " (use " + Arrays.stream(values()).map(d -> d.nome).collect(Collectors.joining(", ")) + ")");
+        }
+    }
+
+    private static final BigDecimal ZERO = new BigDecimal("0.00");
+
+    private static final Comparator<ResumoCreditosDTO> ORDEM_GRUPOS = Comparator
+            .comparing(ResumoCreditosDTO::getMes, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ResumoCreditosDTO::getTipoCredito, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ResumoCreditosDTO::getSimplesNacional, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    @Autowired
+    private ResumoMensalRepository resumoMensalRepository;
+
+    /**
+     * Totais agrupados pelas dimensões informadas, na ordem mês, tipo e
+     * Simples Nacional. Sem dimensões, devolve uma única linha com o total
+     * geral do período.
+     */
+    public List<ResumoCreditosDTO> resumir(List<String> agrupamento, String mesInicio, String mesFim,
+                                           String tipoCredito) {
+        Set<Dimensao> dimensoes = EnumSet.noneOf(Dimensao.class);
+        for (String nome : agrupamento) {
+            if (!nome.isBlank()) {
+                dimensoes.add(Dimensao.de(nome));
+            }
+        }
+        YearMonth inicio = mes("mesInicio", mesInicio);
+        YearMonth fim = mes("mesFim", mesFim);
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new RequisicaoInvalidaException("mesInicio não pode ser posterior a mesFim");
+        }
+
+        Map<List<Object>, ResumoMensal> grupos = new LinkedHashMap<>();
+        for (ResumoMensal linha : resumoMensalRepository.listar(inicio, fim, semBranco(tipoCredito))) {
+            grupos.merge(chave(linha, dimensoes), linha, ResumoMensal::somar);
+        }
+        List<ResumoCreditosDTO> resumos = new ArrayList<>(grupos.size());
+        for (ResumoMensal grupo : grupos.values()) {
+            resumos.add(new ResumoCreditosDTO(
+                    dimensoes.contains(Dimensao.MES) ? grupo.mes() : null,
+                    dimensoes.contains(Dimensao.TIPO_CREDITO) ? grupo.tipoCredito() : null,
+                    dimensoes.contains(Dimensao.SIMPLES_NACIONAL) ? (grupo.simplesNacional() ? "Sim" : "Não") : null,
+                    grupo.quantidade(), grupo.valorIssqn(), grupo.valorFaturado(), grupo.valorDeducao(),
+                    grupo.baseCalculo()));
+        }
+        if (dimensoes.isEmpty() && resumos.isEmpty()) {
+            resumos.add(new ResumoCreditosDTO(null, null, null, 0, ZERO, ZERO, ZERO, ZERO));
+        }
+        resumos.sort(ORDEM_GRUPOS);
+        return resumos;
+    }
+
+    private static List<Object> chave(ResumoMensal linha, Set<Dimensao> dimensoes) {
+        List<Object> chave = new ArrayList<>(3);
+        if (dimensoes.contains(Dimensao.MES)) {
+            chave.add(linha.mes());
+        }
+        if (dimensoes.contains(Dimensao.TIPO_CREDITO)) {
+            chave.add(linha.tipoCredito());
+        }
+        if (dimensoes.contains(Dimensao.SIMPLES_NACIONAL)) {
+            chave.add(linha.simplesNacional());
+        }
+        return chave;
+    }
+
+    private static YearMonth mes(String parametro, String valor) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(valor.trim());
+        } catch (DateTimeParseException e) {
+            throw new RequisicaoInvalidaException(parametro + " inválido: " + valor + " (esperado aaaa-mm)");
+        }
+    }
+
+    private static String semBranco(String valor) {
+        return valor == null || valor.isBlank() ? null : valor;
+    }
+}
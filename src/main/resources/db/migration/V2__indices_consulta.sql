@@ -0,0 +1,15 @@
+-- Índices das consultas por número do crédito e por NFS-e.
+-- CONCURRENTLY não bloqueia escritas durante a criação; o Flyway executa estes
+-- comandos fora de transação. Se a criação for interrompida, o índice fica
+-- INVALID e precisa ser removido antes de repetir a migração.
+
+-- findByNumeroCredito / buscarDTOPorNumeroCredito: no máximo uma linha por número
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_credito_numero_credito
+    ON credito (numero_credito);
+
+-- findByNumeroNfse / buscarDTOsPorNumeroNfse: INCLUDE traz todas as colunas do
+-- CreditoDTO para permitir Index Only Scan (PostgreSQL 11+)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_credito_numero_nfse
+    ON credito (numero_nfse)
+    INCLUDE (numero_credito, data_constituicao, valor_issqn, tipo_credito, simples_nacional,
+             aliquota, valor_faturado, valor_deducao, base_calculo);
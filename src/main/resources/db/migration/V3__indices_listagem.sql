@@ -0,0 +1,8 @@
+-- Listagem paginada por cursor: ORDER BY data_constituicao, id com seek em
+-- (data_constituicao, id) > (:data, :id). O segundo índice atende o filtro
+-- por tipo_credito mantendo a mesma ordem.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_credito_data_constituicao_id
+    ON credito (data_constituicao, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS ix_credito_tipo_data_constituicao_id
+    ON credito (tipo_credito, data_constituicao, id);
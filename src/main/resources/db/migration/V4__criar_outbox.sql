@@ -0,0 +1,11 @@
+-- Outbox transacional: eventos gravados na mesma transação que altera
+-- credito e publicados em seguida pelo RelayOutbox, na ordem do id.
+-- Linhas publicadas são removidas, então a tabela fica pequena.
+CREATE TABLE IF NOT EXISTS outbox_evento (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    topico     VARCHAR(100) NOT NULL,
+    chave      VARCHAR(100),
+    tipo       VARCHAR(50)  NOT NULL,
+    payload    TEXT         NOT NULL,
+    criado_em  TIMESTAMP    NOT NULL
+);
@@ -0,0 +1,23 @@
+-- Totais por mês de constituição, tipo de crédito e Simples Nacional para os
+-- relatórios (/api/estatisticas/creditos). Mantida a cada lote importado, na
+-- mesma transação dos créditos; a carga inicial abaixo é o único GROUP BY
+-- sobre credito. Somas de DECIMAL(15,2) cabem com folga em DECIMAL(20,2).
+CREATE TABLE IF NOT EXISTS credito_resumo_mensal (
+    mes               DATE           NOT NULL,
+    tipo_credito      VARCHAR(50)    NOT NULL,
+    simples_nacional  BOOLEAN        NOT NULL,
+    quantidade        BIGINT         NOT NULL,
+    valor_issqn       DECIMAL(20, 2) NOT NULL,
+    valor_faturado    DECIMAL(20, 2) NOT NULL,
+    valor_deducao     DECIMAL(20, 2) NOT NULL,
+    base_calculo      DECIMAL(20, 2) NOT NULL,
+    PRIMARY KEY (mes, tipo_credito, simples_nacional)
+);
+
+INSERT INTO credito_resumo_mensal (mes, tipo_credito, simples_nacional, quantidade,
+                                   valor_issqn, valor_faturado, valor_deducao, base_calculo)
+SELECT date_trunc('month', data_constituicao)::date, tipo_credito, simples_nacional, count(*),
+       sum(valor_issqn), sum(valor_faturado), sum(valor_deducao), sum(base_calculo)
+FROM credito
+GROUP BY 1, 2, 3
+ON CONFLICT DO NOTHING;
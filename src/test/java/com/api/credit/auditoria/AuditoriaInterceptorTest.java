@@ -0,0 +1,148 @@
+package com.api.credit.auditoria;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AuditoriaInterceptorTest {
+
+    private ColetorAuditoria coletorAuditoria;
+    private AuditoriaInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        coletorAuditoria = mock(ColetorAuditoria.class);
+        interceptor = new AuditoriaInterceptor();
+        ReflectionTestUtils.setField(interceptor, "coletorAuditoria", coletorAuditoria);
+        ReflectionTestUtils.setField(interceptor, "cabecalhoUsuario", "X-Usuario");
+
+        request = new MockHttpServletRequest("GET", "/api/creditos/NF001");
+        request.setQueryString("formato=csv");
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader("User-Agent", "teste");
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void afterCompletion_DeveRegistrarRequisicaoComUsuarioDoCabecalhoEConsultas_QuandoCabecalhoConfiavel() {
+        ReflectionTestUtils.setField(interceptor, "cabecalhoConfiavel", true);
+        request.addHeader("X-Usuario", " maria ");
+        request.addHeader("X-Forwarded-For", "200.1.1.1, 10.0.0.2");
+        request.addHeader(AuditoriaInterceptor.CABECALHO_ID_REQUISICAO, "req-1");
+
+        interceptor.preHandle(request, response, null);
+        assertEquals("maria", ContextoAuditoria.usuario());
+        ContextoAuditoria.registrarConsulta(ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_NFSE, "NF001", "maria"));
+        response.setStatus(200);
+        interceptor.afterCompletion(request, response, null, null);
+
+        ArgumentCaptor<RegistroAuditoria> captor = ArgumentCaptor.forClass(RegistroAuditoria.class);
+        verify(coletorAuditoria).registrar(captor.capture());
+        RegistroAuditoria registro = captor.getValue();
+        assertEquals("req-1", registro.idRequisicao());
+        assertEquals("maria", registro.usuario());
+        assertEquals("maria", registro.usuarioDeclarado());
+        assertEquals("GET", registro.metodo());
+        assertEquals("/api/creditos/NF001", registro.caminho());
+        assertEquals("formato=csv", registro.parametros());
+        assertEquals(200, registro.status());
+        assertEquals("200.1.1.1", registro.ip());
+        assertEquals("teste", registro.userAgent());
+        assertNotNull(registro.timestamp());
+        assertEquals(List.of(new RegistroAuditoria.ConsultaAuditada(TipoConsulta.CONSULTA_POR_NFSE, "NF001",
+                List.of(), List.of())), registro.consultas());
+    }
+
+    @Test
+    void afterCompletion_DeveRegistrarAnonimoComUsuarioDeclarado_QuandoCabecalhoNaoConfiavel() {
+        request.addHeader("X-Usuario", "maria");
+
+        interceptor.preHandle(request, response, null);
+        assertEquals(AuditoriaInterceptor.USUARIO_ANONIMO, ContextoAuditoria.usuario());
+        interceptor.afterCompletion(request, response, null, null);
+
+        ArgumentCaptor<RegistroAuditoria> captor = ArgumentCaptor.forClass(RegistroAuditoria.class);
+        verify(coletorAuditoria).registrar(captor.capture());
+        assertEquals(AuditoriaInterceptor.USUARIO_ANONIMO, captor.getValue().usuario());
+        assertEquals("maria", captor.getValue().usuarioDeclarado());
+    }
+
+    @Test
+    void afterCompletion_DeveUsarPrincipalAutenticado_AntesDoCabecalho() {
+        ReflectionTestUtils.setField(interceptor, "cabecalhoConfiavel", true);
+        request.setUserPrincipal(() -> "joao");
+        request.addHeader("X-Usuario", "maria");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        ArgumentCaptor<RegistroAuditoria> captor = ArgumentCaptor.forClass(RegistroAuditoria.class);
+        verify(coletorAuditoria).registrar(captor.capture());
+        assertEquals("joao", captor.getValue().usuario());
+        assertEquals("10.0.0.1", captor.getValue().ip());
+        assertTrue(captor.getValue().consultas().isEmpty());
+        assertFalse(captor.getValue().idRequisicao().isBlank());
+    }
+
+    @Test
+    void preHandle_DeveMarcarAnonimo_QuandoSemIdentificacao() {
+        interceptor.preHandle(request, response, null);
+
+        assertEquals(AuditoriaInterceptor.USUARIO_ANONIMO, ContextoAuditoria.usuario());
+    }
+
+    @Test
+    void preHandle_DeveManterDadosDoPrimeiroDespacho_QuandoRequisicaoAssincrona() {
+        request.addHeader(AuditoriaInterceptor.CABECALHO_ID_REQUISICAO, "req-1");
+        interceptor.preHandle(request, response, null);
+        request.setUserPrincipal(() -> "outro");
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+
+        ArgumentCaptor<RegistroAuditoria> captor = ArgumentCaptor.forClass(RegistroAuditoria.class);
+        verify(coletorAuditoria, times(1)).registrar(captor.capture());
+        assertEquals(AuditoriaInterceptor.USUARIO_ANONIMO, captor.getValue().usuario());
+    }
+
+    @Test
+    void afterCompletion_DeveIgnorar_QuandoPreHandleNaoExecutou() {
+        interceptor.afterCompletion(request, response, null, null);
+
+        verify(coletorAuditoria, never()).registrar(any());
+    }
+
+    @Test
+    void usuario_DeveSerSistema_ForaDeRequisicao() {
+        RequestContextHolder.resetRequestAttributes();
+
+        assertEquals(ContextoAuditoria.USUARIO_SISTEMA, ContextoAuditoria.usuario());
+        assertDoesNotThrow(() -> ContextoAuditoria.registrarConsulta(
+                ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_NFSE, "NF001", "sistema")));
+    }
+}
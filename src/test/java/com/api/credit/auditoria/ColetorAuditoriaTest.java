@@ -0,0 +1,205 @@
+package com.api.credit.auditoria;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaProducerException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ColetorAuditoriaTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private ColetorAuditoria coletor;
+
+    @AfterEach
+    void tearDown() {
+        if (coletor != null) {
+            coletor.stop();
+        }
+    }
+
+    @Test
+    void registrar_DeveAgruparRegistrosEmUmaUnicaMensagem_QuandoLoteCompleta() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(confirmado());
+        coletor = novoColetor(3, 60_000, 100);
+        coletor.start();
+
+        coletor.registrar(registro("r1"));
+        coletor.registrar(registro("r2"));
+        coletor.registrar(registro("r3"));
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(2000)).send(eq("creditos-auditoria"), eq("instancia-1"), captor.capture());
+        LoteAuditoria lote = (LoteAuditoria) captor.getValue();
+        assertEquals(3, lote.quantidade());
+        assertEquals(List.of("r1", "r2", "r3"), lote.registros().stream().map(RegistroAuditoria::idRequisicao).toList());
+        assertEquals("instancia-1", lote.instancia());
+    }
+
+    @Test
+    void registrar_DevePublicarLoteIncompleto_QuandoIntervaloVence() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(confirmado());
+        coletor = novoColetor(100, 50, 100);
+        coletor.start();
+
+        coletor.registrar(registro("r1"));
+
+        verify(kafkaTemplate, timeout(2000)).send(anyString(), anyString(), any(LoteAuditoria.class));
+    }
+
+    @Test
+    void drenar_DeveReenviarMesmoLote_QuandoEnvioFalha() {
+        AtomicInteger tentativas = new AtomicInteger();
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(invocacao ->
+                tentativas.incrementAndGet() == 1 ? falha() : confirmado());
+        coletor = novoColetor(1, 60_000, 100);
+        coletor.start();
+
+        coletor.registrar(registro("r1"));
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(3000).times(2)).send(anyString(), anyString(), captor.capture());
+        assertEquals(((LoteAuditoria) captor.getAllValues().get(0)).id(),
+                ((LoteAuditoria) captor.getAllValues().get(1)).id());
+        assertEquals(1, meterRegistry.get("creditos.auditoria.falhas").counter().count());
+        assertEquals(1, meterRegistry.get("creditos.auditoria.registros.enviados").counter().count(), 0.0);
+    }
+
+    @Test
+    void registrar_DeveFecharLote_QuandoTamanhoEmBytesAtinge() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(confirmado());
+        coletor = novoColetor(100, 1, 60_000, 100);
+        coletor.start();
+
+        coletor.registrar(registro("r1"));
+        coletor.registrar(registro("r2"));
+        coletor.registrar(registro("r3"));
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(2000).times(3)).send(anyString(), anyString(), captor.capture());
+        assertTrue(captor.getAllValues().stream().allMatch(lote -> ((LoteAuditoria) lote).quantidade() == 1));
+    }
+
+    @Test
+    void drenar_DeveDividirLote_QuandoProdutorRecusaPorTamanho() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(invocacao ->
+                ((LoteAuditoria) invocacao.getArgument(2)).quantidade() > 1 ? muitoGrande() : confirmado());
+        coletor = novoColetor(2, 60_000, 100);
+        coletor.start();
+
+        coletor.registrar(registro("r1"));
+        coletor.registrar(registro("r2"));
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(2000).times(3)).send(anyString(), anyString(), captor.capture());
+        List<LoteAuditoria> lotes = captor.getAllValues().stream().map(LoteAuditoria.class::cast).toList();
+        String id = lotes.get(0).id();
+        assertEquals(id + "-1", lotes.get(1).id());
+        assertEquals("r1", lotes.get(1).registros().get(0).idRequisicao());
+        assertEquals(id + "-2", lotes.get(2).id());
+        assertEquals("r2", lotes.get(2).registros().get(0).idRequisicao());
+        assertEquals(2, meterRegistry.get("creditos.auditoria.registros.enviados").counter().count(), 0.0);
+    }
+
+    @Test
+    void drenar_DeveRejeitarRegistroSemReenviar_QuandoProdutorRecusaRegistroSozinho() {
+        AtomicInteger tentativas = new AtomicInteger();
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenAnswer(invocacao ->
+                tentativas.incrementAndGet() == 1 ? muitoGrande() : confirmado());
+        coletor = novoColetor(1, 60_000, 100);
+        coletor.start();
+
+        coletor.registrar(registro("r1"));
+        coletor.registrar(registro("r2"));
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(2000).times(2)).send(anyString(), anyString(), captor.capture());
+        assertEquals("r2", ((LoteAuditoria) captor.getAllValues().get(1)).registros().get(0).idRequisicao());
+        assertEquals(1, meterRegistry.get("creditos.auditoria.registros").tag("resultado", "rejeitado")
+                .counter().count());
+    }
+
+    @Test
+    void stop_DeveEnviarRegistrosPendentesAntesDeEncerrar() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(confirmado());
+        coletor = novoColetor(100, 60_000, 100);
+        coletor.start();
+        coletor.registrar(registro("r1"));
+        coletor.registrar(registro("r2"));
+
+        coletor.stop();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, atLeast(1)).send(anyString(), anyString(), captor.capture());
+        int enviados = captor.getAllValues().stream().mapToInt(lote -> ((LoteAuditoria) lote).quantidade()).sum();
+        assertEquals(2, enviados);
+        assertEquals(0, coletor.tamanhoFila());
+        assertFalse(coletor.isRunning());
+    }
+
+    @Test
+    void registrar_DeveDescartar_QuandoFilaCheia() {
+        coletor = new ColetorAuditoria(kafkaTemplate, meterRegistry, "creditos-auditoria", "instancia-1",
+                1, 10, 524_288, 60_000, 100, 1, 100);
+
+        assertTrue(coletor.registrar(registro("r1")));
+        assertFalse(coletor.registrar(registro("r2")));
+
+        assertEquals(1, meterRegistry.get("creditos.auditoria.registros").tag("resultado", "descartado")
+                .counter().count());
+        verify(kafkaTemplate, times(0)).send(anyString(), anyString(), any());
+    }
+
+    private ColetorAuditoria novoColetor(int tamanhoLote, long intervaloMs, long esperaEnvioMs) {
+        return novoColetor(tamanhoLote, 524_288, intervaloMs, esperaEnvioMs);
+    }
+
+    private ColetorAuditoria novoColetor(int tamanhoLote, long bytesLote, long intervaloMs, long esperaEnvioMs) {
+        return new ColetorAuditoria(kafkaTemplate, meterRegistry, "creditos-auditoria", "instancia-1",
+                1000, tamanhoLote, bytesLote, intervaloMs, esperaEnvioMs, 10, 2000);
+    }
+
+    private static RegistroAuditoria registro(String id) {
+        return new RegistroAuditoria(id, "2024-01-01T00:00", "maria", null, "GET", "/api/creditos/NF001", null,
+                200, 3, "10.0.0.1", "teste", List.of());
+    }
+
+    private static SettableListenableFuture<SendResult<String, Object>> confirmado() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.set(null);
+        return futuro;
+    }
+
+    private static SettableListenableFuture<SendResult<String, Object>> falha() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.setException(new IllegalStateException("broker indisponível"));
+        return futuro;
+    }
+
+    private static SettableListenableFuture<SendResult<String, Object>> muitoGrande() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.setException(new KafkaProducerException(null, "falha no envio",
+                new RecordTooLargeException("mensagem maior que max.request.size")));
+        return futuro;
+    }
+}
@@ -0,0 +1,184 @@
+package com.api.credit.cache;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.service.CreditoService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AquecimentoCacheTest {
+
+    private static final String TOPICO = "creditos-consultas";
+    private static final TopicPartition PARTICAO_0 = new TopicPartition(TOPICO, 0);
+    private static final TopicPartition PARTICAO_1 = new TopicPartition(TOPICO, 1);
+
+    @Mock
+    private ConsumerFactory<String, Object> consumerFactory;
+
+    @Mock
+    private CreditoService creditoService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AquecimentoCache aquecimento;
+    private ConsumidorFalso consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aquecimento = new AquecimentoCache(consumerFactory, creditoService, meterRegistry, TOPICO, 24, 30, 2);
+        consumer = new ConsumidorFalso();
+        consumer.updatePartitions(TOPICO, List.of(
+                new PartitionInfo(TOPICO, 0, Node.noNode(), new Node[0], new Node[0]),
+                new PartitionInfo(TOPICO, 1, Node.noNode(), new Node[0], new Node[0])));
+    }
+
+    @Test
+    void lerChavesMaisConsultadas_DeveOrdenarPorFrequenciaDentroDaJanela() {
+        // Offsets 0 e 1 da partição 0 estão fora da janela
+        consumer.inicioDaJanela.put(PARTICAO_0, 2L);
+        consumer.inicioDaJanela.put(PARTICAO_1, 0L);
+        adicionar(PARTICAO_0, 0, nfse("NF-ANTIGA"));
+        adicionar(PARTICAO_0, 1, nfse("NF-ANTIGA"));
+        adicionar(PARTICAO_0, 2, nfse("NF001"));
+        adicionar(PARTICAO_0, 3, Map.of("tipoConsulta", "CONSULTA_POR_NFSE", "parametro", "NF001",
+                "timestamp", "2024-01-15T10:30:00", "usuario", "sistema"));
+        adicionar(PARTICAO_1, 0, ConsultaEvento.lote(List.of("NF002"), List.of("CR001"), "sistema"));
+        adicionar(PARTICAO_1, 1, credito("CR001"));
+        adicionar(PARTICAO_1, 2, credito("CR001"));
+        consumer.updateEndOffsets(Map.of(PARTICAO_0, 4L, PARTICAO_1, 3L));
+        // Registrado depois da subida: não entra no aquecimento
+        adicionar(PARTICAO_1, 3, credito("CR-NOVO"));
+
+        List<AquecimentoCache.ItemChave> chaves = aquecimento.lerChavesMaisConsultadas(consumer, prazo(5));
+
+        assertEquals(List.of("CR001", "NF001"), chaves.stream().map(chave -> chave.item().chave()).collect(Collectors.toList()));
+        assertFalse(chaves.get(0).nfse());
+        assertTrue(chaves.get(1).nfse());
+        assertEquals(5, meterRegistry.get("creditos.cache.aquecimento.eventos").counter().count());
+    }
+
+    @Test
+    void lerChavesMaisConsultadas_DeveTerminar_QuandoJanelaVazia() {
+        consumer.updateEndOffsets(Map.of(PARTICAO_0, 10L, PARTICAO_1, 0L));
+
+        List<AquecimentoCache.ItemChave> chaves = aquecimento.lerChavesMaisConsultadas(consumer, prazo(5));
+
+        assertTrue(chaves.isEmpty());
+    }
+
+    @Test
+    void carregar_DeveAgruparPorTipoEContarChaves() {
+        aquecimento = new AquecimentoCache(consumerFactory, creditoService, meterRegistry, TOPICO, 24, 30, 500);
+        consumer.inicioDaJanela.put(PARTICAO_0, 0L);
+        List<String> numerosCredito = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            adicionar(PARTICAO_0, i, credito("CR" + i));
+            numerosCredito.add("CR" + i);
+        }
+        consumer.updateEndOffsets(Map.of(PARTICAO_0, 150L, PARTICAO_1, 0L));
+        List<AquecimentoCache.ItemChave> chaves = aquecimento.lerChavesMaisConsultadas(consumer, prazo(5));
+        when(creditoService.carregarNoCache(anyList(), anyList())).thenReturn(90, 40);
+
+        int carregadas = aquecimento.carregar(chaves, prazo(5));
+
+        assertEquals(130, carregadas);
+        verify(creditoService, times(2)).carregarNoCache(eq(List.of()), anyList());
+        assertEquals(130, meterRegistry.get("creditos.cache.aquecimento.chaves").tag("resultado", "carregada").counter().count());
+        assertEquals(20, meterRegistry.get("creditos.cache.aquecimento.chaves").tag("resultado", "ausente").counter().count());
+    }
+
+    @Test
+    void carregar_DeveParar_QuandoOrcamentoEsgotado() {
+        List<AquecimentoCache.ItemChave> chaves = List.of(new AquecimentoCache.ItemChave(true,
+                new com.api.credit.estatistica.ContadorMaisFrequentes.ItemFrequente("NF001", 1, 0)));
+
+        int carregadas = aquecimento.carregar(chaves, System.nanoTime() - 1);
+
+        assertEquals(0, carregadas);
+        verifyNoInteractions(creditoService);
+        assertEquals(1, meterRegistry.get("creditos.cache.aquecimento.orcamento.esgotado").counter().count());
+    }
+
+    @Test
+    void run_NaoDeveFalhar_QuandoKafkaIndisponivel() {
+        when(consumerFactory.createConsumer(any(), any(), any(), any())).thenThrow(new IllegalStateException("sem broker"));
+
+        assertDoesNotThrow(() -> aquecimento.run(null));
+
+        verifyNoInteractions(creditoService);
+        assertEquals(1.0, meterRegistry.get("creditos.cache.aquecimento.progresso").gauge().value());
+    }
+
+    private void adicionar(TopicPartition particao, long offset, Object valor) {
+        consumer.registros.add(new ConsumerRecord<>(TOPICO, particao.partition(), offset, null, valor));
+    }
+
+    private static long prazo(int segundos) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+    }
+
+    private static ConsultaEvento nfse(String numero) {
+        return ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_NFSE, numero, "sistema");
+    }
+
+    private static ConsultaEvento credito(String numero) {
+        return ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_CREDITO, numero, "sistema");
+    }
+
+    /**
+     * MockConsumer não implementa offsetsForTimes; os registros só são
+     * entregues depois do assign, como no consumidor real.
+     */
+    private static class ConsumidorFalso extends MockConsumer<String, Object> {
+
+        private final Map<TopicPartition, Long> inicioDaJanela = new HashMap<>();
+        private final List<ConsumerRecord<String, Object>> registros = new ArrayList<>();
+
+        ConsumidorFalso() {
+            super(OffsetResetStrategy.EARLIEST);
+        }
+
+        @Override
+        public synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+                Map<TopicPartition, Long> timestampsToSearch, Duration timeout) {
+            Map<TopicPartition, OffsetAndTimestamp> resultado = new HashMap<>();
+            timestampsToSearch.forEach((particao, timestamp) -> {
+                Long offset = inicioDaJanela.get(particao);
+                resultado.put(particao, offset == null ? null : new OffsetAndTimestamp(offset, timestamp));
+            });
+            return resultado;
+        }
+
+        @Override
+        public synchronized void assign(java.util.Collection<TopicPartition> partitions) {
+            super.assign(partitions);
+            registros.forEach(this::addRecord);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.api.credit.cache;
+
+import com.api.credit.dto.CreditoDTO;
+import com.github.fppt.jedismock.RedisServer;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCompartilhadoTest {
+
+    private RedisServer servidor;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private SimpleMeterRegistry meterRegistry;
+    private CacheCompartilhado cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        servidor = RedisServer.newRedisServer().start();
+        // Timeout curto como o spring.redis.timeout da aplicação; o jedis-mock só fala RESP2
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", servidor.getBindPort()),
+                LettuceClientConfiguration.builder()
+                        .commandTimeout(Duration.ofMillis(500))
+                        .clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build())
+                        .build());
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CacheCompartilhado(redis, Jackson2ObjectMapperBuilder.json().build(), meterRegistry, 600);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionFactory.destroy();
+        servidor.stop();
+    }
+
+    @Test
+    void armazenarPorCredito_DevePreservarTodosOsCampos() {
+        CreditoDTO credito = credito("CR001", "NF001");
+
+        cache.armazenarPorCredito("CR001", credito);
+
+        assertEquals(credito, cache.obterPorCredito("CR001"));
+        assertNull(cache.obterPorCredito("CR999"));
+        Long ttl = redis.getExpire(CacheCompartilhado.PREFIXO_CREDITO + "CR001", TimeUnit.SECONDS);
+        assertTrue(ttl != null && ttl > 0 && ttl <= 600, "ttl: " + ttl);
+    }
+
+    @Test
+    void armazenarPorNfse_DeveGuardarALista() {
+        List<CreditoDTO> creditos = List.of(credito("CR001", "NF001"), credito("CR002", "NF001"));
+
+        cache.armazenarPorNfse("NF001", creditos, cache.versaoNfse("NF001"));
+
+        assertEquals(creditos, cache.obterPorNfse("NF001"));
+        assertNull(cache.obterPorNfse("NF999"));
+    }
+
+    @Test
+    void invalidar_DeveRemoverAsNfseEAvisarAsInstanciasComUmaMensagem() throws Exception {
+        BlockingQueue<String> recebidas = new LinkedBlockingQueue<>();
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((mensagem, padrao) -> recebidas.add(new String(mensagem.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CacheCompartilhado.CANAL_INVALIDACAO));
+        container.afterPropertiesSet();
+        container.start();
+        cache.armazenarPorNfse("NF001", List.of(credito("CR001", "NF001")), cache.versaoNfse("NF001"));
+        cache.armazenarPorNfse("NF002", List.of(credito("CR003", "NF002")), cache.versaoNfse("NF002"));
+        cache.armazenarPorCredito("CR001", credito("CR001", "NF001"));
+
+        try {
+            cache.invalidar(List.of("NF001", "NF002", "NF001"), List.of("CR002", "CR004", "CR005"));
+
+            assertNull(cache.obterPorNfse("NF001"));
+            assertNull(cache.obterPorNfse("NF002"));
+            assertNotNull(cache.obterPorCredito("CR001"));
+            String mensagem = recebidas.poll(5, TimeUnit.SECONDS);
+            assertNotNull(mensagem);
+            assertEquals(new CacheCompartilhado.Invalidacao(List.of("NF001", "NF002"), List.of("CR002", "CR004", "CR005")),
+                    CacheCompartilhado.lerInvalidacao(mensagem));
+            assertNull(recebidas.poll(200, TimeUnit.MILLISECONDS));
+        } finally {
+            container.destroy();
+        }
+    }
+
+    @Test
+    void armazenarPorNfse_NaoDeveGravar_QuandoNfseForInvalidadaDuranteACarga() {
+        String versao = cache.versaoNfse("NF001");
+        // Importação grava e invalida enquanto a carga ainda lê o banco
+        cache.invalidar(List.of("NF001"), List.of("CR002"));
+
+        cache.armazenarPorNfse("NF001", List.of(credito("CR001", "NF001")), versao);
+
+        assertNull(cache.obterPorNfse("NF001"));
+        List<CreditoDTO> atualizados = List.of(credito("CR001", "NF001"), credito("CR002", "NF001"));
+        cache.armazenarPorNfse("NF001", atualizados, cache.versaoNfse("NF001"));
+        assertEquals(atualizados, cache.obterPorNfse("NF001"));
+    }
+
+    @Test
+    void obterPorCredito_DeveTratarFalhaComoFalta_QuandoRedisIndisponivel() throws IOException {
+        servidor.stop();
+
+        assertNull(cache.obterPorCredito("CR001"));
+        assertDoesNotThrow(() -> cache.armazenarPorCredito("CR001", credito("CR001", "NF001")));
+        assertDoesNotThrow(() -> cache.invalidar(List.of("NF001"), List.of("CR001")));
+
+        assertEquals(3, meterRegistry.get("creditos.cache.compartilhado.falhas").counter().count());
+        servidor = RedisServer.newRedisServer().start();
+    }
+
+    @Test
+    void lerInvalidacao_DeveIgnorarMensagemForaDoFormato() {
+        assertNull(CacheCompartilhado.lerInvalidacao("NF001"));
+    }
+
+    private static CreditoDTO credito(String numeroCredito, String numeroNfse) {
+        return new CreditoDTO(numeroCredito, numeroNfse, LocalDate.of(2024, 2, 25), new BigDecimal("1500.75"),
+                "ISSQN", "Sim", new BigDecimal("5.00"), new BigDecimal("30000.00"),
+                new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.api.credit.cache;
+
+import com.api.credit.config.CacheConfig;
+import com.api.credit.dto.CreditoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRespostasTest {
+
+    private ObjectMapper objectMapper;
+    private CacheRespostas cache;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cache = new CacheRespostas(new ConcurrentMapCacheManager(CacheConfig.CACHE_RESPOSTAS_POR_CREDITO,
+                CacheConfig.CACHE_RESPOSTAS_POR_NFSE), objectMapper, 2048);
+    }
+
+    @Test
+    void armazenarPorCredito_DeveGuardarOMesmoJsonDoJackson_SemGzipAbaixoDoMinimo() throws IOException {
+        RespostaCodificada resposta = cache.armazenarPorCredito("CR001", credito("CR001"));
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(credito("CR001")), resposta.json());
+        assertFalse(resposta.temGzip());
+        assertEquals(resposta.etag(), resposta.etag(true));
+        assertSame(resposta, cache.obterPorCredito("CR001"));
+        assertNull(cache.obterPorCredito("CR999"));
+    }
+
+    @Test
+    void armazenarPorNfse_DeveGuardarGzipEquivalente_QuandoCompensar() throws IOException {
+        List<CreditoDTO> creditos = Collections.nCopies(40, credito("CR001"));
+
+        RespostaCodificada resposta = cache.armazenarPorNfse("NF001", creditos);
+
+        assertTrue(resposta.temGzip());
+        assertTrue(resposta.gzip().length < resposta.json().length);
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(resposta.gzip()))) {
+            assertArrayEquals(resposta.json(), gzip.readAllBytes());
+        }
+        assertNotEquals(resposta.etag(), resposta.etag(true));
+    }
+
+    @Test
+    void codificar_DeveGerarEtagForteEstavelPorConteudo() {
+        RespostaCodificada primeira = cache.codificar(credito("CR001"));
+        RespostaCodificada segunda = cache.codificar(credito("CR001"));
+        RespostaCodificada outra = cache.codificar(credito("CR002"));
+
+        assertEquals(primeira.etag(), segunda.etag());
+        assertNotEquals(primeira.etag(), outra.etag());
+        assertTrue(primeira.etag().matches("\"[A-Za-z0-9_-]{22}\""), primeira.etag());
+    }
+
+    @Test
+    void naoModificada_DeveUsarComparacaoFracaDoIfNoneMatch() {
+        RespostaCodificada resposta = cache.codificar(Collections.nCopies(40, credito("CR001")));
+
+        assertTrue(resposta.naoModificada(List.of("\"outro\"", resposta.etag())));
+        assertTrue(resposta.naoModificada(List.of("W/" + resposta.etag(true))));
+        assertTrue(resposta.naoModificada(List.of("*")));
+        assertFalse(resposta.naoModificada(List.of("\"outro\"")));
+        assertFalse(resposta.naoModificada(List.of()));
+    }
+
+    private static CreditoDTO credito(String numeroCredito) {
+        return new CreditoDTO(numeroCredito, "NF001", LocalDate.of(2024, 2, 25), new BigDecimal("1500.75"),
+                "ISSQN", "Sim", new BigDecimal("5.00"), new BigDecimal("30000.00"),
+                new BigDecimal("5000.00"), new BigDecimal("25000.00"));
+    }
+}
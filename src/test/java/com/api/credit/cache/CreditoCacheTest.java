@@ -0,0 +1,216 @@
+package com.api.credit.cache;
+
+import com.api.credit.config.CacheConfig;
+import com.api.credit.dto.CreditoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoCacheTest {
+
+    @Mock
+    private CacheCompartilhado compartilhado;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CreditoCache creditoCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        creditoCache = new CreditoCache(new ConcurrentMapCacheManager(CacheConfig.CACHE_POR_CREDITO,
+                CacheConfig.CACHE_POR_NFSE, CacheConfig.CACHE_AUSENTES_POR_CREDITO, CacheConfig.CACHE_AUSENTES_POR_NFSE,
+                CacheConfig.CACHE_RESPOSTAS_POR_CREDITO, CacheConfig.CACHE_RESPOSTAS_POR_NFSE),
+                compartilhado, meterRegistry);
+    }
+
+    @Test
+    void buscarPorNfse_DeveUsarNivelCompartilhado_SemIrAoBanco() {
+        List<CreditoDTO> creditos = List.of(credito("CR001"));
+        when(compartilhado.obterPorNfse("NF001")).thenReturn(creditos);
+
+        assertEquals(creditos, creditoCache.buscarPorNfse("NF001", () -> fail("não deveria consultar o banco")));
+        assertEquals(creditos, creditoCache.buscarPorNfse("NF001", () -> fail("não deveria consultar o banco")));
+
+        // A segunda consulta é respondida pelo nível local
+        verify(compartilhado).obterPorNfse("NF001");
+        assertEquals(1, contagem("local", "acerto"));
+        assertEquals(1, contagem("local", "falta"));
+        assertEquals(1, contagem("compartilhado", "acerto"));
+        assertEquals(0.5, taxaAcerto("local"));
+        assertEquals(1.0, taxaAcerto("compartilhado"));
+    }
+
+    @Test
+    void buscarPorCredito_DeveGravarNosDoisNiveis_QuandoCarregarDoBanco() {
+        CreditoDTO credito = credito("CR001");
+
+        assertEquals(Optional.of(credito), creditoCache.buscarPorCredito("CR001", () -> Optional.of(credito)));
+
+        verify(compartilhado).armazenarPorCredito("CR001", credito);
+        assertEquals(credito, creditoCache.obterPorCredito("CR001"));
+        assertEquals(1, contagem("compartilhado", "falta"));
+        assertEquals(1, contagem("banco", "acerto"));
+    }
+
+    @Test
+    void buscarPorCredito_DeveGuardarAusenciaSomenteNoNivelLocal() {
+        assertEquals(Optional.empty(), creditoCache.buscarPorCredito("CR999", Optional::empty));
+        assertEquals(Optional.empty(), creditoCache.buscarPorCredito("CR999", () -> fail("ausência em cache")));
+
+        verify(compartilhado, never()).armazenarPorCredito(anyString(), any());
+        assertEquals(1, contagem("banco", "falta"));
+        assertEquals(1, contagem("local", "acerto"));
+    }
+
+    @Test
+    void buscarPorNfse_DeveFazerUmaUnicaCarga_QuandoFaltasSimultaneasNaMesmaChave() throws Exception {
+        int consultas = 16;
+        when(compartilhado.obterPorNfse("NF001")).thenReturn(null);
+        AtomicInteger cargas = new AtomicInteger();
+        CountDownLatch todasAguardando = new CountDownLatch(consultas);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(consultas);
+        try {
+            List<Future<List<CreditoDTO>>> resultados = new ArrayList<>();
+            for (int i = 0; i < consultas; i++) {
+                resultados.add(executor.submit(() -> {
+                    todasAguardando.countDown();
+                    return creditoCache.buscarPorNfse("NF001", () -> {
+                        cargas.incrementAndGet();
+                        aguardar(liberar);
+                        return List.of(credito("CR001"));
+                    });
+                }));
+            }
+            assertTrue(todasAguardando.await(5, TimeUnit.SECONDS));
+            // Dá tempo das demais threads chegarem à carga em andamento
+            Thread.sleep(100);
+            liberar.countDown();
+
+            for (Future<List<CreditoDTO>> resultado : resultados) {
+                assertEquals(List.of(credito("CR001")), resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, cargas.get());
+        verify(compartilhado).obterPorNfse("NF001");
+        assertEquals(0, meterRegistry.get(CreditoCache.METRICA_CARGAS_EM_ANDAMENTO).gauge().value());
+        // Quem chegou durante a carga entra na contagem de coalescidas; quem chegou depois acerta o local
+        double coalescidas = meterRegistry.get(CreditoCache.METRICA_COALESCIDAS).tag("tipo", "nfse").counter().count();
+        assertEquals(consultas - 1, coalescidas + contagem("local", "acerto"));
+    }
+
+    @Test
+    void buscarPorCredito_NaoDeveGuardarFalhaDaCarga() {
+        CreditoCache semCompartilhado = new CreditoCache(new ConcurrentMapCacheManager(CacheConfig.CACHE_POR_CREDITO,
+                CacheConfig.CACHE_POR_NFSE, CacheConfig.CACHE_AUSENTES_POR_CREDITO, CacheConfig.CACHE_AUSENTES_POR_NFSE,
+                CacheConfig.CACHE_RESPOSTAS_POR_CREDITO, CacheConfig.CACHE_RESPOSTAS_POR_NFSE), null, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> semCompartilhado.buscarPorCredito("CR001", () -> {
+            throw new IllegalStateException("banco fora");
+        }));
+
+        // A falha não fica registrada: a próxima consulta tenta de novo
+        assertEquals(Optional.of(credito("CR001")), semCompartilhado.buscarPorCredito("CR001", () -> Optional.of(credito("CR001"))));
+    }
+
+    @Test
+    void registrarGravados_DeveInvalidarNivelCompartilhado() {
+        creditoCache.armazenarPorNfse("NF001", List.of(credito("CR001")));
+
+        creditoCache.registrarGravados(List.of("NF001"), List.of("CR002"));
+
+        assertNull(creditoCache.obterPorNfse("NF001"));
+        verify(compartilhado).invalidar(List.of("NF001"), List.of("CR002"));
+    }
+
+    @Test
+    void buscarPorNfse_NaoDeveManterListaNoCacheLocal_QuandoNfseForDescartadaDuranteACarga() {
+        List<CreditoDTO> anteriores = List.of(credito("CR001"));
+        when(compartilhado.obterPorNfse("NF001")).thenReturn(null);
+
+        // Crédito gravado (e avisado) enquanto a carga ainda lia a lista anterior
+        List<CreditoDTO> carregados = creditoCache.buscarPorNfse("NF001", () -> {
+            creditoCache.descartarLocal("NF001", "CR002");
+            return anteriores;
+        });
+
+        assertEquals(anteriores, carregados);
+        assertNull(creditoCache.obterPorNfse("NF001"));
+        List<CreditoDTO> atualizados = List.of(credito("CR001"), credito("CR002"));
+        assertEquals(atualizados, creditoCache.buscarPorNfse("NF001", () -> atualizados));
+        assertEquals(atualizados, creditoCache.obterPorNfse("NF001"));
+    }
+
+    @Test
+    void buscarPorNfse_NaoDeveMarcarAusente_QuandoNfseForDescartadaDuranteACarga() {
+        when(compartilhado.obterPorNfse("NF001")).thenReturn(null);
+        assertEquals(List.of(), creditoCache.buscarPorNfse("NF001", () -> {
+            creditoCache.descartarLocal("NF001", "CR001");
+            return List.of();
+        }));
+
+        assertFalse(creditoCache.ausentePorNfse("NF001"));
+    }
+
+    @Test
+    void descartarLocal_NaoDeveAcessarNivelCompartilhado() {
+        creditoCache.armazenarPorNfse("NF001", List.of(credito("CR001")));
+        creditoCache.marcarAusentePorCredito("CR002");
+
+        creditoCache.descartarLocal("NF001", "CR002");
+
+        assertNull(creditoCache.obterPorNfse("NF001"));
+        assertFalse(creditoCache.ausentePorCredito("CR002"));
+        verifyNoInteractions(compartilhado);
+    }
+
+    private double contagem(String nivel, String resultado) {
+        return meterRegistry.get(CreditoCache.METRICA_CONSULTAS).tag("nivel", nivel).tag("resultado", resultado)
+                .counter().count();
+    }
+
+    private double taxaAcerto(String nivel) {
+        return meterRegistry.get(CreditoCache.METRICA_TAXA_ACERTO).tag("nivel", nivel).gauge().value();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CreditoDTO credito(String numeroCredito) {
+        CreditoDTO credito = new CreditoDTO();
+        credito.setNumeroCredito(numeroCredito);
+        credito.setNumeroNfse("NF001");
+        return credito;
+    }
+}
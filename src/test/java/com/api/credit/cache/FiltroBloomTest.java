@@ -0,0 +1,45 @@
+package com.api.credit.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroBloomTest {
+
+    @Test
+    void podeConter_NaoDeveDarFalsoNegativo() {
+        FiltroBloom filtro = new FiltroBloom(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filtro.adicionar("NFS" + i);
+        }
+
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filtro.podeConter("NFS" + i), "NFS" + i);
+        }
+    }
+
+    @Test
+    void podeConter_DeveRespeitarTaxaDeFalsoPositivo_ComChavesSequenciais() {
+        FiltroBloom filtro = new FiltroBloom(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filtro.adicionar("NFS" + i);
+        }
+
+        int falsosPositivos = 0;
+        for (int i = 100_000; i < 200_000; i++) {
+            falsosPositivos += filtro.podeConter("NFS" + i) ? 1 : 0;
+        }
+        assertTrue(falsosPositivos < 1_500, "falsos positivos: " + falsosPositivos);
+        assertEquals(0.01, filtro.taxaFalsoPositivoEstimada(), 0.005);
+    }
+
+    @Test
+    void construtor_DeveDimensionarBitsEHashes() {
+        FiltroBloom filtro = new FiltroBloom(1_000_000, 0.01);
+
+        // ~9,6 bits por elemento e 7 hashes para 1%
+        assertEquals(9_585_088, filtro.quantidadeBits(), 64);
+        assertEquals(7, filtro.quantidadeHashes());
+        assertFalse(filtro.podeConter("qualquer"));
+    }
+}
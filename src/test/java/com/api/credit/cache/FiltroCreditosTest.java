@@ -0,0 +1,164 @@
+package com.api.credit.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroCreditosTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE credito (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "numero_credito VARCHAR(50) NOT NULL UNIQUE, numero_nfse VARCHAR(50) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse) VALUES ('CR001', 'NF001'), ('CR002', 'NF001')");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void podeExistir_DeveAceitarTudo_AntesDaMontagem() {
+        FiltroCreditos filtro = novoFiltro(true);
+
+        assertTrue(filtro.podeExistirNfse("NF999"));
+        assertTrue(filtro.podeExistirCredito("CR999"));
+    }
+
+    @Test
+    void reconstruir_DeveDescartarSomenteChavesInexistentes() {
+        FiltroCreditos filtro = novoFiltro(true);
+
+        filtro.reconstruir();
+
+        assertTrue(filtro.podeExistirNfse("NF001"));
+        assertTrue(filtro.podeExistirCredito("CR001"));
+        assertTrue(filtro.podeExistirCredito("CR002"));
+        assertFalse(filtro.podeExistirNfse("NF999"));
+        assertFalse(filtro.podeExistirCredito("CR999"));
+        assertEquals(2, meterRegistry.get("creditos.filtro.descartadas").counters().stream()
+                .mapToDouble(contador -> contador.count()).sum());
+        assertEquals(2, meterRegistry.get("creditos.filtro.elementos").gauge().value());
+    }
+
+    @Test
+    void adicionar_DeveIncluirCreditoGravadoDepoisDaMontagem() {
+        FiltroCreditos filtro = novoFiltro(true);
+        filtro.reconstruir();
+
+        filtro.adicionar("NF002", "CR003");
+
+        assertTrue(filtro.podeExistirNfse("NF002"));
+        assertTrue(filtro.podeExistirCredito("CR003"));
+    }
+
+    @Test
+    void reconstruir_DeveIncluirCreditosGravadosDesdeAMontagemAnterior() {
+        FiltroCreditos filtro = novoFiltro(true);
+        filtro.reconstruir();
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse) VALUES ('CR004', 'NF004')");
+
+        filtro.reconstruir();
+
+        assertTrue(filtro.podeExistirNfse("NF004"));
+        assertEquals(3, meterRegistry.get("creditos.filtro.elementos").gauge().value());
+    }
+
+    @Test
+    void adicionar_NaoDevePerderCredito_QuandoConcorrerComRemontagem() throws Exception {
+        FiltroCreditos filtro = novoFiltro(true);
+        filtro.reconstruir();
+        Queue<String> incluidos = new ConcurrentLinkedQueue<>();
+        AtomicBoolean parar = new AtomicBoolean();
+        List<String> perdidos = new CopyOnWriteArrayList<>();
+
+        Thread remontagens = new Thread(() -> {
+            while (!parar.get()) {
+                filtro.reconstruir();
+                // Já confirmados: têm que estar no filtro recém-publicado
+                for (String numeroCredito : List.copyOf(incluidos)) {
+                    if (!filtro.podeExistirCredito(numeroCredito)) {
+                        perdidos.add(numeroCredito);
+                    }
+                }
+            }
+        });
+        remontagens.start();
+        ExecutorService gravacoes = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                String prefixo = "CR" + t + "-";
+                tarefas.add(gravacoes.submit(() -> {
+                    for (int i = 0; i < 1_000 && perdidos.isEmpty(); i++) {
+                        String numeroCredito = prefixo + i;
+                        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse) VALUES (?, 'NFC')",
+                                numeroCredito);
+                        filtro.adicionar("NFC", numeroCredito);
+                        incluidos.add(numeroCredito);
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            gravacoes.shutdownNow();
+            parar.set(true);
+            remontagens.join();
+        }
+
+        assertEquals(List.of(), perdidos);
+    }
+
+    @Test
+    void run_DeveManterConsultasNoBanco_QuandoMontagemFalha() {
+        FiltroCreditos filtro = novoFiltro(true);
+        jdbcTemplate.execute("DROP TABLE credito");
+
+        assertDoesNotThrow(() -> filtro.run(null));
+
+        assertTrue(filtro.podeExistirNfse("NF999"));
+        jdbcTemplate.execute("CREATE TABLE credito (numero_credito VARCHAR(50), numero_nfse VARCHAR(50))");
+    }
+
+    @Test
+    void reconstruir_NaoDeveMontar_QuandoDesabilitado() {
+        FiltroCreditos filtro = novoFiltro(false);
+
+        filtro.reconstruir();
+
+        assertTrue(filtro.podeExistirNfse("NF999"));
+    }
+
+    private FiltroCreditos novoFiltro(boolean habilitado) {
+        return new FiltroCreditos(jdbcTemplate, new DataSourceTransactionManager(dataSource), meterRegistry,
+                habilitado, 1000, 0.01, 100);
+    }
+}
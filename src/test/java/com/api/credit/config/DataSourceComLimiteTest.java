@@ -0,0 +1,92 @@
+package com.api.credit.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataSourceComLimiteTest {
+
+    @Mock
+    private DataSource alvo;
+
+    @Mock
+    private Connection conexao;
+
+    @Test
+    void getConnection_DeveDevolverPermissao_QuandoConexaoFechada() throws SQLException {
+        when(alvo.getConnection()).thenReturn(conexao);
+        DataSourceComLimite dataSource = new DataSourceComLimite(alvo, 2, 100);
+
+        Connection emprestada = dataSource.getConnection();
+        assertEquals(1, dataSource.getPermissoesDisponiveis());
+
+        emprestada.close();
+        emprestada.close();
+
+        assertEquals(2, dataSource.getPermissoesDisponiveis());
+        verify(conexao, times(1)).close();
+    }
+
+    @Test
+    void getConnection_DeveFalhar_QuandoLimiteAtingido() throws SQLException {
+        when(alvo.getConnection()).thenReturn(conexao);
+        DataSourceComLimite dataSource = new DataSourceComLimite(alvo, 1, 50);
+        dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(alvo, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_DeveLiberarConexaoParaQuemAguarda() throws Exception {
+        when(alvo.getConnection()).thenReturn(conexao);
+        DataSourceComLimite dataSource = new DataSourceComLimite(alvo, 1, 5000);
+        Connection primeira = dataSource.getConnection();
+
+        Thread aguardando = new Thread(() -> {
+            try {
+                dataSource.getConnection().close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        aguardando.start();
+        while (dataSource.getThreadsAguardando() == 0) {
+            Thread.onSpinWait();
+        }
+        primeira.close();
+        aguardando.join(5000);
+
+        assertFalse(aguardando.isAlive());
+        assertEquals(1, dataSource.getPermissoesDisponiveis());
+    }
+
+    @Test
+    void getConnection_DeveDevolverPermissao_QuandoAberturaFalhar() throws SQLException {
+        when(alvo.getConnection()).thenThrow(new SQLException("banco indisponível"));
+        DataSourceComLimite dataSource = new DataSourceComLimite(alvo, 1, 50);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getPermissoesDisponiveis());
+    }
+
+    @Test
+    void conexao_DeveDelegarDemaisMetodos() throws SQLException {
+        when(alvo.getConnection()).thenReturn(conexao);
+        when(conexao.getAutoCommit()).thenReturn(false);
+        Connection emprestada = new DataSourceComLimite(alvo, 1, 50).getConnection();
+
+        assertFalse(emprestada.getAutoCommit());
+        assertEquals(emprestada, emprestada);
+    }
+}
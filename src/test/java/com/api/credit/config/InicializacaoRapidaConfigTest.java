@@ -0,0 +1,63 @@
+package com.api.credit.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InicializacaoRapidaConfigTest {
+
+    @Test
+    void openApiSobDemanda_DeveAdiarSomenteBeansDoSpringdoc() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("swaggerConfig", new RootBeanDefinition(SwaggerConfig.class));
+        RootBeanDefinition customOpenApi = new RootBeanDefinition();
+        customOpenApi.setFactoryBeanName("swaggerConfig");
+        customOpenApi.setFactoryMethodName("customOpenAPI");
+        beanFactory.registerBeanDefinition("customOpenAPI", customOpenApi);
+        beanFactory.registerBeanDefinition("openApiResource", BeanDefinitionBuilder
+                .genericBeanDefinition("org.springdoc.webmvc.api.OpenApiWebMvcResource").getBeanDefinition());
+        beanFactory.registerBeanDefinition("kafkaConfig", new RootBeanDefinition(KafkaConfig.class));
+
+        InicializacaoRapidaConfig.openApiSobDemanda().postProcessBeanFactory(beanFactory);
+
+        assertTrue(beanFactory.getBeanDefinition("customOpenAPI").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("openApiResource").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("swaggerConfig").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("kafkaConfig").isLazyInit());
+    }
+
+    @Test
+    void executar_DeveCriarTopicosEValidarSchema() {
+        AtomicInteger topicosCriados = new AtomicInteger();
+        InicializacaoRapidaConfig.MetadadosHibernate metadados = mock(InicializacaoRapidaConfig.MetadadosHibernate.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new InicializacaoRapidaConfig.TarefasAdiadas(() -> topicosCriados.incrementAndGet() > 0, metadados,
+                meterRegistry).executar();
+
+        assertEquals(1, topicosCriados.get());
+        verify(metadados).validar();
+        assertNull(meterRegistry.find("creditos.inicializacao.adiada.falhas").counter());
+    }
+
+    @Test
+    void executar_DeveContarFalhaEContinuar_QuandoBrokerIndisponivel() {
+        InicializacaoRapidaConfig.MetadadosHibernate metadados = new InicializacaoRapidaConfig.MetadadosHibernate();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        new InicializacaoRapidaConfig.TarefasAdiadas(() -> false, metadados, meterRegistry).executar();
+
+        assertEquals(1, meterRegistry.get("creditos.inicializacao.adiada.falhas").tag("tarefa", "topicos")
+                .counter().count());
+        // Sem o modelo do Hibernate a validação também é registrada como falha
+        assertEquals(1, meterRegistry.get("creditos.inicializacao.adiada.falhas").tag("tarefa", "schema")
+                .counter().count());
+    }
+}
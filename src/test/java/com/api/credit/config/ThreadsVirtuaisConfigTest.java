@@ -0,0 +1,44 @@
+package com.api.credit.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadsVirtuaisConfigTest {
+
+    @Test
+    void novoExecutorVirtual_DeveUsarThreadsVirtuais_QuandoJava21() throws Exception {
+        ExecutorService executor = ThreadsVirtuaisConfig.novoExecutorVirtual("teste-");
+
+        if (Runtime.version().feature() < 21) {
+            assertNull(executor);
+            return;
+        }
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get();
+            assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            assertTrue(thread.getName().startsWith("teste-"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void limiteConexoesBanco_SoDeveSerInstalado_JuntoComOExecutorVirtual() {
+        new ApplicationContextRunner()
+                .withPropertyValues("app.threads-virtuais.habilitado=true")
+                .withBean(DataSource.class, DriverManagerDataSource::new)
+                .withUserConfiguration(ThreadsVirtuaisConfig.class)
+                .run(contexto -> {
+                    boolean limitado = contexto.getBean(DataSource.class) instanceof DataSourceComLimite;
+                    assertEquals(ThreadsVirtuaisConfig.suportaThreadsVirtuais(), limitado);
+                    assertEquals(ThreadsVirtuaisConfig.suportaThreadsVirtuais(),
+                            contexto.containsBean("metricasLimiteConexoes"));
+                });
+    }
+}
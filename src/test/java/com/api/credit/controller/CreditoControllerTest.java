@@ -1,28 +1,61 @@
 package com.api.credit.controller;
 
+import com.api.credit.auditoria.ColetorAuditoria;
+import com.api.credit.cache.CacheRespostas;
+import com.api.credit.cache.RespostaCodificada;
+import com.api.credit.dto.ConsultaLoteRequestDTO;
+import com.api.credit.dto.ConsultaLoteResponseDTO;
 import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.FiltroCreditoDTO;
+import com.api.credit.dto.PaginaCreditosDTO;
+import com.api.credit.dto.ErroImportacaoDTO;
+import com.api.credit.dto.ResultadoConsultaDTO;
+import com.api.credit.dto.ResultadoImportacaoDTO;
 import com.api.credit.exception.NotFoundException;
+import com.api.credit.exception.RequisicaoInvalidaException;
+import com.api.credit.service.CreditoExportService;
+import com.api.credit.service.CreditoImportacaoService;
 import com.api.credit.service.CreditoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CreditoController.class)
+@Import(SimpleMeterRegistry.class)
 class CreditoControllerTest {
 
     @Autowired
@@ -31,9 +64,21 @@ class CreditoControllerTest {
     @MockBean
     private CreditoService creditoService;
 
+    @MockBean
+    private CreditoExportService creditoExportService;
+
+    @MockBean
+    private CreditoImportacaoService creditoImportacaoService;
+
+    @MockBean
+    private ColetorAuditoria coletorAuditoria;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private CreditoDTO creditoDTO;
 
     @BeforeEach
@@ -55,7 +100,7 @@ class CreditoControllerTest {
     void buscarPorNfse_DeveRetornarListaCreditos_QuandoEncontrarCreditos() throws Exception {
         String numeroNfse = "NF001";
         List<CreditoDTO> creditos = Arrays.asList(creditoDTO);
-        when(creditoService.buscarNumeroNfse(numeroNfse)).thenReturn(creditos);
+        when(creditoService.buscarRespostaPorNfse(numeroNfse)).thenReturn(codificar(numeroNfse, creditos));
 
         mockMvc.perform(get("/api/creditos/{numeroNfse}", numeroNfse)
                 .contentType(MediaType.APPLICATION_JSON))
@@ -72,7 +117,7 @@ class CreditoControllerTest {
     @Test
     void buscarPorNfse_DeveRetornarNotFound_QuandoNaoEncontrarCreditos() throws Exception {
         String numeroNfse = "NF999";
-        when(creditoService.buscarNumeroNfse(numeroNfse))
+        when(creditoService.buscarRespostaPorNfse(numeroNfse))
                 .thenThrow(new NotFoundException("Nenhum crédito encontrado para a NFS-e: " + numeroNfse));
 
         mockMvc.perform(get("/api/creditos/{numeroNfse}", numeroNfse)
@@ -84,10 +129,31 @@ class CreditoControllerTest {
                 .andExpect(jsonPath("$.message").value("Nenhum crédito encontrado para a NFS-e: " + numeroNfse));
     }
 
+    @Test
+    void buscarPorNfse_DeveMedirEtapasPorResultado() throws Exception {
+        when(creditoService.buscarRespostaPorNfse("NF001")).thenReturn(codificar("NF001", List.of(creditoDTO)));
+        when(creditoService.buscarRespostaPorNfse("NF999")).thenThrow(new NotFoundException("Nenhum crédito"));
+        // O contexto (e o registry) é compartilhado com os outros testes
+        long encontrados = contagem("creditos.consulta.duracao", "resultado", "encontrado");
+        long naoEncontrados = contagem("creditos.consulta.duracao", "resultado", "nao_encontrado");
+        long serializacoes = contagem("creditos.consulta.etapa", "resultado", "encontrado", "etapa", "serializacao");
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "NF001")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "NF999")).andExpect(status().isNotFound());
+
+        assertEquals(encontrados + 1, contagem("creditos.consulta.duracao", "resultado", "encontrado"));
+        assertEquals(naoEncontrados + 1, contagem("creditos.consulta.duracao", "resultado", "nao_encontrado"));
+        assertEquals(serializacoes + 1,
+                contagem("creditos.consulta.etapa", "resultado", "encontrado", "etapa", "serializacao"));
+        // Serviço simulado: nenhuma ida ao banco
+        assertEquals(0, contagem("creditos.consulta.etapa", "resultado", "encontrado", "etapa", "banco"));
+    }
+
     @Test
     void buscarPorCredito_DeveRetornarCredito_QuandoEncontrarCredito() throws Exception {
         String numeroCredito = "CR001";
-        when(creditoService.buscarPorCredito(numeroCredito)).thenReturn(creditoDTO);
+        when(creditoService.buscarRespostaPorCredito(numeroCredito))
+                .thenReturn(respostas().armazenarPorCredito(numeroCredito, creditoDTO));
 
         mockMvc.perform(get("/api/creditos/credito/{numeroCredito}", numeroCredito)
                 .contentType(MediaType.APPLICATION_JSON))
@@ -104,7 +170,7 @@ class CreditoControllerTest {
     @Test
     void buscarPorCredito_DeveRetornarNotFound_QuandoNaoEncontrarCredito() throws Exception {
         String numeroCredito = "CR999";
-        when(creditoService.buscarPorCredito(numeroCredito))
+        when(creditoService.buscarRespostaPorCredito(numeroCredito))
                 .thenThrow(new NotFoundException("Crédito não encontrado: " + numeroCredito));
 
         mockMvc.perform(get("/api/creditos/credito/{numeroCredito}", numeroCredito)
@@ -120,7 +186,7 @@ class CreditoControllerTest {
     void buscarPorNfse_DevePermitirCORS() throws Exception {
         String numeroNfse = "NF001";
         List<CreditoDTO> creditos = Arrays.asList(creditoDTO);
-        when(creditoService.buscarNumeroNfse(numeroNfse)).thenReturn(creditos);
+        when(creditoService.buscarRespostaPorNfse(numeroNfse)).thenReturn(codificar(numeroNfse, creditos));
 
         mockMvc.perform(get("/api/creditos/{numeroNfse}", numeroNfse)
                 .header("Origin", "http://localhost:3000")
@@ -128,4 +194,171 @@ class CreditoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(header().string("Access-Control-Allow-Origin", "*"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void buscarPorNfse_DeveRetornarNotModified_QuandoEtagCorresponder() throws Exception {
+        RespostaCodificada resposta = codificar("NF001", List.of(creditoDTO));
+        when(creditoService.buscarRespostaPorNfse("NF001")).thenReturn(resposta);
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "NF001")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"outro\", " + resposta.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, resposta.etag()))
+                .andExpect(content().bytes(new byte[0]));
+
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "NF001")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"outro\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, resposta.etag()))
+                .andExpect(content().bytes(resposta.json()));
+    }
+
+    @Test
+    void buscarPorNfse_DeveEnviarGzipPreCodificado_QuandoClienteAceitarGzip() throws Exception {
+        List<CreditoDTO> creditos = Collections.nCopies(50, creditoDTO);
+        RespostaCodificada resposta = codificar("NF001", creditos);
+        when(creditoService.buscarRespostaPorNfse("NF001")).thenReturn(resposta);
+
+        MvcResult resultado = mockMvc.perform(get("/api/creditos/{numeroNfse}", "NF001")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, resposta.etag(true)))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(content().bytes(resposta.gzip()))
+                .andReturn();
+
+        try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(resultado.getResponse().getContentAsByteArray()))) {
+            assertEquals(objectMapper.writeValueAsString(creditos), new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(get("/api/creditos/{numeroNfse}", "NF001")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(resposta.json()));
+    }
+
+    @Test
+    void buscarEmLote_DeveRetornarResultadosAgrupadosPorChave() throws Exception {
+        ConsultaLoteResponseDTO resposta = new ConsultaLoteResponseDTO();
+        resposta.getPorNfse().put("NF001", ResultadoConsultaDTO.de(List.of(creditoDTO)));
+        resposta.getPorNfse().put("NF999", ResultadoConsultaDTO.de(List.of()));
+        when(creditoService.buscarEmLote(any(ConsultaLoteRequestDTO.class))).thenReturn(resposta);
+
+        ConsultaLoteRequestDTO requisicao = new ConsultaLoteRequestDTO(List.of("NF001", "NF999"), List.of());
+
+        mockMvc.perform(post("/api/creditos/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requisicao)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.porNfse.NF001.encontrado").value(true))
+                .andExpect(jsonPath("$.porNfse.NF001.creditos[0].numeroCredito").value("CR001"))
+                .andExpect(jsonPath("$.porNfse.NF999.encontrado").value(false))
+                .andExpect(jsonPath("$.porNfse.NF999.creditos").isEmpty());
+    }
+
+    @Test
+    void buscarEmLote_DeveRetornarBadRequest_QuandoRequisicaoInvalida() throws Exception {
+        when(creditoService.buscarEmLote(any(ConsultaLoteRequestDTO.class)))
+                .thenThrow(new RequisicaoInvalidaException("A consulta em lote aceita no máximo 500 identificadores"));
+
+        mockMvc.perform(post("/api/creditos/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"numerosNfse\":[\"NF001\"]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.error").value("Requisição inválida"));
+    }
+
+    @Test
+    void exportar_DeveTransmitirNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream saida = invocation.getArgument(0);
+            saida.write("{\"numeroCredito\":\"CR001\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(creditoExportService).exportarNdjson(any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/creditos/exportacao"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"numeroCredito\":\"CR001\"}\n"));
+    }
+
+    @Test
+    void exportar_DeveRetornarBadRequest_QuandoFormatoInvalido() throws Exception {
+        mockMvc.perform(get("/api/creditos/exportacao").param("formato", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listar_DeveRepassarFiltrosERetornarProximoCursor() throws Exception {
+        FiltroCreditoDTO filtro = new FiltroCreditoDTO(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "ISSQN", true);
+        when(creditoService.listar(filtro, "abc", 1))
+                .thenReturn(new PaginaCreditosDTO(List.of(creditoDTO), 1, "def"));
+
+        mockMvc.perform(get("/api/creditos")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-01-31")
+                .param("tipoCredito", "ISSQN")
+                .param("simplesNacional", "true")
+                .param("cursor", "abc")
+                .param("tamanho", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].numeroCredito").value("CR001"))
+                .andExpect(jsonPath("$.tamanho").value(1))
+                .andExpect(jsonPath("$.proximo").value("def"));
+    }
+
+    @Test
+    void importar_DeveUsarLeitorNdjson_QuandoConteudoNdjson() throws Exception {
+        ResultadoImportacaoDTO resultado = new ResultadoImportacaoDTO("imp-1", 2, 1, 0, 1, 1,
+                List.of(new ErroImportacaoDTO(2, "numeroNfse: não deve estar em branco")));
+        when(creditoImportacaoService.importarNdjson(any(InputStream.class))).thenReturn(resultado);
+
+        mockMvc.perform(post("/api/creditos/importacao")
+                .contentType("application/x-ndjson")
+                .content("{\"numeroCredito\":\"CR001\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importacao").value("imp-1"))
+                .andExpect(jsonPath("$.inseridas").value(1))
+                .andExpect(jsonPath("$.rejeitadas").value(1))
+                .andExpect(jsonPath("$.erros[0].linha").value(2));
+    }
+
+    @Test
+    void importar_DeveUsarLeitorCsv_QuandoConteudoCsv() throws Exception {
+        when(creditoImportacaoService.importarCsv(any(InputStream.class)))
+                .thenReturn(new ResultadoImportacaoDTO("imp-2", 1, 1, 0, 0, 1, List.of()));
+
+        mockMvc.perform(post("/api/creditos/importacao")
+                .contentType("text/csv")
+                .content("numeroCredito\nCR001\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importacao").value("imp-2"));
+    }
+
+    @Test
+    void importar_DeveRetornarUnsupportedMediaType_QuandoConteudoJson() throws Exception {
+        mockMvc.perform(post("/api/creditos/importacao")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    private long contagem(String metrica, String... tags) {
+        Timer timer = meterRegistry.find(metrica).tag("endpoint", "nfse").tags(tags).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private RespostaCodificada codificar(String numeroNfse, List<CreditoDTO> creditos) {
+        return respostas().armazenarPorNfse(numeroNfse, creditos);
+    }
+
+    private CacheRespostas respostas() {
+        return new CacheRespostas(new ConcurrentMapCacheManager(), objectMapper, 2048);
+    }
+}
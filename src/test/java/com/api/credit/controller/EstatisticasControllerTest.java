@@ -0,0 +1,88 @@
+package com.api.credit.controller;
+
+import com.api.credit.auditoria.ColetorAuditoria;
+import com.api.credit.dto.ConsultasPorMinutoDTO;
+import com.api.credit.dto.EstatisticasConsultaDTO;
+import com.api.credit.dto.ItemFrequenteDTO;
+import com.api.credit.dto.ResumoCreditosDTO;
+import com.api.credit.service.EstatisticasConsultaService;
+import com.api.credit.service.ResumoCreditosService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EstatisticasController.class)
+@Import(SimpleMeterRegistry.class)
+class EstatisticasControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EstatisticasConsultaService estatisticasConsultaService;
+
+    @MockBean
+    private ResumoCreditosService resumoCreditosService;
+
+    @MockBean
+    private ColetorAuditoria coletorAuditoria;
+
+    @Test
+    void consultas_DeveRetornarResumo() throws Exception {
+        ConsultasPorMinutoDTO minuto = new ConsultasPorMinutoDTO(LocalDateTime.of(2024, 1, 15, 10, 30), 3,
+                Map.of("CONSULTA_POR_NFSE", 3L));
+        when(estatisticasConsultaService.resumo(10)).thenReturn(new EstatisticasConsultaDTO(3, List.of(minuto),
+                List.of(new ItemFrequenteDTO("NF001", 3, 0)), List.of()));
+
+        mockMvc.perform(get("/api/estatisticas/consultas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalEventos").value(3))
+                .andExpect(jsonPath("$.porMinuto[0].minuto").value("2024-01-15T10:30"))
+                .andExpect(jsonPath("$.porMinuto[0].porTipo.CONSULTA_POR_NFSE").value(3))
+                .andExpect(jsonPath("$.nfseMaisConsultadas[0].numero").value("NF001"))
+                .andExpect(jsonPath("$.nfseMaisConsultadas[0].consultas").value(3));
+    }
+
+    @Test
+    void consultas_DeveLimitarQuantidadeDeItens() throws Exception {
+        when(estatisticasConsultaService.resumo(100)).thenReturn(new EstatisticasConsultaDTO());
+
+        mockMvc.perform(get("/api/estatisticas/consultas").param("limite", "5000"))
+                .andExpect(status().isOk());
+
+        verify(estatisticasConsultaService).resumo(100);
+    }
+
+    @Test
+    void creditos_DeveRetornarTotaisSemDimensoesForaDoAgrupamento() throws Exception {
+        when(resumoCreditosService.resumir(List.of("mes", "simplesNacional"), "2024-01", null, null))
+                .thenReturn(List.of(new ResumoCreditosDTO(YearMonth.of(2024, 1), null, "Sim", 2,
+                        new BigDecimal("1500.90"), new BigDecimal("60000.00"), new BigDecimal("10000.00"),
+                        new BigDecimal("50000.00"))));
+
+        mockMvc.perform(get("/api/estatisticas/creditos")
+                        .param("agrupamento", "mes,simplesNacional")
+                        .param("mesInicio", "2024-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].mes").value("2024-01"))
+                .andExpect(jsonPath("$[0].simplesNacional").value("Sim"))
+                .andExpect(jsonPath("$[0].tipoCredito").doesNotExist())
+                .andExpect(jsonPath("$[0].quantidade").value(2))
+                .andExpect(jsonPath("$[0].valorIssqn").value(1500.90));
+    }
+}
@@ -0,0 +1,64 @@
+package com.api.credit.estatistica;
+
+import com.api.credit.estatistica.ContadorMaisFrequentes.ItemFrequente;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContadorMaisFrequentesTest {
+
+    @Test
+    void topo_DeveRetornarContagensExatas_QuandoCabeNaCapacidade() {
+        ContadorMaisFrequentes contador = new ContadorMaisFrequentes(10);
+        registrar(contador, "NF001", 5);
+        registrar(contador, "NF002", 3);
+        registrar(contador, "NF003", 1);
+
+        List<ItemFrequente> topo = contador.topo(2);
+
+        assertEquals(List.of(new ItemFrequente("NF001", 5, 0), new ItemFrequente("NF002", 3, 0)), topo);
+        assertEquals(9, contador.getTotal());
+    }
+
+    @Test
+    void registrar_DeveManterChavesFrequentes_QuandoCapacidadeEsgotada() {
+        ContadorMaisFrequentes contador = new ContadorMaisFrequentes(20);
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            // 30% das consultas vão para NF-QUENTE, o resto se espalha por 5 mil números
+            contador.registrar(random.nextInt(10) < 3 ? "NF-QUENTE" : "NF" + random.nextInt(5_000));
+        }
+
+        ItemFrequente primeiro = contador.topo(1).get(0);
+
+        assertEquals("NF-QUENTE", primeiro.chave());
+        assertTrue(primeiro.contagem() - primeiro.erroMaximo() <= 3_100);
+        assertTrue(primeiro.contagem() >= 2_900);
+        assertEquals(20, contador.topo(100).size());
+    }
+
+    @Test
+    void registrar_DeveHerdarContagemDoMenor_QuandoChaveNova() {
+        ContadorMaisFrequentes contador = new ContadorMaisFrequentes(2);
+        registrar(contador, "A", 3);
+        registrar(contador, "B", 1);
+
+        contador.registrar("C");
+
+        assertEquals(List.of(new ItemFrequente("A", 3, 0), new ItemFrequente("C", 2, 1)), contador.topo(5));
+    }
+
+    @Test
+    void construtor_DeveRejeitarCapacidadeInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> new ContadorMaisFrequentes(0));
+    }
+
+    private static void registrar(ContadorMaisFrequentes contador, String chave, int vezes) {
+        for (int i = 0; i < vezes; i++) {
+            contador.registrar(chave);
+        }
+    }
+}
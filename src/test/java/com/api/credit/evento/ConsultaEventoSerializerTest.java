@@ -0,0 +1,92 @@
+package com.api.credit.evento;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultaEventoSerializerTest {
+
+    private final ConsultaEventoSerializer serializer = new ConsultaEventoSerializer();
+    private final ConsultaEventoDeserializer deserializer = new ConsultaEventoDeserializer();
+
+    @Test
+    void serialize_DevePreservarTodosOsCampos_NaIdaEVolta() {
+        ConsultaEvento evento = new ConsultaEvento(TipoConsulta.CONSULTA_POR_NFSE, "7891011",
+                1_718_000_000_123L, "usuário-ç", List.of(), List.of());
+
+        Object lido = deserializer.deserialize("creditos-consultas", serializer.serialize("creditos-consultas", evento));
+
+        assertEquals(evento, lido);
+    }
+
+    @Test
+    void serialize_DevePreservarListasDoLote() {
+        ConsultaEvento evento = new ConsultaEvento(TipoConsulta.CONSULTA_LOTE, null, 42L, "sistema",
+                List.of("NF001", "NF002"), List.of("CR" + "9".repeat(200)));
+
+        ConsultaEvento lido = (ConsultaEvento) deserializer.deserialize("t",
+                serializer.serialize("t", evento));
+
+        assertNull(lido.parametro());
+        assertEquals(evento.numerosNfse(), lido.numerosNfse());
+        assertEquals(evento.numerosCredito(), lido.numerosCredito());
+        assertEquals(3, lido.quantidade());
+    }
+
+    @Test
+    void serialize_DeveSerMenorQueJson() {
+        ConsultaEvento evento = ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_NFSE, "7891011", "sistema");
+
+        byte[] binario = serializer.serialize("t", evento);
+        byte[] json = new JsonSerializer<>().noTypeInfo().serialize("t", evento);
+
+        // 3 de cabeçalho + 8 de timestamp + "7891011" e "sistema" com 1 byte de tamanho cada
+        // + 1 byte de contagem para cada lista vazia
+        assertEquals(29, binario.length);
+        assertTrue(binario.length * 3 < json.length);
+    }
+
+    @Test
+    void deserialize_DeveDelegarAoJson_QuandoNaoHouverByteMagico() {
+        deserializer.configure(Map.of(
+                "spring.json.value.default.type", "java.util.Map",
+                "spring.json.use.type.headers", false), false);
+
+        Object lido = deserializer.deserialize("t",
+                "{\"tipoConsulta\":\"CONSULTA_POR_NFSE\",\"parametro\":\"NF001\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(lido instanceof Map);
+        assertEquals("NF001", ((Map<?, ?>) lido).get("parametro"));
+    }
+
+    @Test
+    void deserialize_DeveFalhar_QuandoEventoTruncado() {
+        byte[] binario = serializer.serialize("t",
+                ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_CREDITO, "CR001", "sistema"));
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("t", Arrays.copyOf(binario, binario.length - 3)));
+    }
+
+    @Test
+    void json_DeveManterContratoAnterior_ParaConsultaIndividual() {
+        String json = new String(new JsonSerializer<>().noTypeInfo().serialize("t",
+                ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_CREDITO, "CR001", "sistema")),
+                StandardCharsets.UTF_8);
+
+        assertTrue(json.contains("\"tipoConsulta\":\"CONSULTA_POR_CREDITO\""));
+        assertTrue(json.contains("\"parametro\":\"CR001\""));
+        assertTrue(json.contains("\"usuario\":\"sistema\""));
+        assertTrue(json.contains("\"timestamp\":\""));
+        assertFalse(json.contains("timestampMillis"));
+        assertFalse(json.contains("numerosNfse"));
+        assertFalse(json.contains("quantidade"));
+    }
+}
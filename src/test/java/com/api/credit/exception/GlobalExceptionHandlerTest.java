@@ -88,4 +88,19 @@ class GlobalExceptionHandlerTest {
         assertTrue(body.get("error") instanceof String);
         assertTrue(body.get("message") instanceof String);
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleRequisicaoInvalidaException_DeveRetornarResponseEntity_ComStatusBadRequest() {
+        RequisicaoInvalidaException exception = new RequisicaoInvalidaException("Limite excedido");
+
+        ResponseEntity<Map<String, Object>> response =
+            globalExceptionHandler.handleRequisicaoInvalidaException(exception);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Map<String, Object> body = response.getBody();
+        assertNotNull(body);
+        assertEquals(400, body.get("status"));
+        assertEquals("Requisição inválida", body.get("error"));
+        assertEquals("Limite excedido", body.get("message"));
+    }
+}
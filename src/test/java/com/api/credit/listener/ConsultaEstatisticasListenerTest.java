@@ -0,0 +1,79 @@
+package com.api.credit.listener;
+
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.service.EstatisticasConsultaService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultaEstatisticasListenerTest {
+
+    @Mock
+    private EstatisticasConsultaService estatisticasConsultaService;
+
+    @Mock
+    private Acknowledgment ack;
+
+    @InjectMocks
+    private ConsultaEstatisticasListener listener;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void consumir_DeveAgregarLoteEConfirmarOffsetUmaVez() {
+        ConsultaEvento binario = ConsultaEvento.individual(TipoConsulta.CONSULTA_POR_CREDITO, "CR001", "sistema");
+        Map<String, Object> json = Map.of(
+                "tipoConsulta", "CONSULTA_POR_NFSE",
+                "parametro", "NF001",
+                "timestamp", "2024-01-15T10:30:00",
+                "usuario", "sistema");
+
+        listener.consumir(List.of(registro(0, binario), registro(1, json)), ack);
+
+        ArgumentCaptor<List<ConsultaEvento>> captor = ArgumentCaptor.forClass(List.class);
+        InOrder ordem = inOrder(estatisticasConsultaService, ack);
+        ordem.verify(estatisticasConsultaService).registrar(captor.capture());
+        ordem.verify(ack).acknowledge();
+
+        List<ConsultaEvento> eventos = captor.getValue();
+        assertEquals(2, eventos.size());
+        assertEquals(binario, eventos.get(0));
+        assertEquals(TipoConsulta.CONSULTA_POR_NFSE, eventos.get(1).tipoConsulta());
+        assertEquals("NF001", eventos.get(1).parametro());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                eventos.get(1).timestampMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void consumir_DeveIgnorarEventosDesconhecidos() {
+        listener.consumir(List.of(
+                registro(0, Map.of("tipoConsulta", "CONSULTA_TESTE", "parametro", "X")),
+                registro(1, "texto")), ack);
+
+        ArgumentCaptor<List<ConsultaEvento>> captor = ArgumentCaptor.forClass(List.class);
+        verify(estatisticasConsultaService).registrar(captor.capture());
+        verify(ack).acknowledge();
+        assertEquals(0, captor.getValue().size());
+    }
+
+    private static ConsumerRecord<String, Object> registro(long offset, Object valor) {
+        return new ConsumerRecord<>("creditos-consultas", 0, offset, null, valor);
+    }
+}
@@ -0,0 +1,108 @@
+package com.api.credit.listener;
+
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CreditoEventosListenerTest {
+
+    @Mock
+    private FiltroCreditos filtroCreditos;
+
+    @Mock
+    private CreditoCache creditoCache;
+
+    @Mock
+    private CreditosEmMemoria creditosEmMemoria;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private Acknowledgment ack;
+
+    @InjectMocks
+    private CreditoEventosListener listener;
+
+    @Test
+    void consumir_DeveIncluirCreditosCriadosNoFiltroENoCache() {
+        Map<String, Object> criado = Map.of("tipoEvento", "CREDITO_CRIADO", "id", 10,
+                "credito", Map.of("numeroNfse", "NF001", "numeroCredito", "CR001"));
+        Map<String, Object> resumo = Map.of("tipoEvento", "IMPORTACAO_LOTE", "importacao", "imp-1");
+
+        listener.consumir(List.of(registro(criado), registro(resumo), registro("texto")), ack);
+
+        verify(filtroCreditos).adicionar("NF001", "CR001");
+        verify(creditoCache).descartarLocal("NF001", "CR001");
+        verify(filtroCreditos, never()).adicionar(eq("imp-1"), anyString());
+        verify(creditosEmMemoria, never()).adicionar(any());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void consumir_DeveIncluirCreditoEmMemoria_QuandoModoHabilitado() {
+        when(creditosEmMemoria.habilitado()).thenReturn(true);
+        Map<String, Object> credito = Map.of("numeroNfse", "NF001", "numeroCredito", "CR001",
+                "dataConstituicao", "2024-02-25", "valorIssqn", 1500.75, "tipoCredito", "ISSQN",
+                "simplesNacional", "Sim", "aliquota", 5.0, "valorFaturado", 30000.0, "valorDeducao", 5000.0,
+                "baseCalculo", 25000.0);
+
+        listener.consumir(List.of(registro(Map.of("tipoEvento", "CREDITO_CRIADO", "credito", credito))), ack);
+
+        verify(creditosEmMemoria).adicionar(new CreditoDTO("CR001", "NF001", LocalDate.of(2024, 2, 25),
+                new BigDecimal("1500.75"), "ISSQN", "Sim", new BigDecimal("5.0"), new BigDecimal("30000.0"),
+                new BigDecimal("5000.0"), new BigDecimal("25000.0")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onPartitionsAssigned_DeveVoltarAJanelaDeReleitura() {
+        ReflectionTestUtils.setField(listener, "releituraMinutos", 10L);
+        ConsumerSeekCallback callback = mock(ConsumerSeekCallback.class);
+        TopicPartition particao = new TopicPartition("creditos-eventos", 0);
+        long antes = System.currentTimeMillis();
+
+        listener.onPartitionsAssigned(Map.of(particao, 42L), callback);
+
+        ArgumentCaptor<Collection<TopicPartition>> particoes = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Long> instante = ArgumentCaptor.forClass(Long.class);
+        verify(callback).seekToTimestamp(particoes.capture(), instante.capture());
+        assertEquals(Set.of(particao), Set.copyOf(particoes.getValue()));
+        assertTrue(instante.getValue() <= antes - 600_000 + 1_000 && instante.getValue() >= antes - 601_000);
+    }
+
+    private static ConsumerRecord<String, Object> registro(Object valor) {
+        return new ConsumerRecord<>("creditos-eventos", 0, 0, "NF001", valor);
+    }
+}
@@ -0,0 +1,44 @@
+package com.api.credit.listener;
+
+import com.api.credit.cache.CreditoCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class InvalidacaoCacheListenerTest {
+
+    @Mock
+    private CreditoCache creditoCache;
+
+    @InjectMocks
+    private InvalidacaoCacheListener listener;
+
+    @Test
+    void onMessage_DeveDescartarChavesDoCacheLocal() {
+        listener.onMessage(mensagem("NF001\nNF002\n\nCR001\nCR002\nCR003"), null);
+
+        verify(creditoCache).descartarLocal(List.of("NF001", "NF002"), List.of("CR001", "CR002", "CR003"));
+    }
+
+    @Test
+    void onMessage_DeveIgnorarMensagemForaDoFormato() {
+        listener.onMessage(mensagem("NF001"), null);
+
+        verifyNoInteractions(creditoCache);
+    }
+
+    private static DefaultMessage mensagem(String corpo) {
+        return new DefaultMessage("creditos:cache:invalidacao".getBytes(StandardCharsets.UTF_8),
+                corpo.getBytes(StandardCharsets.UTF_8));
+    }
+}
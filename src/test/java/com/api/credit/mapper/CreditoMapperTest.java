@@ -1,6 +1,7 @@
 package com.api.credit.mapper;
 
 import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.CreditoImportacaoDTO;
 import com.api.credit.entity.Credito;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -133,4 +134,21 @@ class CreditoMapperTest {
 
         assertEquals("Não", resultado);
     }
-}
\ No newline at end of file
+
+    @Test
+    void importacaoToDTO_DeveNormalizarSimplesNacional() {
+        CreditoImportacaoDTO importacao = new CreditoImportacaoDTO("CR002", "NF002", LocalDate.of(2024, 2, 1),
+                new BigDecimal("10.00"), "ISSQN", "true", new BigDecimal("5.00"), new BigDecimal("200.00"),
+                new BigDecimal("0.00"), new BigDecimal("200.00"));
+
+        CreditoDTO dto = creditoMapper.importacaoToDTO(importacao);
+
+        assertEquals("CR002", dto.getNumeroCredito());
+        assertEquals("NF002", dto.getNumeroNfse());
+        assertEquals(new BigDecimal("10.00"), dto.getValorIssqn());
+        assertEquals("Sim", dto.getSimplesNacional());
+
+        importacao.setSimplesNacional("Não");
+        assertEquals("Não", creditoMapper.importacaoToDTO(importacao).getSimplesNacional());
+    }
+}
@@ -0,0 +1,137 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Memória por linha e custo por consulta do armazenamento em memória,
+ * comparados a mapas de {@link CreditoDTO} por crédito e por NFS-e (o que os
+ * caches locais guardam para as mesmas chaves). Executado apenas com
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CreditosEmMemoriaBenchmarkTest {
+
+    private static final int LINHAS = 1_000_000;
+    private static final int CREDITOS_POR_NFSE = 4;
+    private static final int CONSULTAS = 2_000_000;
+
+    @Test
+    void tabela_DeveOcuparMenosMemoriaQueMapasDeDTO() {
+        long antes = heapUsado();
+        TabelaCreditos tabela = new TabelaCreditos(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            tabela.incluir(credito(i));
+        }
+        long tabelaBytes = heapUsado() - antes;
+
+        antes = heapUsado();
+        Map<String, CreditoDTO> porCredito = new HashMap<>();
+        Map<String, List<CreditoDTO>> porNfse = new HashMap<>();
+        for (int i = 0; i < LINHAS; i++) {
+            CreditoDTO credito = credito(i);
+            porCredito.put(credito.getNumeroCredito(), credito);
+            porNfse.computeIfAbsent(credito.getNumeroNfse(), chave -> new ArrayList<>(CREDITOS_POR_NFSE)).add(credito);
+        }
+        long mapasBytes = heapUsado() - antes;
+
+        System.out.printf("Memória por linha (%d linhas): tabela=%d B (arrays: %d B), mapas de DTO=%d B (%.1f%%)%n",
+                LINHAS, tabelaBytes / LINHAS, tabela.bytesOcupados() / LINHAS, mapasBytes / LINHAS,
+                100.0 * tabelaBytes / mapasBytes);
+
+        assertEquals(LINHAS, tabela.tamanho());
+        assertEquals(LINHAS, porCredito.size());
+        assertTrue(tabelaBytes * 3 < mapasBytes);
+    }
+
+    @Test
+    void consultas_DevemCustarNanossegundos() {
+        TabelaCreditos tabela = new TabelaCreditos(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            tabela.incluir(credito(i));
+        }
+        String[] numerosCredito = new String[LINHAS];
+        String[] numerosNfse = new String[LINHAS / CREDITOS_POR_NFSE];
+        for (int i = 0; i < LINHAS; i++) {
+            numerosCredito[i] = numeroCredito(i);
+            numerosNfse[i / CREDITOS_POR_NFSE] = numeroNfse(i);
+        }
+
+        Map<String, CreditoDTO> mapa = new HashMap<>();
+        for (int i = 0; i < LINHAS; i++) {
+            mapa.put(numerosCredito[i], credito(i));
+        }
+
+        double[] porCredito = medir(i -> tabela.buscarPorCredito(numerosCredito[i % LINHAS]));
+        double[] porNfse = medir(i -> tabela.buscarPorNfse(numerosNfse[i % numerosNfse.length]));
+        // O mapa devolve o DTO já pronto; ler um valor dele equivale ao que a serialização faria
+        double[] noMapa = medir(i -> mapa.get(numerosCredito[i % LINHAS]).getValorIssqn());
+
+        System.out.printf("Consulta por crédito: %.0f ns/op, %.0f B/op (HashMap de DTO: %.0f ns/op)%n",
+                porCredito[0], porCredito[1], noMapa[0]);
+        System.out.printf("Consulta por NFS-e (%d créditos): %.0f ns/op, %.0f B/op%n",
+                CREDITOS_POR_NFSE, porNfse[0], porNfse[1]);
+
+        assertTrue(porCredito[0] < 10_000);
+    }
+
+    private static double[] medir(IntFunction<Object> consulta) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < CONSULTAS; i++) {
+            assertNotNull(consulta.apply(espalhar(i)));
+        }
+
+        long bytesAntes = threads.getThreadAllocatedBytes(threadId);
+        long inicio = System.nanoTime();
+        long encontrados = 0;
+        for (int i = 0; i < CONSULTAS; i++) {
+            encontrados += consulta.apply(espalhar(i)) != null ? 1 : 0;
+        }
+        long duracao = System.nanoTime() - inicio;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesAntes;
+        assertEquals(CONSULTAS, encontrados);
+        return new double[] {(double) duracao / CONSULTAS, (double) bytes / CONSULTAS};
+    }
+
+    // Chaves fora de ordem para não favorecer o cache da CPU
+    private static int espalhar(int i) {
+        return (int) ((i * 7_919L) % LINHAS);
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static CreditoDTO credito(int i) {
+        return new CreditoDTO(numeroCredito(i), numeroNfse(i), LocalDate.of(2024, 1, 1).plusDays(i % 365),
+                BigDecimal.valueOf(150_075 + i, 2), i % 3 == 0 ? "Outros" : "ISSQN", i % 2 == 0 ? "Sim" : "Não",
+                BigDecimal.valueOf(500, 2), BigDecimal.valueOf(3_000_000 + i, 2), BigDecimal.valueOf(500_000, 2),
+                BigDecimal.valueOf(2_500_000 + i, 2));
+    }
+
+    private static String numeroCredito(int i) {
+        return "CR" + (100_000 + i);
+    }
+
+    private static String numeroNfse(int i) {
+        return "NF" + (100_000 + i / CREDITOS_POR_NFSE);
+    }
+}
@@ -0,0 +1,260 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditosEmMemoriaTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE credito (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "numero_credito VARCHAR(50) NOT NULL UNIQUE, numero_nfse VARCHAR(50) NOT NULL, "
+                + "data_constituicao DATE NOT NULL, valor_issqn DECIMAL(15,2) NOT NULL, "
+                + "tipo_credito VARCHAR(50) NOT NULL, simples_nacional BOOLEAN NOT NULL, aliquota DECIMAL(5,2) NOT NULL, "
+                + "valor_faturado DECIMAL(15,2) NOT NULL, valor_deducao DECIMAL(15,2) NOT NULL, "
+                + "base_calculo DECIMAL(15,2) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) VALUES "
+                + "('CR001', 'NF001', '2024-02-25', 1500.75, 'ISSQN', true, 5.00, 30000.00, 5000.00, 25000.00), "
+                + "('CR002', 'NF001', '2024-02-26', 1200.50, 'ISSQN', false, 4.50, 25000.00, 4000.00, 21000.00)");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void carregar_DeveResponderConsultasComOsDadosDoBanco() {
+        CreditosEmMemoria memoria = novaMemoria(true);
+
+        memoria.carregar();
+
+        assertTrue(memoria.pronto());
+        assertEquals(new CreditoDTO("CR002", "NF001", LocalDate.of(2024, 2, 26), new BigDecimal("1200.50"), "ISSQN",
+                "Não", new BigDecimal("4.50"), new BigDecimal("25000.00"), new BigDecimal("4000.00"),
+                new BigDecimal("21000.00")), memoria.consulta().buscarPorCredito("CR002"));
+        assertEquals(List.of("CR001", "CR002"),
+                memoria.consulta().buscarPorNfse("NF001").stream().map(CreditoDTO::getNumeroCredito).toList());
+        assertEquals(2, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+        assertTrue(meterRegistry.get("creditos.memoria.bytes").gauge().value() > 0);
+    }
+
+    @Test
+    void adicionar_DeveIncluirCreditoGravadoDepoisDaCarga() {
+        CreditosEmMemoria memoria = novaMemoria(true);
+        memoria.carregar();
+
+        memoria.adicionar(TabelaCreditosTest.credito("CR003", "NF002", "Outros", "Sim"));
+
+        assertEquals("NF002", memoria.consulta().buscarPorCredito("CR003").getNumeroNfse());
+        assertEquals(3, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+    }
+
+    @Test
+    void adicionar_DeveVoltarAoBanco_QuandoInclusaoFalhar() {
+        CreditosEmMemoria memoria = novaMemoria(true);
+        memoria.carregar();
+
+        memoria.adicionar(TabelaCreditosTest.credito("CR".repeat(200), "NF002", "Outros", "Sim"));
+
+        assertFalse(memoria.pronto());
+        assertNull(memoria.consulta());
+    }
+
+    @Test
+    void consulta_DeveContinuarRespondendo_QuandoMemoriaForDescartadaDuranteARequisicao() {
+        CreditosEmMemoria memoria = novaMemoria(true);
+        memoria.carregar();
+        CreditosEmMemoria.Consulta consulta = memoria.consulta();
+
+        // Falha no listener entre a obtenção da consulta e as buscas
+        memoria.adicionar(TabelaCreditosTest.credito("CR".repeat(200), "NF002", "Outros", "Sim"));
+
+        assertNull(memoria.consulta());
+        assertEquals("NF001", consulta.buscarPorCredito("CR001").getNumeroNfse());
+        assertEquals(2, consulta.buscarPorNfse("NF001").size());
+    }
+
+    @Test
+    void consulta_DeveSerNula_EnquantoCargaNaoTerminar() {
+        CreditosEmMemoria memoria = novaMemoria(true);
+
+        assertNull(memoria.consulta());
+        memoria.carregar();
+        assertNotNull(memoria.consulta());
+    }
+
+    @Test
+    void run_NaoDeveCarregar_QuandoDesabilitado() {
+        CreditosEmMemoria memoria = novaMemoria(false);
+
+        memoria.run(null);
+        memoria.adicionar(TabelaCreditosTest.credito("CR003", "NF002", "Outros", "Sim"));
+
+        assertFalse(memoria.habilitado());
+        assertFalse(memoria.pronto());
+        assertEquals(0, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+    }
+
+    @Test
+    void run_DeveManterConsultasNoBanco_QuandoCargaFalhar() {
+        jdbcTemplate.execute("DROP TABLE credito");
+        CreditosEmMemoria memoria = novaMemoria(true);
+
+        memoria.run(null);
+
+        assertFalse(memoria.pronto());
+        assertEquals(0, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+    }
+
+    @Test
+    void carregar_DeveMapearSnapshotELerDoBancoSoOsCreditosNovos() throws IOException {
+        Path arquivo = diretorio.resolve("creditos.snap");
+        novaMemoria(arquivo, 10).carregar();
+        inserirCredito("CR003", "NF001");
+        meterRegistry = new SimpleMeterRegistry();
+        CreditosEmMemoria memoria = novaMemoria(arquivo, 10);
+
+        memoria.carregar();
+
+        assertTrue(memoria.pronto());
+        assertEquals(2, SnapshotCreditos.abrir(arquivo).linhas());
+        assertEquals("NF001", memoria.consulta().buscarPorCredito("CR001").getNumeroNfse());
+        assertEquals("NF001", memoria.consulta().buscarPorCredito("CR003").getNumeroNfse());
+        assertEquals(List.of("CR001", "CR002", "CR003"),
+                memoria.consulta().buscarPorNfse("NF001").stream().map(CreditoDTO::getNumeroCredito).toList());
+        assertEquals(3, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+        assertTrue(meterRegistry.get("creditos.memoria.mapeados.bytes").gauge().value() > 0);
+    }
+
+    @Test
+    void adicionar_NaoDeveDuplicarCreditoQueJaEstaNoSnapshot() {
+        Path arquivo = diretorio.resolve("creditos.snap");
+        novaMemoria(arquivo, 10).carregar();
+        meterRegistry = new SimpleMeterRegistry();
+        CreditosEmMemoria memoria = novaMemoria(arquivo, 10);
+        memoria.carregar();
+
+        memoria.adicionar(TabelaCreditosTest.credito("CR001", "NF001", "ISSQN", "Sim"));
+
+        assertEquals(2, memoria.consulta().buscarPorNfse("NF001").size());
+        assertEquals(2, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+    }
+
+    @Test
+    void carregar_DeveRefazerCargaCompleta_QuandoSnapshotTiverCreditosNovosDemais() throws IOException {
+        Path arquivo = diretorio.resolve("creditos.snap");
+        novaMemoria(arquivo, 0).carregar();
+        inserirCredito("CR003", "NF002");
+        meterRegistry = new SimpleMeterRegistry();
+        CreditosEmMemoria memoria = novaMemoria(arquivo, 0);
+
+        memoria.carregar();
+
+        assertEquals("NF002", memoria.consulta().buscarPorCredito("CR003").getNumeroNfse());
+        assertEquals(0, meterRegistry.get("creditos.memoria.mapeados.bytes").gauge().value());
+        SnapshotCreditos regravado = SnapshotCreditos.abrir(arquivo);
+        assertEquals(3, regravado.linhas());
+        assertEquals(3, regravado.idMaximo());
+    }
+
+    @Test
+    void regravarSnapshot_DeveIncluirCreditosNovos_MantendoInstanteDaCargaCompleta() throws IOException {
+        Path arquivo = diretorio.resolve("creditos.snap");
+        novaMemoria(arquivo, 10).carregar();
+        long cargaCompletaEm = SnapshotCreditos.abrir(arquivo).cargaCompletaEm();
+        inserirCredito("CR003", "NF002");
+        CreditosEmMemoria memoria = novaMemoria(arquivo, 10);
+        memoria.carregar();
+        memoria.adicionar(TabelaCreditosTest.credito("CR004", "NF002", "Outros", "Não"));
+
+        memoria.regravarSnapshot();
+
+        SnapshotCreditos regravado = SnapshotCreditos.abrir(arquivo);
+        assertEquals(4, regravado.linhas());
+        assertEquals(3, regravado.idMaximo());
+        assertEquals(cargaCompletaEm, regravado.cargaCompletaEm());
+        assertEquals(List.of("CR003", "CR004"),
+                regravado.buscarPorNfse("NF002").stream().map(CreditoDTO::getNumeroCredito).toList());
+        // O mapeamento anterior continua válido depois da troca do arquivo
+        assertEquals("NF001", memoria.consulta().buscarPorCredito("CR002").getNumeroNfse());
+    }
+
+    @Test
+    void carregar_DeveManterCreditoRemovido_AteSnapshotPassarDaIdadeMaxima() {
+        Path arquivo = diretorio.resolve("creditos.snap");
+        novaMemoria(arquivo, 10).carregar();
+        jdbcTemplate.update("DELETE FROM credito WHERE numero_credito = 'CR002'");
+
+        CreditosEmMemoria dentroDaIdade = novaMemoria(arquivo, 10, 24);
+        dentroDaIdade.carregar();
+        assertNotNull(dentroDaIdade.consulta().buscarPorCredito("CR002"));
+
+        meterRegistry = new SimpleMeterRegistry();
+        CreditosEmMemoria vencido = novaMemoria(arquivo, 10, 0);
+        vencido.carregar();
+        assertNull(vencido.consulta().buscarPorCredito("CR002"));
+        assertEquals(0, meterRegistry.get("creditos.memoria.mapeados.bytes").gauge().value());
+    }
+
+    @Test
+    void carregar_DeveIgnorarSnapshotInvalido() throws IOException {
+        Path arquivo = Files.writeString(diretorio.resolve("creditos.snap"), "não é um snapshot");
+        CreditosEmMemoria memoria = novaMemoria(arquivo, 10);
+
+        memoria.carregar();
+
+        assertTrue(memoria.pronto());
+        assertEquals(2, meterRegistry.get("creditos.memoria.linhas").gauge().value());
+        assertEquals(2, SnapshotCreditos.abrir(arquivo).linhas());
+    }
+
+    private void inserirCredito(String numeroCredito, String numeroNfse) {
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) VALUES "
+                + "(?, ?, '2024-02-27', 800.00, 'Outros', false, 2.00, 40000.00, 0.00, 40000.00)",
+                numeroCredito, numeroNfse);
+    }
+
+    private CreditosEmMemoria novaMemoria(boolean habilitado) {
+        return new CreditosEmMemoria(jdbcTemplate, new DataSourceTransactionManager(dataSource), meterRegistry,
+                habilitado, 100, "", 0, 24);
+    }
+
+    private CreditosEmMemoria novaMemoria(Path snapshot, long maxDelta) {
+        return novaMemoria(snapshot, maxDelta, 24);
+    }
+
+    private CreditosEmMemoria novaMemoria(Path snapshot, long maxDelta, long idadeMaximaHoras) {
+        return new CreditosEmMemoria(jdbcTemplate, new DataSourceTransactionManager(dataSource), meterRegistry,
+                true, 100, snapshot.toString(), maxDelta, idadeMaximaHoras);
+    }
+}
@@ -0,0 +1,142 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.api.credit.memoria.TabelaCreditosTest.credito;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCreditosTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void abrir_DeveResponderAsMesmasConsultasDaTabelaGravada() throws IOException {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        CreditoDTO primeiro = credito("CR001", "NF001", "ISSQN", "Sim");
+        CreditoDTO segundo = credito("CR002", "NF002", "Outros", "Não");
+        CreditoDTO terceiro = credito("CR003", "NF001", "Outros", "Não");
+        // Acentuado: comparado em UTF-8, e não pelo caminho ASCII
+        CreditoDTO acentuado = credito("CRÉDITO-4", "NFS-É", "Serviço", "Sim");
+        for (CreditoDTO credito : List.of(primeiro, segundo, terceiro, acentuado)) {
+            tabela.incluir(credito);
+        }
+        Path arquivo = diretorio.resolve("creditos.snap");
+
+        SnapshotCreditos.gravar(arquivo, tabela, 42, 1_700_000_000_000L);
+        SnapshotCreditos snapshot = SnapshotCreditos.abrir(arquivo);
+
+        assertEquals(4, snapshot.linhas());
+        assertEquals(42, snapshot.idMaximo());
+        assertEquals(1_700_000_000_000L, snapshot.cargaCompletaEm());
+        assertEquals(Files.size(arquivo), snapshot.bytesMapeados());
+        assertEquals(segundo, snapshot.buscarPorCredito("CR002"));
+        assertEquals(acentuado, snapshot.buscarPorCredito("CRÉDITO-4"));
+        assertEquals(List.of(primeiro, terceiro), snapshot.buscarPorNfse("NF001"));
+        assertEquals(List.of(acentuado), snapshot.buscarPorNfse("NFS-É"));
+        assertTrue(snapshot.contemCredito("CR003"));
+        assertNull(snapshot.buscarPorCredito("CR999"));
+        assertEquals(List.of(), snapshot.buscarPorNfse("NF999"));
+    }
+
+    @Test
+    void gravar_DeveIgnorarLinhasIncluidasDepoisDoConteudo() throws IOException {
+        TabelaCreditos tabela = new TabelaCreditos(8);
+        tabela.incluir(credito("CR001", "NF001", "ISSQN", "Sim"));
+        TabelaCreditos.Conteudo conteudo = tabela.conteudo();
+        // Inclusão concorrente: os arrays já capturados recebem a linha nova
+        tabela.incluir(credito("CR002", "NF001", "ISSQN", "Sim"));
+        Path arquivo = diretorio.resolve("creditos.snap");
+
+        SnapshotCreditos.gravar(arquivo, conteudo, 1, System.currentTimeMillis());
+        SnapshotCreditos snapshot = SnapshotCreditos.abrir(arquivo);
+
+        assertEquals(1, snapshot.linhas());
+        assertNull(snapshot.buscarPorCredito("CR002"));
+        assertEquals(List.of("CR001"),
+                snapshot.buscarPorNfse("NF001").stream().map(CreditoDTO::getNumeroCredito).toList());
+    }
+
+    @Test
+    void regravar_DeveAcrescentarLinhasNovasSemAlterarAsDaBase() throws IOException {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        List<CreditoDTO> daBase = List.of(credito("CR001", "NF001", "ISSQN", "Sim"),
+                credito("CR002", "NF002", "Outros", "Não"), credito("CR003", "NF001", "Outros", "Não"));
+        daBase.forEach(tabela::incluir);
+        Path arquivo = diretorio.resolve("creditos.snap");
+        SnapshotCreditos.gravar(arquivo, tabela, 3, 1_700_000_000_000L);
+        SnapshotCreditos base = SnapshotCreditos.abrir(arquivo);
+        // Dicionário próprio, com um tipo que a base não tem antes de um que ela tem
+        TabelaCreditos recentes = new TabelaCreditos(4);
+        CreditoDTO continuaNfse = credito("CR004", "NF001", "Serviço", "Sim");
+        CreditoDTO acentuado = credito("CRÉDITO-5", "NFS-É", "Outros", "Não");
+        recentes.incluir(continuaNfse);
+        recentes.incluir(acentuado);
+        // Passa da capacidade dos índices da base
+        for (int i = 0; i < 40; i++) {
+            recentes.incluir(credito("CR1" + i, "NF1" + (i % 4), "ISSQN", "Sim"));
+        }
+        TabelaCreditos.Conteudo conteudo = recentes.conteudo();
+        recentes.incluir(credito("CR999", "NF001", "ISSQN", "Sim"));
+
+        SnapshotCreditos.regravar(arquivo, base, conteudo, 45);
+        SnapshotCreditos regravado = SnapshotCreditos.abrir(arquivo);
+
+        assertEquals(45, regravado.linhas());
+        assertEquals(45, regravado.idMaximo());
+        assertEquals(1_700_000_000_000L, regravado.cargaCompletaEm());
+        assertEquals(Files.size(arquivo), regravado.bytesMapeados());
+        assertEquals(List.of(daBase.get(0), daBase.get(2), continuaNfse), regravado.buscarPorNfse("NF001"));
+        assertEquals(List.of(daBase.get(1)), regravado.buscarPorNfse("NF002"));
+        assertEquals(acentuado, regravado.buscarPorCredito("CRÉDITO-5"));
+        assertEquals(List.of(acentuado), regravado.buscarPorNfse("NFS-É"));
+        assertEquals(10, regravado.buscarPorNfse("NF13").size());
+        for (int linha = 0; linha < 42; linha++) {
+            CreditoDTO credito = linha < 3 ? daBase.get(linha) : recentes.credito(linha - 3);
+            assertEquals(credito, regravado.credito(linha));
+            assertEquals(credito, regravado.buscarPorCredito(credito.getNumeroCredito()));
+        }
+        assertFalse(regravado.contemCredito("CR999"));
+        // O mapeamento da base continua válido depois da troca do arquivo
+        assertEquals(daBase.get(1), base.buscarPorCredito("CR002"));
+    }
+
+    @Test
+    void abrir_DeveRecusarArquivoDeOutroFormato() throws IOException {
+        Path arquivo = diretorio.resolve("creditos.snap");
+        SnapshotCreditos.gravar(arquivo, new TabelaCreditos(4), 0, System.currentTimeMillis());
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            canal.write(ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(SnapshotCreditos.FORMATO + 1).flip(), Long.BYTES);
+        }
+
+        IOException erro = assertThrows(IOException.class, () -> SnapshotCreditos.abrir(arquivo));
+        assertTrue(erro.getMessage().contains("não suportado"));
+    }
+
+    @Test
+    void abrir_DeveRecusarArquivoTruncadoOuDesconhecido() throws IOException {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        tabela.incluir(credito("CR001", "NF001", "ISSQN", "Sim"));
+        Path arquivo = diretorio.resolve("creditos.snap");
+        SnapshotCreditos.gravar(arquivo, tabela, 1, System.currentTimeMillis());
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 4);
+        }
+        Path desconhecido = Files.writeString(diretorio.resolve("outro.snap"), "não é um snapshot");
+
+        assertThrows(IOException.class, () -> SnapshotCreditos.abrir(arquivo));
+        assertThrows(IOException.class, () -> SnapshotCreditos.abrir(desconhecido));
+    }
+}
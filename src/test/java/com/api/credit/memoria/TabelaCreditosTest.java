@@ -0,0 +1,146 @@
+package com.api.credit.memoria;
+
+import com.api.credit.dto.CreditoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TabelaCreditosTest {
+
+    @Test
+    void buscar_DeveDevolverCreditoComOsMesmosValores() {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        CreditoDTO credito = credito("CR001", "NF001", "ISSQN", "Sim");
+
+        assertTrue(tabela.incluir(credito));
+
+        assertEquals(credito, tabela.buscarPorCredito("CR001"));
+        assertEquals(List.of(credito), tabela.buscarPorNfse("NF001"));
+        assertNull(tabela.buscarPorCredito("CR999"));
+        assertEquals(List.of(), tabela.buscarPorNfse("NF999"));
+    }
+
+    @Test
+    void buscarPorNfse_DeveManterOrdemDeInclusao_EIgnorarRepetidos() {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        tabela.incluir(credito("CR001", "NF001", "ISSQN", "Sim"));
+        tabela.incluir(credito("CR002", "NF002", "Outros", "Não"));
+        tabela.incluir(credito("CR003", "NF001", "Outros", "Não"));
+
+        // Releitura de evento: mesmo número de crédito não vira outra linha
+        assertFalse(tabela.incluir(credito("CR001", "NF001", "ISSQN", "Sim")));
+
+        assertEquals(3, tabela.tamanho());
+        assertEquals(List.of("CR001", "CR003"),
+                tabela.buscarPorNfse("NF001").stream().map(CreditoDTO::getNumeroCredito).toList());
+        assertEquals("Não", tabela.buscarPorCredito("CR003").getSimplesNacional());
+        assertEquals("Outros", tabela.buscarPorCredito("CR003").getTipoCredito());
+    }
+
+    @Test
+    void incluir_DeveCrescerERehashear_SemPerderLinhas() {
+        TabelaCreditos tabela = new TabelaCreditos(1);
+        long bytesIniciais = tabela.bytesOcupados();
+
+        for (int i = 0; i < 10_000; i++) {
+            tabela.incluir(credito("CR" + i, "NF" + (i / 3), "T" + (i % 5), i % 2 == 0 ? "Sim" : "Não"));
+        }
+
+        assertEquals(10_000, tabela.tamanho());
+        assertTrue(tabela.bytesOcupados() > bytesIniciais);
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals("NF" + (i / 3), tabela.buscarPorCredito("CR" + i).getNumeroNfse());
+        }
+        assertEquals(List.of("CR3000", "CR3001", "CR3002"),
+                tabela.buscarPorNfse("NF1000").stream().map(CreditoDTO::getNumeroCredito).toList());
+    }
+
+    @Test
+    void buscar_DeveAceitarChavesComCaracteresNaoAscii() {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        tabela.incluir(credito("CRÉDITO-Ç", "NFS-É", "Dívida Ativa", "Sim"));
+
+        assertEquals("NFS-É", tabela.buscarPorCredito("CRÉDITO-Ç").getNumeroNfse());
+        assertEquals("CRÉDITO-Ç", tabela.buscarPorNfse("NFS-É").get(0).getNumeroCredito());
+        assertEquals("Dívida Ativa", tabela.buscarPorCredito("CRÉDITO-Ç").getTipoCredito());
+        assertNull(tabela.buscarPorCredito("CREDITO-C"));
+    }
+
+    @Test
+    void incluir_DeveArredondarParaCentavos() {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        CreditoDTO credito = credito("CR001", "NF001", "ISSQN", "Sim");
+        credito.setAliquota(new BigDecimal("5.125"));
+        credito.setValorIssqn(new BigDecimal("10"));
+
+        tabela.incluir(credito);
+
+        assertEquals(new BigDecimal("5.13"), tabela.buscarPorCredito("CR001").getAliquota());
+        assertEquals(new BigDecimal("10.00"), tabela.buscarPorCredito("CR001").getValorIssqn());
+    }
+
+    @Test
+    void incluir_DeveRecusarTipoAlemDoLimiteDoDicionario() {
+        TabelaCreditos tabela = new TabelaCreditos(4);
+        for (int i = 0; i < TabelaCreditos.MAX_TIPOS; i++) {
+            tabela.incluir(credito("CR" + i, "NF001", "T" + i, "Sim"));
+        }
+
+        assertThrows(IllegalStateException.class, () -> tabela.incluir(credito("CRX", "NF001", "NOVO", "Sim")));
+        assertEquals(TabelaCreditos.MAX_TIPOS, tabela.tamanho());
+        assertEquals("T126", tabela.buscarPorCredito("CR126").getTipoCredito());
+        assertEquals("Sim", tabela.buscarPorCredito("CR126").getSimplesNacional());
+    }
+
+    @Test
+    void buscar_DeveVerSomenteLinhasCompletas_DuranteInclusoesConcorrentes() throws Exception {
+        TabelaCreditos tabela = new TabelaCreditos(1);
+        int total = 50_000;
+        AtomicBoolean terminou = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> leitor = executor.submit(() -> {
+                int verificadas = 0;
+                while (!terminou.get()) {
+                    int ultima = tabela.tamanho() - 1;
+                    if (ultima < 0) {
+                        continue;
+                    }
+                    CreditoDTO credito = tabela.buscarPorCredito("CR" + ultima);
+                    assertNotNull(credito, "linha publicada sem índice: " + ultima);
+                    assertEquals("NF" + (ultima / 4), credito.getNumeroNfse());
+                    assertEquals(BigDecimal.valueOf(ultima, 2), credito.getValorIssqn());
+                    assertFalse(tabela.buscarPorNfse("NF" + (ultima / 4)).isEmpty());
+                    verificadas++;
+                }
+                return verificadas;
+            });
+            for (int i = 0; i < total; i++) {
+                CreditoDTO credito = credito("CR" + i, "NF" + (i / 4), "ISSQN", "Sim");
+                credito.setValorIssqn(BigDecimal.valueOf(i, 2));
+                tabela.incluir(credito);
+            }
+            terminou.set(true);
+
+            assertTrue(leitor.get(10, TimeUnit.SECONDS) > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(total, tabela.tamanho());
+    }
+
+    static CreditoDTO credito(String numeroCredito, String numeroNfse, String tipo, String simples) {
+        return new CreditoDTO(numeroCredito, numeroNfse, LocalDate.of(2024, 2, 25), new BigDecimal("1500.75"), tipo,
+                simples, new BigDecimal("5.00"), new BigDecimal("30000.00"), new BigDecimal("5000.00"),
+                new BigDecimal("25000.00"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.api.credit.metrica;
+
+import com.api.credit.exception.NotFoundException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MedicaoConsultaInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MedicaoConsultaInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new MedicaoConsultaInterceptor(meterRegistry);
+        request = new MockHttpServletRequest("GET", "/api/creditos/NF001");
+        response = new MockHttpServletResponse();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MedicaoConsulta.finalizar();
+    }
+
+    @Test
+    void afterCompletion_DeveRegistrarEtapasSemSobreposicao() throws Exception {
+        interceptor.preHandle(request, response, handler("medido"));
+
+        MedicaoConsulta.medir(EtapaConsulta.CACHE, () -> {
+            dormir(20);
+            MedicaoConsulta.medir(EtapaConsulta.BANCO, () -> {
+                MedicaoConsulta.medir(EtapaConsulta.CONEXAO, () -> dormir(20));
+                dormir(20);
+            });
+        });
+        interceptor.afterCompletion(request, response, handler("medido"), null);
+
+        double cache = tempo("cache", "encontrado");
+        double banco = tempo("banco", "encontrado");
+        double conexao = tempo("conexao", "encontrado");
+        double outros = tempo("outros", "encontrado");
+        assertTrue(cache >= 20 && banco >= 20 && conexao >= 20);
+        // A conexão não é contada de novo em banco nem em cache
+        assertTrue(banco < 40 && cache < 40, "banco=" + banco + " cache=" + cache);
+        double total = meterRegistry.get(MedicaoConsultaInterceptor.METRICA_DURACAO)
+                .tags("endpoint", "nfse", "resultado", "encontrado").timer().totalTime(TimeUnit.MILLISECONDS);
+        assertEquals(total, cache + banco + conexao + outros, 0.001);
+        // Etapas não percorridas não recebem amostra zerada
+        assertEquals(0, meterRegistry.get(MedicaoConsultaInterceptor.METRICA_ETAPA)
+                .tags("endpoint", "nfse", "etapa", "mapeamento", "resultado", "encontrado").timer().count());
+    }
+
+    @Test
+    void afterCompletion_DeveMarcarNaoEncontrado_QuandoNotFoundExceptionFoiTratada() throws Exception {
+        interceptor.preHandle(request, response, handler("medido"));
+        request.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new NotFoundException("Nenhum crédito"));
+        response.setStatus(404);
+
+        interceptor.afterCompletion(request, response, handler("medido"), null);
+
+        assertEquals(1, meterRegistry.get(MedicaoConsultaInterceptor.METRICA_DURACAO)
+                .tags("endpoint", "nfse", "resultado", "nao_encontrado").timer().count());
+    }
+
+    @Test
+    void afterCompletion_DeveMarcarErro_QuandoOutraFalha() throws Exception {
+        interceptor.preHandle(request, response, handler("medido"));
+        response.setStatus(500);
+
+        interceptor.afterCompletion(request, response, handler("medido"), new IllegalStateException());
+
+        assertEquals(1, meterRegistry.get(MedicaoConsultaInterceptor.METRICA_DURACAO)
+                .tags("endpoint", "nfse", "resultado", "erro").timer().count());
+    }
+
+    @Test
+    void preHandle_DeveIgnorarEndpointSemAnotacao() throws Exception {
+        interceptor.preHandle(request, response, handler("naoMedido"));
+
+        assertEquals(-1, MedicaoConsulta.entrar(EtapaConsulta.BANCO));
+        interceptor.afterCompletion(request, response, handler("naoMedido"), null);
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    private double tempo(String etapa, String resultado) {
+        Timer timer = meterRegistry.get(MedicaoConsultaInterceptor.METRICA_ETAPA)
+                .tags("endpoint", "nfse", "etapa", etapa, "resultado", resultado).timer();
+        assertEquals(1, timer.count());
+        return timer.totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    private static HandlerMethod handler(String metodo) throws NoSuchMethodException {
+        return new HandlerMethod(new Controlador(), Controlador.class.getMethod(metodo));
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class Controlador {
+
+        @MedirEtapas("nfse")
+        public void medido() {
+        }
+
+        public void naoMedido() {
+        }
+    }
+}
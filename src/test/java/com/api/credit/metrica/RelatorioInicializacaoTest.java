@@ -0,0 +1,66 @@
+package com.api.credit.metrica;
+
+import com.api.credit.metrica.RelatorioInicializacao.Passo;
+import com.api.credit.metrica.RelatorioInicializacao.Resumo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RelatorioInicializacaoTest {
+
+    private static final Instant JVM = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void resumir_DeveDividirASubidaEmFasesContiguas() {
+        List<Passo> passos = List.of(
+                passo(1, null, RelatorioInicializacao.PASSO_AMBIENTE, null, 500, 900),
+                passo(2, null, RelatorioInicializacao.PASSO_REFRESH, null, 1_000, 5_000));
+
+        Resumo resumo = RelatorioInicializacao.resumir(JVM, ms(400), ms(5_300), passos, 5);
+
+        assertEquals(Map.of("jvm", Duration.ofMillis(400), "ambiente", Duration.ofMillis(500),
+                "contexto", Duration.ofMillis(100), "refresh", Duration.ofMillis(4_000),
+                "runners", Duration.ofMillis(300)), resumo.fases());
+        assertEquals(List.of("jvm", "ambiente", "contexto", "refresh", "runners"), List.copyOf(resumo.fases().keySet()));
+        assertEquals(Duration.ofMillis(5_300), resumo.total());
+    }
+
+    @Test
+    void resumir_DeveOrdenarPassosPeloTempoProprio() {
+        // repositorio (1,2 s) cria entityManagerFactory (1 s) dentro dele
+        List<Passo> passos = List.of(
+                passo(1, null, RelatorioInicializacao.PASSO_REFRESH, null, 0, 2_000),
+                passo(2, 1L, RelatorioInicializacao.PASSO_BEAN, "creditoRepository", 100, 1_300),
+                passo(3, 2L, RelatorioInicializacao.PASSO_BEAN, "entityManagerFactory", 200, 1_200),
+                passo(4, 1L, "spring.boot.webserver.create", null, 1_300, 1_800));
+
+        Resumo resumo = RelatorioInicializacao.resumir(JVM, JVM, ms(2_000), passos, 3);
+
+        assertEquals(List.of("entityManagerFactory", "spring.boot.webserver.create", "spring.context.refresh"),
+                resumo.lentos().stream().map(RelatorioInicializacao.Lento::nome).toList());
+        assertEquals(Duration.ofMillis(300), resumo.lentos().get(2).proprio());
+        assertEquals(Duration.ofMillis(2_000), resumo.lentos().get(2).total());
+        assertTrue(RelatorioInicializacao.formatar(resumo).contains("entityManagerFactory"));
+    }
+
+    @Test
+    void resumir_DeveOmitirFasesSemPassos_QuandoLinhaDoTempoIncompleta() {
+        Resumo resumo = RelatorioInicializacao.resumir(JVM, ms(400), ms(1_000), List.of(), 5);
+
+        assertEquals(Map.of("jvm", Duration.ofMillis(400)), resumo.fases());
+        assertEquals(List.of(), resumo.lentos());
+    }
+
+    private static Passo passo(long id, Long pai, String nome, String bean, long inicioMs, long fimMs) {
+        return new Passo(id, pai, nome, bean, ms(inicioMs), ms(fimMs));
+    }
+
+    private static Instant ms(long ms) {
+        return JVM.plusMillis(ms);
+    }
+}
@@ -0,0 +1,160 @@
+package com.api.credit.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RelayOutboxTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private RelayOutbox relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE outbox_evento (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "topico VARCHAR(100) NOT NULL, chave VARCHAR(100), tipo VARCHAR(50) NOT NULL, "
+                + "payload VARCHAR(10000) NOT NULL, criado_em TIMESTAMP NOT NULL)");
+
+        kafkaTemplate = mock(KafkaTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new RelayOutbox(jdbcTemplate, new DataSourceTransactionManager(dataSource), kafkaTemplate,
+                new ObjectMapper(), meterRegistry, 2, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarLote_DevePublicarEmOrdemERemoverConfirmados() {
+        inserir("NF001", "CREDITO_CRIADO", "{\"numero\":1}");
+        inserir("NF002", "CREDITO_CRIADO", "{\"numero\":2}");
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(confirmado());
+
+        assertEquals(2, relay.publicarLote());
+
+        ArgumentCaptor<ProducerRecord<String, Object>> registros = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(registros.capture());
+        ProducerRecord<String, Object> primeiro = registros.getAllValues().get(0);
+        assertEquals("creditos-eventos", primeiro.topic());
+        assertEquals("NF001", primeiro.key());
+        assertEquals(1, ((JsonNode) primeiro.value()).get("numero").asInt());
+        assertEquals("CREDITO_CRIADO", cabecalho(primeiro, RelayOutbox.CABECALHO_TIPO));
+        assertNotNull(cabecalho(primeiro, RelayOutbox.CABECALHO_ID));
+        assertEquals("NF002", registros.getAllValues().get(1).key());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_evento", Integer.class));
+        assertEquals(2, meterRegistry.get("creditos.outbox.publicados").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarLote_DeveManterEventos_QuandoEnvioFalha() {
+        inserir("NF001", "CREDITO_CRIADO", "{}");
+        SettableListenableFuture<SendResult<String, Object>> falha = new SettableListenableFuture<>();
+        falha.setException(new IllegalStateException("broker indisponível"));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(falha);
+
+        assertEquals(0, relay.publicarLote());
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_evento", Integer.class));
+        assertEquals(1, meterRegistry.get("creditos.outbox.falhas").counter().count());
+        assertEquals(0, meterRegistry.get("creditos.outbox.publicados").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarLote_DevePularCiclo_QuandoOutraInstanciaTravouOsEventos() throws Exception {
+        inserir("NF001", "CREDITO_CRIADO", "{}");
+        try (Connection outraInstancia = dataSource.getConnection()) {
+            outraInstancia.setAutoCommit(false);
+            outraInstancia.createStatement().executeQuery("SELECT id FROM outbox_evento ORDER BY id FOR UPDATE");
+
+            assertEquals(0, relay.publicarLote());
+
+            outraInstancia.rollback();
+        }
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        assertEquals(0, meterRegistry.get("creditos.outbox.falhas").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarPendentes_DeveEsvaziarOutboxEmVariosLotes() {
+        inserir("NF001", "CREDITO_CRIADO", "{}");
+        inserir("NF002", "CREDITO_CRIADO", "{}");
+        inserir("imp-1", "IMPORTACAO_LOTE", "{}");
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(confirmado());
+
+        relay.publicarPendentes();
+
+        verify(kafkaTemplate, times(3)).send(any(ProducerRecord.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_evento", Integer.class));
+        assertEquals(0, meterRegistry.get("creditos.outbox.pendentes").gauge().value());
+        assertEquals(0, meterRegistry.get("creditos.outbox.atraso").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarPendentes_DeveMedirAtrasoDoEventoMaisAntigo_QuandoEnvioFalha() {
+        jdbcTemplate.update("INSERT INTO outbox_evento (topico, chave, tipo, payload, criado_em) VALUES (?, ?, ?, ?, ?)",
+                "creditos-eventos", "NF001", "CREDITO_CRIADO", "{}",
+                new Timestamp(System.currentTimeMillis() - 60_000));
+        SettableListenableFuture<SendResult<String, Object>> falha = new SettableListenableFuture<>();
+        falha.setException(new IllegalStateException("broker indisponível"));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(falha);
+
+        relay.publicarPendentes();
+
+        assertEquals(1, meterRegistry.get("creditos.outbox.pendentes").gauge().value());
+        assertTrue(meterRegistry.get("creditos.outbox.atraso").gauge().value() >= 60);
+    }
+
+    private void inserir(String chave, String tipo, String payload) {
+        jdbcTemplate.update("INSERT INTO outbox_evento (topico, chave, tipo, payload, criado_em) VALUES (?, ?, ?, ?, ?)",
+                "creditos-eventos", chave, tipo, payload, new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static SettableListenableFuture<SendResult<String, Object>> confirmado() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.set(null);
+        return futuro;
+    }
+
+    private static String cabecalho(ProducerRecord<String, Object> registro, String nome) {
+        return new String(registro.headers().lastHeader(nome).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,125 @@
+package com.api.credit.repository;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.FiltroCreditoDTO;
+import com.api.credit.entity.Credito;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class CreditoRepositoryTest {
+
+    @Autowired
+    private CreditoRepository creditoRepository;
+
+    @BeforeEach
+    void setUp() {
+        creditoRepository.saveAll(List.of(
+                credito("CR001", "NF001", true),
+                credito("CR002", "NF001", false),
+                credito("CR003", "NF002", true)));
+    }
+
+    @Test
+    void buscarDTOsPorNumeroNfse_DeveProjetarDiretamenteEmDTO() {
+        List<CreditoDTO> resultado = creditoRepository.buscarDTOsPorNumeroNfse("NF001");
+
+        assertEquals(2, resultado.size());
+        CreditoDTO primeiro = resultado.stream()
+                .filter(c -> c.getNumeroCredito().equals("CR001")).findFirst().orElseThrow();
+        assertEquals("NF001", primeiro.getNumeroNfse());
+        assertEquals(LocalDate.of(2024, 1, 15), primeiro.getDataConstituicao());
+        assertEquals(0, new BigDecimal("100.00").compareTo(primeiro.getValorIssqn()));
+        assertEquals("ISSQN", primeiro.getTipoCredito());
+        assertEquals("Sim", primeiro.getSimplesNacional());
+        assertEquals(0, new BigDecimal("2000.00").compareTo(primeiro.getBaseCalculo()));
+
+        CreditoDTO segundo = resultado.stream()
+                .filter(c -> c.getNumeroCredito().equals("CR002")).findFirst().orElseThrow();
+        assertEquals("Não", segundo.getSimplesNacional());
+    }
+
+    @Test
+    void buscarDTOsPorNumeroNfse_DeveRetornarListaVazia_QuandoNaoExistir() {
+        assertTrue(creditoRepository.buscarDTOsPorNumeroNfse("NF999").isEmpty());
+    }
+
+    @Test
+    void buscarDTOPorNumeroCredito_DeveRetornarDTO_QuandoExistir() {
+        Optional<CreditoDTO> resultado = creditoRepository.buscarDTOPorNumeroCredito("CR003");
+
+        assertTrue(resultado.isPresent());
+        assertEquals("NF002", resultado.get().getNumeroNfse());
+        assertEquals("Sim", resultado.get().getSimplesNacional());
+    }
+
+    @Test
+    void buscarDTOPorNumeroCredito_DeveRetornarVazio_QuandoNaoExistir() {
+        assertTrue(creditoRepository.buscarDTOPorNumeroCredito("CR999").isEmpty());
+    }
+
+    @Test
+    void listarPagina_DevePercorrerTodasAsLinhasEmOrdem_SemRepetir() {
+        Credito antigo = credito("CR004", "NF003", false);
+        antigo.setDataConstituicao(LocalDate.of(2023, 12, 1));
+        Credito recente = credito("CR005", "NF003", true);
+        recente.setDataConstituicao(LocalDate.of(2024, 3, 1));
+        creditoRepository.saveAll(List.of(antigo, recente));
+
+        List<String> lidos = new ArrayList<>();
+        CursorCredito cursor = null;
+        List<CreditoPaginado> pagina;
+        do {
+            pagina = creditoRepository.listarPagina(new FiltroCreditoDTO(), cursor, 2);
+            pagina.forEach(linha -> lidos.add(linha.credito().getNumeroCredito()));
+            cursor = pagina.isEmpty() ? null : pagina.get(pagina.size() - 1).cursor();
+        } while (pagina.size() == 2);
+
+        // CR001..CR003 empatam na data e saem pela ordem do id
+        assertEquals(List.of("CR004", "CR001", "CR002", "CR003", "CR005"), lidos);
+    }
+
+    @Test
+    void listarPagina_DeveAplicarFiltros() {
+        Credito outroTipo = credito("CR004", "NF003", true);
+        outroTipo.setTipoCredito("Outros");
+        Credito foraDoPeriodo = credito("CR005", "NF003", true);
+        foraDoPeriodo.setDataConstituicao(LocalDate.of(2024, 6, 1));
+        creditoRepository.saveAll(List.of(outroTipo, foraDoPeriodo));
+
+        List<CreditoPaginado> resultado = creditoRepository.listarPagina(
+                new FiltroCreditoDTO(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), "ISSQN", true), null, 10);
+
+        assertEquals(List.of("CR001", "CR003"),
+                resultado.stream().map(linha -> linha.credito().getNumeroCredito()).collect(Collectors.toList()));
+        assertEquals("Sim", resultado.get(0).credito().getSimplesNacional());
+    }
+
+    static Credito credito(String numeroCredito, String numeroNfse, boolean simplesNacional) {
+        Credito credito = new Credito();
+        credito.setNumeroCredito(numeroCredito);
+        credito.setNumeroNfse(numeroNfse);
+        credito.setDataConstituicao(LocalDate.of(2024, 1, 15));
+        credito.setValorIssqn(new BigDecimal("100.00"));
+        credito.setTipoCredito("ISSQN");
+        credito.setSimplesNacional(simplesNacional);
+        credito.setAliquota(new BigDecimal("5.00"));
+        credito.setValorFaturado(new BigDecimal("2000.00"));
+        credito.setValorDeducao(new BigDecimal("0.00"));
+        credito.setBaseCalculo(new BigDecimal("2000.00"));
+        return credito;
+    }
+}
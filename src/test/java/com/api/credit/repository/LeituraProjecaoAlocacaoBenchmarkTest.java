@@ -0,0 +1,85 @@
+package com.api.credit.repository;
+
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.mapper.CreditoMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara os bytes alocados por consulta entre o caminho antigo (entidade
+ * gerenciada + CreditoMapper) e a projeção direta em CreditoDTO.
+ * Executado apenas com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeituraProjecaoAlocacaoBenchmarkTest {
+
+    private static final int CREDITOS_POR_NFSE = 20;
+    private static final int AQUECIMENTO = 2_000;
+    private static final int ITERACOES = 10_000;
+
+    @Autowired
+    private CreditoRepository creditoRepository;
+
+    private final CreditoMapper creditoMapper = Mappers.getMapper(CreditoMapper.class);
+
+    @BeforeEach
+    void setUp() {
+        List<com.api.credit.entity.Credito> creditos = new ArrayList<>();
+        for (int i = 0; i < CREDITOS_POR_NFSE; i++) {
+            creditos.add(CreditoRepositoryTest.credito("CR" + i, "NF001", i % 2 == 0));
+        }
+        creditoRepository.saveAll(creditos);
+    }
+
+    @AfterEach
+    void tearDown() {
+        creditoRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void projecao_DeveAlocarMenosQueEntidadeMaisMapper() {
+        long entidade = bytesPorOperacao(
+                () -> creditoMapper.toDTOList(creditoRepository.findByNumeroNfse("NF001")));
+        long projecao = bytesPorOperacao(
+                () -> creditoRepository.buscarDTOsPorNumeroNfse("NF001"));
+
+        System.out.printf("Alocação por consulta (%d créditos): entidade+mapper=%d B, projeção=%d B (%.1f%%)%n",
+                CREDITOS_POR_NFSE, entidade, projecao, 100.0 * projecao / entidade);
+
+        assertTrue(projecao < entidade);
+    }
+
+    private static long bytesPorOperacao(Supplier<List<CreditoDTO>> consulta) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            assertEquals(CREDITOS_POR_NFSE, consulta.get().size());
+        }
+
+        long antes = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERACOES; i++) {
+            consulta.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - antes) / ITERACOES;
+    }
+}
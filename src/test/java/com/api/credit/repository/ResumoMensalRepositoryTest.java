@@ -0,0 +1,114 @@
+package com.api.credit.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResumoMensalRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ResumoMensalRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE credito_resumo_mensal (mes DATE NOT NULL, "
+                + "tipo_credito VARCHAR(50) NOT NULL, simples_nacional BOOLEAN NOT NULL, quantidade BIGINT NOT NULL, "
+                + "valor_issqn DECIMAL(20,2) NOT NULL, valor_faturado DECIMAL(20,2) NOT NULL, "
+                + "valor_deducao DECIMAL(20,2) NOT NULL, base_calculo DECIMAL(20,2) NOT NULL, "
+                + "PRIMARY KEY (mes, tipo_credito, simples_nacional))");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        repository = new ResumoMensalRepository();
+        ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void incrementar_DeveCriarLinhaESomarAsExistentes() {
+        repository.incrementar(List.of(resumo(2024, 1, "ISSQN", true, "0.10")));
+        repository.incrementar(List.of(resumo(2024, 1, "ISSQN", true, "0.20"), resumo(2024, 2, "ISSQN", false, "5.00")));
+
+        List<ResumoMensal> linhas = repository.listar(null, null, null);
+
+        assertEquals(2, linhas.size());
+        assertEquals(YearMonth.of(2024, 1), linhas.get(0).mes());
+        assertEquals(2, linhas.get(0).quantidade());
+        assertEquals(new BigDecimal("0.30"), linhas.get(0).valorIssqn());
+        assertEquals(new BigDecimal("0.60"), linhas.get(0).baseCalculo());
+        assertFalse(linhas.get(1).simplesNacional());
+    }
+
+    @Test
+    void listar_DeveFiltrarPorPeriodoETipo() {
+        repository.incrementar(List.of(resumo(2023, 12, "ISSQN", true, "1.00"), resumo(2024, 1, "ISSQN", true, "1.00"),
+                resumo(2024, 1, "OUTROS", true, "1.00"), resumo(2024, 3, "ISSQN", true, "1.00")));
+
+        List<ResumoMensal> linhas = repository.listar(YearMonth.of(2024, 1), YearMonth.of(2024, 2), "ISSQN");
+
+        assertEquals(1, linhas.size());
+        assertEquals(YearMonth.of(2024, 1), linhas.get(0).mes());
+        assertEquals("ISSQN", linhas.get(0).tipoCredito());
+    }
+
+    @Test
+    void incrementar_NaoDevePerderValores_QuandoLotesConcorrentesNaMesmaLinha() throws Exception {
+        int threads = 8;
+        int lotesPorThread = 25;
+        CyclicBarrier largada = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await(5, TimeUnit.SECONDS);
+                    for (int i = 0; i < lotesPorThread; i++) {
+                        transactionTemplate.executeWithoutResult(status -> repository.incrementar(List.of(
+                                resumo(2024, 1, "ISSQN", true, "0.01"), resumo(2024, 2, "ISSQN", true, "0.01"))));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (ResumoMensal linha : repository.listar(null, null, null)) {
+            assertEquals(threads * lotesPorThread, linha.quantidade());
+            assertEquals(new BigDecimal("2.00"), linha.valorIssqn());
+        }
+    }
+
+    private static ResumoMensal resumo(int ano, int mes, String tipo, boolean simples, String valor) {
+        BigDecimal decimal = new BigDecimal(valor);
+        return new ResumoMensal(YearMonth.of(ano, mes), tipo, simples, 1, decimal, decimal, decimal,
+                decimal.add(decimal));
+    }
+}
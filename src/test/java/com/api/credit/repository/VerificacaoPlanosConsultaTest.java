@@ -0,0 +1,53 @@
+package com.api.credit.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificacaoPlanosConsultaTest {
+
+    @Test
+    void usaVarreduraSequencial_DeveDetectarSeqScan() {
+        assertTrue(VerificacaoPlanosConsulta.usaVarreduraSequencial(List.of(
+                "Seq Scan on credito  (cost=10000000000.00..10000000001.04 rows=1 width=180)",
+                "  Filter: ((numero_nfse)::text = ''::text)")));
+    }
+
+    @Test
+    void usaVarreduraSequencial_DeveAceitarIndexOnlyScan() {
+        assertFalse(VerificacaoPlanosConsulta.usaVarreduraSequencial(List.of(
+                "Index Only Scan using ix_credito_numero_nfse on credito  (cost=0.14..8.16 rows=1 width=180)",
+                "  Index Cond: (numero_nfse = ''::text)")));
+        assertFalse(VerificacaoPlanosConsulta.usaVarreduraSequencial(List.of(
+                "Bitmap Heap Scan on credito  (cost=4.18..12.64 rows=4 width=180)",
+                "  ->  Bitmap Index Scan on ux_credito_numero_credito  (cost=0.00..4.18 rows=4 width=0)")));
+    }
+
+    @Test
+    void run_DeveIgnorar_QuandoBancoNaoForPostgres() {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        try {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            VerificacaoPlanosConsulta verificacao = new VerificacaoPlanosConsulta(new JdbcTemplate(database),
+                    new DataSourceTransactionManager(database), meterRegistry);
+
+            assertDoesNotThrow(() -> verificacao.run(null));
+
+            assertEquals(0, meterRegistry.get("creditos.banco.plano.sequencial")
+                    .tag("consulta", "nfse").gauge().value());
+        } finally {
+            database.shutdown();
+        }
+    }
+}
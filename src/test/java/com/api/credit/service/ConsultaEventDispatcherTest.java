@@ -0,0 +1,156 @@
+package com.api.credit.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConsultaEventDispatcherTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private MeterRegistry meterRegistry;
+    private ConsultaEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    private ConsultaEventDispatcher criar(int capacidade, PoliticaTransbordo politica) {
+        return new ConsultaEventDispatcher(kafkaTemplate, meterRegistry, capacidade, 10, politica, 10, 2, 0.5);
+    }
+
+    private double descartados(String motivo) {
+        return meterRegistry.get("creditos.eventos.descartados").tag("motivo", motivo).counter().count();
+    }
+
+    @Test
+    void enfileirar_DeveEnviarComChave_QuandoIniciado() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.set(null);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(futuro);
+        dispatcher = criar(100, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO);
+        dispatcher.start();
+
+        Map<String, Object> evento = Map.of("parametro", "NF001");
+        assertTrue(dispatcher.enfileirar("creditos-consultas", "NF001", evento));
+
+        verify(kafkaTemplate, timeout(2000)).send("creditos-consultas", "NF001", evento);
+        assertEquals(1.0, meterRegistry.get("creditos.eventos.enviados").counter().count());
+    }
+
+    @Test
+    void stop_DeveEsvaziarFilaAntesDeEncerrar() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.set(null);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(futuro);
+        dispatcher = criar(100, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO);
+        dispatcher.start();
+
+        for (int i = 0; i < 50; i++) {
+            dispatcher.enfileirar("creditos-consultas", "NF" + i, Map.of());
+        }
+        dispatcher.stop();
+
+        verify(kafkaTemplate, times(50)).send(eq("creditos-consultas"), anyString(), any());
+        verify(kafkaTemplate).flush();
+        assertEquals(0, dispatcher.tamanhoFila());
+    }
+
+    @Test
+    void enviar_DeveContarFalhaPorRegistro_QuandoEnvioFalharSincronamente() {
+        SettableListenableFuture<SendResult<String, Object>> futuro = new SettableListenableFuture<>();
+        futuro.set(null);
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(futuro);
+        when(kafkaTemplate.send(anyString(), eq("NF1"), any())).thenThrow(new IllegalStateException("serialização"));
+        dispatcher = criar(100, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO);
+
+        // Enfileirados antes do start: saem todos no mesmo bloco
+        for (int i = 0; i < 3; i++) {
+            dispatcher.enfileirar("creditos-consultas", "NF" + i, Map.of());
+        }
+        dispatcher.start();
+        dispatcher.stop();
+
+        assertEquals(1.0, meterRegistry.get("creditos.eventos.falhas").counter().count());
+        assertEquals(2.0, meterRegistry.get("creditos.eventos.enviados").counter().count());
+    }
+
+    @Test
+    void getPhase_DeveParar_DepoisDoServidorWeb() {
+        // Fases maiores param antes
+        assertTrue(criar(1, PoliticaTransbordo.BLOQUEAR).getPhase()
+                < WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE);
+    }
+
+    @Test
+    void descartarMaisAntigo_DeveManterEventosMaisRecentes() {
+        dispatcher = criar(2, PoliticaTransbordo.DESCARTAR_MAIS_ANTIGO);
+
+        assertTrue(dispatcher.enfileirar("t", "1", Map.of()));
+        assertTrue(dispatcher.enfileirar("t", "2", Map.of()));
+        assertTrue(dispatcher.enfileirar("t", "3", Map.of()));
+
+        assertEquals(2, dispatcher.tamanhoFila());
+        assertEquals(1.0, descartados("mais-antigo"));
+    }
+
+    @Test
+    void bloquear_DeveDescartarNovoEvento_AposTempoMaximo() {
+        dispatcher = criar(1, PoliticaTransbordo.BLOQUEAR);
+
+        assertTrue(dispatcher.enfileirar("t", "1", Map.of()));
+        long inicio = System.nanoTime();
+        assertFalse(dispatcher.enfileirar("t", "2", Map.of()));
+
+        assertTrue(System.nanoTime() - inicio >= 10_000_000L);
+        assertEquals(1, dispatcher.tamanhoFila());
+        assertEquals(1.0, descartados("fila-cheia"));
+    }
+
+    @Test
+    void amostrar_DeveAceitarUmACadaTaxa_AcimaDoLimiar() {
+        dispatcher = criar(10, PoliticaTransbordo.AMOSTRAR);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(dispatcher.enfileirar("t", "k", Map.of()));
+        }
+        // Limiar de 50% atingido: taxa 2 aceita metade dos eventos seguintes
+        int aceitos = 0;
+        for (int i = 0; i < 4; i++) {
+            if (dispatcher.enfileirar("t", "k", Map.of())) {
+                aceitos++;
+            }
+        }
+
+        assertEquals(2, aceitos);
+        assertEquals(2.0, descartados("amostragem"));
+        assertEquals(7.0, meterRegistry.get("creditos.eventos.enfileirados").counter().count());
+    }
+}
@@ -0,0 +1,118 @@
+package com.api.credit.service;
+
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.evento.TipoConsulta;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.api.credit.repository.CreditoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Consultas ao banco sob contenção: rajadas de requisições simultâneas para a
+ * mesma NFS-e, sem cache (NoOpCacheManager) para isolar a coalescência das
+ * cargas em andamento. Executado apenas com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class ConsultasSimultaneasBenchmarkTest {
+
+    private static final int RAJADAS = 50;
+    private static final long LATENCIA_BANCO_MS = 5;
+
+    @Test
+    void buscarNumeroNfse_DeveConsultarBancoMenosVezesQueRequisicoes_SobContencao() throws Exception {
+        System.out.println("threads | requisições | consultas ao banco | coalescidas | eventos");
+        for (int threads : new int[] {1, 8, 64, 256}) {
+            AtomicInteger consultasBanco = new AtomicInteger();
+            AtomicLong eventos = new AtomicLong();
+            CreditoService service = criar(consultasBanco, eventos);
+
+            int requisicoes = medir(service, threads);
+
+            int coalescidas = requisicoes - consultasBanco.get();
+            System.out.printf("%7d | %11d | %18d | %11d | %7d%n",
+                    threads, requisicoes, consultasBanco.get(), coalescidas, eventos.get());
+            assertEquals(requisicoes, eventos.get());
+            if (threads == 1) {
+                assertEquals(requisicoes, consultasBanco.get());
+            } else {
+                assertTrue(consultasBanco.get() * 4 < requisicoes,
+                        threads + " threads: " + consultasBanco.get() + " consultas para " + requisicoes + " requisições");
+            }
+        }
+    }
+
+    private static int medir(CreditoService service, int threads) throws Exception {
+        CyclicBarrier largada = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int rajada = 0; rajada < RAJADAS; rajada++) {
+                        largada.await(10, TimeUnit.SECONDS);
+                        assertEquals(1, service.buscarNumeroNfse("NF001").size());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return threads * RAJADAS;
+    }
+
+    private static CreditoService criar(AtomicInteger consultasBanco, AtomicLong eventos) {
+        CreditoRepository repository = Mockito.mock(CreditoRepository.class, withSettings().stubOnly());
+        when(repository.buscarDTOsPorNumeroNfse("NF001")).thenAnswer(invocacao -> {
+            consultasBanco.incrementAndGet();
+            Thread.sleep(LATENCIA_BANCO_MS);
+            CreditoDTO credito = new CreditoDTO();
+            credito.setNumeroNfse("NF001");
+            return List.of(credito);
+        });
+        KafkaEventPublisherService publisher = new KafkaEventPublisherService() {
+            @Override
+            public void publishConsultaEvent(TipoConsulta tipoConsulta, String parametro) {
+                eventos.incrementAndGet();
+            }
+
+            @Override
+            public void publishConsultaLoteEvent(Collection<String> numerosNfse, Collection<String> numerosCredito) {
+            }
+        };
+
+        CreditoService service = new CreditoService();
+        ReflectionTestUtils.setField(service, "creditoRepository", repository);
+        ReflectionTestUtils.setField(service, "kafkaEventPS", publisher);
+        ReflectionTestUtils.setField(service, "creditoCache", new CreditoCache(new NoOpCacheManager(), null, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "filtroCreditos",
+                new FiltroCreditos(null, null, new SimpleMeterRegistry(), false, 1, 0.01, 1));
+        ReflectionTestUtils.setField(service, "creditosEmMemoria",
+                new CreditosEmMemoria(null, null, new SimpleMeterRegistry(), false, 1, "", 0, 24));
+        return service;
+    }
+}
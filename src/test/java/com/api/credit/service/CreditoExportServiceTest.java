@@ -0,0 +1,108 @@
+package com.api.credit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditoExportServiceTest {
+
+    private EmbeddedDatabase database;
+    private CreditoExportService creditoExportService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE credito (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "numero_credito VARCHAR(50), numero_nfse VARCHAR(50), data_constituicao DATE, "
+                + "valor_issqn DECIMAL(15,2), tipo_credito VARCHAR(50), simples_nacional BOOLEAN, "
+                + "aliquota DECIMAL(5,2), valor_faturado DECIMAL(15,2), valor_deducao DECIMAL(15,2), "
+                + "base_calculo DECIMAL(15,2))");
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) VALUES "
+                + "('123456', '7891011', '2024-02-25', 1500.75, 'ISSQN', true, 5.0, 30000.00, 5000.00, 25000.00), "
+                + "('654321', '1122334', '2024-01-15', 800.50, 'Outros, Taxas', false, 3.5, 20000.00, 3000.00, 17000.00)");
+
+        creditoExportService = new CreditoExportService();
+        ReflectionTestUtils.setField(creditoExportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(creditoExportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(creditoExportService, "fetchSize", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void exportarNdjson_DeveEscreverUmObjetoPorLinha() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        creditoExportService.exportarNdjson(saida);
+
+        assertEquals("{\"numeroCredito\":\"123456\",\"numeroNfse\":\"7891011\",\"dataConstituicao\":\"2024-02-25\","
+                + "\"valorIssqn\":1500.75,\"tipoCredito\":\"ISSQN\",\"simplesNacional\":\"Sim\",\"aliquota\":5.00,"
+                + "\"valorFaturado\":30000.00,\"valorDeducao\":5000.00,\"baseCalculo\":25000.00}\n"
+                + "{\"numeroCredito\":\"654321\",\"numeroNfse\":\"1122334\",\"dataConstituicao\":\"2024-01-15\","
+                + "\"valorIssqn\":800.50,\"tipoCredito\":\"Outros, Taxas\",\"simplesNacional\":\"Não\",\"aliquota\":3.50,"
+                + "\"valorFaturado\":20000.00,\"valorDeducao\":3000.00,\"baseCalculo\":17000.00}\n",
+                saida.toString(StandardCharsets.UTF_8));
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, linhas.length);
+
+        JsonNode primeiro = objectMapper.readTree(linhas[0]);
+        assertEquals("123456", primeiro.get("numeroCredito").asText());
+        assertEquals("7891011", primeiro.get("numeroNfse").asText());
+        assertEquals("2024-02-25", primeiro.get("dataConstituicao").asText());
+        assertEquals("1500.75", primeiro.get("valorIssqn").decimalValue().toPlainString());
+        assertEquals("Sim", primeiro.get("simplesNacional").asText());
+
+        JsonNode segundo = objectMapper.readTree(linhas[1]);
+        assertEquals("654321", segundo.get("numeroCredito").asText());
+        assertEquals("Não", segundo.get("simplesNacional").asText());
+    }
+
+    @Test
+    void exportarCsv_DeveEscreverCabecalhoELinhasEscapadas() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        creditoExportService.exportarCsv(saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, linhas.length);
+        assertTrue(linhas[0].startsWith("numeroCredito,numeroNfse,dataConstituicao"));
+        assertEquals("123456,7891011,2024-02-25,1500.75,ISSQN,Sim,5.00,30000.00,5000.00,25000.00", linhas[1]);
+        assertEquals("654321,1122334,2024-01-15,800.50,\"Outros, Taxas\",Não,3.50,20000.00,3000.00,17000.00", linhas[2]);
+    }
+
+    @Test
+    void campoCsv_DeveEscaparAspas() {
+        assertEquals("\"a\"\"b\"", CreditoExportService.campoCsv("a\"b"));
+        assertEquals("simples", CreditoExportService.campoCsv("simples"));
+    }
+
+    @Test
+    void campoCsv_DeveColocarEntreAspas_QuandoHouverQuebraDeLinha() {
+        assertEquals("\"a\rb\"", CreditoExportService.campoCsv("a\rb"));
+        assertEquals("\"a\nb\"", CreditoExportService.campoCsv("a\nb"));
+        assertEquals("\"a\r\nb\"", CreditoExportService.campoCsv("a\r\nb"));
+    }
+}
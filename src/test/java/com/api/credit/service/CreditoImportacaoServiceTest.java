@@ -0,0 +1,294 @@
+package com.api.credit.service;
+
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.ResultadoImportacaoDTO;
+import com.api.credit.evento.CreditoEvento;
+import com.api.credit.evento.ImportacaoLoteEvento;
+import com.api.credit.exception.RequisicaoInvalidaException;
+import com.api.credit.mapper.CreditoMapperImpl;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.api.credit.outbox.OutboxEventos;
+import com.api.credit.repository.ResumoMensalRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CreditoImportacaoServiceTest {
+
+    private static final String CABECALHO = "numeroCredito,numeroNfse,dataConstituicao,valorIssqn,tipoCredito,"
+            + "simplesNacional,aliquota,valorFaturado,valorDeducao,baseCalculo";
+
+    private JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private CreditoCache creditoCache;
+    private FiltroCreditos filtroCreditos;
+    private CreditosEmMemoria creditosEmMemoria;
+    private CreditoImportacaoService creditoImportacaoService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE credito (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "numero_credito VARCHAR(50) NOT NULL UNIQUE, numero_nfse VARCHAR(50) NOT NULL, "
+                + "data_constituicao DATE NOT NULL, valor_issqn DECIMAL(15,2) NOT NULL, "
+                + "tipo_credito VARCHAR(50) NOT NULL, simples_nacional BOOLEAN NOT NULL, "
+                + "aliquota DECIMAL(5,2) NOT NULL, valor_faturado DECIMAL(15,2) NOT NULL, "
+                + "valor_deducao DECIMAL(15,2) NOT NULL, base_calculo DECIMAL(15,2) NOT NULL)");
+        jdbcTemplate.update("INSERT INTO credito (numero_credito, numero_nfse, data_constituicao, valor_issqn, "
+                + "tipo_credito, simples_nacional, aliquota, valor_faturado, valor_deducao, base_calculo) VALUES "
+                + "('EXISTENTE', 'NF000', '2024-01-01', 1.00, 'ISSQN', true, 5.00, 10.00, 0.00, 10.00)");
+        jdbcTemplate.execute("CREATE TABLE outbox_evento (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "topico VARCHAR(100) NOT NULL, chave VARCHAR(100), tipo VARCHAR(50) NOT NULL, "
+                + "payload VARCHAR(10000) NOT NULL, criado_em TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE credito_resumo_mensal (mes DATE NOT NULL, "
+                + "tipo_credito VARCHAR(50) NOT NULL, simples_nacional BOOLEAN NOT NULL, quantidade BIGINT NOT NULL, "
+                + "valor_issqn DECIMAL(20,2) NOT NULL, valor_faturado DECIMAL(20,2) NOT NULL, "
+                + "valor_deducao DECIMAL(20,2) NOT NULL, base_calculo DECIMAL(20,2) NOT NULL, "
+                + "PRIMARY KEY (mes, tipo_credito, simples_nacional))");
+
+        OutboxEventos outboxEventos = new OutboxEventos();
+        ReflectionTestUtils.setField(outboxEventos, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(outboxEventos, "objectMapper", objectMapper);
+        ResumoMensalRepository resumoMensalRepository = new ResumoMensalRepository();
+        ReflectionTestUtils.setField(resumoMensalRepository, "jdbcTemplate", jdbcTemplate);
+        creditoCache = mock(CreditoCache.class);
+        filtroCreditos = mock(FiltroCreditos.class);
+        creditosEmMemoria = mock(CreditosEmMemoria.class);
+
+        creditoImportacaoService = new CreditoImportacaoService();
+        ReflectionTestUtils.setField(creditoImportacaoService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(creditoImportacaoService, "transactionTemplate",
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(creditoImportacaoService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(creditoImportacaoService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(creditoImportacaoService, "outboxEventos", outboxEventos);
+        ReflectionTestUtils.setField(creditoImportacaoService, "creditoMapper", new CreditoMapperImpl());
+        ReflectionTestUtils.setField(creditoImportacaoService, "creditoCache", creditoCache);
+        ReflectionTestUtils.setField(creditoImportacaoService, "filtroCreditos", filtroCreditos);
+        ReflectionTestUtils.setField(creditoImportacaoService, "creditosEmMemoria", creditosEmMemoria);
+        ReflectionTestUtils.setField(creditoImportacaoService, "resumoMensalRepository", resumoMensalRepository);
+        ReflectionTestUtils.setField(creditoImportacaoService, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(creditoImportacaoService, "maxErros", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void importarNdjson_DeveInserirEmLotesEContarDuplicadosERejeitados() {
+        String ndjson = ndjson("CR001", "NF001", "1500.75", "Sim") + "\n"
+                + ndjson("EXISTENTE", "NF001", "10.00", "Não") + "\n"
+                + "\n"
+                + ndjson("CR002", "", "10.00", "true") + "\n"
+                + "{nao e json\n"
+                + ndjson("CR003", "NF003", "10.00", "false") + "\n";
+
+        ResultadoImportacaoDTO resultado = creditoImportacaoService.importarNdjson(entrada(ndjson));
+
+        assertEquals(5, resultado.getLinhas());
+        assertEquals(2, resultado.getInseridas());
+        assertEquals(1, resultado.getDuplicadas());
+        assertEquals(2, resultado.getRejeitadas());
+        assertEquals(2, resultado.getLotes());
+        assertEquals(List.of(4L, 5L), resultado.getErros().stream().map(erro -> erro.getLinha()).toList());
+        assertTrue(resultado.getErros().get(0).getMensagem().startsWith("numeroNfse: "));
+        assertTrue(resultado.getErros().get(1).getMensagem().startsWith("JSON inválido"));
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT count(*) FROM credito", Integer.class));
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT simples_nacional FROM credito WHERE numero_credito = 'CR001'", Boolean.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT valor_issqn FROM credito WHERE numero_credito = 'CR001'", java.math.BigDecimal.class)
+                .compareTo(new java.math.BigDecimal("1500.75")));
+    }
+
+    @Test
+    void importarNdjson_DeveGravarNoOutboxUmEventoPorCreditoEUmResumoPorLote() throws Exception {
+        String ndjson = ndjson("CR001", "NF001", "1.00", "Sim") + "\n"
+                + ndjson("EXISTENTE", "NF001", "1.00", "Sim") + "\n"
+                + ndjson("CR003", "", "1.00", "Sim") + "\n";
+
+        ResultadoImportacaoDTO resultado = creditoImportacaoService.importarNdjson(entrada(ndjson));
+
+        List<Map<String, Object>> outbox = jdbcTemplate.queryForList(
+                "SELECT topico, chave, tipo, payload FROM outbox_evento ORDER BY id");
+        assertEquals(List.of(CreditoEvento.TIPO_CRIADO, ImportacaoLoteEvento.TIPO, ImportacaoLoteEvento.TIPO),
+                outbox.stream().map(linha -> linha.get("tipo")).toList());
+        assertTrue(outbox.stream().allMatch(linha -> "creditos-eventos".equals(linha.get("topico"))));
+
+        assertEquals("NF001", outbox.get(0).get("chave"));
+        JsonNode criado = objectMapper.readTree((String) outbox.get(0).get("payload"));
+        assertEquals("CR001", criado.get("credito").get("numeroCredito").asText());
+        assertEquals("Sim", criado.get("credito").get("simplesNacional").asText());
+        assertEquals(jdbcTemplate.queryForObject("SELECT id FROM credito WHERE numero_credito = 'CR001'", Long.class),
+                criado.get("id").asLong());
+
+        assertEquals(resultado.getImportacao(), outbox.get(1).get("chave"));
+        JsonNode primeiroLote = objectMapper.readTree((String) outbox.get(1).get("payload"));
+        assertEquals(1, primeiroLote.get("lote").asInt());
+        assertEquals(2, primeiroLote.get("linhas").asInt());
+        assertEquals(1, primeiroLote.get("inseridas").asInt());
+        assertEquals(1, primeiroLote.get("duplicadas").asInt());
+
+        JsonNode segundoLote = objectMapper.readTree((String) outbox.get(2).get("payload"));
+        assertEquals(2, segundoLote.get("lote").asInt());
+        assertEquals(0, segundoLote.get("inseridas").asInt());
+        assertEquals(1, segundoLote.get("rejeitadas").asInt());
+    }
+
+    @Test
+    void importarNdjson_DeveGravarApenasPrimeiraOcorrencia_QuandoNumeroRepetidoNoLote() {
+        ResultadoImportacaoDTO resultado = creditoImportacaoService.importarNdjson(entrada(
+                ndjson("CR001", "NF001", "1.00", "Sim") + "\n" + ndjson("CR001", "NF002", "2.00", "Sim") + "\n"));
+
+        assertEquals(1, resultado.getInseridas());
+        assertEquals(1, resultado.getDuplicadas());
+        assertEquals("NF001", jdbcTemplate.queryForObject(
+                "SELECT numero_nfse FROM credito WHERE numero_credito = 'CR001'", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM outbox_evento WHERE tipo = 'CREDITO_CRIADO'", Integer.class));
+    }
+
+    @Test
+    void importarNdjson_DeveSomarNoResumoMensal_SomenteCreditosInseridos() {
+        creditoImportacaoService.importarNdjson(entrada(
+                ndjson("CR001", "NF001", "1500.75", "Sim") + "\n" + ndjson("EXISTENTE", "NF000", "99.99", "Sim") + "\n"
+                        + ndjson("CR002", "NF001", "0.10", "Sim") + "\n" + ndjson("CR003", "NF002", "0.20", "Não") + "\n"));
+        creditoImportacaoService.importarNdjson(entrada(ndjson("CR004", "NF003", "0.05", "true") + "\n"));
+
+        List<Map<String, Object>> resumo = jdbcTemplate.queryForList("SELECT simples_nacional, quantidade, "
+                + "valor_issqn, base_calculo FROM credito_resumo_mensal WHERE mes = DATE '2024-02-01' "
+                + "AND tipo_credito = 'ISSQN' ORDER BY simples_nacional");
+        assertEquals(2, resumo.size());
+        assertEquals(1L, ((Number) resumo.get(0).get("quantidade")).longValue());
+        assertEquals(new BigDecimal("0.20"), resumo.get(0).get("valor_issqn"));
+        assertEquals(3L, ((Number) resumo.get(1).get("quantidade")).longValue());
+        assertEquals(new BigDecimal("1500.90"), resumo.get(1).get("valor_issqn"));
+        assertEquals(new BigDecimal("75000.00"), resumo.get(1).get("base_calculo"));
+    }
+
+    @Test
+    void importarNdjson_DeveAtualizarCacheEFiltro_SomenteComCreditosInseridos() {
+        when(creditosEmMemoria.habilitado()).thenReturn(true);
+
+        creditoImportacaoService.importarNdjson(entrada(
+                ndjson("CR001", "NF001", "1.00", "Sim") + "\n" + ndjson("CR002", "NF001", "1.00", "Sim") + "\n"
+                        + ndjson("EXISTENTE", "NF000", "1.00", "Sim") + "\n"));
+
+        // Uma única invalidação para o lote, com a NFS-e repetida uma vez só
+        verify(creditoCache).registrarGravados(Set.of("NF001"), List.of("CR001", "CR002"));
+        verify(filtroCreditos).adicionar("NF001", "CR001");
+        verify(filtroCreditos).adicionar("NF001", "CR002");
+        verify(filtroCreditos, never()).adicionar("NF000", "EXISTENTE");
+        ArgumentCaptor<CreditoDTO> emMemoria = ArgumentCaptor.forClass(CreditoDTO.class);
+        verify(creditosEmMemoria, times(2)).adicionar(emMemoria.capture());
+        assertEquals(List.of("CR001", "CR002"), emMemoria.getAllValues().stream().map(CreditoDTO::getNumeroCredito).toList());
+    }
+
+    @Test
+    void importarCsv_DeveLerCamposEntreAspasEValidarLinhas() {
+        String csv = CABECALHO + "\n"
+                + "CR001,NF001,2024-02-25,1500.75,\"Outros, Taxas\",Sim,5.00,30000.00,5000.00,25000.00\n"
+                + "CR002,NF002,2024-13-01,1.00,ISSQN,Não,5.00,1.00,0.00,1.00\n"
+                + "CR003,NF003,2024-01-01,abc,ISSQN,Não,5.00,1.00,0.00,1.00\n"
+                + "CR004,NF004,2024-01-01,1.00,ISSQN,Talvez,1000.00,1.00,0.00,1.00\n";
+
+        ResultadoImportacaoDTO resultado = creditoImportacaoService.importarCsv(entrada(csv));
+
+        assertEquals(4, resultado.getLinhas());
+        assertEquals(1, resultado.getInseridas());
+        assertEquals(3, resultado.getRejeitadas());
+        assertEquals(List.of(3L, 4L, 5L), resultado.getErros().stream().map(erro -> erro.getLinha()).toList());
+        assertTrue(resultado.getErros().get(0).getMensagem().startsWith("dataConstituicao"));
+        assertTrue(resultado.getErros().get(1).getMensagem().startsWith("valorIssqn"));
+        String mensagem = resultado.getErros().get(2).getMensagem();
+        assertTrue(mensagem.contains("aliquota") && mensagem.contains("simplesNacional"), mensagem);
+
+        assertEquals("Outros, Taxas", jdbcTemplate.queryForObject(
+                "SELECT tipo_credito FROM credito WHERE numero_credito = 'CR001'", String.class));
+    }
+
+    @Test
+    void importarCsv_DeveAceitarColunasEmOutraOrdem() {
+        String csv = "baseCalculo,valorDeducao,valorFaturado,aliquota,simplesNacional,tipoCredito,valorIssqn,"
+                + "dataConstituicao,numeroNfse,numeroCredito\n"
+                + "10.00,0.00,10.00,5.00,Não,ISSQN,0.50,2024-01-01,NF009,CR009\n";
+
+        ResultadoImportacaoDTO resultado = creditoImportacaoService.importarCsv(entrada(csv));
+
+        assertEquals(1, resultado.getInseridas());
+        assertEquals("NF009", jdbcTemplate.queryForObject(
+                "SELECT numero_nfse FROM credito WHERE numero_credito = 'CR009'", String.class));
+    }
+
+    @Test
+    void importarCsv_DeveLancarRequisicaoInvalida_QuandoFaltaColuna() {
+        InputStream csv = entrada("numeroCredito,numeroNfse\nCR001,NF001\n");
+
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoImportacaoService.importarCsv(csv));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_evento", Integer.class));
+        verify(creditoCache, never()).registrarGravados(any(), any());
+        verify(filtroCreditos, never()).adicionar(anyString(), anyString());
+    }
+
+    @Test
+    void importarNdjson_DeveLimitarErrosDetalhados() {
+        ReflectionTestUtils.setField(creditoImportacaoService, "maxErros", 1);
+
+        ResultadoImportacaoDTO resultado = creditoImportacaoService.importarNdjson(entrada("x\ny\nz\n"));
+
+        assertEquals(3, resultado.getRejeitadas());
+        assertEquals(1, resultado.getErros().size());
+    }
+
+    @Test
+    void dividirCsv_DeveTratarAspasEscapadas() {
+        assertEquals(List.of("a", "b \"c\", d", ""), CreditoImportacaoService.dividirCsv("a,\"b \"\"c\"\", d\","));
+        assertThrows(IllegalArgumentException.class, () -> CreditoImportacaoService.dividirCsv("\"aberto"));
+    }
+
+    private static String ndjson(String numeroCredito, String numeroNfse, String valorIssqn, String simplesNacional) {
+        return "{\"numeroCredito\":\"" + numeroCredito + "\",\"numeroNfse\":\"" + numeroNfse + "\","
+                + "\"dataConstituicao\":\"2024-02-25\",\"valorIssqn\":" + valorIssqn + ",\"tipoCredito\":\"ISSQN\","
+                + "\"simplesNacional\":\"" + simplesNacional + "\",\"aliquota\":5.00,\"valorFaturado\":30000.00,"
+                + "\"valorDeducao\":5000.00,\"baseCalculo\":25000.00}";
+    }
+
+    private static InputStream entrada(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,26 +1,55 @@
 package com.api.credit.service;
 
+import com.api.credit.cache.CacheRespostas;
+import com.api.credit.cache.CreditoCache;
+import com.api.credit.cache.FiltroCreditos;
+import com.api.credit.cache.RespostaCodificada;
+import com.api.credit.config.CacheConfig;
+import com.api.credit.dto.ConsultaLoteRequestDTO;
+import com.api.credit.dto.ConsultaLoteResponseDTO;
 import com.api.credit.dto.CreditoDTO;
+import com.api.credit.dto.FiltroCreditoDTO;
+import com.api.credit.dto.PaginaCreditosDTO;
 import com.api.credit.entity.Credito;
+import com.api.credit.evento.TipoConsulta;
 import com.api.credit.exception.NotFoundException;
+import com.api.credit.exception.RequisicaoInvalidaException;
 import com.api.credit.mapper.CreditoMapper;
+import com.api.credit.memoria.CreditosEmMemoria;
+import com.api.credit.repository.CreditoPaginado;
 import com.api.credit.repository.CreditoRepository;
+import com.api.credit.repository.CursorCredito;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -36,6 +65,22 @@ class CreditoServiceTest {
     @Mock
     private KafkaEventPublisherService kafkaEventPS;
 
+    @Mock
+    private FiltroCreditos filtroCreditos;
+
+    @Mock
+    private CreditosEmMemoria creditosEmMemoria;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.CACHE_POR_CREDITO,
+            CacheConfig.CACHE_POR_NFSE, CacheConfig.CACHE_AUSENTES_POR_CREDITO, CacheConfig.CACHE_AUSENTES_POR_NFSE,
+            CacheConfig.CACHE_RESPOSTAS_POR_CREDITO, CacheConfig.CACHE_RESPOSTAS_POR_NFSE);
+
+    @Spy
+    private CreditoCache creditoCache = new CreditoCache(cacheManager, null, new SimpleMeterRegistry());
+
+    @Spy
+    private CacheRespostas cacheRespostas = new CacheRespostas(cacheManager, Jackson2ObjectMapperBuilder.json().build(), 2048);
+
     @InjectMocks
     private CreditoService creditoService;
 
@@ -68,16 +113,21 @@ class CreditoServiceTest {
         creditoDTO.setValorFaturado(new BigDecimal("2000.00"));
         creditoDTO.setValorDeducao(new BigDecimal("0.00"));
         creditoDTO.setBaseCalculo(new BigDecimal("2000.00"));
+
+        lenient().when(filtroCreditos.podeExistirNfse(anyString())).thenReturn(true);
+        lenient().when(filtroCreditos.podeExistirCredito(anyString())).thenReturn(true);
+
+        ReflectionTestUtils.setField(creditoService, "maxItensLote", 3);
+        ReflectionTestUtils.setField(creditoService, "tamanhoPadraoPagina", 20);
+        ReflectionTestUtils.setField(creditoService, "tamanhoMaximoPagina", 100);
     }
 
     @Test
     void buscarNumeroNfse_DeveRetornarListaCreditos_QuandoEncontrarCreditos() {
         String numeroNfse = "NF001";
-        List<Credito> creditos = Arrays.asList(credito);
         List<CreditoDTO> creditosDTO = Arrays.asList(creditoDTO);
 
-        when(creditoRepository.findByNumeroNfse(numeroNfse)).thenReturn(creditos);
-        when(creditoMapper.toDTOList(creditos)).thenReturn(creditosDTO);
+        when(creditoRepository.buscarDTOsPorNumeroNfse(numeroNfse)).thenReturn(creditosDTO);
 
         List<CreditoDTO> resultado = creditoService.buscarNumeroNfse(numeroNfse);
 
@@ -85,52 +135,364 @@ class CreditoServiceTest {
         assertEquals(1, resultado.size());
         assertEquals(creditoDTO.getNumeroCredito(), resultado.get(0).getNumeroCredito());
         
-        verify(creditoRepository).findByNumeroNfse(numeroNfse);
-        verify(creditoMapper).toDTOList(creditos);
-        verify(kafkaEventPS).publishConsultaEvent("CONSULTA_POR_NFSE", numeroNfse);
+        verify(creditoRepository).buscarDTOsPorNumeroNfse(numeroNfse);
+        verifyNoInteractions(creditoMapper);
+        verify(kafkaEventPS).publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, numeroNfse);
     }
 
     @Test
     void buscarNumeroNfse_DeveLancarNotFoundException_QuandoNaoEncontrarCreditos() {
         String numeroNfse = "NF999";
-        when(creditoRepository.findByNumeroNfse(numeroNfse)).thenReturn(Collections.emptyList());
+        when(creditoRepository.buscarDTOsPorNumeroNfse(numeroNfse)).thenReturn(Collections.emptyList());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
             () -> creditoService.buscarNumeroNfse(numeroNfse));
         
         assertEquals("Nenhum crédito encontrado para a NFS-e: " + numeroNfse, exception.getMessage());
-        verify(creditoRepository).findByNumeroNfse(numeroNfse);
+        verify(creditoRepository).buscarDTOsPorNumeroNfse(numeroNfse);
         verify(creditoMapper, never()).toDTOList(any());
-        verify(kafkaEventPS, never()).publishConsultaEvent(anyString(), anyString());
+        verify(kafkaEventPS, never()).publishConsultaEvent(any(TipoConsulta.class), anyString());
+    }
+
+    @Test
+    void buscarRespostaPorNfse_DeveReusarBytesCodificados_SemConsultarBanco() {
+        when(creditoRepository.buscarDTOsPorNumeroNfse("NF001")).thenReturn(List.of(creditoDTO));
+
+        RespostaCodificada primeira = creditoService.buscarRespostaPorNfse("NF001");
+        RespostaCodificada segunda = creditoService.buscarRespostaPorNfse("NF001");
+
+        assertSame(primeira, segunda);
+        assertTrue(new String(primeira.json(), StandardCharsets.UTF_8).contains("\"numeroCredito\":\"CR001\""));
+        verify(creditoRepository, times(1)).buscarDTOsPorNumeroNfse("NF001");
+        // Acerto nas respostas codificadas continua gerando evento de consulta
+        verify(kafkaEventPS, times(2)).publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, "NF001");
+    }
+
+    @Test
+    void buscarRespostaPorNfse_DeveRecodificar_QuandoCreditoDaNfseForGravado() {
+        CreditoDTO novo = new CreditoDTO();
+        novo.setNumeroCredito("CR002");
+        novo.setNumeroNfse("NF001");
+        when(creditoRepository.buscarDTOsPorNumeroNfse("NF001"))
+                .thenReturn(List.of(creditoDTO))
+                .thenReturn(List.of(creditoDTO, novo));
+
+        RespostaCodificada antes = creditoService.buscarRespostaPorNfse("NF001");
+        creditoCache.descartarLocal("NF001", "CR002");
+        RespostaCodificada depois = creditoService.buscarRespostaPorNfse("NF001");
+
+        assertNotEquals(antes.etag(), depois.etag());
+        verify(creditoRepository, times(2)).buscarDTOsPorNumeroNfse("NF001");
+    }
+
+    @Test
+    void buscarRespostaPorCredito_DeveLancarNotFoundException_SemGuardarResposta() {
+        when(creditoRepository.buscarDTOPorNumeroCredito("CR999")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> creditoService.buscarRespostaPorCredito("CR999"));
+
+        assertNull(cacheRespostas.obterPorCredito("CR999"));
     }
 
     @Test
     void buscarPorCredito_DeveRetornarCredito_QuandoEncontrarCredito() {
         String numeroCredito = "CR001";
-        when(creditoRepository.findByNumeroCredito(numeroCredito)).thenReturn(Optional.of(credito));
-        when(creditoMapper.toDTO(credito)).thenReturn(creditoDTO);
+        when(creditoRepository.buscarDTOPorNumeroCredito(numeroCredito)).thenReturn(Optional.of(creditoDTO));
 
         CreditoDTO resultado = creditoService.buscarPorCredito(numeroCredito);
 
         assertNotNull(resultado);
         assertEquals(creditoDTO.getNumeroCredito(), resultado.getNumeroCredito());
         
-        verify(creditoRepository).findByNumeroCredito(numeroCredito);
-        verify(creditoMapper).toDTO(credito);
-        verify(kafkaEventPS).publishConsultaEvent("CONSULTA_POR_CREDITO", numeroCredito);
+        verify(creditoRepository).buscarDTOPorNumeroCredito(numeroCredito);
+        verifyNoInteractions(creditoMapper);
+        verify(kafkaEventPS).publishConsultaEvent(TipoConsulta.CONSULTA_POR_CREDITO, numeroCredito);
     }
 
     @Test
     void buscarPorCredito_DeveLancarNotFoundException_QuandoNaoEncontrarCredito() {
         String numeroCredito = "CR999";
-        when(creditoRepository.findByNumeroCredito(numeroCredito)).thenReturn(Optional.empty());
+        when(creditoRepository.buscarDTOPorNumeroCredito(numeroCredito)).thenReturn(Optional.empty());
 
         NotFoundException exception = assertThrows(NotFoundException.class,
             () -> creditoService.buscarPorCredito(numeroCredito));
         
         assertEquals("Crédito não encontrado: " + numeroCredito, exception.getMessage());
-        verify(creditoRepository).findByNumeroCredito(numeroCredito);
+        verify(creditoRepository).buscarDTOPorNumeroCredito(numeroCredito);
         verify(creditoMapper, never()).toDTO(any());
-        verify(kafkaEventPS, never()).publishConsultaEvent(anyString(), anyString());
+        verify(kafkaEventPS, never()).publishConsultaEvent(any(TipoConsulta.class), anyString());
+    }
+
+    @Test
+    void buscarNumeroNfse_DeveUsarCache_QuandoConsultadoNovamente() {
+        String numeroNfse = "NF001";
+        when(creditoRepository.buscarDTOsPorNumeroNfse(numeroNfse)).thenReturn(Arrays.asList(creditoDTO));
+
+        creditoService.buscarNumeroNfse(numeroNfse);
+        List<CreditoDTO> resultado = creditoService.buscarNumeroNfse(numeroNfse);
+
+        assertEquals(1, resultado.size());
+        verify(creditoRepository, times(1)).buscarDTOsPorNumeroNfse(numeroNfse);
+        verify(kafkaEventPS, times(2)).publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, numeroNfse);
+    }
+
+    @Test
+    void buscarNumeroNfse_DeveConsultarBancoUmaVez_QuandoRequisicoesSimultaneasNaMesmaNfse() throws Exception {
+        int requisicoes = 32;
+        CountDownLatch todasNaFila = new CountDownLatch(requisicoes);
+        when(creditoRepository.buscarDTOsPorNumeroNfse("NF001")).thenAnswer(invocacao -> {
+            // Banco lento: segura a primeira carga até todas as requisições terem chegado
+            todasNaFila.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            return List.of(creditoDTO);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(requisicoes);
+        try {
+            List<Future<List<CreditoDTO>>> resultados = new ArrayList<>();
+            for (int i = 0; i < requisicoes; i++) {
+                resultados.add(executor.submit(() -> {
+                    todasNaFila.countDown();
+                    return creditoService.buscarNumeroNfse("NF001");
+                }));
+            }
+            for (Future<List<CreditoDTO>> resultado : resultados) {
+                assertEquals(List.of(creditoDTO), resultado.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(creditoRepository, times(1)).buscarDTOsPorNumeroNfse("NF001");
+        // Cada requisição mantém o próprio evento de consulta
+        verify(kafkaEventPS, times(requisicoes)).publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, "NF001");
+    }
+
+    @Test
+    void buscarNumeroNfse_DeveGuardarAusencia_QuandoNaoEncontrarCreditos() {
+        String numeroNfse = "NF999";
+        when(creditoRepository.buscarDTOsPorNumeroNfse(numeroNfse)).thenReturn(Collections.emptyList());
+
+        assertThrows(NotFoundException.class, () -> creditoService.buscarNumeroNfse(numeroNfse));
+        assertThrows(NotFoundException.class, () -> creditoService.buscarNumeroNfse(numeroNfse));
+
+        verify(creditoRepository, times(1)).buscarDTOsPorNumeroNfse(numeroNfse);
+        assertNull(creditoCache.obterPorNfse(numeroNfse));
+    }
+
+    @Test
+    void buscarNumeroNfse_DeveLancarNotFoundSemConsultarBanco_QuandoFiltroDescartaChave() {
+        when(filtroCreditos.podeExistirNfse("NF999")).thenReturn(false);
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> creditoService.buscarNumeroNfse("NF999"));
+
+        assertEquals("Nenhum crédito encontrado para a NFS-e: NF999", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+        verifyNoInteractions(creditoRepository);
+    }
+
+    @Test
+    void buscarPorCredito_DeveLancarNotFoundSemConsultarBanco_QuandoFiltroDescartaChave() {
+        when(filtroCreditos.podeExistirCredito("CR999")).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> creditoService.buscarPorCredito("CR999"));
+
+        verifyNoInteractions(creditoRepository);
+    }
+
+    @Test
+    void buscarPorCredito_DeveConsultarBancoNovamente_QuandoCreditoForGravado() {
+        when(creditoRepository.buscarDTOPorNumeroCredito("CR001"))
+                .thenReturn(Optional.empty(), Optional.of(creditoDTO));
+        assertThrows(NotFoundException.class, () -> creditoService.buscarPorCredito("CR001"));
+
+        creditoCache.registrarGravados(List.of("NF001"), List.of("CR001"));
+
+        assertEquals("CR001", creditoService.buscarPorCredito("CR001").getNumeroCredito());
+    }
+
+    @Test
+    void buscarPorCredito_DeveUsarCache_QuandoConsultadoNovamente() {
+        String numeroCredito = "CR001";
+        when(creditoRepository.buscarDTOPorNumeroCredito(numeroCredito)).thenReturn(Optional.of(creditoDTO));
+
+        creditoService.buscarPorCredito(numeroCredito);
+        CreditoDTO resultado = creditoService.buscarPorCredito(numeroCredito);
+
+        assertEquals(creditoDTO.getNumeroCredito(), resultado.getNumeroCredito());
+        verify(creditoRepository, times(1)).buscarDTOPorNumeroCredito(numeroCredito);
+        verify(kafkaEventPS, times(2)).publishConsultaEvent(TipoConsulta.CONSULTA_POR_CREDITO, numeroCredito);
+    }
+
+    @Test
+    void buscarNumeroNfse_DeveResponderDaMemoria_SemFiltroCacheNemBanco() {
+        CreditosEmMemoria.Consulta consulta = mock(CreditosEmMemoria.Consulta.class);
+        when(creditosEmMemoria.consulta()).thenReturn(consulta);
+        when(consulta.buscarPorNfse("NF001")).thenReturn(List.of(creditoDTO));
+        when(consulta.buscarPorCredito("CR999")).thenReturn(null);
+
+        assertEquals(List.of(creditoDTO), creditoService.buscarNumeroNfse("NF001"));
+        assertThrows(NotFoundException.class, () -> creditoService.buscarPorCredito("CR999"));
+
+        verify(kafkaEventPS).publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, "NF001");
+        verifyNoInteractions(creditoRepository, filtroCreditos);
+        verify(creditoCache, never()).buscarPorNfse(anyString(), any());
+    }
+
+    @Test
+    void buscarPorCredito_DeveIrAoCacheEBanco_QuandoMemoriaForDescartada() {
+        CreditosEmMemoria.Consulta consulta = mock(CreditosEmMemoria.Consulta.class);
+        when(creditosEmMemoria.consulta()).thenReturn(consulta, (CreditosEmMemoria.Consulta) null);
+        when(consulta.buscarPorCredito("CR001")).thenReturn(creditoDTO);
+        when(creditoRepository.buscarDTOPorNumeroCredito("CR001")).thenReturn(Optional.of(creditoDTO));
+
+        assertEquals(creditoDTO, creditoService.buscarPorCredito("CR001"));
+        // Inclusão falhou entre as requisições: a seguinte volta ao caminho normal
+        assertEquals(creditoDTO, creditoService.buscarPorCredito("CR001"));
+
+        verify(consulta, times(1)).buscarPorCredito("CR001");
+        verify(creditoRepository).buscarDTOPorNumeroCredito("CR001");
+    }
+
+    @Test
+    void buscarEmLote_DeveResponderDaMemoria_QuandoPronta() {
+        CreditosEmMemoria.Consulta consulta = mock(CreditosEmMemoria.Consulta.class);
+        when(creditosEmMemoria.consulta()).thenReturn(consulta);
+        when(consulta.buscarPorNfse("NF001")).thenReturn(List.of(creditoDTO));
+        when(consulta.buscarPorNfse("NF999")).thenReturn(List.of());
+        when(consulta.buscarPorCredito("CR001")).thenReturn(creditoDTO);
+
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(
+                new ConsultaLoteRequestDTO(List.of("NF001", "NF999"), List.of("CR001")));
+
+        assertTrue(resultado.getPorNfse().get("NF001").isEncontrado());
+        assertFalse(resultado.getPorNfse().get("NF999").isEncontrado());
+        assertEquals(List.of(creditoDTO), resultado.getPorCredito().get("CR001").getCreditos());
+        verifyNoInteractions(creditoRepository, filtroCreditos);
+    }
+
+    @Test
+    void buscarEmLote_DeveAgruparPorChave_EMarcarNaoEncontrados() {
+        List<Credito> creditos = Arrays.asList(credito);
+        when(creditoRepository.findByNumeroNfseIn(List.of("NF001", "NF999"))).thenReturn(creditos);
+        when(creditoMapper.toDTOList(creditos)).thenReturn(Arrays.asList(creditoDTO));
+        when(creditoRepository.findByNumeroCreditoIn(List.of("CR999"))).thenReturn(Collections.emptyList());
+        when(creditoMapper.toDTOList(Collections.emptyList())).thenReturn(Collections.emptyList());
+
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(
+                new ConsultaLoteRequestDTO(List.of("NF001", " NF999 ", "NF001"), List.of("CR999")));
+
+        assertEquals(List.of("NF001", "NF999"), List.copyOf(resultado.getPorNfse().keySet()));
+        assertTrue(resultado.getPorNfse().get("NF001").isEncontrado());
+        assertEquals("CR001", resultado.getPorNfse().get("NF001").getCreditos().get(0).getNumeroCredito());
+        assertFalse(resultado.getPorNfse().get("NF999").isEncontrado());
+        assertTrue(resultado.getPorNfse().get("NF999").getCreditos().isEmpty());
+        assertFalse(resultado.getPorCredito().get("CR999").isEncontrado());
+
+        verify(creditoRepository, times(1)).findByNumeroNfseIn(anyCollection());
+        verify(creditoRepository, times(1)).findByNumeroCreditoIn(anyCollection());
+        verify(kafkaEventPS, times(1)).publishConsultaLoteEvent(
+                Set.of("NF001", "NF999"), Set.of("CR999"));
+        verify(kafkaEventPS, never()).publishConsultaEvent(any(TipoConsulta.class), anyString());
+    }
+
+    @Test
+    void buscarEmLote_DeveConsultarSomenteChavesQuePodemExistir() {
+        when(filtroCreditos.podeExistirNfse("NF998")).thenReturn(false);
+        creditoCache.marcarAusentePorCredito("CR999");
+        when(creditoRepository.findByNumeroNfseIn(List.of("NF999"))).thenReturn(Collections.emptyList());
+        when(creditoMapper.toDTOList(Collections.emptyList())).thenReturn(Collections.emptyList());
+
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(
+                new ConsultaLoteRequestDTO(List.of("NF998", "NF999"), List.of("CR999")));
+
+        assertFalse(resultado.getPorNfse().get("NF998").isEncontrado());
+        assertFalse(resultado.getPorNfse().get("NF999").isEncontrado());
+        assertFalse(resultado.getPorCredito().get("CR999").isEncontrado());
+        verify(creditoRepository, never()).findByNumeroCreditoIn(anyCollection());
+        assertTrue(creditoCache.ausentePorNfse("NF999"));
+    }
+
+    @Test
+    void buscarEmLote_DeveConsultarApenasChavesForaDoCache() {
+        when(creditoRepository.buscarDTOPorNumeroCredito("CR001")).thenReturn(Optional.of(creditoDTO));
+        creditoService.buscarPorCredito("CR001");
+
+        ConsultaLoteResponseDTO resultado = creditoService.buscarEmLote(
+                new ConsultaLoteRequestDTO(List.of(), List.of("CR001")));
+
+        assertTrue(resultado.getPorCredito().get("CR001").isEncontrado());
+        verify(creditoRepository, never()).findByNumeroCreditoIn(anyCollection());
+    }
+
+    @Test
+    void buscarEmLote_DeveLancarRequisicaoInvalida_QuandoExcederLimite() {
+        ConsultaLoteRequestDTO requisicao =
+                new ConsultaLoteRequestDTO(List.of("NF1", "NF2"), List.of("CR1", "CR2"));
+
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoService.buscarEmLote(requisicao));
+        verifyNoInteractions(creditoRepository, kafkaEventPS);
+    }
+
+    @Test
+    void buscarEmLote_DeveLancarRequisicaoInvalida_QuandoVazio() {
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> creditoService.buscarEmLote(new ConsultaLoteRequestDTO(null, List.of(" "))));
+    }
+
+    @Test
+    void carregarNoCache_DevePopularCacheSemPublicarEventos() {
+        List<Credito> creditos = Arrays.asList(credito);
+        when(creditoRepository.findByNumeroNfseIn(List.of("NF001", "NF999"))).thenReturn(creditos);
+        when(creditoMapper.toDTOList(creditos)).thenReturn(Arrays.asList(creditoDTO));
+
+        int encontradas = creditoService.carregarNoCache(List.of("NF001", "NF999"), List.of());
+
+        assertEquals(1, encontradas);
+        assertNotNull(creditoCache.obterPorNfse("NF001"));
+        creditoService.buscarNumeroNfse("NF001");
+        verify(creditoRepository, never()).buscarDTOsPorNumeroNfse(anyString());
+        verify(kafkaEventPS, never()).publishConsultaLoteEvent(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void listar_DeveRetornarCursorDaUltimaLinha_QuandoHouverMaisPaginas() {
+        FiltroCreditoDTO filtro = new FiltroCreditoDTO();
+        when(creditoRepository.listarPagina(filtro, null, 3)).thenReturn(List.of(
+                new CreditoPaginado(1L, creditoDTO), new CreditoPaginado(2L, creditoDTO),
+                new CreditoPaginado(3L, creditoDTO)));
+
+        PaginaCreditosDTO pagina = creditoService.listar(filtro, null, 2);
+
+        assertEquals(2, pagina.getItens().size());
+        assertEquals(2, pagina.getTamanho());
+        assertEquals(new CursorCredito(creditoDTO.getDataConstituicao(), 2L),
+                CursorCredito.decodificar(pagina.getProximo()));
+        verifyNoInteractions(kafkaEventPS);
+    }
+
+    @Test
+    void listar_DeveContinuarDoCursor_ESemProximoNaUltimaPagina() {
+        FiltroCreditoDTO filtro = new FiltroCreditoDTO();
+        CursorCredito cursor = new CursorCredito(LocalDate.of(2024, 1, 15), 2L);
+        when(creditoRepository.listarPagina(filtro, cursor, 21)).thenReturn(List.of(new CreditoPaginado(3L, creditoDTO)));
+
+        PaginaCreditosDTO pagina = creditoService.listar(filtro, cursor.codificar(), null);
+
+        assertEquals(1, pagina.getItens().size());
+        assertEquals(20, pagina.getTamanho());
+        assertNull(pagina.getProximo());
+    }
+
+    @Test
+    void listar_DeveLancarRequisicaoInvalida_QuandoParametrosInvalidos() {
+        FiltroCreditoDTO filtro = new FiltroCreditoDTO();
+        FiltroCreditoDTO periodoInvertido = new FiltroCreditoDTO(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), null, null);
+
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoService.listar(filtro, null, 0));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoService.listar(filtro, null, 101));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoService.listar(filtro, "não-é-cursor", 10));
+        assertThrows(RequisicaoInvalidaException.class, () -> creditoService.listar(periodoInvertido, null, 10));
+        verifyNoInteractions(creditoRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,81 @@
+package com.api.credit.service;
+
+import com.api.credit.dto.ConsultasPorMinutoDTO;
+import com.api.credit.dto.EstatisticasConsultaDTO;
+import com.api.credit.dto.ItemFrequenteDTO;
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EstatisticasConsultaServiceTest {
+
+    private static final long MINUTO = TimeUnit.MINUTES.toMillis(1);
+    private static final long AGORA = TimeUnit.MINUTES.toMillis(29_000_000L) + 30_000;
+
+    private final EstatisticasConsultaService service = new EstatisticasConsultaService(5, 100);
+
+    @Test
+    void registrar_DeveContarConsultasPorMinutoETipo() {
+        service.registrar(List.of(
+                evento(TipoConsulta.CONSULTA_POR_NFSE, "NF001", AGORA - 2 * MINUTO),
+                evento(TipoConsulta.CONSULTA_POR_NFSE, "NF001", AGORA),
+                evento(TipoConsulta.CONSULTA_POR_CREDITO, "CR001", AGORA)));
+
+        EstatisticasConsultaDTO resumo = service.resumo(10, AGORA);
+
+        assertEquals(3, resumo.getTotalEventos());
+        assertEquals(2, resumo.getPorMinuto().size());
+        ConsultasPorMinutoDTO ultimo = resumo.getPorMinuto().get(1);
+        assertEquals(2, ultimo.getTotal());
+        assertEquals(1L, ultimo.getPorTipo().get("CONSULTA_POR_NFSE"));
+        assertEquals(1L, ultimo.getPorTipo().get("CONSULTA_POR_CREDITO"));
+        assertEquals(0L, ultimo.getPorTipo().get("CONSULTA_LOTE"));
+    }
+
+    @Test
+    void registrar_DeveIgnorarMinutosForaDaJanela() {
+        service.registrar(List.of(
+                evento(TipoConsulta.CONSULTA_POR_NFSE, "NF001", AGORA),
+                evento(TipoConsulta.CONSULTA_POR_NFSE, "NF001", AGORA - 10 * MINUTO)));
+
+        EstatisticasConsultaDTO resumo = service.resumo(10, AGORA);
+
+        assertEquals(1, resumo.getPorMinuto().size());
+        // O top-K não depende da janela
+        assertEquals(2, resumo.getNfseMaisConsultadas().get(0).getConsultas());
+    }
+
+    @Test
+    void registrar_DeveContarCadaNumeroDoLote() {
+        service.registrar(List.of(
+                new ConsultaEvento(TipoConsulta.CONSULTA_LOTE, null, AGORA, "sistema",
+                        List.of("NF001", "NF002"), List.of("CR001")),
+                evento(TipoConsulta.CONSULTA_POR_NFSE, "NF002", AGORA)));
+
+        EstatisticasConsultaDTO resumo = service.resumo(10, AGORA);
+
+        assertEquals(List.of(new ItemFrequenteDTO("NF002", 2, 0), new ItemFrequenteDTO("NF001", 1, 0)),
+                resumo.getNfseMaisConsultadas());
+        assertEquals(List.of(new ItemFrequenteDTO("CR001", 1, 0)), resumo.getCreditosMaisConsultados());
+        assertEquals(1L, resumo.getPorMinuto().get(0).getPorTipo().get("CONSULTA_LOTE"));
+    }
+
+    @Test
+    void resumo_DeveLimitarQuantidadeDeItens() {
+        service.registrar(List.of(
+                evento(TipoConsulta.CONSULTA_POR_CREDITO, "CR001", AGORA),
+                evento(TipoConsulta.CONSULTA_POR_CREDITO, "CR002", AGORA),
+                evento(TipoConsulta.CONSULTA_POR_CREDITO, "CR003", AGORA)));
+
+        assertEquals(2, service.resumo(2, AGORA).getCreditosMaisConsultados().size());
+    }
+
+    private static ConsultaEvento evento(TipoConsulta tipo, String parametro, long timestampMillis) {
+        return new ConsultaEvento(tipo, parametro, timestampMillis, "sistema", List.of(), List.of());
+    }
+}
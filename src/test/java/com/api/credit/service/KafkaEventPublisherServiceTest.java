@@ -1,87 +1,124 @@
 package com.api.credit.service;
 
-import org.junit.jupiter.api.BeforeEach;
+import com.api.credit.auditoria.ContextoAuditoria;
+import com.api.credit.evento.ConsultaEvento;
+import com.api.credit.evento.TipoConsulta;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.util.Map;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class KafkaEventPublisherServiceTest {
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private ConsultaEventDispatcher dispatcher;
 
     @InjectMocks
     private KafkaEventPublisherService kafkaEventPublisherService;
 
     @Test
     void publishConsultaEvent_DeveEnviarEventoParaTopico_ComDadosCorretos() {
-        String tipoConsulta = "CONSULTA_POR_NFSE";
+        TipoConsulta tipoConsulta = TipoConsulta.CONSULTA_POR_NFSE;
         String parametro = "NF001";
         String expectedTopic = "creditos-consultas";
 
-        ArgumentCaptor<Map<String, Object>> eventoCaptor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<ConsultaEvento> eventoCaptor = ArgumentCaptor.forClass(ConsultaEvento.class);
 
         kafkaEventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
-        verify(kafkaTemplate).send(eq(expectedTopic), eventoCaptor.capture());
+        verify(dispatcher).enfileirar(eq(expectedTopic), eq(parametro), eventoCaptor.capture());
         
-        Map<String, Object> eventoEnviado = eventoCaptor.getValue();
+        ConsultaEvento eventoEnviado = eventoCaptor.getValue();
         assertNotNull(eventoEnviado);
-        assertEquals(tipoConsulta, eventoEnviado.get("tipoConsulta"));
-        assertEquals(parametro, eventoEnviado.get("parametro"));
-        assertEquals("sistema", eventoEnviado.get("usuario"));
-        assertNotNull(eventoEnviado.get("timestamp"));
-        assertTrue(eventoEnviado.get("timestamp") instanceof String);
+        assertEquals(tipoConsulta, eventoEnviado.tipoConsulta());
+        assertEquals(parametro, eventoEnviado.parametro());
+        assertEquals("sistema", eventoEnviado.usuario());
+        assertNotNull(eventoEnviado.timestamp());
+        assertTrue(eventoEnviado.numerosNfse().isEmpty());
     }
 
     @Test
     void publishConsultaEvent_DeveEnviarEventoParaTopico_QuandoConsultaPorCredito() {
-        String tipoConsulta = "CONSULTA_POR_CREDITO";
+        TipoConsulta tipoConsulta = TipoConsulta.CONSULTA_POR_CREDITO;
         String parametro = "CR001";
         String expectedTopic = "creditos-consultas";
 
-        ArgumentCaptor<Map<String, Object>> eventoCaptor = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<ConsultaEvento> eventoCaptor = ArgumentCaptor.forClass(ConsultaEvento.class);
 
         kafkaEventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
 
-        verify(kafkaTemplate).send(eq(expectedTopic), eventoCaptor.capture());
+        verify(dispatcher).enfileirar(eq(expectedTopic), eq(parametro), eventoCaptor.capture());
         
-        Map<String, Object> eventoEnviado = eventoCaptor.getValue();
+        ConsultaEvento eventoEnviado = eventoCaptor.getValue();
         assertNotNull(eventoEnviado);
-        assertEquals(tipoConsulta, eventoEnviado.get("tipoConsulta"));
-        assertEquals(parametro, eventoEnviado.get("parametro"));
-        assertEquals("sistema", eventoEnviado.get("usuario"));
-        assertNotNull(eventoEnviado.get("timestamp"));
+        assertEquals(tipoConsulta, eventoEnviado.tipoConsulta());
+        assertEquals(parametro, eventoEnviado.parametro());
+        assertEquals("sistema", eventoEnviado.usuario());
     }
 
     @Test
     void publishConsultaEvent_DeveIncluirTimestampAtual() {
-        String tipoConsulta = "CONSULTA_TESTE";
-        String parametro = "PARAM_TESTE";
-        
-        ArgumentCaptor<Map<String, Object>> eventoCaptor = ArgumentCaptor.forClass(Map.class);
+        long antes = System.currentTimeMillis();
 
-        kafkaEventPublisherService.publishConsultaEvent(tipoConsulta, parametro);
+        ArgumentCaptor<ConsultaEvento> eventoCaptor = ArgumentCaptor.forClass(ConsultaEvento.class);
 
-        verify(kafkaTemplate).send(eq("creditos-consultas"), eventoCaptor.capture());
-        
-        Map<String, Object> eventoEnviado = eventoCaptor.getValue();
-        String timestamp = (String) eventoEnviado.get("timestamp");
+        kafkaEventPublisherService.publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, "PARAM_TESTE");
+
+        verify(dispatcher).enfileirar(eq("creditos-consultas"), eq("PARAM_TESTE"), eventoCaptor.capture());
         
-        assertNotNull(timestamp);
-        assertFalse(timestamp.isEmpty());
+        ConsultaEvento eventoEnviado = eventoCaptor.getValue();
+        assertTrue(eventoEnviado.timestampMillis() >= antes);
+        assertTrue(eventoEnviado.timestampMillis() <= System.currentTimeMillis());
         // Verifica se o timestamp contém a data atual (formato ISO)
-        assertTrue(timestamp.contains("2024") || timestamp.contains("2023") || timestamp.contains("2025"));
+        assertTrue(eventoEnviado.timestamp().startsWith(String.valueOf(LocalDate.now().getYear())));
+    }
+
+    @Test
+    void publishConsultaLoteEvent_DeveEnviarUmUnicoEventoComTodosOsParametros() {
+        ArgumentCaptor<ConsultaEvento> eventoCaptor = ArgumentCaptor.forClass(ConsultaEvento.class);
+
+        kafkaEventPublisherService.publishConsultaLoteEvent(Set.of("NF001"), List.of("CR001", "CR002"));
+
+        verify(dispatcher).enfileirar(eq("creditos-consultas"), isNull(), eventoCaptor.capture());
+
+        ConsultaEvento eventoEnviado = eventoCaptor.getValue();
+        assertEquals(TipoConsulta.CONSULTA_LOTE, eventoEnviado.tipoConsulta());
+        assertEquals(List.of("NF001"), eventoEnviado.numerosNfse());
+        assertEquals(List.of("CR001", "CR002"), eventoEnviado.numerosCredito());
+        assertEquals(3, eventoEnviado.quantidade());
+    }
+
+    @Test
+    void publishConsultaEvent_DeveUsarUsuarioDaRequisicaoERegistrarConsultaNaAuditoria() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ContextoAuditoria.class.getName() + ".usuario", "maria");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            ArgumentCaptor<ConsultaEvento> eventoCaptor = ArgumentCaptor.forClass(ConsultaEvento.class);
+
+            kafkaEventPublisherService.publishConsultaEvent(TipoConsulta.CONSULTA_POR_NFSE, "NF001");
+
+            verify(dispatcher).enfileirar(eq("creditos-consultas"), eq("NF001"), eventoCaptor.capture());
+            assertEquals("maria", eventoCaptor.getValue().usuario());
+            List<?> consultas = (List<?>) request.getAttribute(ContextoAuditoria.class.getName() + ".consultas");
+            assertEquals(1, consultas.size());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
     }
-}
\ No newline at end of file
+}
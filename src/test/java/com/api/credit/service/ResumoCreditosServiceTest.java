@@ -0,0 +1,90 @@
+package com.api.credit.service;
+
+import com.api.credit.dto.ResumoCreditosDTO;
+import com.api.credit.exception.RequisicaoInvalidaException;
+import com.api.credit.repository.ResumoMensal;
+import com.api.credit.repository.ResumoMensalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResumoCreditosServiceTest {
+
+    @Mock
+    private ResumoMensalRepository resumoMensalRepository;
+
+    @InjectMocks
+    private ResumoCreditosService resumoCreditosService;
+
+    @Test
+    void resumir_DeveSomarLinhasDoResumo_QuandoAgruparSoPorTipo() {
+        when(resumoMensalRepository.listar(YearMonth.of(2024, 1), YearMonth.of(2024, 2), null)).thenReturn(List.of(
+                resumo(2024, 1, "ISSQN", false, "0.10"),
+                resumo(2024, 1, "ISSQN", true, "0.20"),
+                resumo(2024, 1, "OUTROS", true, "7.00"),
+                resumo(2024, 2, "ISSQN", true, "1000000000000.05")));
+
+        List<ResumoCreditosDTO> resumos = resumoCreditosService.resumir(List.of("tipoCredito"), "2024-01", "2024-02", " ");
+
+        assertEquals(2, resumos.size());
+        ResumoCreditosDTO issqn = resumos.get(0);
+        assertEquals("ISSQN", issqn.getTipoCredito());
+        assertNull(issqn.getMes());
+        assertNull(issqn.getSimplesNacional());
+        assertEquals(3, issqn.getQuantidade());
+        assertEquals(new BigDecimal("1000000000000.35"), issqn.getValorIssqn());
+        assertEquals("OUTROS", resumos.get(1).getTipoCredito());
+    }
+
+    @Test
+    void resumir_DeveManterGruposOrdenados_QuandoAgruparPorTodasAsDimensoes() {
+        when(resumoMensalRepository.listar(null, null, "ISSQN")).thenReturn(List.of(
+                resumo(2024, 1, "ISSQN", false, "1.00"),
+                resumo(2024, 1, "ISSQN", true, "2.00")));
+
+        List<ResumoCreditosDTO> resumos = resumoCreditosService.resumir(
+                List.of("mes", "tipoCredito", "simplesNacional"), null, null, "ISSQN");
+
+        assertEquals(List.of("Não", "Sim"), resumos.stream().map(ResumoCreditosDTO::getSimplesNacional).toList());
+        assertEquals(YearMonth.of(2024, 1), resumos.get(0).getMes());
+    }
+
+    @Test
+    void resumir_DeveRetornarTotalZerado_QuandoSemAgrupamentoESemCreditos() {
+        when(resumoMensalRepository.listar(null, null, null)).thenReturn(List.of());
+
+        List<ResumoCreditosDTO> resumos = resumoCreditosService.resumir(List.of(), null, null, null);
+
+        assertEquals(1, resumos.size());
+        assertEquals(0, resumos.get(0).getQuantidade());
+        assertEquals(new BigDecimal("0.00"), resumos.get(0).getBaseCalculo());
+    }
+
+    @Test
+    void resumir_DeveLancarRequisicaoInvalida_QuandoParametrosInvalidos() {
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> resumoCreditosService.resumir(List.of("numeroNfse"), null, null, null));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> resumoCreditosService.resumir(List.of("mes"), "2024-13", null, null));
+        assertThrows(RequisicaoInvalidaException.class,
+                () -> resumoCreditosService.resumir(List.of("mes"), "2024-03", "2024-01", null));
+        verifyNoInteractions(resumoMensalRepository);
+    }
+
+    private static ResumoMensal resumo(int ano, int mes, String tipo, boolean simples, String valor) {
+        BigDecimal decimal = new BigDecimal(valor);
+        return new ResumoMensal(YearMonth.of(ano, mes), tipo, simples, 1, decimal, decimal, decimal, decimal);
+    }
+}